@@ -1,5 +1,6 @@
 import org.gradle.process.ExecOperations
 import org.gradle.kotlin.dsl.support.serviceOf
+import groovy.json.JsonSlurper
 
 plugins {
     java
@@ -7,6 +8,31 @@ plugins {
 }
 
 tasks {
+    register<CompileEnchantmentRules>("compileEnchantmentRules") {
+        rulesFile.set(layout.projectDirectory.file("src/main/rules/enchantment_rules.json"))
+        loaderSources.from(fileTree("src/main/java/com/enadd/enchantments") { include("**/*EnchantmentLoader.java") })
+        outputDir.set(layout.buildDirectory.dir("generated/sources/rules/java"))
+    }
+
+    // 用夹具验证规则校验本身（不对称冲突、未注册附魔等必须被拒绝）
+    register<CheckEnchantmentRuleFixtures>("checkEnchantmentRuleFixtures") {
+        fixtures.from(fileTree("src/test/rules") { include("*.json") })
+    }
+
+    // 离线平衡模拟：./gradlew runBalanceSimulation -PbalanceArgs="table-rolls=5000000 seed=42"
+    register("runBalanceSimulation") {
+        dependsOn("classes")
+        val execOps = project.serviceOf<ExecOperations>()
+        val balanceArgs = providers.gradleProperty("balanceArgs").orElse("")
+        doLast {
+            execOps.javaexec {
+                mainClass.set("com.enadd.BalanceRunner")
+                classpath = sourceSets.getByName("main").runtimeClasspath
+                args(balanceArgs.get().split(' ').filter { it.isNotBlank() })
+            }
+        }
+    }
+
     register("runExport") {
         dependsOn("classes")
         val execOps = project.serviceOf<ExecOperations>()
@@ -34,6 +60,13 @@ repositories {
     maven("https://repo.papermc.io/repository/maven-public/")
 }
 
+sourceSets {
+    main {
+        // 生成的规则表随 compileJava 自动编译（srcDir 携带任务依赖）
+        java.srcDir(tasks.named<CompileEnchantmentRules>("compileEnchantmentRules").flatMap { it.outputDir })
+    }
+}
+
 dependencies {
     compileOnly("io.papermc.paper:paper-api:1.21.4-R0.1-SNAPSHOT")
     implementation("com.google.code.gson:gson:2.11.0")
@@ -57,6 +90,10 @@ tasks {
     test {
         useJUnitPlatform()
     }
+
+    check {
+        dependsOn("checkEnchantmentRuleFixtures")
+    }
     
     processResources {
         duplicatesStrategy = DuplicatesStrategy.EXCLUDE
@@ -92,3 +129,314 @@ tasks {
         }
     }
 }
+
+/**
+ * 把 src/main/rules/enchantment_rules.json 编译为 com.enadd.core.generated.CompiledEnchantmentRules。
+ *
+ * 冲突规则在这里展开为按 ID 排序的位矩阵，权重和效果表展开为数组字面量，
+ * 插件启动时直接读取常量，不再解析或逐条注册。
+ * 校验规则见 EnchantmentRuleSet，任何一条不满足时构建失败。
+ */
+abstract class CompileEnchantmentRules : DefaultTask() {
+
+    @get:InputFile
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val rulesFile: RegularFileProperty
+
+    /** 附魔加载器源码，从中读取 safeRegister("id", ...) 注册的 ID */
+    @get:InputFiles
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val loaderSources: ConfigurableFileCollection
+
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+
+    @TaskAction
+    fun compile() {
+        val source = rulesFile.get().asFile
+        @Suppress("UNCHECKED_CAST")
+        val root = JsonSlurper().parse(source, "UTF-8") as Map<String, Any?>
+
+        val registrations = loaderSources.files.sortedBy { it.path }.flatMap { file ->
+            LOADER_REGISTRATION.findAll(file.readText(Charsets.UTF_8)).map { it.groupValues[1] }.toList()
+        }
+        val rules = EnchantmentRuleSet(root, if (loaderSources.isEmpty) null else registrations)
+        if (rules.errors.isNotEmpty()) {
+            throw GradleException("Invalid ${source.name}:\n  " + rules.errors.joinToString("\n  "))
+        }
+
+        val conflicts = rules.conflicts
+        val ids = conflicts.keys.toList()
+        val indexOf = ids.withIndex().associate { it.value to it.index }
+        val words = maxOf(1, (ids.size + 63) ushr 6)
+        val bits = LongArray(ids.size * words)
+        for ((a, others) in conflicts) {
+            val i = indexOf.getValue(a)
+            for (b in others) {
+                val j = indexOf.getValue(b)
+                bits[i * words + (j ushr 6)] = bits[i * words + (j ushr 6)] or (1L shl j)
+            }
+        }
+
+        val out = StringBuilder()
+        out.append("package com.enadd.core.generated;\n\n\n")
+        out.append("/**\n * 附魔规则表（由 compileEnchantmentRules 从 ${source.name} 生成，不要手动修改）\n")
+        out.append(" *\n * 数组内容视为只读。\n */\n")
+        out.append("public final class CompiledEnchantmentRules {\n\n")
+        out.append("    private CompiledEnchantmentRules() {}\n\n")
+        out.append("    /** 参与冲突规则的附魔（带命名空间，按字典序），下标即冲突矩阵 ID */\n")
+        out.append("    public static final String[] CONFLICT_IDS = ").append(strings(ids)).append(";\n\n")
+        out.append("    /** 冲突矩阵每行的 long 数 */\n")
+        out.append("    public static final int CONFLICT_WORDS = $words;\n\n")
+        out.append("    /** 按行存储的冲突位矩阵：第 i 行第 j 位表示 i 与 j 冲突 */\n")
+        out.append("    public static final long[] CONFLICT_BITS = ").append(longs(bits)).append(";\n\n")
+        out.append("    /** 每个冲突 ID 所属的互斥组类别 */\n")
+        out.append("    public static final String[] CONFLICT_CATEGORIES = ")
+            .append(strings(ids.map { rules.categoryOf[it] ?: "explicit" })).append(";\n\n")
+        out.append("    /** 规则文件声明的原版附魔和已实现的自定义附魔（不带命名空间，按声明顺序） */\n")
+        out.append("    public static final String[] VANILLA_IDS = ").append(strings(rules.vanilla)).append(";\n")
+        out.append("    public static final String[] ENCHANTMENT_IDS = ").append(strings(rules.implemented)).append(";\n\n")
+        out.append("    public static final String[] VANILLA_WEIGHT_IDS = ").append(strings(rules.vanillaWeights.keys)).append(";\n")
+        out.append("    public static final int[] VANILLA_WEIGHTS = ").append(ints(rules.vanillaWeights.values)).append(";\n\n")
+        out.append("    public static final String[] CUSTOM_WEIGHT_IDS = ").append(strings(rules.customWeights.keys)).append(";\n")
+        out.append("    public static final int[] CUSTOM_WEIGHTS = ").append(ints(rules.customWeights.values)).append(";\n\n")
+        out.append("    public static final String[] WEIGHT_CATEGORY_NAMES = ").append(strings(rules.categories.keys)).append(";\n")
+        out.append("    public static final String[][] WEIGHT_CATEGORY_MEMBERS = {\n")
+        rules.categories.values.forEach { out.append("        ").append(strings(it, "        ")).append(",\n") }
+        out.append("    };\n\n")
+        out.append("    public static final String[] EFFECT_CATEGORY_NAMES = ").append(strings(rules.effectCategories.map { it.first })).append(";\n")
+        out.append("    public static final String[] EFFECT_CATEGORY_LABELS = ").append(strings(rules.effectCategories.map { it.second })).append(";\n\n")
+        out.append("    public static final String[] EFFECT_IDS = ").append(strings(rules.effects.map { it.id })).append(";\n")
+        out.append("    public static final String[] EFFECT_TYPES = ").append(strings(rules.effects.map { it.type })).append(";\n")
+        out.append("    public static final int[] EFFECT_CATEGORY = ").append(ints(rules.effects.map { it.category })).append(";\n")
+        out.append("    /** 效果配置，按 键, 值, 键, 值 ... 排列；整数为 Integer，小数为 Double */\n")
+        out.append("    public static final Object[][] EFFECT_CONFIGS = {\n")
+        for (effect in rules.effects) {
+            val pairs = effect.config.flatMap { (k, v) -> listOf(quote(k), if (v.contains('.')) "${v}D" else v) }
+            out.append("        {").append(pairs.joinToString(", ")).append("},\n")
+        }
+        out.append("    };\n}\n")
+
+        val target = outputDir.get().asFile.resolve("com/enadd/core/generated/CompiledEnchantmentRules.java")
+        target.parentFile.mkdirs()
+        target.writeText(out.toString(), Charsets.UTF_8)
+        logger.lifecycle("Compiled ${ids.size} conflict ids (${bits.sumOf { it.countOneBits() } / 2} pairs), " +
+            "${rules.vanillaWeights.size + rules.customWeights.size} weights, ${rules.effects.size} effects")
+    }
+
+    private fun quote(value: String): String = "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\""
+
+    private fun strings(values: Collection<String>, indent: String = "    "): String =
+        wrap(values.map { quote(it) }, indent)
+
+    private fun ints(values: Collection<Int>): String = wrap(values.map { it.toString() }, "    ")
+
+    private fun longs(values: LongArray): String = wrap(values.map { "0x%xL".format(it) }, "    ")
+
+    private fun wrap(items: List<String>, indent: String): String {
+        if (items.isEmpty()) return "{}"
+        val lines = mutableListOf<String>()
+        var line = StringBuilder()
+        for (item in items) {
+            if (line.isNotEmpty() && line.length + item.length + 2 > 100) {
+                lines += line.toString().trimEnd()
+                line = StringBuilder()
+            }
+            line.append(item).append(", ")
+        }
+        lines += line.toString().trimEnd().removeSuffix(",")
+        return "{\n" + lines.joinToString("\n") { "$indent    $it" } + "\n$indent}"
+    }
+
+    companion object {
+        private val LOADER_REGISTRATION = Regex("""safeRegister\(\s*"([a-z0-9_]+)"""")
+    }
+}
+
+/**
+ * 用 src/test/rules 下的夹具检查规则校验本身。
+ *
+ * 夹具是完整的规则文件，额外的 "expect_errors" 列出必须报告的错误片段，为空时夹具必须通过校验；
+ * "loader_ids" 模拟加载器注册的 ID，缺省时等于 enchantments。
+ */
+abstract class CheckEnchantmentRuleFixtures : DefaultTask() {
+
+    @get:InputFiles
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val fixtures: ConfigurableFileCollection
+
+    @TaskAction
+    fun check() {
+        val failures = mutableListOf<String>()
+        for (file in fixtures.files.sortedBy { it.name }) {
+            @Suppress("UNCHECKED_CAST")
+            val root = JsonSlurper().parse(file, "UTF-8") as Map<String, Any?>
+            val expected = (root["expect_errors"] as? List<*>).orEmpty().map { it.toString() }
+            val loaderIds = ((root["loader_ids"] ?: root["enchantments"]) as? List<*>).orEmpty().map { it.toString() }
+            val errors = EnchantmentRuleSet(root, loaderIds).errors
+
+            expected.filter { fragment -> errors.none { it.contains(fragment) } }
+                .forEach { failures += "${file.name}: expected an error containing '$it', got $errors" }
+            if (expected.isEmpty() && errors.isNotEmpty()) {
+                failures += "${file.name}: expected no errors, got $errors"
+            }
+        }
+        if (failures.isNotEmpty()) {
+            throw GradleException("Enchantment rule fixtures failed:\n  " + failures.joinToString("\n  "))
+        }
+        logger.lifecycle("Checked ${fixtures.files.size} enchantment rule fixtures")
+    }
+}
+
+/**
+ * 解析并校验附魔规则，编译任务和夹具检查共用。
+ *
+ * - vanilla / enchantments / reserved 三个列表不能重复、不能互相重叠，ID 只能由小写字母、数字和下划线组成
+ * - enchantments 必须与加载器注册的 ID 完全一致（registered 为 null 时跳过）
+ * - reserved 是规则中提前引用、尚未实现的附魔：不能已被加载器注册，也必须至少被一条规则引用，
+ *   否则它只会让拼错的 ID 绕过未知 ID 检查
+ * - 规则引用的 ID 必须已声明；显式冲突规则必须双向声明
+ */
+class EnchantmentRuleSet(root: Map<String, Any?>, registered: List<String>?) {
+
+    data class Effect(val id: String, val type: String, val config: List<Pair<String, String>>, val category: Int)
+
+    val errors = mutableListOf<String>()
+    val vanilla = idList(root, "vanilla").toSet()
+    val implemented = idList(root, "enchantments").toSet()
+    val reserved = idList(root, "reserved").toSet()
+    val conflicts = sortedMapOf<String, MutableSet<String>>()
+    val categoryOf = mutableMapOf<String, String>()
+    val vanillaWeights: Map<String, Int>
+    val customWeights: Map<String, Int>
+    val categories = linkedMapOf<String, List<String>>()
+    val effectCategories = mutableListOf<Pair<String, String>>()
+    val effects = mutableListOf<Effect>()
+
+    private val known = vanilla + implemented + reserved
+    private val referencedReserved = mutableSetOf<String>()
+
+    init {
+        (reserved intersect (vanilla + implemented)).forEach { errors += "reserved id '$it' is already declared" }
+
+        if (registered != null) {
+            duplicates(registered).forEach { errors += "loaders: '$it' is registered more than once" }
+            val loaderIds = registered.toSet()
+            (implemented - loaderIds).sorted().forEach { errors += "enchantments: '$it' is not registered by any enchantment loader" }
+            (loaderIds - implemented).sorted().forEach {
+                errors += if (it in reserved) "reserved: '$it' is registered by a loader, move it to enchantments"
+                          else "loaders: '$it' is registered but not declared in enchantments"
+            }
+        }
+
+        // 冲突规则：互斥组展开为两两冲突，显式规则必须双向声明
+        for ((index, group) in list(root["conflict_groups"]).withIndex()) {
+            val map = group as Map<*, *>
+            val category = map["category"]?.toString().orEmpty()
+            val where = "conflict_groups[$index]"
+            if (category.isBlank()) errors += "$where: missing category"
+            val members = list(map["members"]).mapNotNull { resolve(it, where) }
+            duplicates(members).forEach { errors += "$where: duplicate member '$it'" }
+            if (members.size < 2) errors += "$where: a conflict group needs at least two members"
+            for (a in members) {
+                categoryOf[a] = category
+                val set = conflicts.getOrPut(a) { sortedSetOf() }
+                members.filter { it != a }.forEach { set += it }
+            }
+        }
+        val explicit = (root["conflicts"] as? Map<*, *>).orEmpty()
+        val declared = mutableMapOf<String, Set<String>>()
+        for ((key, value) in explicit) {
+            val a = resolve(key, "conflicts") ?: continue
+            declared[a] = list(value).mapNotNull { resolve(it, "conflicts.$key") }.toSet()
+        }
+        for ((a, others) in declared) {
+            for (b in others) {
+                if (b == a) errors += "conflicts.$a: an enchantment cannot conflict with itself"
+                else if (declared[b]?.contains(a) != true) errors += "conflicts: asymmetric rule $a -> $b (missing $b -> $a)"
+                conflicts.getOrPut(a) { sortedSetOf() } += b
+                conflicts.getOrPut(b) { sortedSetOf() } += a
+            }
+        }
+
+        // 权重
+        val weights = (root["weights"] as? Map<*, *>).orEmpty()
+        vanillaWeights = weightTable(weights["vanilla"], "weights.vanilla")
+        vanillaWeights.keys.filter { it !in vanilla }.forEach { errors += "weights.vanilla: '$it' is not a vanilla enchantment" }
+        customWeights = weightTable(weights["custom"], "weights.custom")
+        customWeights.keys.forEach { resolve(it, "weights.custom") }
+
+        for ((name, members) in (root["weight_categories"] as? Map<*, *>).orEmpty()) {
+            val ids = list(members).map { it.toString() }
+            ids.forEach { resolve(it, "weight_categories.$name") }
+            duplicates(ids).forEach { errors += "weight_categories.$name: duplicate member '$it'" }
+            categories[name.toString()] = ids
+        }
+
+        // 效果
+        for ((name, value) in (root["effects"] as? Map<*, *>).orEmpty()) {
+            val map = value as Map<*, *>
+            effectCategories += name.toString() to map["label"]?.toString().orEmpty()
+            for (raw in list(map["effects"])) {
+                val effect = raw as Map<*, *>
+                val id = effect["id"]?.toString().orEmpty()
+                val type = effect["type"]?.toString().orEmpty()
+                resolve(id, "effects.$name")
+                if (!type.matches(Regex("[A-Z_]+"))) errors += "effects.$name.$id: invalid effect type '$type'"
+                val config = (effect["config"] as? Map<*, *>).orEmpty().map { (k, v) ->
+                    if (v !is Number) errors += "effects.$name.$id: config '$k' must be a number"
+                    k.toString() to v.toString()
+                }
+                effects += Effect(id, type, config, effectCategories.size - 1)
+            }
+        }
+        duplicates(effects.map { it.id }).forEach { errors += "effects: duplicate effect '$it'" }
+
+        (reserved - referencedReserved).sorted().forEach { errors += "reserved: '$it' is not referenced by any rule" }
+    }
+
+    // 统一为带命名空间的 ID，未知 ID 记为错误
+    private fun resolve(raw: Any?, where: String): String? {
+        val id = raw?.toString()?.trim()?.lowercase().orEmpty()
+        val namespace = if (id.contains(':')) id.substringBefore(':') else "enadd"
+        val path = id.substringAfter(':')
+        val ok = when (namespace) {
+            "minecraft" -> path in vanilla
+            "enadd" -> path in known
+            else -> false
+        }
+        if (!ok) {
+            errors += "$where: unknown enchantment id '$raw'"
+            return null
+        }
+        if (namespace == "enadd" && path in reserved) {
+            referencedReserved += path
+        }
+        return "$namespace:$path"
+    }
+
+    private fun list(value: Any?): List<Any?> = (value as? List<*>).orEmpty()
+
+    private fun idList(root: Map<String, Any?>, key: String): List<String> {
+        val ids = list(root[key]).map { it.toString() }
+        duplicates(ids).forEach { errors += "$key: duplicate id '$it'" }
+        ids.filter { !it.matches(ID_PATTERN) }.forEach { errors += "$key: invalid id '$it'" }
+        return ids
+    }
+
+    private fun duplicates(values: List<String>): Set<String> =
+        values.groupingBy { it }.eachCount().filterValues { it > 1 }.keys
+
+    private fun weightTable(value: Any?, where: String): Map<String, Int> {
+        val result = linkedMapOf<String, Int>()
+        for ((key, weight) in (value as? Map<*, *>).orEmpty()) {
+            if (weight !is Int || weight !in 1..100) errors += "$where.$key: weight must be an integer in 1..100"
+            result[key.toString()] = (weight as? Number)?.toInt() ?: 0
+        }
+        return result
+    }
+
+    companion object {
+        private val ID_PATTERN = Regex("[a-z0-9_]+")
+    }
+}
@@ -0,0 +1,175 @@
+package com.enadd;
+
+import com.enadd.core.api.IEnchantmentConfig;
+import com.enadd.core.conflict.EnchantmentConflictManager;
+import com.enadd.core.generated.CompiledEnchantmentRules;
+import com.enadd.enchantments.conflict.EnchantmentBalanceSimulator;
+import com.enadd.enchantments.conflict.EnchantmentWeightManager;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+
+/**
+ * Standalone runner for the enchantment balance simulation
+ *
+ * 参数为 key=value：table-rolls、loot-rolls、seed、power、enchantability、book、
+ * loot-levels（如 20-39）、threads、out。
+ */
+public class BalanceRunner {
+    /**
+     * 原版附魔的花费曲线（1.21 数据包）：最高等级、最小花费基数/每级增量、最大花费基数/每级增量、是否宝藏。
+     * 宝藏附魔和诅咒不在附魔台出现，只参与战利品抽取。
+     */
+    private static final Map<String, int[]> VANILLA_COSTS = new HashMap<>();
+    private static final int TREASURE = 1;
+
+    static {
+        vanilla("aqua_affinity", 1, 1, 0, 41, 0, 0);
+        vanilla("bane_of_arthropods", 5, 5, 8, 25, 8, 0);
+        vanilla("binding_curse", 1, 25, 0, 50, 0, TREASURE);
+        vanilla("blast_protection", 4, 5, 8, 13, 8, 0);
+        vanilla("breach", 4, 15, 9, 65, 9, 0);
+        vanilla("channeling", 1, 25, 0, 50, 0, 0);
+        vanilla("density", 5, 5, 8, 25, 8, 0);
+        vanilla("depth_strider", 3, 10, 10, 25, 10, 0);
+        vanilla("efficiency", 5, 1, 10, 51, 10, 0);
+        vanilla("feather_falling", 4, 5, 6, 11, 6, 0);
+        vanilla("fire_aspect", 2, 10, 20, 60, 20, 0);
+        vanilla("fire_protection", 4, 10, 8, 18, 8, 0);
+        vanilla("flame", 1, 20, 0, 50, 0, 0);
+        vanilla("fortune", 3, 15, 9, 65, 9, 0);
+        vanilla("frost_walker", 2, 10, 10, 25, 10, TREASURE);
+        vanilla("impaling", 5, 1, 8, 21, 8, 0);
+        vanilla("infinity", 1, 20, 0, 50, 0, 0);
+        vanilla("knockback", 2, 5, 20, 55, 20, 0);
+        vanilla("looting", 3, 15, 9, 65, 9, 0);
+        vanilla("loyalty", 3, 12, 7, 50, 0, 0);
+        vanilla("luck_of_the_sea", 3, 15, 9, 65, 9, 0);
+        vanilla("lure", 3, 15, 9, 65, 9, 0);
+        vanilla("mending", 1, 25, 25, 75, 25, TREASURE);
+        vanilla("multishot", 1, 20, 0, 50, 0, 0);
+        vanilla("piercing", 4, 1, 10, 50, 0, 0);
+        vanilla("power", 5, 1, 10, 16, 10, 0);
+        vanilla("projectile_protection", 4, 3, 6, 9, 6, 0);
+        vanilla("protection", 4, 1, 11, 12, 11, 0);
+        vanilla("punch", 2, 12, 20, 37, 20, 0);
+        vanilla("quick_charge", 3, 12, 20, 50, 0, 0);
+        vanilla("respiration", 3, 10, 10, 40, 10, 0);
+        vanilla("riptide", 3, 17, 7, 50, 0, 0);
+        vanilla("sharpness", 5, 1, 11, 21, 11, 0);
+        vanilla("silk_touch", 1, 15, 0, 65, 0, 0);
+        vanilla("smite", 5, 5, 8, 25, 8, 0);
+        vanilla("soul_speed", 3, 10, 10, 25, 10, TREASURE);
+        vanilla("sweeping_edge", 3, 5, 9, 20, 9, 0);
+        vanilla("swift_sneak", 3, 25, 25, 75, 25, TREASURE);
+        vanilla("thorns", 3, 10, 20, 60, 20, 0);
+        vanilla("unbreaking", 3, 5, 8, 55, 8, 0);
+        vanilla("vanishing_curse", 1, 25, 0, 50, 0, TREASURE);
+        // 只来自不祥宝库，不在 #in_enchanting_table 中
+        vanilla("wind_burst", 3, 15, 9, 65, 9, TREASURE);
+    }
+
+    private static void vanilla(String id, int maxLevel, int minBase, int minPerLevel,
+                                int maxBase, int maxPerLevel, int flags) {
+        VANILLA_COSTS.put(id, new int[] {maxLevel, minBase, minPerLevel, maxBase, maxPerLevel, flags});
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq).trim().toLowerCase(), arg.substring(eq + 1).trim());
+            }
+        }
+
+        ForkJoinPool pool = null;
+        try {
+            EnchantmentBalanceSimulator.Settings.Builder builder = EnchantmentBalanceSimulator.Settings.builder()
+                .source("enchantment_rules.json（权重与冲突规则；原版附魔使用原版花费曲线，自定义附魔使用 IEnchantmentConfig.DEFAULT）");
+            if (options.containsKey("table-rolls")) builder.tableRolls(Long.parseLong(options.get("table-rolls")));
+            if (options.containsKey("loot-rolls")) builder.lootRolls(Long.parseLong(options.get("loot-rolls")));
+            if (options.containsKey("seed")) builder.seed(Long.parseLong(options.get("seed")));
+            if (options.containsKey("power")) builder.bookshelfPower(Integer.parseInt(options.get("power")));
+            if (options.containsKey("enchantability")) builder.enchantability(Integer.parseInt(options.get("enchantability")));
+            if (options.containsKey("book")) builder.book(Boolean.parseBoolean(options.get("book")));
+            if (options.containsKey("loot-levels")) {
+                String[] range = options.get("loot-levels").split("-");
+                int min = Integer.parseInt(range[0].trim());
+                builder.lootLevels(min, range.length > 1 ? Integer.parseInt(range[1].trim()) : min);
+            }
+            int threads = options.containsKey("threads")
+                ? Math.max(1, Integer.parseInt(options.get("threads")))
+                : Runtime.getRuntime().availableProcessors();
+            Path out = Paths.get(options.getOrDefault("out", "build/reports/enchantment-balance.txt"));
+
+            EnchantmentConflictManager conflicts = EnchantmentConflictManager.getInstance();
+            conflicts.initialize();
+            EnchantmentBalanceSimulator simulator = new EnchantmentBalanceSimulator(
+                compiledCandidates(), conflicts::areConflicting, builder.build());
+
+            System.out.println("开始附魔平衡模拟（" + threads + " 线程）...");
+            pool = new ForkJoinPool(threads);
+            EnchantmentBalanceSimulator.Report report = simulator.run(pool);
+            report.write(out);
+            System.out.printf("模拟完成: %d 次附魔台 + %d 次战利品，耗时 %d ms%n",
+                report.getTableRolls(), report.getLootRolls(), report.getElapsedNanos() / 1_000_000L);
+            System.out.println("报告已写入 " + out.toAbsolutePath());
+        } catch (Exception e) {
+            System.err.println("模拟过程中出现错误: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * 规则文件中的全部附魔，未配置权重的使用默认权重
+     *
+     * 原版附魔使用 {@link #VANILLA_COSTS}；自定义附魔的配置需要服务器环境才能实例化，统一使用默认曲线。
+     */
+    private static List<EnchantmentBalanceSimulator.Candidate> compiledCandidates() {
+        Map<String, Integer> weights = new HashMap<>();
+        for (int i = 0; i < CompiledEnchantmentRules.VANILLA_WEIGHT_IDS.length; i++) {
+            weights.put("minecraft:" + CompiledEnchantmentRules.VANILLA_WEIGHT_IDS[i], CompiledEnchantmentRules.VANILLA_WEIGHTS[i]);
+        }
+        for (int i = 0; i < CompiledEnchantmentRules.CUSTOM_WEIGHT_IDS.length; i++) {
+            weights.put("enadd:" + CompiledEnchantmentRules.CUSTOM_WEIGHT_IDS[i], CompiledEnchantmentRules.CUSTOM_WEIGHTS[i]);
+        }
+
+        List<EnchantmentBalanceSimulator.Candidate> candidates = new ArrayList<>();
+        int defaultWeight = EnchantmentWeightManager.getDefaultWeight();
+        for (String id : CompiledEnchantmentRules.VANILLA_IDS) {
+            String key = "minecraft:" + id;
+            candidates.add(vanillaCandidate(id, weights.getOrDefault(key, defaultWeight)));
+        }
+        for (String id : CompiledEnchantmentRules.ENCHANTMENT_IDS) {
+            String key = "enadd:" + id;
+            candidates.add(EnchantmentBalanceSimulator.Candidate.withConfig(key,
+                weights.getOrDefault(key, defaultWeight), IEnchantmentConfig.DEFAULT));
+        }
+        return candidates;
+    }
+
+    static EnchantmentBalanceSimulator.Candidate vanillaCandidate(String id, int weight) {
+        int[] curve = VANILLA_COSTS.get(id);
+        if (curve == null) {
+            throw new IllegalStateException("No vanilla cost curve for minecraft:" + id);
+        }
+        int[] min = new int[curve[0]];
+        int[] max = new int[curve[0]];
+        for (int level = 1; level <= curve[0]; level++) {
+            min[level - 1] = curve[1] + curve[2] * (level - 1);
+            max[level - 1] = curve[3] + curve[4] * (level - 1);
+        }
+        return new EnchantmentBalanceSimulator.Candidate("minecraft:" + id, weight,
+            (curve[5] & TREASURE) != 0, min, max);
+    }
+}
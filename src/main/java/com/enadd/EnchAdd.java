@@ -10,8 +10,10 @@ import com.enadd.util.JavaVersionChecker;
 import com.enadd.util.ColorFormatter;
 import com.enadd.util.ErrorHandler;
 import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
+import java.io.File;
 import java.util.Arrays;
 import java.util.Collections;
 
@@ -31,6 +33,7 @@ public final class EnchAdd extends JavaPlugin {
 
     private CreativeInventoryManager creativeInventoryManager;
     private GUIManager guiManager;
+    private com.enadd.core.cache.CacheWarmer cacheWarmer;
 
     @Override
     public void onLoad() {
@@ -48,6 +51,9 @@ public final class EnchAdd extends JavaPlugin {
             // 1. 初始化配置 (同步)
             ConfigManager.initialize(this);
 
+            // 统一执行层需在任何后台任务提交前配置
+            configureExecutionLayer();
+
             displayTitle();
 
             // 2. 异步初始化耗时任务
@@ -60,11 +66,10 @@ public final class EnchAdd extends JavaPlugin {
                     creativeInventoryManager = new CreativeInventoryManager(this);
                     getLogger().info("创造模式库存系统初始化成功");
 
-                    // 预加载配置消息缓存
-                    ConfigManager.preloadCaches();
+                    // 配置消息缓存改由 onEnable 中的缓存预热加载
                     
                     // 异步记录成功信息 (或者在主线程显示)
-                    Bukkit.getScheduler().runTask(this, this::displaySuccess);
+                    com.enadd.core.async.ExecutionLayer.getInstance().runOnMain(this::displaySuccess);
                     
                 } catch (Exception e) {
                     getLogger().severe("异步初始化失败: " + e.getMessage());
@@ -80,6 +85,18 @@ public final class EnchAdd extends JavaPlugin {
     @Override
     public void onEnable() {
         try {
+            // 主线程桥：后台结果每 tick 批量交回主线程
+            startMainThreadHandoff();
+
+            // 派生数据持久化层，需在渲染缓存第一次使用前打开
+            openPersistentCache();
+
+            // GUI 渲染和冲突列表的后台加载通道，需在预热提交渲染前配置
+            configureGuiLoaders();
+
+            // 后台预热GUI目录和渲染缓存，主线程只等待关键任务
+            startCacheWarmup();
+
             //  初始化GUI全局保护管理器
             GUIProtectionManager.initialize(this);
             getLogger().info("GUI全局保护系统初始化成功");
@@ -95,9 +112,30 @@ public final class EnchAdd extends JavaPlugin {
             // Initialize enchantment effect system
             initializeEnchantmentEffects();
 
+            // 后台任务分级：统计类工作按 BEST_EFFORT 提交，压力下丢弃，同键重复提交合并为一次
+            startAsyncTasks();
+
+            // 附魔触发事件环：监听器只发布，统计消费者在工作线程上批量读取
+            com.enadd.core.optimize.EventOptimizer.initialize();
+            com.enadd.core.optimize.EventOptimizer.registerConsumer("analytics", (record, sequence, endOfBatch) ->
+                com.enadd.core.monitor.EnchantmentMetrics.getInstance().recordEnchantmentTrigger(record.getKey()));
+
+            // 负载自适应效果质量控制
+            com.enadd.core.lod.EffectLodController lodController = com.enadd.core.lod.EffectLodController.getInstance();
+            lodController.loadSettings(ConfigManager.getEffectLodSection());
+            lodController.start(this);
+
+            // 实体更新频率按距离与可见性分桶
+            com.enadd.core.update.UpdateFrequencyController updateController = com.enadd.core.update.UpdateFrequencyController.getInstance();
+            updateController.loadLodSettings(ConfigManager.getEntityUpdateLodSection());
+            updateController.start(this);
+            com.enadd.core.pool.PoolManager.getInstance().startMaintenance();
+
             // Initialize achievement system only if enabled in config
             if (ConfigManager.isAchievementsEnabled()) {
                 AchievementManager.initialize(this);
+                com.enadd.core.optimize.EventOptimizer.registerConsumer("achievements",
+                    AchievementManager.getInstance().triggerConsumer());
                 getLogger().info("Achievement system initialized successfully");
             } else {
                 getLogger().info("Achievement system is disabled in config");
@@ -118,6 +156,110 @@ public final class EnchAdd extends JavaPlugin {
         }
     }
 
+    private void startAsyncTasks() {
+        com.enadd.core.async.AsyncTaskManager asyncTasks = com.enadd.core.async.AsyncTaskManager.getInstance();
+        asyncTasks.initialize(this);
+        com.enadd.core.monitor.EnchantmentMetrics metrics = com.enadd.core.monitor.EnchantmentMetrics.getInstance();
+        asyncTasks.scheduleAsyncRepeating(
+            () -> asyncTasks.submitCoalesced("metrics-memory-snapshot", metrics::recordMemorySnapshot),
+            1L, 1L, java.util.concurrent.TimeUnit.MINUTES);
+    }
+
+    private void configureExecutionLayer() {
+        ConfigurationSection section = ConfigManager.getExecutionSection();
+        int cpuThreads = section != null ? section.getInt("cpu-threads", 0) : 0;
+        int maxThreads = section != null ? section.getInt("max-threads", 4) : 4;
+
+        com.enadd.core.async.ExecutionLayer layer = com.enadd.core.async.ExecutionLayer.getInstance();
+        layer.configure(cpuThreads, maxThreads);
+        layer.start(this);
+        getLogger().info("统一执行层: " + layer.getCpuThreads() + " 个工作线程, 平台线程上限 " + layer.getMaxThreads());
+    }
+
+    private void startMainThreadHandoff() {
+        ConfigurationSection section = ConfigManager.getExecutionSection();
+        long budgetMs = section != null ? section.getLong("main-thread-budget-ms", 2L) : 2L;
+        com.enadd.core.async.ExecutionLayer.getInstance().startMainThreadHandoff(budgetMs);
+    }
+
+    private void openPersistentCache() {
+        try {
+            ConfigurationSection section = ConfigManager.getPersistentCacheSection();
+            if (section != null && !section.getBoolean("enabled", true)) {
+                return;
+            }
+
+            long maxBytes = (section != null ? section.getLong("max-size-mb", 16L) : 16L) * 1024L * 1024L;
+            String fileName = section != null ? section.getString("file", "cache/derived.bin") : "cache/derived.bin";
+
+            // 插件版本、服务端版本、配置和语言文件任一变化都会使旧数据失效
+            long fingerprint = com.enadd.core.cache.PersistentCacheTier.fingerprint(
+                getPluginMeta().getVersion() + "|" + Bukkit.getBukkitVersion(),
+                new File(getDataFolder(), "config.yml"),
+                new File(getDataFolder(), "languages"));
+
+            com.enadd.core.cache.PersistentCacheTier tier = com.enadd.core.cache.PersistentCacheTier.getInstance();
+            if (tier.open(new File(getDataFolder(), fileName), fingerprint, maxBytes)) {
+                getLogger().info("派生数据缓存热启动: " + tier.getEntryCount() + " 条");
+            }
+            if (tier.isOpen()) {
+                com.enadd.core.cache.ItemRenderCache.getInstance().attachPersistentTier(tier);
+            }
+        } catch (Exception e) {
+            getLogger().warning("持久化缓存初始化失败: " + e.getMessage());
+        }
+    }
+
+    private void configureGuiLoaders() {
+        ConfigurationSection section = ConfigManager.getGuiRenderSection();
+        int maxQueued = section != null ? section.getInt("max-queued", 256) : 256;
+        long refreshSeconds = section != null ? section.getLong("conflict-refresh-seconds", 300L) : 300L;
+
+        java.util.concurrent.Executor renderLane =
+            com.enadd.core.async.ExecutionLayer.getInstance().cpu("gui-render", Math.max(1, maxQueued));
+        com.enadd.core.cache.ItemRenderCache.getInstance().setLoaderExecutor(renderLane);
+        com.enadd.gui.EnchantmentChestGUI.configureConflictLoading(renderLane,
+            java.util.concurrent.TimeUnit.SECONDS.toMillis(Math.max(0L, refreshSeconds)));
+    }
+
+    private void startCacheWarmup() {
+        try {
+            ConfigurationSection section = ConfigManager.getCacheWarmupSection();
+            if (section != null && !section.getBoolean("enabled", true)) {
+                ConfigManager.preloadCaches();
+                return;
+            }
+
+            int threads = section != null ? section.getInt("threads", 2) : 2;
+            long deadlineMs = section != null ? section.getLong("main-thread-deadline-ms", 50L) : 50L;
+
+            com.enadd.core.cache.CacheWarmer warmer = new com.enadd.core.cache.CacheWarmer("EnchAdd", threads);
+            warmer.addTask("config-messages", com.enadd.core.cache.CacheWarmer.Priority.CRITICAL,
+                ConfigManager::preloadCaches);
+            warmer.addTask("enchantment-catalog", com.enadd.core.cache.CacheWarmer.Priority.CRITICAL,
+                com.enadd.gui.EnchantmentChestGUI::getCatalog);
+            warmer.addTask("lore-renders", com.enadd.core.cache.CacheWarmer.Priority.NORMAL,
+                com.enadd.gui.EnchantmentChestGUI::prerenderCatalog, "enchantment-catalog", "config-messages");
+            warmer.addTask("persistent-cache-flush", com.enadd.core.cache.CacheWarmer.Priority.LOW,
+                () -> com.enadd.core.cache.PersistentCacheTier.getInstance().flush(), "lore-renders");
+
+            cacheWarmer = warmer;
+            warmer.start().thenAccept(report -> {
+                if (report.count(com.enadd.core.cache.CacheWarmer.Status.DONE) == report.getResults().size()) {
+                    getLogger().info(String.format("缓存预热完成，耗时 %.1fms", report.getTotalMs()));
+                } else {
+                    getLogger().warning(report.toString());
+                }
+            });
+
+            if (!warmer.awaitPriority(com.enadd.core.cache.CacheWarmer.Priority.CRITICAL, deadlineMs)) {
+                getLogger().info("关键缓存未在 " + deadlineMs + "ms 内完成预热，继续在后台进行");
+            }
+        } catch (Exception e) {
+            getLogger().warning("缓存预热启动失败: " + e.getMessage());
+        }
+    }
+
     private void initializeEnchantmentEffects() {
         try {
             // Register event handler for enchantment effects
@@ -168,6 +310,15 @@ public final class EnchAdd extends JavaPlugin {
                     }
 
                     Player player = (Player) sender;
+                    if (args.length > 0 && args[0].equalsIgnoreCase("plan")) {
+                        // 最佳组合规划对所有玩家开放，其余子命令仍需管理权限
+                        com.enadd.gui.simulation.EnchantmentSimulator.planBestCombination(player);
+                        return true;
+                    }
+                    if (!player.hasPermission("enchadd.admin")) {
+                        player.sendMessage(format("&c你没有权限执行该命令"));
+                        return true;
+                    }
                     if (args.length > 0 && args[0].equalsIgnoreCase("gui")) {
                         if (guiManager != null) {
                             guiManager.openEnchantmentGUI(player);
@@ -185,7 +336,7 @@ public final class EnchAdd extends JavaPlugin {
                 });
                 mainCommand.setTabCompleter((sender, command, alias, args) -> {
                     if (args.length == 1) {
-                        return Arrays.asList("gui");
+                        return Arrays.asList("gui", "plan");
                     }
                     return Collections.emptyList();
                 });
@@ -409,11 +560,27 @@ public final class EnchAdd extends JavaPlugin {
                 getLogger().info("GUI全局保护系统关闭完成");
             }
 
+            // 先停止事件环，消费者不再向成就系统提交
+            com.enadd.core.optimize.EventOptimizer.shutdown();
+
             if (ConfigManager.isAchievementsEnabled() && AchievementManager.getInstance() != null) {
                 AchievementManager.shutdown();
                 getLogger().info("成就系统关闭完成");
             }
 
+            com.enadd.core.lod.EffectLodController.getInstance().shutdown();
+            com.enadd.core.update.UpdateFrequencyController.getInstance().shutdown();
+            com.enadd.core.entity.EntityLifecycleManager.getInstance().shutdown();
+            com.enadd.core.pool.PoolManager.getInstance().stopMaintenance();
+            com.enadd.core.async.AsyncTaskManager.getInstance().shutdown();
+            if (cacheWarmer != null) {
+                cacheWarmer.cancel();
+                cacheWarmer = null;
+            }
+            com.enadd.core.cache.CacheTimerWheel.getInstance().shutdown();
+            com.enadd.core.cache.ItemRenderCache.getInstance().attachPersistentTier(null);
+            com.enadd.core.cache.PersistentCacheTier.getInstance().close();
+
             ConfigManager.shutdown();
 
             EnchantmentRegistry.cleanup();
@@ -423,6 +590,9 @@ public final class EnchAdd extends JavaPlugin {
 
             com.enadd.util.ErrorHandler.shutdown();
 
+            // 所有子系统关闭后再停止共享线程
+            com.enadd.core.async.ExecutionLayer.getInstance().shutdown();
+
             getLogger().info("EnchAdd 已成功禁用");
 
         } catch (Exception e) {
@@ -46,7 +46,9 @@ public final class EnchantmentExpansionPlugin extends JavaPlugin {
 
             // 初始化数据导出器
             dataExporter = new EnchantmentDataExporter();
-            dataExporter.exportAllEnchantmentData();
+            // 导出只是尽力任务：压力下丢弃，重复提交合并为一次
+            com.enadd.core.async.AsyncTaskManager.getInstance()
+                .submitCoalesced("enchantment-data-export", dataExporter::exportAllEnchantmentData);
 
             // 初始化综合冲突列表生成器
             conflictListGenerator = new ComprehensiveConflictListGenerator();
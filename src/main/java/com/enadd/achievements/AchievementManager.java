@@ -26,18 +26,18 @@ import org.bukkit.event.inventory.PrepareAnvilEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.HandlerList;
-import org.bukkit.inventory.ItemStack;
 import org.bukkit.enchantments.Enchantment;
 import io.papermc.paper.registry.keys.tags.EnchantmentTagKeys;
 import io.papermc.paper.registry.tag.TagKey;
-import org.bukkit.NamespacedKey;
-import org.bukkit.Registry;
-import io.papermc.paper.registry.RegistryKey;
-import io.papermc.paper.registry.TypedKey;
 import org.bukkit.plugin.java.JavaPlugin;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 
 
@@ -57,8 +57,17 @@ public final class AchievementManager implements Listener {
     private final VanillaAchievementRegistry vanillaRegistry;
 
     private final Map<UUID, PlayerAchievementData> playerData = new ConcurrentHashMap<>();
-    private final Map<UUID, Set<String>> pendingChecks = new ConcurrentHashMap<>();
     private final Set<UUID> dirtyPlayers = ConcurrentHashMap.newKeySet();
+
+    // 主线程捕获的快照，由 achievements 通道上的单个排空任务按顺序检查
+    private static final int MAX_QUEUED_SNAPSHOTS = 8192;
+    private final Queue<AchievementSnapshot> snapshots = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedSnapshots = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    // 排空循环持有，关闭时据此等待正在检查的快照结束
+    private final Object drainLock = new Object();
+    private final LongAdder droppedSnapshots = new LongAdder();
+    private final com.enadd.core.async.ExecutionLayer.Lane worker = com.enadd.core.async.ExecutionLayer.getInstance().cpu("achievements");
     
     // 速率限制 - 防止刷成就
     private final Map<UUID, Long> lastTreeCut = new ConcurrentHashMap<>();
@@ -73,6 +82,10 @@ public final class AchievementManager implements Listener {
     private final AtomicBoolean batchProcessing = new AtomicBoolean(false);
     private final AtomicBoolean shutdown = new AtomicBoolean(false);
 
+    // 持久化存储；未启用或打开失败时为 null，数据只保存在内存中
+    private volatile AchievementStore store;
+    private ScheduledFuture<?> flushTask;
+
     private AchievementManager(JavaPlugin plugin) {
         this.plugin = plugin;
         this.vanillaRegistry = new VanillaAchievementRegistry(plugin);
@@ -99,6 +112,7 @@ public final class AchievementManager implements Listener {
                     }
 
                     instance = temp;
+                    instance.openStore();
                     instance.startMaintenanceTask();
                 }
             }
@@ -120,78 +134,208 @@ public final class AchievementManager implements Listener {
         }
     }
 
+    /**
+     * 打开成就存储并启动定期写入，有修改的玩家记录在 I/O 通道上追加到日志
+     */
+    private void openStore() {
+        org.bukkit.configuration.ConfigurationSection section = com.enadd.config.ConfigManager.getAchievementStorageSection();
+        if (section != null && !section.getBoolean("enabled", true)) {
+            return;
+        }
+        long intervalSeconds = Math.max(5L, section != null ? section.getLong("flush-interval-seconds", 30L) : 30L);
+        long compactBytes = (section != null ? section.getLong("compact-journal-mb", 4L) : 4L) * 1024L * 1024L;
+
+        AchievementStore opened = new AchievementStore(new java.io.File(plugin.getDataFolder(), "achievements"), compactBytes);
+        if (!opened.open()) {
+            plugin.getLogger().warning("Achievement storage unavailable, progress will not be saved this session");
+            return;
+        }
+        store = opened;
+
+        // 服务器重载时已在线的玩家
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            loadPlayerData(player.getUniqueId());
+        }
+
+        flushTask = com.enadd.core.async.ExecutionLayer.getInstance().io("achievement-store")
+            .scheduleAtFixedRate(() -> {
+                if (!shutdown.get()) {
+                    opened.flush(playerData);
+                }
+            }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private PlayerAchievementData loadPlayerData(UUID playerId) {
+        return playerData.computeIfAbsent(playerId, id -> {
+            PlayerAchievementData loaded = store != null ? store.load(id) : null;
+            return loaded != null ? loaded : new PlayerAchievementData();
+        });
+    }
+
     private void startMaintenanceTask() {
-        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> {
+        // 在主线程捕获快照，检查交给工作线程
+        Bukkit.getScheduler().runTaskTimer(plugin, () -> {
             if (shutdown.get()) return;
 
             for (Player player : Bukkit.getOnlinePlayers()) {
-                UUID playerId = player.getUniqueId();
-                PlayerAchievementData data = playerData.get(playerId);
-                if (data == null) continue;
-
-                // 1. Curse Master: Survive 1 hour with 10 curses
-                checkCurseMaster(player, data);
-
-                // 2. Treasure Hunter: Find 50 treasure enchantments
-                checkTreasureHunter(player, data);
+                if (playerData.containsKey(player.getUniqueId())) {
+                    submit(AchievementSnapshot.ofInventory(AchievementSnapshot.Kind.MAINTENANCE, player));
+                }
             }
         }, 1200L, 1200L); // Every 1 minute
     }
 
-    private void checkCurseMaster(Player player, PlayerAchievementData data) {
-        if (data.hasAchievement("curse_master")) return;
+    // ========== 快照队列 ==========
 
-        int curseCount = 0;
-        for (ItemStack item : player.getInventory().getContents()) {
-            if (item != null && !item.getType().isAir()) {
-                for (Enchantment ench : item.getEnchantments().keySet()) {
-                    if (ench.getKey().getKey().startsWith("curse_")) {
-                        curseCount++;
-                    }
+    /**
+     * 把快照放入队列并确保有一个排空任务在工作线程上运行，可在任意线程调用
+     */
+    private void submit(AchievementSnapshot snapshot) {
+        if (snapshot == null || shutdown.get()) return;
+
+        if (queuedSnapshots.incrementAndGet() > MAX_QUEUED_SNAPSHOTS) {
+            // 工作线程跟不上时丢弃，不让队列无限增长
+            queuedSnapshots.decrementAndGet();
+            droppedSnapshots.increment();
+            return;
+        }
+        snapshots.offer(snapshot);
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            try {
+                worker.execute(this::drainSnapshots);
+            } catch (java.util.concurrent.RejectedExecutionException e) {
+                draining.set(false);
+            }
+        }
+    }
+
+    /**
+     * 工作线程：按提交顺序逐个检查，同一时刻只有一个排空任务
+     */
+    private void drainSnapshots() {
+        try {
+            synchronized (drainLock) {
+                AchievementSnapshot snapshot;
+                while (!shutdown.get() && (snapshot = snapshots.poll()) != null) {
+                    queuedSnapshots.decrementAndGet();
+                    evaluateQuietly(snapshot);
                 }
             }
+        } finally {
+            draining.set(false);
+        }
+        // 排空结束与新提交之间的竞争
+        if (!snapshots.isEmpty() && !shutdown.get()) {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * 关闭时调用：等工作线程上的排空循环退出，在当前线程检查剩余的快照
+     */
+    private void drainRemainingSnapshots() {
+        synchronized (drainLock) {
+            AchievementSnapshot snapshot;
+            while ((snapshot = snapshots.poll()) != null) {
+                queuedSnapshots.decrementAndGet();
+                evaluateQuietly(snapshot);
+            }
+        }
+    }
+
+    private void evaluateQuietly(AchievementSnapshot snapshot) {
+        try {
+            evaluate(snapshot);
+        } catch (Exception e) {
+            // Silent error handling to prevent TPS impact
+        }
+    }
+
+    private void evaluate(AchievementSnapshot snapshot) {
+        UUID playerId = snapshot.getPlayerId();
+        PlayerAchievementData data = playerData.get(playerId);
+        if (data == null) return;
+
+        switch (snapshot.getKind()) {
+            case JOIN:
+                checkEnchantmentMaster(snapshot, data);
+                trackSeenEnchantments(playerId, data, snapshot.getInventory());
+                break;
+            case INVENTORY:
+                checkEnchantmentMaster(snapshot, data);
+                checkEquipmentAchievements(snapshot, data);
+                break;
+            case MAINTENANCE:
+                // 1. Curse Master: Survive 1 hour with 10 curses
+                checkCurseMaster(snapshot, data);
+                // 2. Treasure Hunter: Find 50 treasure enchantments
+                checkTreasureHunter(snapshot, data);
+                break;
+            case CLICK:
+                trackSeenEnchantments(playerId, data, snapshot.getItem());
+                break;
+            case SEEN:
+                trackSeenEnchantment(playerId, data, snapshot.getDetail());
+                break;
+            case ANVIL:
+                checkAnvilAchievements(snapshot, data);
+                break;
+            case FATAL_DAMAGE:
+                checkImmortal(snapshot, data);
+                break;
+            case KILL:
+                checkExecutionKill(snapshot, data);
+                checkUltimateWarrior(playerId, data);
+                checkGodSlayer(playerId, data, snapshot.getDetail());
+                break;
+            case BLOCK_BREAK:
+                checkTreeFellerProgress(snapshot, data);
+                // 使用注册表统一检查
+                if (com.enadd.achievements.checker.AchievementCheckerRegistry.checkAchievement(snapshot, data, "lumberjack")) {
+                    award(playerId, "lumberjack");
+                }
+                break;
+            case HIT:
+                checkSniperShot(snapshot, data);
+                checkElementalMaster(playerId, data, snapshot.getItem());
+                // 使用注册表统一检查 marksman
+                if (com.enadd.achievements.checker.AchievementCheckerRegistry.checkAchievement(snapshot, data, "marksman")) {
+                    award(playerId, "marksman");
+                }
+                break;
         }
+    }
+
+    private void checkCurseMaster(AchievementSnapshot snapshot, PlayerAchievementData data) {
+        if (data.hasAchievement("curse_master")) return;
 
+        int curseCount = AchievementSnapshot.count(snapshot.getInventory(), AchievementSnapshot.FLAG_CURSE);
         if (curseCount >= 10) {
             long startTime = data.getCurseStartTime();
             if (startTime == 0) {
-                data.setCurseStartTime(System.currentTimeMillis());
-            } else if (System.currentTimeMillis() - startTime >= 3600000) { // 1 hour
-                Bukkit.getScheduler().runTask(plugin, () -> awardAchievement(player, "curse_master"));
+                data.setCurseStartTime(snapshot.getTime());
+            } else if (snapshot.getTime() - startTime >= 3600000) { // 1 hour
+                award(snapshot.getPlayerId(), "curse_master");
             }
         } else {
             data.setCurseStartTime(0);
         }
     }
 
-    @SuppressWarnings("deprecation")
-    private void checkTreasureHunter(Player player, PlayerAchievementData data) {
+    private void checkTreasureHunter(AchievementSnapshot snapshot, PlayerAchievementData data) {
         if (data.hasAchievement("treasure_hunter")) return;
 
-        Set<String> treasures = new HashSet<>();
-        for (ItemStack item : player.getInventory().getContents()) {
-            if (item != null && !item.getType().isAir()) {
-                for (Enchantment ench : item.getEnchantments().keySet()) {
-                    // 使用 Paper API 的新方式检查是否为宝藏附魔
-                    if (ench.getKey().getNamespace().equals("minecraft") && 
-                        (ench.getKey().getKey().equals("mending") || 
-                         ench.getKey().getKey().equals("frost_walker") || 
-                         ench.getKey().getKey().equals("swift_sneak") ||
-                         ench.getKey().getKey().equals("soul_speed"))) {
-                        treasures.add(ench.getKey().getKey());
-                    } else if (ench instanceof com.enadd.enchantments.BaseEnchantment && ((com.enadd.enchantments.BaseEnchantment)ench).isTreasure()) {
-                        treasures.add(ench.getKey().getKey());
-                    }
-                }
-            }
-        }
-
-        if (treasures.size() > 0) {
+        int treasures = AchievementSnapshot.countDistinct(snapshot.getInventory(), AchievementSnapshot.FLAG_TREASURE);
+        if (treasures > 0) {
             int current = data.getCounter("treasures_found");
-            if (treasures.size() > current) {
-                data.setCounter("treasures_found", treasures.size());
-                if (treasures.size() >= 50) {
-                    Bukkit.getScheduler().runTask(plugin, () -> awardAchievement(player, "treasure_hunter"));
+            if (treasures > current) {
+                data.setCounter("treasures_found", treasures);
+                if (treasures >= 50) {
+                    award(snapshot.getPlayerId(), "treasure_hunter");
                 }
             }
         }
@@ -203,19 +347,7 @@ public final class AchievementManager implements Listener {
         if (!(event.getWhoClicked() instanceof Player)) return;
 
         Player player = (Player) event.getWhoClicked();
-        ItemStack item = event.getCurrentItem();
-        if (item == null || item.getEnchantments().isEmpty()) return;
-
-        UUID playerId = player.getUniqueId();
-        Map<Enchantment, Integer> enchants = new HashMap<>(item.getEnchantments());
-
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            if (!shutdown.get()) {
-                for (Enchantment ench : enchants.keySet()) {
-                    trackSeenEnchantment(player, ench);
-                }
-            }
-        });
+        submit(AchievementSnapshot.ofItem(AchievementSnapshot.Kind.CLICK, player.getUniqueId(), event.getCurrentItem()));
     }
 
     @SuppressWarnings("deprecation")
@@ -227,46 +359,24 @@ public final class AchievementManager implements Listener {
         Player player = (Player) event.getEntity();
         if (player.getHealth() - event.getFinalDamage() <= 0) {
             // Potential fatal hit
-            ItemStack[] armor = player.getInventory().getArmorContents();
-            boolean hasLastStand = false;
-            for (ItemStack item : armor) {
-                if (item != null) {
-                    Enchantment lastStand = Registry.ENCHANTMENT.get(TypedKey.create(RegistryKey.ENCHANTMENT, NamespacedKey.fromString("enadd:last_stand")));
-                    if (lastStand != null && item.containsEnchantment(lastStand)) {
-                        hasLastStand = true;
-                        break;
-                    }
-                }
-            }
+            submit(AchievementSnapshot.ofArmor(AchievementSnapshot.Kind.FATAL_DAMAGE, player));
+        }
+    }
 
-            if (hasLastStand) {
-                UUID playerId = player.getUniqueId();
-                Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-                    PlayerAchievementData data = playerData.get(playerId);
-                    if (data != null && !data.hasAchievement("immortal")) {
-                        int count = data.incrementCounter("last_stand_saves");
-                        if (count >= 100) {
-                            Bukkit.getScheduler().runTask(plugin, () -> awardAchievement(player, "immortal"));
-                        }
-                    }
-                });
+    private void checkImmortal(AchievementSnapshot snapshot, PlayerAchievementData data) {
+        if (data.hasAchievement("immortal")) return;
+
+        if (AchievementSnapshot.contains(snapshot.getArmor(), AchievementSnapshot.codeOf("enadd:last_stand"))) {
+            int count = data.incrementCounter("last_stand_saves");
+            if (count >= 100) {
+                award(snapshot.getPlayerId(), "immortal");
             }
         }
     }
 
     public void trackSeenEnchantment(Player player, String key) {
         if (shutdown.get() || player == null || key == null) return;
-        UUID playerId = player.getUniqueId();
-
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            PlayerAchievementData data = playerData.get(playerId);
-            if (data != null && !data.hasAchievement("enchantment_scholar")) {
-                data.trackSeenEnchantment(key);
-                if (data.getSeenEnchantmentsCount() >= 226) {
-                    Bukkit.getScheduler().runTask(plugin, () -> awardAchievement(player, "enchantment_scholar"));
-                }
-            }
-        });
+        submit(AchievementSnapshot.ofSeen(player.getUniqueId(), key));
     }
 
     public void trackSeenEnchantment(Player player, Enchantment enchantment) {
@@ -274,6 +384,38 @@ public final class AchievementManager implements Listener {
         trackSeenEnchantment(player, enchantment.getKey().getKey());
     }
 
+    /**
+     * 事件环消费者：触发过的附魔记为见过，同一批内相同的玩家和附魔只提交一次
+     */
+    public com.enadd.core.event.EventRing.EventConsumer triggerConsumer() {
+        Set<String> batch = new HashSet<>();
+        return (record, sequence, endOfBatch) -> {
+            UUID playerId = record.getPlayerId();
+            String key = record.getKey();
+            if (playerId != null && key != null && batch.add(playerId + key)) {
+                submit(AchievementSnapshot.ofSeen(playerId, key));
+            }
+            if (endOfBatch) {
+                batch.clear();
+            }
+        };
+    }
+
+    private void trackSeenEnchantments(UUID playerId, PlayerAchievementData data, int[] enchants) {
+        for (int code : AchievementSnapshot.distinctCodes(enchants)) {
+            trackSeenEnchantment(playerId, data, AchievementSnapshot.keyOf(code));
+        }
+    }
+
+    private void trackSeenEnchantment(UUID playerId, PlayerAchievementData data, String key) {
+        if (data.hasAchievement("enchantment_scholar")) return;
+
+        data.trackSeenEnchantment(key);
+        if (data.getSeenEnchantmentsCount() >= 226) {
+            award(playerId, "enchantment_scholar");
+        }
+    }
+
     private void performShutdown() {
         try {
             shutdown.set(true);
@@ -286,9 +428,22 @@ public final class AchievementManager implements Listener {
                 MemoryLeakDetector.getInstance().unregisterListener(this);
             }
 
+            // 先写入所有修改，再清理内存
+            if (flushTask != null) {
+                flushTask.cancel(false);
+            }
+            // shutdown 已阻止新快照入队；已排队的快照检查完再写盘，否则其中的进度会丢失
+            drainRemainingSnapshots();
+            if (store != null) {
+                store.flush(playerData);
+                store.close();
+                store = null;
+            }
+
             // 清理所有数据
             playerData.clear();
-            pendingChecks.clear();
+            snapshots.clear();
+            queuedSnapshots.set(0);
             dirtyPlayers.clear();
             achievements.clear();
 
@@ -458,89 +613,72 @@ public final class AchievementManager implements Listener {
     public void onPrepareAnvil(PrepareAnvilEvent event) {
         if (shutdown.get()) return;
 
-        ItemStack result = event.getResult();
-        if (result == null || result.getEnchantments().isEmpty()) return;
-
         if (!(event.getView().getPlayer() instanceof Player)) return;
         Player player = (Player) event.getView().getPlayer();
-        UUID playerId = player.getUniqueId();
-        Map<Enchantment, Integer> enchants = new HashMap<>(result.getEnchantments());
-
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            if (!shutdown.get()) {
-                checkAnvilAchievements(playerId, enchants);
-            }
-        });
+        submit(AchievementSnapshot.ofItem(AchievementSnapshot.Kind.ANVIL, player.getUniqueId(), event.getResult()));
     }
 
-    private void checkAnvilAchievements(UUID playerId, Map<Enchantment, Integer> enchants) {
-        try {
-            PlayerAchievementData data = playerData.get(playerId);
-            if (data == null) return;
-
-            // 1. Binder Master: 粘合剂组合了6个冲突附魔
-            if (!data.hasAchievement("binder_master")) {
-                int binderLevel = 0;
-                for (Enchantment e : enchants.keySet()) {
-                    if (e.getKey().getKey().equals("enchantment_binder")) {
-                        binderLevel = enchants.get(e);
-                        break;
-                    }
+    private void checkAnvilAchievements(AchievementSnapshot snapshot, PlayerAchievementData data) {
+        UUID playerId = snapshot.getPlayerId();
+        int[] enchants = snapshot.getItem();
+
+        // 1. Binder Master: 粘合剂组合了6个冲突附魔
+        if (!data.hasAchievement("binder_master")) {
+            int binderLevel = 0;
+            for (int packed : enchants) {
+                if (AchievementSnapshot.keyOf(AchievementSnapshot.code(packed)).equals("enchantment_binder")) {
+                    binderLevel = AchievementSnapshot.level(packed);
+                    break;
                 }
+            }
 
-                if (binderLevel >= 3) {
-                    int conflicts = com.enadd.enchantments.conflict.EnchantmentCompatibilityChecker.countConflicts(enchants.keySet());
-                    if (conflicts >= 6) {
-                        Player player = Bukkit.getPlayer(playerId);
-                        if (player != null && player.isOnline()) {
-                            awardAchievement(player, "binder_master");
-                        }
-                    }
-                }
+            if (binderLevel >= 3 && countConflicts(enchants) >= 6) {
+                award(playerId, "binder_master");
             }
+        }
 
-            // 2. Conflict Breaker: 同时拥有 锋利、亡灵杀手、节肢杀手
-            if (!data.hasAchievement("conflict_breaker")) {
-                Set<String> keys = new HashSet<>();
-                enchants.keySet().forEach(e -> keys.add(e.getKey().getKey()));
-                if (keys.contains("sharpness") && keys.contains("smite") && keys.contains("bane_of_arthropods")) {
-                    Player player = Bukkit.getPlayer(playerId);
-                    if (player != null && player.isOnline()) {
-                        awardAchievement(player, "conflict_breaker");
-                    }
-                }
+        // 2. Conflict Breaker: 同时拥有 锋利、亡灵杀手、节肢杀手
+        if (!data.hasAchievement("conflict_breaker")) {
+            if (AchievementSnapshot.contains(enchants, AchievementSnapshot.codeOf("minecraft:sharpness"))
+                && AchievementSnapshot.contains(enchants, AchievementSnapshot.codeOf("minecraft:smite"))
+                && AchievementSnapshot.contains(enchants, AchievementSnapshot.codeOf("minecraft:bane_of_arthropods"))) {
+                award(playerId, "conflict_breaker");
             }
+        }
 
-            // 3. Perfect Enchantment: 10个以上的 X 级附魔
-            if (!data.hasAchievement("perfect_enchantment")) {
-                int countX = 0;
-                for (Map.Entry<Enchantment, Integer> entry : enchants.entrySet()) {
-                    if (entry.getValue() >= 10) {
-                        countX++;
-                    }
-                }
-                if (countX >= 10) {
-                    Player player = Bukkit.getPlayer(playerId);
-                    if (player != null && player.isOnline()) {
-                        awardAchievement(player, "perfect_enchantment");
-                    }
+        // 3. Perfect Enchantment: 10个以上的 X 级附魔
+        if (!data.hasAchievement("perfect_enchantment")) {
+            int countX = 0;
+            for (int packed : enchants) {
+                if (AchievementSnapshot.level(packed) >= 10) {
+                    countX++;
                 }
             }
+            if (countX >= 10) {
+                award(playerId, "perfect_enchantment");
+            }
+        }
 
-            // 4. Legendary Smith: 使用铁砧500次
-            if (!data.hasAchievement("legendary_smith")) {
-                int count = data.incrementCounter("anvil_uses");
-                if (count >= 500) {
-                    Player player = Bukkit.getPlayer(playerId);
-                    if (player != null && player.isOnline()) {
-                        awardAchievement(player, "legendary_smith");
-                    }
-                }
+        // 4. Legendary Smith: 使用铁砧500次
+        if (!data.hasAchievement("legendary_smith")) {
+            int count = data.incrementCounter("anvil_uses");
+            if (count >= 500) {
+                award(playerId, "legendary_smith");
             }
+        }
+    }
 
-        } catch (Exception e) {
-            // Silent
+    /**
+     * 物品上的冲突对数量，直接在编译后的冲突矩阵上计算
+     */
+    private int countConflicts(int[] enchants) {
+        com.enadd.core.conflict.EnchantmentConflictManager conflicts = com.enadd.core.conflict.EnchantmentConflictManager.getInstance();
+        com.enadd.core.conflict.ConflictMatrix matrix = conflicts.getConflictMatrix();
+        long[] mask = matrix.newMask();
+        for (int code : AchievementSnapshot.distinctCodes(enchants)) {
+            com.enadd.core.conflict.ConflictMatrix.set(mask, conflicts.getConflictIndex(AchievementSnapshot.nameOf(code)));
         }
+        return matrix.countConflicts(mask);
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
@@ -548,32 +686,10 @@ public final class AchievementManager implements Listener {
         if (shutdown.get()) return;
 
         Player player = event.getPlayer();
-        UUID playerId = player.getUniqueId();
-        if (!playerData.containsKey(playerId)) {
-            playerData.put(playerId, new PlayerAchievementData());
-        }
-        pendingChecks.putIfAbsent(playerId, ConcurrentHashMap.newKeySet());
+        loadPlayerData(player.getUniqueId());
 
         // Capture data on main thread
-        Map<String, Integer> enchants = capturePlayerEnchantments(player);
-
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            if (!shutdown.get()) {
-                checkEnchantmentMaster(playerId, enchants);
-                
-                // Track seen enchantments for Enchantment Scholar
-                PlayerAchievementData data = playerData.get(playerId);
-                if (data != null) {
-                    for (ItemStack item : player.getInventory().getContents()) {
-                        if (item != null && !item.getEnchantments().isEmpty()) {
-                            for (Enchantment ench : item.getEnchantments().keySet()) {
-                                trackSeenEnchantment(player, ench);
-                            }
-                        }
-                    }
-                }
-            }
-        });
+        submit(AchievementSnapshot.ofInventory(AchievementSnapshot.Kind.JOIN, player));
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
@@ -581,7 +697,6 @@ public final class AchievementManager implements Listener {
         if (shutdown.get()) return;
 
         UUID playerId = event.getPlayer().getUniqueId();
-        pendingChecks.remove(playerId);
         dirtyPlayers.remove(playerId);
         
         // BUG FIX #8: 清理速率限制Map，防止内存泄露
@@ -589,15 +704,30 @@ public final class AchievementManager implements Listener {
         lastSniperShot.remove(playerId);
         lastBossKill.remove(playerId);
 
+        AchievementStore current = store;
+        PlayerAchievementData data = playerData.get(playerId);
+        if (current != null && data != null && data.isDirty()) {
+            com.enadd.core.async.ExecutionLayer.getInstance().io("achievement-store")
+                .execute(() -> current.save(playerId, data));
+        }
+
         // Clean up player data after 5 minutes to prevent memory leaks
         Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, () -> {
             Player player = Bukkit.getPlayer(playerId);
             if (player == null || !player.isOnline()) {
-                playerData.remove(playerId);
+                PlayerAchievementData removed = playerData.get(playerId);
+                AchievementStore latest = store;
+                if (removed != null && removed.isDirty() && latest != null) {
+                    latest.save(playerId, removed);
+                }
+                playerData.remove(playerId, removed);
             }
         }, 6000L); // 5 minutes
     }
 
+    /**
+     * 标记玩家需要重新检查装备和附魔收藏，可在任意线程调用；下一 tick 在主线程统一捕获快照
+     */
     public void markPlayerDirty(UUID playerId) {
         dirtyPlayers.add(playerId);
         scheduleBatchCheck();
@@ -605,7 +735,7 @@ public final class AchievementManager implements Listener {
 
     private void scheduleBatchCheck() {
         if (batchProcessing.compareAndSet(false, true)) {
-            Bukkit.getScheduler().runTaskAsynchronously(plugin, this::processDirtyPlayers);
+            Bukkit.getScheduler().runTask(plugin, this::processDirtyPlayers);
         }
     }
 
@@ -618,12 +748,7 @@ public final class AchievementManager implements Listener {
             for (UUID playerId : currentDirty) {
                 Player player = Bukkit.getPlayer(playerId);
                 if (player != null && player.isOnline()) {
-                    Set<String> checks = pendingChecks.remove(playerId);
-                    if (checks != null) {
-                        for (String check : checks) {
-                            processPendingCheck(player, check);
-                        }
-                    }
+                    submit(AchievementSnapshot.ofInventory(AchievementSnapshot.Kind.INVENTORY, player));
                 }
             }
         } finally {
@@ -631,24 +756,10 @@ public final class AchievementManager implements Listener {
         }
     }
 
-    private void processPendingCheck(Player player, String checkType) {
-        switch (checkType) {
-            case "enchantment":
-                checkEnchantmentMaster(player.getUniqueId(), capturePlayerEnchantments(player));
-                break;
-            case "equipment":
-                checkEquipmentAchievements(player);
-                break;
-        }
-    }
-
-    private void checkEquipmentAchievements(Player player) {
-        PlayerAchievementData data = playerData.get(player.getUniqueId());
-        if (data == null) return;
-
+    private void checkEquipmentAchievements(AchievementSnapshot snapshot, PlayerAchievementData data) {
         // 使用注册表检查诅咒战士成就
-        if (com.enadd.achievements.checker.AchievementCheckerRegistry.checkAchievement(player, data, "cursed_warrior")) {
-            awardAchievement(player, "cursed_warrior");
+        if (com.enadd.achievements.checker.AchievementCheckerRegistry.checkAchievement(snapshot, data, "cursed_warrior")) {
+            award(snapshot.getPlayerId(), "cursed_warrior");
         }
     }
 
@@ -659,50 +770,30 @@ public final class AchievementManager implements Listener {
         Player killer = event.getEntity().getKiller();
         if (killer == null) return;
 
-        ItemStack weapon = killer.getInventory().getItemInMainHand();
-        if (weapon == null || weapon.getEnchantments().isEmpty()) return;
-
         // Capture data on main thread
-        UUID killerId = killer.getUniqueId();
-        Map<Enchantment, Integer> enchants = new HashMap<>(weapon.getEnchantments());
         org.bukkit.entity.Entity victim = event.getEntity();
-        EntityType victimType = victim.getType();
-
-        // Check achievements (async to avoid TPS impact)
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            if (!shutdown.get()) {
-                checkExecutionKill(killerId, victim, enchants);
-                checkUltimateWarrior(killerId);
-                checkGodSlayer(killerId, victimType);
-            }
-        });
+        submit(AchievementSnapshot.ofItem(AchievementSnapshot.Kind.KILL, killer.getUniqueId(),
+            killer.getInventory().getItemInMainHand(), victim.getType().name(), 0.0, isBoss(victim)));
     }
 
-    private void checkUltimateWarrior(UUID playerId) {
-        PlayerAchievementData data = playerData.get(playerId);
-        if (data != null && !data.hasAchievement("ultimate_warrior")) {
+    private void checkUltimateWarrior(UUID playerId, PlayerAchievementData data) {
+        if (!data.hasAchievement("ultimate_warrior")) {
             int count = data.incrementCounter("ultimate_warrior_kills");
             if (count >= 1000) {
-                Player player = Bukkit.getPlayer(playerId);
-                if (player != null && player.isOnline()) {
-                    Bukkit.getScheduler().runTask(plugin, () -> awardAchievement(player, "ultimate_warrior"));
-                }
+                award(playerId, "ultimate_warrior");
             }
         }
     }
 
-    private void checkGodSlayer(UUID playerId, EntityType victimType) {
-        PlayerAchievementData data = playerData.get(playerId);
-        if (data != null && !data.hasAchievement("god_slayer")) {
-            if (victimType == EntityType.ENDER_DRAGON || victimType == EntityType.WITHER || victimType == EntityType.WARDEN) {
-                data.trackBossKill(victimType.name());
+    private void checkGodSlayer(UUID playerId, PlayerAchievementData data, String victimType) {
+        if (!data.hasAchievement("god_slayer")) {
+            if (victimType.equals(EntityType.ENDER_DRAGON.name()) || victimType.equals(EntityType.WITHER.name())
+                || victimType.equals(EntityType.WARDEN.name())) {
+                data.trackBossKill(victimType);
                 if (data.hasKilledBoss(EntityType.ENDER_DRAGON.name()) &&
                     data.hasKilledBoss(EntityType.WITHER.name()) &&
                     data.hasKilledBoss(EntityType.WARDEN.name())) {
-                    Player player = Bukkit.getPlayer(playerId);
-                    if (player != null && player.isOnline()) {
-                        Bukkit.getScheduler().runTask(plugin, () -> awardAchievement(player, "god_slayer"));
-                    }
+                    award(playerId, "god_slayer");
                 }
             }
         }
@@ -715,26 +806,13 @@ public final class AchievementManager implements Listener {
         Player player = event.getPlayer();
         if (player == null) return;
 
-        ItemStack tool = player.getInventory().getItemInMainHand();
-        if (tool == null || tool.getEnchantments().isEmpty()) return;
-
         // Check for tree feller achievement (async)
         if (isWoodBlock(event.getBlock().getType())) {
             UUID playerId = player.getUniqueId();
             PlayerAchievementData data = playerData.get(playerId);
             if (data != null && !data.hasAchievement("lumberjack")) {
-                Map<Enchantment, Integer> enchants = new HashMap<>(tool.getEnchantments());
-
-                Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-                    if (!shutdown.get()) {
-                        checkTreeFellerProgress(playerId, enchants);
-                        
-                        // 使用注册表统一检查
-                        if (com.enadd.achievements.checker.AchievementCheckerRegistry.checkAchievement(player, data, "lumberjack")) {
-                            awardAchievement(player, "lumberjack");
-                        }
-                    }
-                });
+                submit(AchievementSnapshot.ofItem(AchievementSnapshot.Kind.BLOCK_BREAK, playerId,
+                    player.getInventory().getItemInMainHand()));
             }
         }
     }
@@ -745,120 +823,53 @@ public final class AchievementManager implements Listener {
 
         if (event.getDamager() instanceof Player) {
             Player shooter = (Player) event.getDamager();
-            ItemStack weapon = shooter.getInventory().getItemInMainHand();
-            if (weapon == null || weapon.getEnchantments().isEmpty()) return;
-
-            UUID shooterId = shooter.getUniqueId();
-            Map<Enchantment, Integer> enchants = new HashMap<>(weapon.getEnchantments());
 
             // Check for sniper achievement
             double distance = shooter.getLocation().distance(event.getEntity().getLocation());
-
-            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-                if (!shutdown.get()) {
-                    checkSniperShot(shooterId, distance, enchants);
-                    checkElementalMaster(shooterId, enchants);
-                    
-                    // 使用注册表统一检查 marksman
-                    PlayerAchievementData data = playerData.get(shooterId);
-                    if (data != null && com.enadd.achievements.checker.AchievementCheckerRegistry.checkAchievement(shooter, data, "marksman")) {
-                        awardAchievement(shooter, "marksman");
-                    }
-                }
-            });
+            submit(AchievementSnapshot.ofItem(AchievementSnapshot.Kind.HIT, shooter.getUniqueId(),
+                shooter.getInventory().getItemInMainHand(), null, distance, false));
         }
     }
 
-    private void checkElementalMaster(UUID playerId, Map<Enchantment, Integer> enchants) {
-        PlayerAchievementData data = playerData.get(playerId);
-        if (data != null && !data.hasAchievement("elemental_master")) {
-            for (Enchantment ench : enchants.keySet()) {
-                String key = ench.getKey().getKey().toLowerCase();
-                if (key.contains("fire") || key.contains("ice") || key.contains("lightning") || key.contains("poison")) {
-                    if (key.contains("fire")) data.trackUsedElement("fire");
-                    if (key.contains("ice")) data.trackUsedElement("ice");
-                    if (key.contains("lightning")) data.trackUsedElement("lightning");
-                    if (key.contains("poison")) data.trackUsedElement("poison");
-                }
+    private void checkElementalMaster(UUID playerId, PlayerAchievementData data, int[] enchants) {
+        if (!data.hasAchievement("elemental_master")) {
+            for (int packed : enchants) {
+                int code = AchievementSnapshot.code(packed);
+                if (AchievementSnapshot.hasFlag(code, AchievementSnapshot.FLAG_FIRE)) data.trackUsedElement("fire");
+                if (AchievementSnapshot.hasFlag(code, AchievementSnapshot.FLAG_ICE)) data.trackUsedElement("ice");
+                if (AchievementSnapshot.hasFlag(code, AchievementSnapshot.FLAG_LIGHTNING)) data.trackUsedElement("lightning");
+                if (AchievementSnapshot.hasFlag(code, AchievementSnapshot.FLAG_POISON)) data.trackUsedElement("poison");
             }
 
             if (data.hasUsedElement("fire") && data.hasUsedElement("ice") &&
                 data.hasUsedElement("lightning") && data.hasUsedElement("poison")) {
-                Player player = Bukkit.getPlayer(playerId);
-                if (player != null && player.isOnline()) {
-                    Bukkit.getScheduler().runTask(plugin, () -> awardAchievement(player, "elemental_master"));
-                }
+                award(playerId, "elemental_master");
             }
         }
     }
 
-    private void checkEnchantmentMaster(UUID playerId, Map<String, Integer> uniqueEnchantments) {
-        try {
-            PlayerAchievementData data = playerData.get(playerId);
-            if (data == null || data.hasAchievement("enchantment_master")) return;
-
-            Player player = Bukkit.getPlayer(playerId);
-            if (player == null || !player.isOnline()) return;
-
-            // 使用注册表检查附魔大师成就
-            if (com.enadd.achievements.checker.AchievementCheckerRegistry.checkAchievement(player, data, "enchantment_master")) {
-                awardAchievement(player, "enchantment_master");
-            }
-
-            // 检查收藏家成就 (226+ 个附魔)
-            if (!data.hasAchievement("collector")) {
-                if (uniqueEnchantments.size() >= 226) {
-                    awardAchievement(player, "collector");
-                }
-            }
+    private void checkEnchantmentMaster(AchievementSnapshot snapshot, PlayerAchievementData data) {
+        if (data.hasAchievement("enchantment_master") && data.hasAchievement("collector")) return;
 
-        } catch (Exception e) {
-            // Silent error handling to prevent TPS impact
-        }
-    }
-
-    private Map<String, Integer> capturePlayerEnchantments(Player player) {
-        Map<String, Integer> enchants = new HashMap<>();
-
-        // Check all equipment slots
-        ItemStack[] equipment = {
-            player.getInventory().getHelmet(),
-            player.getInventory().getChestplate(),
-            player.getInventory().getLeggings(),
-            player.getInventory().getBoots(),
-            player.getInventory().getItemInMainHand(),
-            player.getInventory().getItemInOffHand()
-        };
-
-        for (ItemStack item : equipment) {
-            if (item != null) {
-                item.getEnchantments().keySet().forEach(enchant -> {
-                    String key = enchant.getKey().toString();
-                    if (key.startsWith("enadd:")) {
-                        enchants.put(key, item.getEnchantmentLevel(enchant));
-                    }
-                });
-            }
+        // 使用注册表检查附魔大师成就
+        if (com.enadd.achievements.checker.AchievementCheckerRegistry.checkAchievement(snapshot, data, "enchantment_master")) {
+            award(snapshot.getPlayerId(), "enchantment_master");
         }
 
-        // Check inventory for enchanted books/items
-        for (ItemStack item : player.getInventory().getContents()) {
-            if (item != null) {
-                item.getEnchantments().keySet().forEach(enchant -> {
-                    String key = enchant.getKey().toString();
-                    if (key.startsWith("enadd:")) {
-                        enchants.put(key, item.getEnchantmentLevel(enchant));
-                    }
-                });
+        // 检查收藏家成就 (226+ 个附魔)
+        if (!data.hasAchievement("collector")) {
+            if (AchievementSnapshot.countDistinct(snapshot.getInventory(), AchievementSnapshot.FLAG_ENADD) >= 226) {
+                award(snapshot.getPlayerId(), "collector");
             }
         }
-        return enchants;
     }
 
     public void resetAchievements(Player player) {
         UUID playerId = player.getUniqueId();
-        playerData.put(playerId, new PlayerAchievementData());
-        pendingChecks.put(playerId, ConcurrentHashMap.newKeySet());
+        PlayerAchievementData fresh = new PlayerAchievementData();
+        // 新对象没有修改标记，标记后下次写入时覆盖存储中的旧记录
+        fresh.markDirty();
+        playerData.put(playerId, fresh);
         dirtyPlayers.remove(playerId);
     }
     
@@ -879,109 +890,102 @@ public final class AchievementManager implements Listener {
         return true;
     }
 
-    private void checkExecutionKill(UUID killerId, org.bukkit.entity.Entity victim, Map<Enchantment, Integer> enchants) {
-        try {
-            PlayerAchievementData data = playerData.get(killerId);
-            if (data == null || data.hasAchievement("one_shot_kill")) return;
+    private void checkExecutionKill(AchievementSnapshot snapshot, PlayerAchievementData data) {
+        UUID killerId = snapshot.getPlayerId();
+        if (data.hasAchievement("one_shot_kill")) return;
+
+        // 速率限制检查
+        Long lastTime = lastBossKill.get(killerId);
+        long currentTime = snapshot.getTime();
+
+        if (lastTime != null && (currentTime - lastTime) < MIN_BOSS_KILL_INTERVAL) {
+            return; // 太快了，可能在刷
+        }
+
+        // Check if weapon has execution enchantment and victim is a boss
+        boolean hasExecution = AchievementSnapshot.contains(snapshot.getItem(), AchievementSnapshot.codeOf("enadd:execution"));
+
+        if (hasExecution && snapshot.isBoss()) {
+            lastBossKill.put(killerId, currentTime);
+            award(killerId, "one_shot_kill");
+        }
+    }
+
+    private void checkTreeFellerProgress(AchievementSnapshot snapshot, PlayerAchievementData data) {
+        UUID playerId = snapshot.getPlayerId();
+        if (data.hasAchievement("lumberjack")) return;
 
+        boolean hasTreeFeller = AchievementSnapshot.contains(snapshot.getItem(), AchievementSnapshot.codeOf("enadd:arbor_master"));
+
+        if (hasTreeFeller) {
             // 速率限制检查
-            Long lastTime = lastBossKill.get(killerId);
-            long currentTime = System.currentTimeMillis();
-            
-            if (lastTime != null && (currentTime - lastTime) < MIN_BOSS_KILL_INTERVAL) {
+            Long lastTime = lastTreeCut.get(playerId);
+            long currentTime = snapshot.getTime();
+
+            if (lastTime != null && (currentTime - lastTime) < MIN_TREE_CUT_INTERVAL) {
                 return; // 太快了，可能在刷
             }
 
-            // Check if weapon has execution enchantment and victim is a boss
-            boolean hasExecution = enchants.keySet().stream()
-                .anyMatch(enchant -> enchant.getKey().toString().equals("enadd:execution"));
+            lastTreeCut.put(playerId, currentTime);
 
-            if (hasExecution && isBoss(victim)) {
-                lastBossKill.put(killerId, currentTime);
-                
-                Player killer = Bukkit.getPlayer(killerId);
-                if (killer != null && killer.isOnline()) {
-                    awardAchievement(killer, "one_shot_kill");
-                }
+            int newCount = data.incrementCounter("trees_cut");
+            if (newCount >= 1000) {
+                award(playerId, "lumberjack");
             }
-
-        } catch (Exception e) {
-            // Silent error handling
         }
     }
 
-    private void checkTreeFellerProgress(UUID playerId, Map<Enchantment, Integer> enchants) {
-        try {
-            PlayerAchievementData data = playerData.get(playerId);
-            if (data == null || data.hasAchievement("lumberjack")) return;
-
-            boolean hasTreeFeller = enchants.keySet().stream()
-                .anyMatch(enchant -> enchant.getKey().toString().equals("enadd:arbor_master"));
-
-            if (hasTreeFeller) {
-                // 速率限制检查
-                Long lastTime = lastTreeCut.get(playerId);
-                long currentTime = System.currentTimeMillis();
-                
-                if (lastTime != null && (currentTime - lastTime) < MIN_TREE_CUT_INTERVAL) {
-                    return; // 太快了，可能在刷
-                }
-                
-                lastTreeCut.put(playerId, currentTime);
-                
-                int newCount = data.incrementCounter("trees_cut");
-                if (newCount >= 1000) {
-                    Player player = Bukkit.getPlayer(playerId);
-                    if (player != null && player.isOnline()) {
-                        awardAchievement(player, "lumberjack");
-                    }
-                }
+    private void checkSniperShot(AchievementSnapshot snapshot, PlayerAchievementData data) {
+        UUID shooterId = snapshot.getPlayerId();
+        if (data.hasAchievement("marksman")) return;
+
+        boolean hasSniper = AchievementSnapshot.contains(snapshot.getItem(), AchievementSnapshot.codeOf("enadd:sniper"));
+
+        if (hasSniper && snapshot.getDistance() >= 50.0) {
+            // 速率限制检查
+            Long lastTime = lastSniperShot.get(shooterId);
+            long currentTime = snapshot.getTime();
+
+            if (lastTime != null && (currentTime - lastTime) < MIN_SNIPER_SHOT_INTERVAL) {
+                return; // 太快了，可能在刷
             }
 
-        } catch (Exception e) {
-            // Silent error handling
+            lastSniperShot.put(shooterId, currentTime);
+
+            int newCount = data.incrementCounter("sniper_shots");
+            if (newCount >= 100) {
+                award(shooterId, "marksman");
+            }
         }
     }
 
-    private void checkSniperShot(UUID shooterId, double distance, Map<Enchantment, Integer> enchants) {
-        try {
-            PlayerAchievementData data = playerData.get(shooterId);
-            if (data == null || data.hasAchievement("marksman")) return;
-
-            boolean hasSniper = enchants.keySet().stream()
-                .anyMatch(enchant -> enchant.getKey().toString().equals("enadd:sniper"));
-
-            if (hasSniper) {
-                if (distance >= 50.0) {
-                    // 速率限制检查
-                    Long lastTime = lastSniperShot.get(shooterId);
-                    long currentTime = System.currentTimeMillis();
-                    
-                    if (lastTime != null && (currentTime - lastTime) < MIN_SNIPER_SHOT_INTERVAL) {
-                        return; // 太快了，可能在刷
-                    }
-                    
-                    lastSniperShot.put(shooterId, currentTime);
-                    
-                    int newCount = data.incrementCounter("sniper_shots");
-                    if (newCount >= 100) {
-                        Player shooter = Bukkit.getPlayer(shooterId);
-                        if (shooter != null && shooter.isOnline()) {
-                            awardAchievement(shooter, "marksman");
-                        }
-                    }
-                }
-            }
+    /**
+     * 经主线程桥交回主线程，同一玩家的奖励按检查顺序发放
+     */
+    private void runOnMain(Runnable task) {
+        com.enadd.core.async.ExecutionLayer.getInstance().runOnMain(task);
+    }
 
-        } catch (Exception e) {
-            // Silent error handling
-        }
+    /**
+     * 工作线程：把奖励交回主线程发放，玩家已离线时不发放
+     */
+    private void award(UUID playerId, String achievementId) {
+        runOnMain(() -> {
+            Player player = Bukkit.getPlayer(playerId);
+            if (player != null && player.isOnline()) {
+                awardAchievement(player, achievementId);
+            }
+        });
     }
 
+    /**
+     * 主线程：发放成就并通知玩家
+     */
     private void awardAchievement(Player player, String achievementId) {
         try {
             PlayerAchievementData data = playerData.get(player.getUniqueId());
-            if (data == null) return;
+            // 工作线程可能在奖励送达前再次判定达成
+            if (data == null || data.hasAchievement(achievementId)) return;
 
             data.awardAchievement(achievementId);
             Achievement achievement = achievements.get(achievementId);
@@ -993,11 +997,8 @@ public final class AchievementManager implements Listener {
                     vanillaRegistry.grantAchievement(player, achievementId);
                 }
 
-                // Run on main thread for player interaction
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    showAchievementNotification(player, achievement);
-                    broadcastAchievement(player, achievement);
-                });
+                showAchievementNotification(player, achievement);
+                broadcastAchievement(player, achievement);
             }
 
         } catch (Exception e) {
@@ -1091,6 +1092,20 @@ public final class AchievementManager implements Listener {
         return data != null ? data.getCounter(counter) : 0;
     }
 
+    /**
+     * 等待检查的快照数
+     */
+    public int getQueuedSnapshots() {
+        return queuedSnapshots.get();
+    }
+
+    /**
+     * 队列已满时丢弃的快照数
+     */
+    public long getDroppedSnapshots() {
+        return droppedSnapshots.sum();
+    }
+
     // Clean up data when player leaves (memory management)
     public void cleanupPlayerData(UUID playerId) {
         // Keep data for offline players, but could implement cleanup logic here
@@ -0,0 +1,351 @@
+package com.enadd.achievements;
+
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * 成就检查快照
+ *
+ * 主线程在事件中只读取检查所需的最少数据：玩家 UUID、相关物品上的附魔，以及事件本身的几个值。
+ * 附魔编码为 int：高位是进程内分配的附魔代码，低 8 位是等级（超过 255 按 255 计），
+ * 每组按代码排序；同一物品组内的重复条目保留，用于按件计数（如诅咒数量）。
+ *
+ * 快照构建后不可变，工作线程只读取快照，不再访问 Player 或 ItemStack。
+ * 附魔代码表只追加，名称和标记在创建代码时计算一次。
+ */
+public final class AchievementSnapshot {
+
+    /**
+     * 快照来源，决定工作线程执行哪些检查
+     */
+    public enum Kind {
+        /** 玩家加入：附魔收藏类成就、记录见过的附魔 */
+        JOIN,
+        /** 标记为待检查的玩家：附魔收藏类与装备类成就 */
+        INVENTORY,
+        /** 每分钟一次：诅咒大师、寻宝者 */
+        MAINTENANCE,
+        /** 点击物品：记录见过的附魔 */
+        CLICK,
+        /** 按名称记录见过的附魔 */
+        SEEN,
+        /** 铁砧合成结果 */
+        ANVIL,
+        /** 即将受到致命伤害 */
+        FATAL_DAMAGE,
+        /** 击杀生物 */
+        KILL,
+        /** 破坏原木 */
+        BLOCK_BREAK,
+        /** 攻击实体 */
+        HIT
+    }
+
+    public static final int FLAG_ENADD = 1;
+    public static final int FLAG_CURSE = 1 << 1;
+    public static final int FLAG_TREASURE = 1 << 2;
+    public static final int FLAG_FIRE = 1 << 3;
+    public static final int FLAG_ICE = 1 << 4;
+    public static final int FLAG_LIGHTNING = 1 << 5;
+    public static final int FLAG_POISON = 1 << 6;
+
+    private static final int LEVEL_BITS = 8;
+    private static final int LEVEL_MASK = (1 << LEVEL_BITS) - 1;
+    private static final int[] NONE = new int[0];
+    private static final Set<String> VANILLA_TREASURES = Set.of(
+        "minecraft:mending", "minecraft:frost_walker", "minecraft:swift_sneak", "minecraft:soul_speed");
+
+    // 附魔代码表：主线程（或任意线程）分配，数组整体替换后发布，读取方无锁
+    private static final Object CODES_LOCK = new Object();
+    private static final Map<Enchantment, Integer> BY_ENCHANTMENT = new ConcurrentHashMap<>();
+    private static final Map<String, Integer> BY_NAME = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[0];
+    private static volatile int[] flags = new int[0];
+
+    private final Kind kind;
+    private final UUID playerId;
+    private final long time;
+    private final int[] item;
+    private final int[] armor;
+    private final int[] inventory;
+    private final String detail;
+    private final double distance;
+    private final boolean boss;
+
+    private AchievementSnapshot(Kind kind, UUID playerId, int[] item, int[] armor, int[] inventory,
+                                String detail, double distance, boolean boss) {
+        this.kind = kind;
+        this.playerId = playerId;
+        this.time = System.currentTimeMillis();
+        this.item = item;
+        this.armor = armor;
+        this.inventory = inventory;
+        this.detail = detail;
+        this.distance = distance;
+        this.boss = boss;
+    }
+
+    // ========== 主线程构建 ==========
+
+    /**
+     * 整个背包（含盔甲、副手）以及盔甲、主手
+     */
+    public static AchievementSnapshot ofInventory(Kind kind, Player player) {
+        PlayerInventory inv = player.getInventory();
+        return new AchievementSnapshot(kind, player.getUniqueId(), encode(inv.getItemInMainHand()),
+            encode(inv.getArmorContents()), encode(inv.getContents()), null, 0.0, false);
+    }
+
+    /**
+     * 只含盔甲
+     */
+    public static AchievementSnapshot ofArmor(Kind kind, Player player) {
+        return new AchievementSnapshot(kind, player.getUniqueId(), NONE,
+            encode(player.getInventory().getArmorContents()), NONE, null, 0.0, false);
+    }
+
+    /**
+     * 单件物品（主手工具、点击的物品、铁砧结果），物品没有附魔时返回 null
+     */
+    public static AchievementSnapshot ofItem(Kind kind, UUID playerId, ItemStack stack) {
+        return ofItem(kind, playerId, stack, null, 0.0, false);
+    }
+
+    /**
+     * 单件物品及事件信息（目标类型、距离、是否为 Boss），物品没有附魔时返回 null
+     */
+    public static AchievementSnapshot ofItem(Kind kind, UUID playerId, ItemStack stack,
+                                             String detail, double distance, boolean boss) {
+        int[] codes = encode(stack);
+        if (codes.length == 0) {
+            return null;
+        }
+        return new AchievementSnapshot(kind, playerId, codes, NONE, NONE, detail, distance, boss);
+    }
+
+    /**
+     * 按名称记录见过的附魔，不读取任何物品
+     */
+    public static AchievementSnapshot ofSeen(UUID playerId, String enchantmentKey) {
+        return new AchievementSnapshot(Kind.SEEN, playerId, NONE, NONE, NONE, enchantmentKey, 0.0, false);
+    }
+
+    private static int[] encode(ItemStack... stacks) {
+        int[] out = NONE;
+        int size = 0;
+        for (ItemStack stack : stacks) {
+            if (stack == null || stack.getType().isAir()) {
+                continue;
+            }
+            // getEnchantments() 本身已返回副本，直接编码，不再复制
+            Map<Enchantment, Integer> enchants = stack.getEnchantments();
+            if (enchants.isEmpty()) {
+                continue;
+            }
+            if (size + enchants.size() > out.length) {
+                out = Arrays.copyOf(out, Math.max(16, Math.max(out.length * 2, size + enchants.size())));
+            }
+            for (Map.Entry<Enchantment, Integer> entry : enchants.entrySet()) {
+                out[size++] = pack(codeOf(entry.getKey()), entry.getValue());
+            }
+        }
+        if (size == 0) {
+            return NONE;
+        }
+        int[] codes = out.length == size ? out : Arrays.copyOf(out, size);
+        Arrays.sort(codes);
+        return codes;
+    }
+
+    static int pack(int code, int level) {
+        return (code << LEVEL_BITS) | Math.max(0, Math.min(LEVEL_MASK, level));
+    }
+
+    // ========== 附魔代码 ==========
+
+    /**
+     * 附魔的代码，首次出现时分配
+     */
+    public static int codeOf(Enchantment enchantment) {
+        Integer code = BY_ENCHANTMENT.get(enchantment);
+        if (code != null) {
+            return code;
+        }
+        String name = enchantment.getKey().toString();
+        int extra = enchantment instanceof com.enadd.enchantments.BaseEnchantment
+            && ((com.enadd.enchantments.BaseEnchantment) enchantment).isTreasure() ? FLAG_TREASURE : 0;
+        int assigned = intern(name, extra);
+        BY_ENCHANTMENT.put(enchantment, assigned);
+        return assigned;
+    }
+
+    /**
+     * 按完整 ID（如 enadd:sniper，没有命名空间时按 minecraft 处理）取代码，首次出现时分配
+     */
+    public static int codeOf(String key) {
+        String name = key.indexOf(':') >= 0 ? key.toLowerCase() : "minecraft:" + key.toLowerCase();
+        Integer code = BY_NAME.get(name);
+        return code != null ? code : intern(name, 0);
+    }
+
+    static int intern(String name, int extraFlags) {
+        synchronized (CODES_LOCK) {
+            Integer existing = BY_NAME.get(name);
+            if (existing != null) {
+                if ((flags[existing] | extraFlags) != flags[existing]) {
+                    int[] updated = flags.clone();
+                    updated[existing] |= extraFlags;
+                    flags = updated;
+                }
+                return existing;
+            }
+
+            int code = names.length;
+            String[] nextNames = Arrays.copyOf(names, code + 1);
+            int[] nextFlags = Arrays.copyOf(flags, code + 1);
+            nextNames[code] = name;
+            nextFlags[code] = flagsOf(name) | extraFlags;
+            // 先发布数组，再让代码可见
+            flags = nextFlags;
+            names = nextNames;
+            BY_NAME.put(name, code);
+            return code;
+        }
+    }
+
+    private static int flagsOf(String name) {
+        String path = name.substring(name.indexOf(':') + 1);
+        int result = 0;
+        if (name.startsWith("enadd:")) result |= FLAG_ENADD;
+        if (path.startsWith("curse_")) result |= FLAG_CURSE;
+        if (VANILLA_TREASURES.contains(name)) result |= FLAG_TREASURE;
+        if (path.contains("fire")) result |= FLAG_FIRE;
+        if (path.contains("ice")) result |= FLAG_ICE;
+        if (path.contains("lightning")) result |= FLAG_LIGHTNING;
+        if (path.contains("poison")) result |= FLAG_POISON;
+        return result;
+    }
+
+    /**
+     * 完整 ID，如 enadd:sniper
+     */
+    public static String nameOf(int code) {
+        return names[code];
+    }
+
+    /**
+     * 不带命名空间的 ID，如 sniper
+     */
+    public static String keyOf(int code) {
+        String name = names[code];
+        return name.substring(name.indexOf(':') + 1);
+    }
+
+    public static boolean hasFlag(int code, int flag) {
+        return (flags[code] & flag) != 0;
+    }
+
+    public static int code(int packed) {
+        return packed >>> LEVEL_BITS;
+    }
+
+    public static int level(int packed) {
+        return packed & LEVEL_MASK;
+    }
+
+    // ========== 工作线程查询 ==========
+
+    public Kind getKind() { return kind; }
+    public UUID getPlayerId() { return playerId; }
+    /** 捕获时间（毫秒），用于速率限制 */
+    public long getTime() { return time; }
+    /** 事件附带的名称：目标实体类型或见过的附魔 ID */
+    public String getDetail() { return detail; }
+    public double getDistance() { return distance; }
+    public boolean isBoss() { return boss; }
+
+    /** 单件物品的编码附魔（只读，不要修改） */
+    public int[] getItem() { return item; }
+    /** 盔甲上的编码附魔（只读，不要修改） */
+    public int[] getArmor() { return armor; }
+    /** 整个背包的编码附魔（只读，不要修改） */
+    public int[] getInventory() { return inventory; }
+
+    /**
+     * 物品组中是否有该附魔
+     */
+    public static boolean contains(int[] packed, int code) {
+        return level(packed, code) > 0;
+    }
+
+    /**
+     * 物品组中该附魔的最高等级，没有时返回 0
+     */
+    public static int level(int[] packed, int code) {
+        // 按代码排序：同一代码的条目相邻，等级升序
+        int index = Arrays.binarySearch(packed, pack(code, LEVEL_MASK));
+        if (index >= 0) {
+            return LEVEL_MASK;
+        }
+        int before = -index - 2;
+        return before >= 0 && code(packed[before]) == code ? Math.max(1, level(packed[before])) : 0;
+    }
+
+    /**
+     * 带有指定标记的条目数（按件计数，重复计入）
+     */
+    public static int count(int[] packed, int flag) {
+        int total = 0;
+        for (int value : packed) {
+            if (hasFlag(code(value), flag)) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 带有指定标记的不同附魔数；flag 为 0 时统计全部
+     */
+    public static int countDistinct(int[] packed, int flag) {
+        int total = 0;
+        int previous = -1;
+        for (int value : packed) {
+            int code = code(value);
+            if (code != previous && (flag == 0 || hasFlag(code, flag))) {
+                total++;
+            }
+            previous = code;
+        }
+        return total;
+    }
+
+    /**
+     * 不同附魔的代码，按代码升序
+     */
+    public static int[] distinctCodes(int[] packed) {
+        int[] codes = new int[packed.length];
+        int size = 0;
+        for (int value : packed) {
+            int code = code(value);
+            if (size == 0 || codes[size - 1] != code) {
+                codes[size++] = code;
+            }
+        }
+        return Arrays.copyOf(codes, size);
+    }
+
+    @Override
+    public String toString() {
+        return "AchievementSnapshot{" + kind + ", " + playerId + ", item=" + item.length
+            + ", armor=" + armor.length + ", inventory=" + inventory.length + "}";
+    }
+}
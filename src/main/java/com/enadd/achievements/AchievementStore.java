@@ -0,0 +1,1026 @@
+package com.enadd.achievements;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+
+/**
+ * 成就数据存储 - 追加日志 + 压缩快照
+ *
+ * 每个玩家一条紧凑的二进制记录：已获得的成就、见过的附魔、用过的元素、击杀的 Boss 各是一个位集，
+ * 计数器为 (符号, 值) 的 varint 对。所有字符串进同一张只追加的符号表，位集和计数器只存符号 ID。
+ *
+ * 文件（数据目录/achievements/ 下）：
+ * - snapshot-&lt;代数&gt;.bin：魔数、格式版本、代数、符号表、全部记录，末尾是整个文件的 CRC32
+ * - journal.bin：魔数、格式版本、代数，随后逐条追加 长度(int)、CRC32(int)、类型(byte)、数据；
+ *   类型为新符号或玩家记录，新符号总是先于引用它的记录写入
+ *
+ * 打开时按代数从新到旧内存映射快照并校验 CRC，只建立 UUID → 记录位置的索引，
+ * 玩家加入时才从映射区解码；校验失败的快照改名为 .corrupt 后退回上一代（保留最近 {@value #KEPT_GENERATIONS} 代旧快照）。
+ * 日志逐条校验 CRC 回放，遇到损坏或写了一半的条目时备份原文件并截断到上一条完整条目。
+ * 日志记录的都是完整记录，按顺序回放到更旧的快照上结果不变，因此代数不小于快照代数 - 1 的日志都会回放；
+ * 重置后的日志以完整符号表开头，退回更旧的快照时也能解码。
+ *
+ * 压缩：日志超过阈值或关闭时，在锁内复制符号表和记录索引，在锁外编码并写入新一代快照
+ * （临时文件 + 刷盘 + 原子改名），再回到锁内换上新快照，并以新代数重置日志，
+ * 压缩期间写入的记录和符号带入新日志。旧快照可能仍被映射，删除失败时留到下次压缩或打开时再删。
+ *
+ * 读写在实例上同步，{@link #flush(Map)} 的刷盘和压缩的快照写入在锁外进行，玩家加入时不会等磁盘同步。
+ */
+public final class AchievementStore {
+
+    private static final Logger LOGGER = Logger.getLogger("EnchAdd");
+
+    private static final int SNAPSHOT_MAGIC = 0x45415353; // "EASS"
+    private static final int JOURNAL_MAGIC = 0x4541534A; // "EASJ"
+    private static final int FORMAT_VERSION = 1;
+    private static final int RECORD_VERSION = 1;
+    // 魔数、格式版本、代数
+    private static final int HEADER_SIZE = 16;
+    // 长度、CRC32
+    private static final int ENTRY_HEADER = 8;
+    private static final int MAX_ENTRY_SIZE = 1 << 20;
+    private static final int MAX_SET_WORDS = 1 << 12;
+    private static final byte ENTRY_SYMBOL = 1;
+    private static final byte ENTRY_PLAYER = 2;
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final String JOURNAL_NAME = "journal.bin";
+    // 新快照之外保留的旧快照代数，新快照损坏时退回
+    private static final int KEPT_GENERATIONS = 2;
+
+    private final File directory;
+    private final long compactThreshold;
+
+    // 符号 ID 即下标；从旧快照恢复时可能有空位（null）
+    private final List<String> symbols = new ArrayList<>();
+    private final Map<String, Integer> symbolIds = new HashMap<>();
+
+    // 快照中的记录：UUID -> (偏移 << 32) | 长度
+    private final Map<UUID, Long> snapshotIndex = new HashMap<>();
+    // 日志中比快照新的记录
+    private final Map<UUID, byte[]> journalRecords = new HashMap<>();
+
+    private MappedByteBuffer snapshot;
+    private long generation;
+    private RandomAccessFile journalFile;
+    private volatile FileChannel journal;
+    private long journalEnd;
+    // 重置后日志开头（文件头 + 符号表 + 带入的记录）的长度，超出部分才算新写入
+    private long journalBase;
+    // 已写入但尚未刷盘，退出时单独写入的记录由下一次 flush 刷盘
+    private volatile boolean unsynced;
+    // 已编码、尚未写入日志的条目；写入失败时保留到下次重试
+    private final Writer pending = new Writer(1024);
+
+    private long corruptEntries;
+    private long compactions;
+    // 正在锁外写快照；关闭和重新打开等它结束
+    private boolean compacting;
+
+    /**
+     * @param directory 存储目录
+     * @param compactThreshold 日志超过该字节数时压缩为快照
+     */
+    public AchievementStore(File directory, long compactThreshold) {
+        this.directory = directory;
+        this.compactThreshold = Math.max(64 * 1024, compactThreshold);
+    }
+
+    /**
+     * 打开存储：映射最新的有效快照并回放日志
+     *
+     * @return 打开失败时返回 false，调用方照常在内存中使用数据
+     */
+    public synchronized boolean open() {
+        close(false);
+        try {
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Failed to create directory " + directory.getPath());
+            }
+            loadSnapshot();
+            openJournal();
+            LOGGER.info("Achievement store loaded " + getRecordCount() + " players (generation " + generation
+                + ", journal " + journalEnd + " bytes)");
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to open achievement store: " + directory.getPath(), e);
+            close(false);
+            return false;
+        }
+    }
+
+    // ========== 读写 ==========
+
+    /**
+     * 解码玩家记录
+     *
+     * @return 没有记录（新玩家）或存储未打开时返回 null
+     */
+    public synchronized PlayerAchievementData load(UUID playerId) {
+        if (journal == null || playerId == null) {
+            return null;
+        }
+        try {
+            byte[] record = journalRecords.get(playerId);
+            if (record != null) {
+                return decode(ByteBuffer.wrap(record), 0, record.length);
+            }
+            Long location = snapshotIndex.get(playerId);
+            if (location != null) {
+                return decode(snapshot, (int) (location >>> 32), (int) (location & 0xFFFFFFFFL));
+            }
+        } catch (RuntimeException e) {
+            corruptEntries++;
+            LOGGER.log(Level.WARNING, "Corrupt achievement record for " + playerId + ", starting fresh", e);
+        }
+        return null;
+    }
+
+    /**
+     * 写入有修改的玩家记录并刷盘，日志超过阈值时压缩
+     *
+     * @return 写入的记录数
+     */
+    public int flush(Map<UUID, PlayerAchievementData> players) {
+        int saved = writeDirty(players);
+        FileChannel channel = journal;
+        if (unsynced && channel != null) {
+            unsynced = false;
+            try {
+                // 不持有锁，刷盘期间玩家加入仍可读取记录
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // 日志已被压缩重置替换，新日志在替换前已刷盘
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to sync achievement journal", e);
+            }
+        }
+        if (getJournalGrowth() > compactThreshold) {
+            compact();
+        }
+        return saved;
+    }
+
+    /**
+     * 写入单个玩家的记录（不刷盘），用于玩家退出
+     */
+    public boolean save(UUID playerId, PlayerAchievementData data) {
+        return writeDirty(Map.of(playerId, data)) >= 0;
+    }
+
+    private synchronized int writeDirty(Map<UUID, PlayerAchievementData> players) {
+        if (journal == null) {
+            return 0;
+        }
+        List<PlayerAchievementData> written = new ArrayList<>();
+        for (Map.Entry<UUID, PlayerAchievementData> entry : players.entrySet()) {
+            PlayerAchievementData data = entry.getValue();
+            if (data == null || !data.clearDirty()) {
+                continue;
+            }
+            written.add(data);
+            byte[] record = encode(data);
+            if (Arrays.equals(record, currentRecord(entry.getKey()))) {
+                continue;
+            }
+            Writer payload = new Writer(16 + record.length);
+            payload.longValue(entry.getKey().getMostSignificantBits());
+            payload.longValue(entry.getKey().getLeastSignificantBits());
+            payload.bytes(record, 0, record.length);
+            appendEntry(ENTRY_PLAYER, payload);
+            journalRecords.put(entry.getKey(), record);
+        }
+
+        try {
+            writePending();
+            return written.size();
+        } catch (IOException e) {
+            // 条目留在 pending 中下次重试；修改标记恢复，避免数据只留在内存里
+            LOGGER.log(Level.WARNING, "Failed to write achievement journal", e);
+            written.forEach(PlayerAchievementData::markDirty);
+            return -1;
+        }
+    }
+
+    private byte[] currentRecord(UUID playerId) {
+        byte[] record = journalRecords.get(playerId);
+        if (record != null) {
+            return record;
+        }
+        Long location = snapshotIndex.get(playerId);
+        if (location == null) {
+            return null;
+        }
+        byte[] copy = new byte[(int) (location & 0xFFFFFFFFL)];
+        snapshot.get((int) (location >>> 32), copy);
+        return copy;
+    }
+
+    /**
+     * 把所有记录写入新一代快照并重置日志
+     *
+     * 只有复制索引和换上新快照时持有锁，编码和写盘期间玩家记录照常读写。
+     */
+    public boolean compact() {
+        long next;
+        List<String> names;
+        ByteBuffer source;
+        Map<UUID, Long> index;
+        Map<UUID, byte[]> records;
+        synchronized (this) {
+            if (journal == null || compacting) {
+                return false;
+            }
+            compacting = true;
+            next = generation + 1;
+            // 符号表只追加，映射区只读，日志记录写入后不再修改，复制引用即可
+            names = new ArrayList<>(symbols);
+            source = snapshot;
+            index = new HashMap<>(snapshotIndex);
+            records = new HashMap<>(journalRecords);
+        }
+
+        File temp = new File(directory, SNAPSHOT_PREFIX + next + ".tmp");
+        try {
+            Writer out = new Writer(HEADER_SIZE + 64 * (index.size() + records.size() + 1));
+            out.intValue(SNAPSHOT_MAGIC);
+            out.intValue(FORMAT_VERSION);
+            out.longValue(next);
+            out.varInt(names.size());
+            for (String symbol : names) {
+                out.string(symbol != null ? symbol : "");
+            }
+
+            // 按 UUID 排序，同样的数据写出同样的文件
+            Set<UUID> players = new TreeSet<>(index.keySet());
+            players.addAll(records.keySet());
+            out.varInt(players.size());
+            for (UUID playerId : players) {
+                out.longValue(playerId.getMostSignificantBits());
+                out.longValue(playerId.getLeastSignificantBits());
+                byte[] record = records.get(playerId);
+                if (record == null) {
+                    long location = index.get(playerId);
+                    record = new byte[(int) (location & 0xFFFFFFFFL)];
+                    source.get((int) (location >>> 32), record);
+                }
+                out.varInt(record.length);
+                out.bytes(record, 0, record.length);
+            }
+            out.intValue(crc(out.buffer(), 0, out.size));
+
+            try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = out.buffer();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            File target = snapshotFile(next);
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+            // 新快照已落盘：重新映射校验，再回到锁内换上
+            MappedSnapshot written = readSnapshot(target);
+            if (written == null) {
+                throw new IOException("Snapshot " + target.getName() + " failed verification after writing");
+            }
+            synchronized (this) {
+                install(written);
+                // 压缩期间被替换的记录还不在快照里，带入新日志
+                journalRecords.entrySet().removeIf(entry -> records.get(entry.getKey()) == entry.getValue());
+                resetJournal();
+                compactions++;
+            }
+            deleteOlderSnapshots(next);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to compact achievement store", e);
+            try {
+                Files.deleteIfExists(temp.toPath());
+            } catch (IOException ignored) {
+                // 下次压缩时覆盖
+            }
+            return false;
+        } finally {
+            synchronized (this) {
+                compacting = false;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 写入剩余条目、压缩并关闭文件，可以多次调用
+     */
+    public synchronized void close() {
+        close(true);
+    }
+
+    private void close(boolean compact) {
+        awaitCompaction();
+        if (journal != null) {
+            try {
+                writePending();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to write achievement journal on close", e);
+            }
+            if (compact && journalEnd > journalBase) {
+                compact();
+            }
+            try {
+                journal.force(true);
+                journal.close();
+                journalFile.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to close achievement journal", e);
+            }
+        }
+        journal = null;
+        journalFile = null;
+        journalEnd = 0;
+        journalBase = 0;
+        snapshot = null;
+        pending.reset();
+        symbols.clear();
+        symbolIds.clear();
+        snapshotIndex.clear();
+        journalRecords.clear();
+    }
+
+    private void awaitCompaction() {
+        boolean interrupted = false;
+        while (compacting) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ========== 快照 ==========
+
+    private void loadSnapshot() {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX));
+        List<File> candidates = new ArrayList<>(files != null ? Arrays.asList(files) : List.of());
+        candidates.removeIf(file -> generationOf(file) < 0);
+        candidates.sort((a, b) -> Long.compare(generationOf(b), generationOf(a)));
+
+        for (File file : candidates) {
+            try {
+                MappedSnapshot loaded = readSnapshot(file);
+                if (loaded != null) {
+                    install(loaded);
+                    deleteOlderSnapshots(generation);
+                    return;
+                }
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.FINE, "Failed to read achievement snapshot " + file.getName(), e);
+            }
+            corruptEntries++;
+            LOGGER.severe("Achievement snapshot " + file.getName() + " is corrupt, falling back to an older one");
+            quarantine(file, true);
+        }
+
+        generation = 0;
+        snapshot = null;
+        snapshotIndex.clear();
+        symbols.clear();
+        symbolIds.clear();
+    }
+
+    /**
+     * 映射并校验快照，不修改当前状态
+     *
+     * @return 校验失败时返回 null
+     */
+    private static MappedSnapshot readSnapshot(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + 4 || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            // 映射在通道关闭后仍然有效
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int end = (int) size - 4;
+            if (buffer.getInt(0) != SNAPSHOT_MAGIC || buffer.getInt(4) != FORMAT_VERSION
+                    || crc(buffer, 0, end) != buffer.getInt(end)) {
+                return null;
+            }
+
+            Reader in = new Reader(buffer, HEADER_SIZE, end);
+            int symbolCount = in.count();
+            List<String> names = new ArrayList<>(symbolCount);
+            for (int i = 0; i < symbolCount; i++) {
+                String name = in.string();
+                names.add(name.isEmpty() ? null : name);
+            }
+            int recordCount = in.count();
+            Map<UUID, Long> index = new HashMap<>(recordCount * 2);
+            for (int i = 0; i < recordCount; i++) {
+                UUID playerId = new UUID(in.longValue(), in.longValue());
+                int length = in.count();
+                index.put(playerId, ((long) in.position() << 32) | length);
+                in.skip(length);
+            }
+            if (in.position() != end) {
+                return null;
+            }
+            return new MappedSnapshot(buffer, buffer.getLong(8), names, index);
+        }
+    }
+
+    /**
+     * 换上快照：替换索引和映射区，符号表只补齐快照中的符号（压缩期间新增的符号保留）
+     */
+    private void install(MappedSnapshot loaded) {
+        for (int id = 0; id < loaded.names.size(); id++) {
+            addSymbol(id, loaded.names.get(id));
+        }
+        snapshotIndex.clear();
+        snapshotIndex.putAll(loaded.index);
+        snapshot = loaded.buffer;
+        generation = loaded.generation;
+    }
+
+    private void deleteOlderSnapshots(long current) {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            long fileGeneration = generationOf(file);
+            if (fileGeneration >= 0 && fileGeneration < current - KEPT_GENERATIONS && !file.delete()) {
+                // 仍被映射（Windows）时删除失败，下次再删
+                LOGGER.fine("Could not delete old achievement snapshot " + file.getName());
+            }
+        }
+    }
+
+    private File snapshotFile(long fileGeneration) {
+        return new File(directory, SNAPSHOT_PREFIX + fileGeneration + SNAPSHOT_SUFFIX);
+    }
+
+    private static long generationOf(File file) {
+        String name = file.getName();
+        try {
+            return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    // ========== 日志 ==========
+
+    private void openJournal() throws IOException {
+        File file = new File(directory, JOURNAL_NAME);
+        journalFile = new RandomAccessFile(file, "rw");
+        journal = journalFile.getChannel();
+        long size = journal.size();
+        if (size >= HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(header, 0);
+            if (header.getInt(0) == JOURNAL_MAGIC && header.getInt(4) == FORMAT_VERSION) {
+                long journalGeneration = header.getLong(8);
+                // 上一代的日志是压缩后、重置日志前退出留下的，其中可能有压缩期间写入的记录
+                if (journalGeneration >= generation - 1) {
+                    generation = Math.max(generation, journalGeneration);
+                    replayJournal(file, size);
+                    return;
+                }
+                LOGGER.info("Discarding stale achievement journal (generation " + journalGeneration
+                    + ", snapshot " + generation + ")");
+            } else {
+                corruptEntries++;
+                LOGGER.severe("Achievement journal header is corrupt, starting a new journal");
+                quarantine(file, false);
+            }
+        }
+        resetJournal();
+    }
+
+    /**
+     * 逐条校验并回放日志，损坏或不完整的尾部被截断
+     */
+    private void replayJournal(File file, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Achievement journal too large: " + size);
+        }
+        ByteBuffer data = ByteBuffer.allocate((int) size);
+        readFully(data, 0);
+
+        int position = HEADER_SIZE;
+        int replayed = 0;
+        while (position + ENTRY_HEADER <= size) {
+            int length = data.getInt(position);
+            int checksum = data.getInt(position + 4);
+            int start = position + ENTRY_HEADER;
+            if (length <= 0 || length > MAX_ENTRY_SIZE || start + length > size
+                    || crc(data, start, start + length) != checksum) {
+                break;
+            }
+            try {
+                applyEntry(data, start, start + length);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.FINE, "Malformed achievement journal entry at " + position, e);
+                break;
+            }
+            position = start + length;
+            replayed++;
+        }
+
+        if (position < size) {
+            corruptEntries++;
+            LOGGER.warning("Achievement journal has a corrupt or incomplete entry at byte " + position + " of " + size
+                + ", keeping " + replayed + " entries before it");
+            quarantine(file, false);
+            journal.truncate(position);
+        }
+        journalEnd = position;
+        // 只有符号表的日志（重置后没有新写入）不需要在关闭时再压缩
+        journalBase = journalRecords.isEmpty() ? position : HEADER_SIZE;
+    }
+
+    private void applyEntry(ByteBuffer data, int from, int to) {
+        Reader in = new Reader(data, from + 1, to);
+        switch (data.get(from)) {
+            case ENTRY_SYMBOL:
+                addSymbol(in.count(), in.string());
+                break;
+            case ENTRY_PLAYER:
+                UUID playerId = new UUID(in.longValue(), in.longValue());
+                journalRecords.put(playerId, in.bytes(to - in.position()));
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal entry type " + data.get(from));
+        }
+    }
+
+    /**
+     * 以当前代数重写日志：完整符号表，再加上还不在快照里的记录（包括 pending 中未写入的）
+     *
+     * 与快照相同，先写临时文件并刷盘，再原子改名覆盖 journal.bin：
+     * 任何时刻崩溃，磁盘上都是完整的旧日志或完整的新日志。
+     */
+    private void resetJournal() throws IOException {
+        pending.reset();
+        pending.intValue(JOURNAL_MAGIC);
+        pending.intValue(FORMAT_VERSION);
+        pending.longValue(generation);
+        for (int id = 0; id < symbols.size(); id++) {
+            String name = symbols.get(id);
+            if (name != null) {
+                Writer payload = new Writer(8 + name.length() * 3);
+                payload.varInt(id);
+                payload.string(name);
+                appendEntry(ENTRY_SYMBOL, payload);
+            }
+        }
+        for (Map.Entry<UUID, byte[]> entry : journalRecords.entrySet()) {
+            byte[] record = entry.getValue();
+            Writer payload = new Writer(16 + record.length);
+            payload.longValue(entry.getKey().getMostSignificantBits());
+            payload.longValue(entry.getKey().getLeastSignificantBits());
+            payload.bytes(record, 0, record.length);
+            appendEntry(ENTRY_PLAYER, payload);
+        }
+
+        File file = new File(directory, JOURNAL_NAME);
+        File temp = new File(directory, JOURNAL_NAME + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = pending.buffer();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            pending.reset();
+            try {
+                Files.deleteIfExists(temp.toPath());
+            } catch (IOException ignored) {
+                // 下次重置时覆盖
+            }
+            throw e;
+        }
+        pending.reset();
+
+        // 先关闭旧句柄再替换（部分平台不能替换打开中的文件），替换失败时重新打开旧日志继续追加
+        journal.close();
+        journalFile.close();
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            journalFile = new RandomAccessFile(file, "rw");
+            journal = journalFile.getChannel();
+            journalEnd = journal.size();
+        }
+        journalBase = journalEnd;
+        unsynced = false;
+    }
+
+    private void appendEntry(byte type, Writer payload) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload.data, 0, payload.size);
+        pending.intValue(1 + payload.size);
+        pending.intValue((int) crc.getValue());
+        pending.byteValue(type);
+        pending.bytes(payload.data, 0, payload.size);
+    }
+
+    private void writePending() throws IOException {
+        if (pending.size == 0) {
+            return;
+        }
+        ByteBuffer buffer = pending.buffer();
+        long position = journalEnd;
+        while (buffer.hasRemaining()) {
+            position += journal.write(buffer, position);
+        }
+        journalEnd = position;
+        pending.reset();
+        unsynced = true;
+    }
+
+    private void readFully(ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            int read = journal.read(target, position + target.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of achievement journal");
+            }
+        }
+    }
+
+    /**
+     * 备份损坏的文件；move 为 true 时改名（快照），否则复制（日志随后被截断或重置）
+     */
+    private void quarantine(File file, boolean move) {
+        File target = new File(directory, file.getName() + "." + System.currentTimeMillis() + ".corrupt");
+        try {
+            if (move) {
+                Files.move(file.toPath(), target.toPath());
+            } else {
+                Files.copy(file.toPath(), target.toPath());
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to back up corrupt achievement file " + file.getName(), e);
+        }
+    }
+
+    // ========== 记录编码 ==========
+
+    private byte[] encode(PlayerAchievementData data) {
+        Writer out = new Writer(128);
+        out.varInt(RECORD_VERSION);
+        writeSet(out, data.getAchievements());
+        writeSet(out, data.getSeenEnchantments());
+        writeSet(out, data.getUsedElements());
+        writeSet(out, data.getBossesKilled());
+        // 按名称排序，内容相同的记录编码相同
+        Map<String, Integer> counters = new TreeMap<>(data.getCounters());
+        out.varInt(counters.size());
+        for (Map.Entry<String, Integer> counter : counters.entrySet()) {
+            out.varInt(symbol(counter.getKey()));
+            out.varInt(counter.getValue());
+        }
+        out.varLong(data.getCurseStartTime());
+        return out.toByteArray();
+    }
+
+    private void writeSet(Writer out, Collection<String> names) {
+        BitSet bits = new BitSet();
+        for (String name : names) {
+            bits.set(symbol(name));
+        }
+        long[] words = bits.toLongArray();
+        out.varInt(words.length);
+        for (long word : words) {
+            out.longValue(word);
+        }
+    }
+
+    private PlayerAchievementData decode(ByteBuffer buffer, int offset, int length) {
+        Reader in = new Reader(buffer, offset, offset + length);
+        int version = in.count();
+        if (version != RECORD_VERSION) {
+            throw new IllegalStateException("Unsupported achievement record version " + version);
+        }
+        PlayerAchievementData data = new PlayerAchievementData();
+        readSet(in, data::awardAchievement);
+        readSet(in, data::trackSeenEnchantment);
+        readSet(in, data::trackUsedElement);
+        readSet(in, data::trackBossKill);
+        int counters = in.count();
+        for (int i = 0; i < counters; i++) {
+            String name = symbolName(in.count());
+            int value = in.count();
+            if (name != null) {
+                data.setCounter(name, value);
+            }
+        }
+        data.setCurseStartTime(in.varLong());
+        data.clearDirty();
+        return data;
+    }
+
+    private void readSet(Reader in, Consumer<String> target) {
+        int words = in.count();
+        if (words > MAX_SET_WORDS) {
+            throw new IllegalStateException("Bit set too large: " + words + " words");
+        }
+        for (int w = 0; w < words; w++) {
+            long word = in.longValue();
+            while (word != 0) {
+                String name = symbolName((w << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+                if (name != null) {
+                    target.accept(name);
+                }
+            }
+        }
+    }
+
+    /**
+     * 名称的符号 ID，新名称分配下一个 ID 并追加到日志
+     */
+    private int symbol(String name) {
+        Integer id = symbolIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        int next = symbols.size();
+        addSymbol(next, name);
+        Writer payload = new Writer(8 + name.length() * 3);
+        payload.varInt(next);
+        payload.string(name);
+        appendEntry(ENTRY_SYMBOL, payload);
+        return next;
+    }
+
+    private void addSymbol(int id, String name) {
+        if (id < symbols.size()) {
+            if (name != null && !name.equals(symbols.get(id))) {
+                throw new IllegalStateException("Symbol " + id + " redefined as '" + name + "'");
+            }
+            return;
+        }
+        // 从旧快照恢复时日志可能引用缺失的符号，留空位
+        while (symbols.size() < id) {
+            symbols.add(null);
+        }
+        symbols.add(name);
+        if (name != null) {
+            symbolIds.put(name, id);
+        }
+    }
+
+    private String symbolName(int id) {
+        return id >= 0 && id < symbols.size() ? symbols.get(id) : null;
+    }
+
+    private static int crc(ByteBuffer buffer, int from, int to) {
+        CRC32 crc = new CRC32();
+        ByteBuffer view = buffer.duplicate();
+        view.limit(to).position(from);
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+
+    // ========== 统计 ==========
+
+    public synchronized boolean isOpen() {
+        return journal != null;
+    }
+
+    public synchronized int getRecordCount() {
+        int count = snapshotIndex.size();
+        for (UUID playerId : journalRecords.keySet()) {
+            if (!snapshotIndex.containsKey(playerId)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public synchronized long getJournalBytes() {
+        return journalEnd + pending.size;
+    }
+
+    private synchronized long getJournalGrowth() {
+        return journalEnd + pending.size - journalBase;
+    }
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    public synchronized int getSymbolCount() {
+        return symbols.size();
+    }
+
+    /**
+     * 打开以来发现的损坏快照、日志条目和记录数
+     */
+    public synchronized long getCorruptEntries() {
+        return corruptEntries;
+    }
+
+    public synchronized long getCompactions() {
+        return compactions;
+    }
+
+    /**
+     * 已映射并校验的快照
+     */
+    private static final class MappedSnapshot {
+        private final MappedByteBuffer buffer;
+        private final long generation;
+        private final List<String> names;
+        private final Map<UUID, Long> index;
+
+        private MappedSnapshot(MappedByteBuffer buffer, long generation, List<String> names, Map<UUID, Long> index) {
+            this.buffer = buffer;
+            this.generation = generation;
+            this.names = names;
+            this.index = index;
+        }
+    }
+
+    /**
+     * 可增长的大端字节缓冲
+     */
+    private static final class Writer {
+        private byte[] data;
+        private int size;
+
+        private Writer(int capacity) {
+            this.data = new byte[Math.max(16, capacity)];
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+            }
+        }
+
+        private void byteValue(int value) {
+            ensure(1);
+            data[size++] = (byte) value;
+        }
+
+        private void intValue(int value) {
+            ensure(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                data[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void longValue(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                data[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void varInt(int value) {
+            varLong(value & 0xFFFFFFFFL);
+        }
+
+        private void varLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+
+        private void string(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varInt(bytes.length);
+            bytes(bytes, 0, bytes.length);
+        }
+
+        private void bytes(byte[] source, int offset, int length) {
+            ensure(length);
+            System.arraycopy(source, offset, data, size, length);
+            size += length;
+        }
+
+        private ByteBuffer buffer() {
+            return ByteBuffer.wrap(data, 0, size);
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(data, size);
+        }
+
+        private void reset() {
+            size = 0;
+        }
+    }
+
+    /**
+     * 在缓冲区的 [from, to) 范围内按绝对位置读取，越界时抛出 IllegalStateException
+     */
+    private static final class Reader {
+        private final ByteBuffer buffer;
+        private final int end;
+        private int position;
+
+        private Reader(ByteBuffer buffer, int from, int to) {
+            this.buffer = buffer;
+            this.position = from;
+            this.end = to;
+        }
+
+        private void require(int length) {
+            if (length < 0 || position + length > end) {
+                throw new IllegalStateException("Truncated achievement data at " + position);
+            }
+        }
+
+        private long longValue() {
+            require(8);
+            long value = buffer.getLong(position);
+            position += 8;
+            return value;
+        }
+
+        private long varLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                require(1);
+                byte b = buffer.get(position++);
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Malformed varint at " + position);
+        }
+
+        /**
+         * 非负 int（长度、数量、符号 ID、计数器值）
+         */
+        private int count() {
+            long value = varLong();
+            if (value < 0 || value > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Value out of range: " + value);
+            }
+            return (int) value;
+        }
+
+        private String string() {
+            return new String(bytes(count()), StandardCharsets.UTF_8);
+        }
+
+        private byte[] bytes(int length) {
+            require(length);
+            byte[] value = new byte[length];
+            buffer.get(position, value);
+            position += length;
+            return value;
+        }
+
+        private void skip(int length) {
+            require(length);
+            position += length;
+        }
+
+        private int position() {
+            return position;
+        }
+    }
+}
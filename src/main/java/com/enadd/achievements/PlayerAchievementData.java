@@ -1,7 +1,10 @@
 package com.enadd.achievements;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 
@@ -28,6 +31,9 @@ public final class PlayerAchievementData {
 
     private volatile long curseStartTime = 0;
 
+    // 自上次写入存储后是否有修改
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+
     public PlayerAchievementData() {
         // Initialize common counters
         counters.put("trees_cut", new AtomicInteger(0));
@@ -40,7 +46,9 @@ public final class PlayerAchievementData {
      */
     public void awardAchievement(String achievementId) {
         if (achievementId != null && !achievementId.trim().isEmpty()) {
-            achievements.add(achievementId.toLowerCase());
+            if (achievements.add(achievementId.toLowerCase())) {
+                dirty.set(true);
+            }
         }
     }
 
@@ -59,8 +67,10 @@ public final class PlayerAchievementData {
             return 0;
         }
 
-        return counters.computeIfAbsent(counterName, k -> new AtomicInteger(0))
+        int value = counters.computeIfAbsent(counterName, k -> new AtomicInteger(0))
                       .incrementAndGet();
+        dirty.set(true);
+        return value;
     }
 
     /**
@@ -82,6 +92,7 @@ public final class PlayerAchievementData {
         if (counterName != null && !counterName.trim().isEmpty() && value >= 0) {
             counters.computeIfAbsent(counterName, k -> new AtomicInteger(0))
                    .set(value);
+            dirty.set(true);
         }
     }
 
@@ -90,7 +101,9 @@ public final class PlayerAchievementData {
      */
     public void trackSeenEnchantment(String enchantmentId) {
         if (enchantmentId != null) {
-            seenEnchantments.add(enchantmentId.toLowerCase());
+            if (seenEnchantments.add(enchantmentId.toLowerCase())) {
+                dirty.set(true);
+            }
         }
     }
 
@@ -103,7 +116,9 @@ public final class PlayerAchievementData {
      */
     public void trackUsedElement(String element) {
         if (element != null) {
-            usedElements.add(element.toLowerCase());
+            if (usedElements.add(element.toLowerCase())) {
+                dirty.set(true);
+            }
         }
     }
 
@@ -120,7 +135,9 @@ public final class PlayerAchievementData {
      */
     public void trackBossKill(String bossType) {
         if (bossType != null) {
-            bossesKilled.add(bossType.toLowerCase());
+            if (bossesKilled.add(bossType.toLowerCase())) {
+                dirty.set(true);
+            }
         }
     }
 
@@ -140,7 +157,10 @@ public final class PlayerAchievementData {
     }
 
     public void setCurseStartTime(long time) {
-        this.curseStartTime = time;
+        if (curseStartTime != time) {
+            this.curseStartTime = time;
+            dirty.set(true);
+        }
     }
 
     /**
@@ -167,6 +187,42 @@ public final class PlayerAchievementData {
         counters.put("trees_cut", new AtomicInteger(0));
         counters.put("sniper_shots", new AtomicInteger(0));
         counters.put("boss_kills", new AtomicInteger(0));
+        dirty.set(true);
+    }
+
+    // ========== 持久化 ==========
+
+    public boolean isDirty() {
+        return dirty.get();
+    }
+
+    void markDirty() {
+        dirty.set(true);
+    }
+
+    /**
+     * 清除修改标记，返回清除前的状态；清除后的修改会重新标记
+     */
+    boolean clearDirty() {
+        return dirty.getAndSet(false);
+    }
+
+    Set<String> getSeenEnchantments() {
+        return Set.copyOf(seenEnchantments);
+    }
+
+    Set<String> getUsedElements() {
+        return Set.copyOf(usedElements);
+    }
+
+    Set<String> getBossesKilled() {
+        return Set.copyOf(bossesKilled);
+    }
+
+    Map<String, Integer> getCounters() {
+        Map<String, Integer> values = new HashMap<>(counters.size() * 2);
+        counters.forEach((name, value) -> values.put(name, value.get()));
+        return values;
     }
 
     @Override
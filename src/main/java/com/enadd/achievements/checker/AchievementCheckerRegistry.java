@@ -1,5 +1,6 @@
 package com.enadd.achievements.checker;
 
+import com.enadd.achievements.AchievementSnapshot;
 import com.enadd.achievements.PlayerAchievementData;
 import com.enadd.core.api.IAchievementChecker;
 import org.bukkit.entity.Player;
@@ -52,6 +53,17 @@ public final class AchievementCheckerRegistry {
         return false;
     }
 
+    /**
+     * 基于主线程快照检查，可在工作线程调用
+     */
+    public static boolean checkAchievement(AchievementSnapshot snapshot, PlayerAchievementData data, String achievementId) {
+        IAchievementChecker checker = getChecker(achievementId);
+        if (checker != null) {
+            return checker.check(snapshot, data);
+        }
+        return false;
+    }
+
     public static void clear() {
         checkers.clear();
     }
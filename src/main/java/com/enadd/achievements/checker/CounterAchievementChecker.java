@@ -1,5 +1,6 @@
 package com.enadd.achievements.checker;
 
+import com.enadd.achievements.AchievementSnapshot;
 import com.enadd.achievements.PlayerAchievementData;
 import com.enadd.core.api.IAchievementChecker;
 import org.bukkit.entity.Entity;
@@ -13,12 +14,24 @@ public final class CounterAchievementChecker implements IAchievementChecker {
     private final String counterKey;
     private final int targetCount;
     private final CounterCondition condition;
+    // 主手物品必须带有的附魔（完整 ID），为 null 时不限制
+    private final String requiredEnchantment;
 
     public CounterAchievementChecker(String achievementId, String counterKey, int targetCount, CounterCondition condition) {
+        this(achievementId, counterKey, targetCount, condition, null);
+    }
+
+    public CounterAchievementChecker(String achievementId, String counterKey, int targetCount, String requiredEnchantment) {
+        this(achievementId, counterKey, targetCount, null, requiredEnchantment);
+    }
+
+    private CounterAchievementChecker(String achievementId, String counterKey, int targetCount,
+                                      CounterCondition condition, String requiredEnchantment) {
         this.achievementId = achievementId;
         this.counterKey = counterKey;
         this.targetCount = targetCount;
         this.condition = condition;
+        this.requiredEnchantment = requiredEnchantment;
     }
 
     @Override
@@ -31,6 +44,28 @@ public final class CounterAchievementChecker implements IAchievementChecker {
             return false;
         }
 
+        if (requiredEnchantment != null) {
+            AchievementSnapshot snapshot = AchievementSnapshot.ofItem(AchievementSnapshot.Kind.INVENTORY,
+                player.getUniqueId(), player.getInventory().getItemInMainHand());
+            return snapshot != null && check(snapshot, data);
+        }
+
+        int currentCount = data.getCounter(counterKey);
+        return currentCount >= targetCount;
+    }
+
+    @Override
+    public boolean check(AchievementSnapshot snapshot, PlayerAchievementData data) {
+        if (data.hasAchievement(achievementId) || condition != null) {
+            // 带 Player 条件的检查只能在主线程进行
+            return false;
+        }
+
+        if (requiredEnchantment != null
+            && !AchievementSnapshot.contains(snapshot.getItem(), AchievementSnapshot.codeOf(requiredEnchantment))) {
+            return false;
+        }
+
         int currentCount = data.getCounter(counterKey);
         return currentCount >= targetCount;
     }
@@ -54,12 +89,7 @@ public final class CounterAchievementChecker implements IAchievementChecker {
             "lumberjack",
             "trees_cut",
             1000,
-            (player, tool, target) -> {
-                if (tool == null) return false;
-                boolean hasTreeFeller = tool.getEnchantments().keySet().stream()
-                    .anyMatch(ench -> ench.getKey().toString().equals("enadd:arbor_master"));
-                return hasTreeFeller;
-            }
+            "enadd:arbor_master"
         );
     }
 
@@ -68,12 +98,7 @@ public final class CounterAchievementChecker implements IAchievementChecker {
             "marksman",
             "sniper_shots",
             100,
-            (player, tool, target) -> {
-                if (tool == null) return false;
-                boolean hasSniper = tool.getEnchantments().keySet().stream()
-                    .anyMatch(ench -> ench.getKey().toString().equals("enadd:sniper"));
-                return hasSniper;
-            }
+            "enadd:sniper"
         );
     }
 }
@@ -1,10 +1,9 @@
 package com.enadd.achievements.checker;
 
+import com.enadd.achievements.AchievementSnapshot;
 import com.enadd.achievements.PlayerAchievementData;
 import com.enadd.core.api.IAchievementChecker;
-import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.ItemStack;
 
 
 public final class CursedWarriorChecker implements IAchievementChecker {
@@ -16,25 +15,23 @@ public final class CursedWarriorChecker implements IAchievementChecker {
         if (data.hasAchievement("cursed_warrior")) {
             return false;
         }
+        return check(AchievementSnapshot.ofArmor(AchievementSnapshot.Kind.INVENTORY, player), data);
+    }
 
-        ItemStack[] equipment = {
-            player.getInventory().getHelmet(),
-            player.getInventory().getChestplate(),
-            player.getInventory().getLeggings(),
-            player.getInventory().getBoots()
-        };
+    @Override
+    public boolean check(AchievementSnapshot snapshot, PlayerAchievementData data) {
+        if (data.hasAchievement("cursed_warrior")) {
+            return false;
+        }
 
         int cursedCount = 0;
-        for (ItemStack item : equipment) {
-            if (item != null) {
-                for (Enchantment ench : item.getEnchantments().keySet()) {
-                    if (ench.getKey().getNamespace().equals("enadd") &&
-                        ench.getKey().getKey().startsWith("curse_")) {
-                        cursedCount++;
-                        if (cursedCount >= REQUIRED_CURSES) {
-                            return true;
-                        }
-                    }
+        for (int packed : snapshot.getArmor()) {
+            int code = AchievementSnapshot.code(packed);
+            if (AchievementSnapshot.hasFlag(code, AchievementSnapshot.FLAG_ENADD)
+                && AchievementSnapshot.hasFlag(code, AchievementSnapshot.FLAG_CURSE)) {
+                cursedCount++;
+                if (cursedCount >= REQUIRED_CURSES) {
+                    return true;
                 }
             }
         }
@@ -1,12 +1,9 @@
 package com.enadd.achievements.checker;
 
+import com.enadd.achievements.AchievementSnapshot;
 import com.enadd.achievements.PlayerAchievementData;
 import com.enadd.core.api.IAchievementChecker;
-import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.ItemStack;
-import java.util.HashSet;
-import java.util.Set;
 
 
 public final class EnchantmentMasterChecker implements IAchievementChecker {
@@ -18,41 +15,17 @@ public final class EnchantmentMasterChecker implements IAchievementChecker {
         if (data.hasAchievement("enchantment_master")) {
             return false;
         }
+        return check(AchievementSnapshot.ofInventory(AchievementSnapshot.Kind.INVENTORY, player), data);
+    }
 
-        Set<String> uniqueEnchantments = new HashSet<>();
-
-        ItemStack[] equipment = {
-            player.getInventory().getHelmet(),
-            player.getInventory().getChestplate(),
-            player.getInventory().getLeggings(),
-            player.getInventory().getBoots(),
-            player.getInventory().getItemInMainHand(),
-            player.getInventory().getItemInOffHand()
-        };
-
-        for (ItemStack item : equipment) {
-            if (item != null) {
-                for (Enchantment ench : item.getEnchantments().keySet()) {
-                    String key = ench.getKey().toString();
-                    if (key.startsWith("enadd:")) {
-                        uniqueEnchantments.add(key);
-                    }
-                }
-            }
-        }
-
-        for (ItemStack item : player.getInventory().getContents()) {
-            if (item != null) {
-                for (Enchantment ench : item.getEnchantments().keySet()) {
-                    String key = ench.getKey().toString();
-                    if (key.startsWith("enadd:")) {
-                        uniqueEnchantments.add(key);
-                    }
-                }
-            }
+    @Override
+    public boolean check(AchievementSnapshot snapshot, PlayerAchievementData data) {
+        if (data.hasAchievement("enchantment_master")) {
+            return false;
         }
 
-        return uniqueEnchantments.size() >= REQUIRED_ENCHANTMENTS;
+        // 背包内容已包含盔甲和副手
+        return AchievementSnapshot.countDistinct(snapshot.getInventory(), AchievementSnapshot.FLAG_ENADD) >= REQUIRED_ENCHANTMENTS;
     }
 
     @Override
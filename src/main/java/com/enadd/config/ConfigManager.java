@@ -1,5 +1,6 @@
 package com.enadd.config;
 
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.Plugin;
@@ -114,6 +115,11 @@ public final class ConfigManager {
             }
 
             loadLanguage(plugin);
+            // 配置（含语言）重新加载后，GUI目录和已渲染的GUI物品全部失效
+            com.enadd.gui.EnchantmentChestGUI.invalidateCatalog();
+            com.enadd.core.cache.ItemRenderCache.getInstance().invalidateAll();
+            // 禁用附魔、宝藏附魔设置可能变化，附魔台选项表重建
+            com.enadd.enchantments.conflict.EnchantingOfferTables.getInstance().invalidateAll();
 
             initialized = true;
             logger.info("Configuration initialized successfully");
@@ -623,4 +629,94 @@ public final class ConfigManager {
             return 0.8;
         }
     }
+
+    /**
+     * 获取效果 LOD 配置节（effects.lod）
+     *
+     * @return 配置节，未初始化或不存在时返回null
+     */
+    public static ConfigurationSection getEffectLodSection() {
+        if (!initialized || config == null) {
+            return null;
+        }
+        return config.getConfigurationSection("effects.lod");
+    }
+
+    /**
+     * 获取实体更新频率分桶配置节（settings.performance.entity-update-lod）
+     *
+     * @return 配置节，未初始化或不存在时返回null
+     */
+    public static ConfigurationSection getEntityUpdateLodSection() {
+        if (!initialized || config == null) {
+            return null;
+        }
+        return config.getConfigurationSection("settings.performance.entity-update-lod");
+    }
+
+    /**
+     * 获取持久化缓存配置节（settings.performance.persistent-cache）
+     *
+     * @return 配置节，未初始化或不存在时返回null
+     */
+    public static ConfigurationSection getPersistentCacheSection() {
+        if (!initialized || config == null) {
+            return null;
+        }
+        return config.getConfigurationSection("settings.performance.persistent-cache");
+    }
+
+    /**
+     * 获取GUI渲染加载配置节（settings.performance.gui-render）
+     *
+     * @return 配置节，未初始化或不存在时返回null
+     */
+    public static ConfigurationSection getGuiRenderSection() {
+        if (!initialized || config == null) {
+            return null;
+        }
+        return config.getConfigurationSection("settings.performance.gui-render");
+    }
+
+    /**
+     * 附魔台是否使用预计算的选项表（settings.performance.precomputed-offers.enabled）
+     */
+    public static boolean isPrecomputedOffersEnabled() {
+        if (!initialized || config == null) {
+            return false;
+        }
+        return config.getBoolean("settings.performance.precomputed-offers.enabled", false);
+    }
+
+    /**
+     * 获取成就存储配置节（settings.achievements.storage）
+     *
+     * @return 配置节，未初始化或不存在时返回null
+     */
+    public static ConfigurationSection getAchievementStorageSection() {
+        if (!initialized || config == null) {
+            return null;
+        }
+        return config.getConfigurationSection("settings.achievements.storage");
+    }
+
+    /**
+     * 获取缓存预热配置节
+     */
+    public static ConfigurationSection getCacheWarmupSection() {
+        if (!initialized || config == null) {
+            return null;
+        }
+        return config.getConfigurationSection("settings.performance.cache-warmup");
+    }
+
+    /**
+     * 获取统一执行层配置节
+     */
+    public static ConfigurationSection getExecutionSection() {
+        if (!initialized || config == null) {
+            return null;
+        }
+        return config.getConfigurationSection("settings.performance.execution");
+    }
 }
@@ -1,5 +1,6 @@
 package com.enadd.core;
 
+import com.enadd.core.async.ExecutionLayer;
 import com.enadd.core.budget.EntityBudgetController;
 import com.enadd.core.entity.EntityLifecycleManager;
 import com.enadd.core.entity.factory.EnchantmentEntityFactory;
@@ -8,8 +9,9 @@ import com.enadd.core.memory.ReferenceTracker;
 import com.enadd.core.monitor.PerformanceMonitor;
 import com.enadd.core.tracking.EntityTracker;
 import com.enadd.core.update.UpdateFrequencyController;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
@@ -20,7 +22,7 @@ import java.util.logging.Logger;
  * 附魔实体管理器
  * 统一管理所有附魔实体相关的子系统
  *
- * 线程安全：使用AtomicBoolean和线程安全的调度器
+ * 线程安全：使用AtomicBoolean，维护任务运行在统一执行层上
  * 单例模式：使用Holder模式实现延迟加载
  *
  * @author EnchAdd Team
@@ -36,8 +38,6 @@ public final class EnchantmentEntityManager {
     private static final double MEMORY_GROWTH_THRESHOLD = 30.0; // 30%
     private static final double BUDGET_USAGE_THRESHOLD = 80.0; // 80%
     private static final long DEFAULT_IDLE_TIME = 60000; // 60秒
-    private static final int SCHEDULER_THREAD_POOL_SIZE = 2;
-    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
     // Holder模式优化单例
     private static final class Holder {
         private static final EnchantmentEntityManager INSTANCE = new EnchantmentEntityManager();
@@ -46,7 +46,8 @@ public final class EnchantmentEntityManager {
     private final AtomicBoolean isRunning = new AtomicBoolean(false);
     private final AtomicBoolean isInitialized = new AtomicBoolean(false);
     private final AtomicBoolean idleMode = new AtomicBoolean(false); // CPU优化：空闲模式
-    private final ScheduledExecutorService scheduler;
+    private final ExecutionLayer.Lane maintenanceLane;
+    private final List<ScheduledFuture<?>> maintenanceTasks = new CopyOnWriteArrayList<>();
 
     // 缓存所有管理器实例，避免重复调用getInstance()
     private final EntityLifecycleManager lifecycleManager;
@@ -65,15 +66,8 @@ public final class EnchantmentEntityManager {
         LOGGER.info("Initializing EnchantmentEntityManager...");
 
         try {
-            // Bug修复1: scheduler初始化异常处理
-            this.scheduler = new ScheduledThreadPoolExecutor(SCHEDULER_THREAD_POOL_SIZE, r -> {
-                Thread t = new Thread(r, "EnchantmentEntity-Maintenance");
-                t.setDaemon(true);
-                t.setPriority(Thread.MIN_PRIORITY + 1); // CPU优化：降低优先级
-                t.setUncaughtExceptionHandler((thread, throwable) ->
-                    LOGGER.log(Level.SEVERE, "Uncaught exception in maintenance thread", throwable));
-                return t;
-            });
+            // Bug修复1: 维护任务不再单独创建调度线程
+            this.maintenanceLane = ExecutionLayer.getInstance().cpu("entity-maintenance");
 
             // Bug修复2-3: 管理器初始化异常处理和null检查
             this.lifecycleManager = safeGetInstance(EntityLifecycleManager::getInstance, "EntityLifecycleManager");
@@ -187,27 +181,27 @@ public final class EnchantmentEntityManager {
      */
     private void startMaintenanceTasks() {
         try {
-            scheduler.scheduleAtFixedRate(
+            maintenanceTasks.add(maintenanceLane.scheduleAtFixedRate(
                 this::performMaintenanceWithErrorHandling,
                 maintenanceInterval,
                 maintenanceInterval,
                 TimeUnit.MILLISECONDS
-            );
+            ));
 
-            scheduler.scheduleAtFixedRate(
+            maintenanceTasks.add(maintenanceLane.scheduleAtFixedRate(
                 this::performPerformanceCheckWithErrorHandling,
                 performanceCheckInterval,
                 performanceCheckInterval,
                 TimeUnit.MILLISECONDS
-            );
+            ));
 
             // CPU优化：添加空闲检测
-            scheduler.scheduleAtFixedRate(
+            maintenanceTasks.add(maintenanceLane.scheduleAtFixedRate(
                 this::checkIdleMode,
                 IDLE_CHECK_INTERVAL,
                 IDLE_CHECK_INTERVAL,
                 TimeUnit.MILLISECONDS
-            );
+            ));
 
             LOGGER.log(Level.INFO, "Maintenance tasks started: maintenance={0}ms, performance={1}ms (CPU optimized)",
                 new Object[]{maintenanceInterval, performanceCheckInterval});
@@ -333,7 +327,9 @@ public final class EnchantmentEntityManager {
     private void performEntityMaintenance() {
         try {
             if (lifecycleManager != null) {
-                lifecycleManager.updateAllEntities();
+                // 更新轮次结束时会清扫释放请求、修改对象池，必须交回主线程执行；
+                // 各实体按 UpdateFrequencyController 分配的距离桶跳过非本周期的轮次
+                ExecutionLayer.getInstance().runOnMain(lifecycleManager::updateAllEntities);
             }
 
             if (entityTracker != null) {
@@ -431,12 +427,13 @@ public final class EnchantmentEntityManager {
         LOGGER.info("Forcing cleanup...");
         try {
             if (lifecycleManager != null) {
-                lifecycleManager.forceCleanupAll();
+                // 由维护通道触发时不在主线程，移除实体需交给主线程
+                ExecutionLayer.getInstance().runOnMain(lifecycleManager::forceCleanupAll);
             }
             if (referenceTracker != null) {
                 referenceTracker.cleanup();
             }
-            LOGGER.info("Cleanup completed");
+            LOGGER.info("Cleanup scheduled");
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error during force cleanup", e);
         }
@@ -449,26 +446,15 @@ public final class EnchantmentEntityManager {
     private void shutdownAllSystems() {
         LOGGER.info("Shutting down all systems...");
 
-        // 1. 停止调度器
-        scheduler.shutdown();
-        try {
-            // Bug修复26: 添加超时处理
-            if (!scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
-                LOGGER.warning("Scheduler did not terminate in time, forcing shutdown");
-                scheduler.shutdownNow();
-                if (!scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
-                    LOGGER.severe("Scheduler did not terminate after force shutdown");
-                }
-            }
-        } catch (InterruptedException e) {
-            LOGGER.warning("Interrupted while waiting for scheduler shutdown");
-            scheduler.shutdownNow();
-            Thread.currentThread().interrupt();
+        // 1. 停止维护任务（共享线程由执行层统一关闭）
+        for (ScheduledFuture<?> task : maintenanceTasks) {
+            task.cancel(false);
         }
+        maintenanceTasks.clear();
 
         // 2. 清理实体（按依赖顺序）
         safeShutdown("EntityLifecycleManager", () -> {
-            if (lifecycleManager != null) lifecycleManager.forceCleanupAll();
+            if (lifecycleManager != null) lifecycleManager.shutdown();
         });
 
         safeShutdown("EntityFactory", () -> {
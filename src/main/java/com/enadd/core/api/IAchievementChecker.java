@@ -1,6 +1,7 @@
 package com.enadd.core.api;
 
 import org.bukkit.entity.Player;
+import com.enadd.achievements.AchievementSnapshot;
 import com.enadd.achievements.PlayerAchievementData;
 
 
@@ -19,6 +20,18 @@ public interface IAchievementChecker {
      */
     boolean check(Player player, PlayerAchievementData data);
 
+    /**
+     * Check the achievement conditions against a snapshot captured on the main thread.
+     * Called from the achievement worker thread, so it must not touch the live player.
+     *
+     * @param snapshot the immutable snapshot of the relevant items
+     * @param data the player's achievement data
+     * @return true if conditions are met
+     */
+    default boolean check(AchievementSnapshot snapshot, PlayerAchievementData data) {
+        return false;
+    }
+
     /**
      * Called when an achievement is awarded.
      * Allows for custom reward and notification logic.
@@ -2,15 +2,26 @@ package com.enadd.core.async;
 
 import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitTask;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 
 
 /**
  * 异步任务管理器 - 处理非关键操作
- * 使用线程池优化性能，避免阻塞主线程
+ * 任务在统一执行层的 async-tasks 通道上执行，避免阻塞主线程
+ *
+ * 任务分为三类，每类一个有界队列，排空任务总是先取 CRITICAL，再取 NORMAL，最后取 BEST_EFFORT：
+ * - CRITICAL / NORMAL：队列满时拒绝并抛出 {@link RejectedExecutionException}，
+ *   不再由提交线程（通常是主线程）自己执行
+ * - BEST_EFFORT（统计、导出等）：队列满或 CRITICAL+NORMAL 积压超过水位时直接丢弃；
+ *   带合并键提交时，尚未开始的同键任务只保留最新的一个；排队超过最大时长的任务在出队时丢弃
+ *
+ * 每类都记录拒绝、丢弃、合并计数以及排队时长（最老任务年龄、平均/最大等待）。
  */
 public final class AsyncTaskManager {
 
@@ -18,8 +29,39 @@ public final class AsyncTaskManager {
         private static final AsyncTaskManager INSTANCE = new AsyncTaskManager();
     }
 
-    private final ExecutorService asyncExecutor;
-    private final ScheduledExecutorService scheduledExecutor;
+    /**
+     * 任务类别
+     */
+    public enum TaskClass {
+        /** 不可丢弃的任务 */
+        CRITICAL(256),
+        /** 普通后台任务 */
+        NORMAL(1000),
+        /** 可丢弃、可合并的任务 */
+        BEST_EFFORT(256);
+
+        private final int capacity;
+
+        TaskClass(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+    }
+
+    /** CRITICAL + NORMAL 排队数达到该水位时丢弃新的 BEST_EFFORT 任务 */
+    private static final int SHED_WATERMARK = TaskClass.NORMAL.capacity * 3 / 4;
+    /** BEST_EFFORT 任务最长排队时间 */
+    private static final long BEST_EFFORT_MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final ExecutionLayer.Lane lane;
+    // 排空线程上限，<= 0 时取执行层 CPU 线程数减一（给实体分治更新等主线程等待的任务留一个线程）
+    private final int maxDrainers;
+    private final Map<TaskClass, ClassQueue> queues = new EnumMap<>(TaskClass.class);
+    private final ConcurrentHashMap<String, QueuedTask> coalescing = new ConcurrentHashMap<>(32);
+    private final AtomicInteger activeDrainers = new AtomicInteger(0);
     private final AtomicLong taskIdGenerator;
     private final AtomicInteger activeTaskCount;
     private final ConcurrentHashMap<Long, Future<?>> activeTasks;
@@ -28,24 +70,16 @@ public final class AsyncTaskManager {
     private volatile boolean shutdown = false;
 
     private AsyncTaskManager() {
-        // 创建异步执行器 - 核心线程数=CPU核心数，最大线程数=CPU核心数*2
-        int corePoolSize = Runtime.getRuntime().availableProcessors();
-        int maxPoolSize = corePoolSize * 2;
-
-        this.asyncExecutor = new ThreadPoolExecutor(
-            corePoolSize,
-            maxPoolSize,
-            60L, TimeUnit.SECONDS,
-            new LinkedBlockingQueue<>(1000),
-            new NamedThreadFactory("EnchAdd-Async"),
-            new ThreadPoolExecutor.CallerRunsPolicy()
-        );
+        // 共享执行层的通道，排队和准入由本类的分类队列负责
+        this(ExecutionLayer.getInstance().cpu("async-tasks"), 0);
+    }
 
-        // 创建定时执行器
-        this.scheduledExecutor = Executors.newScheduledThreadPool(
-            2,
-            new NamedThreadFactory("EnchAdd-Scheduled")
-        );
+    AsyncTaskManager(ExecutionLayer.Lane lane, int maxDrainers) {
+        this.lane = lane;
+        this.maxDrainers = maxDrainers;
+        for (TaskClass taskClass : TaskClass.values()) {
+            queues.put(taskClass, new ClassQueue(taskClass));
+        }
 
         this.taskIdGenerator = new AtomicLong(0);
         this.activeTaskCount = new AtomicInteger(0);
@@ -64,67 +98,217 @@ public final class AsyncTaskManager {
     }
 
     /**
-     * 提交异步任务
+     * 提交异步任务（NORMAL）
+     *
+     * @throws RejectedExecutionException NORMAL 队列已满
      */
     public long submitAsync(Runnable task) {
-        if (shutdown) {
-            throw new IllegalStateException("AsyncTaskManager is shutdown");
-        }
+        return submitAsync(TaskClass.NORMAL, task);
+    }
 
-        long taskId = taskIdGenerator.incrementAndGet();
-        activeTaskCount.incrementAndGet();
+    /**
+     * 按类别提交异步任务
+     *
+     * @return 任务 ID；BEST_EFFORT 任务被丢弃时返回 -1
+     * @throws RejectedExecutionException CRITICAL / NORMAL 队列已满
+     */
+    public long submitAsync(TaskClass taskClass, Runnable task) {
+        checkNotShutdown();
+        QueuedTask queued = newTask(taskClass, task, null);
+        return enqueue(queued) ? queued.id : -1L;
+    }
 
-        Future<?> future = asyncExecutor.submit(() -> {
-            try {
-                task.run();
-            } catch (Exception e) {
-                if (plugin != null) {
-                    plugin.getLogger().warning("Async task " + taskId + " failed: " + e.getMessage());
+    /**
+     * 提交可合并的 BEST_EFFORT 任务：同一 key 已有任务在排队时只替换其内容
+     *
+     * @return 任务 ID（合并时为已排队任务的 ID）；被丢弃时返回 -1
+     */
+    public long submitCoalesced(String key, Runnable task) {
+        checkNotShutdown();
+        while (true) {
+            QueuedTask pending = coalescing.get(key);
+            if (pending != null) {
+                if (pending.replace(task)) {
+                    queues.get(TaskClass.BEST_EFFORT).coalesced.increment();
+                    return pending.id;
                 }
-            } finally {
-                activeTaskCount.decrementAndGet();
-                activeTasks.remove(taskId);
+                // 已开始执行，移除后重新排队
+                coalescing.remove(key, pending);
+                continue;
             }
-        });
 
-        activeTasks.put(taskId, future);
-        return taskId;
+            QueuedTask queued = newTask(TaskClass.BEST_EFFORT, task, key);
+            if (coalescing.putIfAbsent(key, queued) != null) {
+                continue;
+            }
+            return enqueue(queued) ? queued.id : -1L;
+        }
     }
 
     /**
-     * 提交异步任务并返回结果
+     * 提交异步任务并返回结果（NORMAL）；队列已满时 future 以 {@link RejectedExecutionException} 失败
      */
     public <T> CompletableFuture<T> submitAsyncWithResult(Callable<T> task) {
-        if (shutdown) {
-            throw new IllegalStateException("AsyncTaskManager is shutdown");
-        }
+        return submitAsyncWithResult(TaskClass.NORMAL, task);
+    }
+
+    /**
+     * 按类别提交异步任务并返回结果；任务被拒绝或丢弃时 future 以 {@link RejectedExecutionException} 失败
+     */
+    public <T> CompletableFuture<T> submitAsyncWithResult(TaskClass taskClass, Callable<T> task) {
+        checkNotShutdown();
 
         CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            long id = submitAsync(taskClass, () -> {
+                try {
+                    T result = task.call();
+                    future.complete(result);
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            if (id < 0) {
+                future.completeExceptionally(new RejectedExecutionException("Best-effort task shed"));
+            }
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
 
-        submitAsync(() -> {
-            try {
-                T result = task.call();
-                future.complete(result);
-            } catch (Exception e) {
-                future.completeExceptionally(e);
+    private QueuedTask newTask(TaskClass taskClass, Runnable task, String key) {
+        return new QueuedTask(taskIdGenerator.incrementAndGet(), taskClass, task, key);
+    }
+
+    private boolean enqueue(QueuedTask task) {
+        ClassQueue queue = queues.get(task.taskClass);
+
+        // 先登记再入队，避免任务在登记前就已执行完
+        activeTaskCount.incrementAndGet();
+        activeTasks.put(task.id, task.future);
+
+        if (task.taskClass == TaskClass.BEST_EFFORT) {
+            int pressure = queues.get(TaskClass.CRITICAL).size() + queues.get(TaskClass.NORMAL).size();
+            if (pressure >= SHED_WATERMARK || !queue.offer(task)) {
+                discard(task);
+                queue.shed.increment();
+                return false;
             }
-        });
+        } else if (!queue.offer(task)) {
+            finish(task);
+            queue.rejected.increment();
+            throw new RejectedExecutionException("Async " + task.taskClass + " queue full (" + task.taskClass.capacity + ")");
+        }
 
-        return future;
+        spawnDrainers();
+        return true;
+    }
+
+    private int parallelism() {
+        if (maxDrainers > 0) {
+            return maxDrainers;
+        }
+        return Math.max(1, ExecutionLayer.getInstance().getCpuThreads() - 1);
+    }
+
+    private void spawnDrainers() {
+        int parallelism = parallelism();
+        while (!shutdown && hasQueued()) {
+            int active = activeDrainers.get();
+            if (active >= parallelism) {
+                return;
+            }
+            if (activeDrainers.compareAndSet(active, active + 1)) {
+                try {
+                    lane.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    activeDrainers.decrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void drain() {
+        int parallelism = parallelism();
+        while (true) {
+            QueuedTask task = shutdown ? null : pollNext();
+            if (task == null) {
+                activeDrainers.decrementAndGet();
+                // 退出前再检查一次，避免与并发入队的任务错过
+                if (shutdown || !hasQueued()) {
+                    return;
+                }
+                int active = activeDrainers.get();
+                if (active >= parallelism || !activeDrainers.compareAndSet(active, active + 1)) {
+                    return;
+                }
+                continue;
+            }
+            task.future.run();
+        }
+    }
+
+    private QueuedTask pollNext() {
+        for (TaskClass taskClass : TaskClass.values()) {
+            ClassQueue queue = queues.get(taskClass);
+            QueuedTask task;
+            while ((task = queue.poll()) != null) {
+                long age = System.nanoTime() - task.enqueuedNanos;
+                if (task.key != null) {
+                    coalescing.remove(task.key, task);
+                }
+                if (taskClass == TaskClass.BEST_EFFORT && age > BEST_EFFORT_MAX_AGE_NANOS) {
+                    // 过期的尽力任务直接丢弃
+                    queue.stale.increment();
+                    task.future.cancel(false);
+                    discard(task);
+                    continue;
+                }
+                queue.recordWait(age);
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private boolean hasQueued() {
+        for (ClassQueue queue : queues.values()) {
+            if (queue.size() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 丢弃未执行的任务：不再接受合并并解除合并键，之后的同键提交会重新排队
+     */
+    private void discard(QueuedTask task) {
+        task.seal();
+        if (task.key != null) {
+            coalescing.remove(task.key, task);
+        }
+        finish(task);
+    }
+
+    private void finish(QueuedTask task) {
+        if (activeTasks.remove(task.id) != null) {
+            activeTaskCount.decrementAndGet();
+        }
     }
 
     /**
      * 延迟执行任务
      */
     public long scheduleAsync(Runnable task, long delay, TimeUnit unit) {
-        if (shutdown) {
-            throw new IllegalStateException("AsyncTaskManager is shutdown");
-        }
+        checkNotShutdown();
 
         long taskId = taskIdGenerator.incrementAndGet();
         activeTaskCount.incrementAndGet();
 
-        ScheduledFuture<?> future = scheduledExecutor.schedule(() -> {
+        ScheduledFuture<?> future = lane.schedule(() -> {
             try {
                 task.run();
             } catch (Exception e) {
@@ -145,13 +329,11 @@ public final class AsyncTaskManager {
      * 周期性执行任务
      */
     public long scheduleAsyncRepeating(Runnable task, long initialDelay, long period, TimeUnit unit) {
-        if (shutdown) {
-            throw new IllegalStateException("AsyncTaskManager is shutdown");
-        }
+        checkNotShutdown();
 
         long taskId = taskIdGenerator.incrementAndGet();
 
-        ScheduledFuture<?> future = scheduledExecutor.scheduleAtFixedRate(() -> {
+        ScheduledFuture<?> future = lane.scheduleAtFixedRate(() -> {
             try {
                 task.run();
             } catch (Exception e) {
@@ -165,6 +347,12 @@ public final class AsyncTaskManager {
         return taskId;
     }
 
+    private void checkNotShutdown() {
+        if (shutdown) {
+            throw new IllegalStateException("AsyncTaskManager is shutdown");
+        }
+    }
+
     /**
      * 在主线程执行任务（通过Bukkit调度器）
      */
@@ -211,12 +399,19 @@ public final class AsyncTaskManager {
      * 获取任务统计
      */
     public TaskStats getStats() {
-        ThreadPoolExecutor executor = (ThreadPoolExecutor) asyncExecutor;
+        Map<TaskClass, ClassStats> classStats = new EnumMap<>(TaskClass.class);
+        long completed = 0;
+        for (ClassQueue queue : queues.values()) {
+            ClassStats stats = queue.getStats();
+            classStats.put(queue.taskClass, stats);
+            completed += stats.getCompleted() + stats.getFailed();
+        }
         return new TaskStats(
             activeTaskCount.get(),
-            executor.getPoolSize(),
-            executor.getActiveCount(),
-            executor.getCompletedTaskCount()
+            parallelism(),
+            activeDrainers.get(),
+            completed,
+            classStats
         );
     }
 
@@ -235,46 +430,187 @@ public final class AsyncTaskManager {
             future.cancel(false);
         }
         activeTasks.clear();
+        for (ClassQueue queue : queues.values()) {
+            queue.clear();
+        }
+        coalescing.clear();
 
-        // 关闭执行器
-        asyncExecutor.shutdown();
-        scheduledExecutor.shutdown();
+        // 关闭通道，共享线程由执行层统一关闭
+        lane.close();
 
-        try {
-            if (!asyncExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
-                asyncExecutor.shutdownNow();
-            }
-            if (!scheduledExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduledExecutor.shutdownNow();
+        if (plugin != null) {
+            plugin.getLogger().info("AsyncTaskManager shutdown complete");
+        }
+    }
+
+    /**
+     * 排队中的任务；合并提交时可以在开始前替换内容
+     */
+    private final class QueuedTask {
+        private final long id;
+        private final TaskClass taskClass;
+        private final String key;
+        private final long enqueuedNanos;
+        private final FutureTask<Void> future;
+        private Runnable action;
+        // 已开始执行或已被丢弃，之后不能再替换内容
+        private boolean started = false;
+
+        private QueuedTask(long id, TaskClass taskClass, Runnable action, String key) {
+            this.id = id;
+            this.taskClass = taskClass;
+            this.action = action;
+            this.key = key;
+            this.enqueuedNanos = System.nanoTime();
+            this.future = new FutureTask<>(this::execute, null);
+        }
+
+        private synchronized void seal() {
+            started = true;
+        }
+
+        private synchronized boolean replace(Runnable replacement) {
+            if (started) {
+                return false;
             }
-        } catch (InterruptedException e) {
-            asyncExecutor.shutdownNow();
-            scheduledExecutor.shutdownNow();
-            Thread.currentThread().interrupt();
+            action = replacement;
+            return true;
         }
 
-        if (plugin != null) {
-            plugin.getLogger().info("AsyncTaskManager shutdown complete");
+        private void execute() {
+            Runnable current;
+            synchronized (this) {
+                started = true;
+                current = action;
+            }
+            try {
+                current.run();
+                queues.get(taskClass).completed.increment();
+            } catch (Exception e) {
+                queues.get(taskClass).failed.increment();
+                if (plugin != null) {
+                    plugin.getLogger().warning("Async task " + id + " failed: " + e.getMessage());
+                }
+            } finally {
+                finish(this);
+            }
         }
     }
 
     /**
-     * 命名线程工厂
+     * 单个类别的有界队列和计数
      */
-    private static final class NamedThreadFactory implements ThreadFactory {
-        private final AtomicInteger threadNumber = new AtomicInteger(1);
-        private final String namePrefix;
+    private static final class ClassQueue {
+        private final TaskClass taskClass;
+        private final LinkedBlockingQueue<QueuedTask> queue;
+        private final LongAdder submitted = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder shed = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder stale = new LongAdder();
+        private final LongAdder dequeued = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        private ClassQueue(TaskClass taskClass) {
+            this.taskClass = taskClass;
+            // 预分配容量
+            this.queue = new LinkedBlockingQueue<>(taskClass.capacity);
+        }
 
-        NamedThreadFactory(String namePrefix) {
-            this.namePrefix = namePrefix;
+        private boolean offer(QueuedTask task) {
+            if (queue.offer(task)) {
+                submitted.increment();
+                return true;
+            }
+            return false;
         }
 
+        private QueuedTask poll() {
+            return queue.poll();
+        }
+
+        private int size() {
+            return queue.size();
+        }
+
+        private void clear() {
+            queue.clear();
+        }
+
+        private void recordWait(long waitNanos) {
+            dequeued.increment();
+            totalWaitNanos.add(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+
+        private ClassStats getStats() {
+            QueuedTask oldest = queue.peek();
+            long oldestAge = oldest != null ? System.nanoTime() - oldest.enqueuedNanos : 0L;
+            long count = dequeued.sum();
+            return new ClassStats(taskClass, queue.size(), submitted.sum(), completed.sum(), failed.sum(),
+                rejected.sum(), shed.sum(), coalesced.sum(), stale.sum(),
+                oldestAge / 1_000_000.0,
+                count > 0 ? totalWaitNanos.sum() / (double) count / 1_000_000.0 : 0.0,
+                maxWaitNanos.get() / 1_000_000.0);
+        }
+    }
+
+    /**
+     * 单个类别的统计
+     */
+    public static final class ClassStats {
+        private final TaskClass taskClass;
+        private final int queued;
+        private final long submitted;
+        private final long completed;
+        private final long failed;
+        private final long rejected;
+        private final long shed;
+        private final long coalesced;
+        private final long stale;
+        private final double oldestQueuedMs;
+        private final double avgWaitMs;
+        private final double maxWaitMs;
+
+        public ClassStats(TaskClass taskClass, int queued, long submitted, long completed, long failed,
+                          long rejected, long shed, long coalesced, long stale,
+                          double oldestQueuedMs, double avgWaitMs, double maxWaitMs) {
+            this.taskClass = taskClass;
+            this.queued = queued;
+            this.submitted = submitted;
+            this.completed = completed;
+            this.failed = failed;
+            this.rejected = rejected;
+            this.shed = shed;
+            this.coalesced = coalesced;
+            this.stale = stale;
+            this.oldestQueuedMs = oldestQueuedMs;
+            this.avgWaitMs = avgWaitMs;
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        public TaskClass getTaskClass() { return taskClass; }
+        public int getQueued() { return queued; }
+        public long getSubmitted() { return submitted; }
+        public long getCompleted() { return completed; }
+        public long getFailed() { return failed; }
+        public long getRejected() { return rejected; }
+        public long getShed() { return shed; }
+        public long getCoalesced() { return coalesced; }
+        public long getStale() { return stale; }
+        public double getOldestQueuedMs() { return oldestQueuedMs; }
+        public double getAvgWaitMs() { return avgWaitMs; }
+        public double getMaxWaitMs() { return maxWaitMs; }
+
         @Override
-        public Thread newThread(Runnable r) {
-            Thread thread = new Thread(r, namePrefix + "-" + threadNumber.getAndIncrement());
-            thread.setDaemon(true);
-            thread.setPriority(Thread.NORM_PRIORITY);
-            return thread;
+        public String toString() {
+            return String.format("%s: queued=%d submitted=%d completed=%d failed=%d rejected=%d shed=%d "
+                    + "coalesced=%d stale=%d oldest=%.1fms wait(avg/max)=%.2f/%.2fms",
+                taskClass, queued, submitted, completed, failed, rejected, shed,
+                coalesced, stale, oldestQueuedMs, avgWaitMs, maxWaitMs);
         }
     }
 
@@ -286,23 +622,32 @@ public final class AsyncTaskManager {
         private final int poolSize;
         private final int activeThreads;
         private final long completedTasks;
+        private final Map<TaskClass, ClassStats> classStats;
 
-        public TaskStats(int activeTasks, int poolSize, int activeThreads, long completedTasks) {
+        public TaskStats(int activeTasks, int poolSize, int activeThreads, long completedTasks,
+                         Map<TaskClass, ClassStats> classStats) {
             this.activeTasks = activeTasks;
             this.poolSize = poolSize;
             this.activeThreads = activeThreads;
             this.completedTasks = completedTasks;
+            this.classStats = classStats;
         }
 
         public int getActiveTasks() { return activeTasks; }
         public int getPoolSize() { return poolSize; }
         public int getActiveThreads() { return activeThreads; }
         public long getCompletedTasks() { return completedTasks; }
+        public ClassStats getClassStats(TaskClass taskClass) { return classStats.get(taskClass); }
 
         @Override
         public String toString() {
-            return String.format("Active: %d, Pool: %d, Threads: %d, Completed: %d",
-                activeTasks, poolSize, activeThreads, completedTasks);
+            StringBuilder sb = new StringBuilder(256);
+            sb.append(String.format("Active: %d, Pool: %d, Threads: %d, Completed: %d",
+                activeTasks, poolSize, activeThreads, completedTasks));
+            for (ClassStats stats : classStats.values()) {
+                sb.append("\n  ").append(stats);
+            }
+            return sb.toString();
         }
     }
 }
@@ -0,0 +1,574 @@
+package com.enadd.core.async;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * 统一执行层 - 插件内所有后台工作共用的线程
+ *
+ * 组成：
+ * - CPU 池：一个 ForkJoinPool，线程数有硬上限，既执行普通任务也执行分治任务
+ * - I/O：虚拟线程，每个任务一个，用于文件读写等阻塞操作，不占用平台线程
+ * - 定时器：唯一的调度线程，只负责计时，到期后把任务转交给所属通道执行
+ * - 主线程桥：把结果交回服务器主线程
+ *
+ * 各子系统通过 {@link #cpu(String)} / {@link #io(String)} 取得自己的 {@link Lane}，
+ * 通道记录排队数、执行数、等待时间等指标；通道关闭后尚未开始的任务直接丢弃，
+ * 子系统关闭时不需要（也不能）关闭共享线程。
+ *
+ * 平台线程总数 = CPU 线程数 + 1（定时器），不超过 max-threads。
+ */
+public final class ExecutionLayer {
+    // Holder模式优化单例
+    private static final class Holder {
+        private static final ExecutionLayer INSTANCE = new ExecutionLayer();
+    }
+
+    private static final Logger LOGGER = Logger.getLogger("EnchAdd");
+
+    private static final int DEFAULT_MAX_THREADS = 4;
+
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>(32);
+    private final MainThreadHandoff mainThread = new MainThreadHandoff();
+
+    private volatile int maxThreads = DEFAULT_MAX_THREADS;
+    private volatile int cpuThreads = defaultCpuThreads(DEFAULT_MAX_THREADS);
+    private volatile ForkJoinPool cpuPool;
+    private volatile ExecutorService ioExecutor;
+    private volatile ScheduledThreadPoolExecutor timer;
+    private volatile Plugin plugin;
+
+    ExecutionLayer() {
+    }
+
+    public static ExecutionLayer getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static int defaultCpuThreads(int maxThreads) {
+        // 给主线程和 Netty 留出核心
+        int cores = Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(maxThreads - 1, cores / 2));
+    }
+
+    /**
+     * 调整线程数，需在第一次使用前调用（已创建的池不会被替换）
+     *
+     * @param cpuThreads CPU 线程数，<=0 表示按核心数自动选择
+     * @param maxThreads 平台线程总上限（含定时器线程）
+     */
+    public synchronized void configure(int cpuThreads, int maxThreads) {
+        this.maxThreads = Math.max(2, maxThreads);
+        int requested = cpuThreads > 0 ? cpuThreads : defaultCpuThreads(this.maxThreads);
+        this.cpuThreads = Math.max(1, Math.min(this.maxThreads - 1, requested));
+        if (cpuPool != null) {
+            LOGGER.info("Execution layer already started, thread settings apply after restart");
+        }
+    }
+
+    /**
+     * 绑定插件，用于主线程桥
+     */
+    public void start(Plugin plugin) {
+        this.plugin = plugin;
+        mainThread.open();
+    }
+
+    /**
+     * 获取 CPU 通道
+     */
+    public Lane cpu(String subsystem) {
+        return lane(subsystem, false, 0);
+    }
+
+    /**
+     * 获取有界 CPU 通道，排队数超过 maxQueued 时拒绝新任务
+     */
+    public Lane cpu(String subsystem, int maxQueued) {
+        return lane(subsystem, false, maxQueued);
+    }
+
+    /**
+     * 获取 I/O 通道（虚拟线程）
+     */
+    public Lane io(String subsystem) {
+        return lane(subsystem, true, 0);
+    }
+
+    private Lane lane(String subsystem, boolean io, int maxQueued) {
+        return lanes.compute(subsystem, (name, existing) ->
+            existing == null || existing.isClosed() ? new Lane(this, name, io, maxQueued) : existing);
+    }
+
+    /**
+     * 共享 CPU 池，供分治任务直接 invoke
+     */
+    public ForkJoinPool cpuPool() {
+        ForkJoinPool pool = cpuPool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = cpuPool;
+                if (pool == null) {
+                    int parallelism = cpuThreads;
+                    // 最大线程数等于并行度，阻塞时也不会创建补偿线程
+                    pool = new ForkJoinPool(parallelism, p -> {
+                        ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                        t.setName("EnchAdd-Worker-" + t.getPoolIndex());
+                        t.setDaemon(true);
+                        return t;
+                    }, (t, e) -> LOGGER.log(Level.WARNING, "Uncaught exception in " + t.getName(), e),
+                        true, 0, parallelism, 1, p -> true, 60L, TimeUnit.SECONDS);
+                    cpuPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    private ExecutorService ioExecutor() {
+        ExecutorService executor = ioExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = ioExecutor;
+                if (executor == null) {
+                    executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("EnchAdd-IO-", 0).factory());
+                    ioExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    private ScheduledThreadPoolExecutor timer() {
+        ScheduledThreadPoolExecutor executor = timer;
+        if (executor == null) {
+            synchronized (this) {
+                executor = timer;
+                if (executor == null) {
+                    executor = new ScheduledThreadPoolExecutor(1, r -> {
+                        Thread t = new Thread(r, "EnchAdd-Timer");
+                        t.setDaemon(true);
+                        return t;
+                    });
+                    executor.setRemoveOnCancelPolicy(true);
+                    executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+                    timer = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * 在定时线程上直接执行的轻量回调（只做计时推进，不能阻塞）
+     */
+    public ScheduledFuture<?> scheduleOnTimer(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return timer().scheduleAtFixedRate(() -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                LOGGER.log(Level.WARNING, "Timer callback failed", t);
+            }
+        }, initialDelay, period, unit);
+    }
+
+    /**
+     * 在定时线程上直接执行的一次性轻量回调（如取消超时任务）
+     */
+    public ScheduledFuture<?> scheduleOnTimer(Runnable task, long delay, TimeUnit unit) {
+        return timer().schedule(() -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                LOGGER.log(Level.WARNING, "Timer callback failed", t);
+            }
+        }, delay, unit);
+    }
+
+    /**
+     * 延迟执行，到期后转交给通道
+     */
+    public ScheduledFuture<?> schedule(Lane lane, Runnable task, long delay, TimeUnit unit) {
+        return timer().schedule(() -> lane.execute(task), delay, unit);
+    }
+
+    /**
+     * 周期执行，到期后转交给通道；上一次尚未结束时跳过本次，避免任务堆积
+     */
+    public ScheduledFuture<?> scheduleAtFixedRate(Lane lane, Runnable task, long initialDelay, long period, TimeUnit unit) {
+        AtomicBoolean running = new AtomicBoolean(false);
+        Runnable guarded = () -> {
+            try {
+                task.run();
+            } finally {
+                running.set(false);
+            }
+        };
+        return timer().scheduleAtFixedRate(() -> {
+            if (running.compareAndSet(false, true)) {
+                try {
+                    lane.execute(guarded);
+                } catch (RejectedExecutionException e) {
+                    running.set(false);
+                    lane.skipped.increment();
+                }
+            } else {
+                lane.skipped.increment();
+            }
+        }, initialDelay, period, unit);
+    }
+
+    /**
+     * 在主线程执行，经主线程桥批量交接；详见 {@link MainThreadHandoff}
+     *
+     * @return 执行层已关闭时返回 false
+     */
+    public boolean runOnMain(Runnable task) {
+        return mainThread.submit(task);
+    }
+
+    /**
+     * 当前线程是否为服务器主线程；没有服务器实例（单元测试）时返回 false
+     */
+    public static boolean isMainThread() {
+        return Bukkit.getServer() != null && Bukkit.isPrimaryThread();
+    }
+
+    /**
+     * 启动主线程桥的排空任务（插件启用后在主线程调用）
+     *
+     * @param budgetMs 每 tick 的执行预算（毫秒）
+     */
+    public void startMainThreadHandoff(long budgetMs) {
+        Plugin current = plugin;
+        if (current == null) {
+            throw new IllegalStateException("Execution layer not started");
+        }
+        mainThread.start(current, budgetMs);
+    }
+
+    public MainThreadHandoff getMainThreadHandoff() {
+        return mainThread;
+    }
+
+    void dispatch(Lane lane, Runnable wrapped) {
+        if (lane.io) {
+            ioExecutor().execute(wrapped);
+        } else {
+            // asyncMode=true：普通任务按 FIFO 执行
+            cpuPool().execute(wrapped);
+        }
+    }
+
+    public int getCpuThreads() {
+        return cpuThreads;
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    /**
+     * 当前存活的平台线程数（CPU 池 + 定时器）
+     */
+    public int getPlatformThreadCount() {
+        ForkJoinPool pool = cpuPool;
+        ScheduledThreadPoolExecutor currentTimer = timer;
+        return (pool != null ? pool.getPoolSize() : 0) + (currentTimer != null ? currentTimer.getPoolSize() : 0);
+    }
+
+    public List<LaneStats> getLaneStats() {
+        List<LaneStats> stats = new ArrayList<>(lanes.size());
+        for (Lane lane : lanes.values()) {
+            stats.add(lane.getStats());
+        }
+        stats.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return stats;
+    }
+
+    /**
+     * 关闭所有线程（插件卸载时最后调用）
+     */
+    public synchronized void shutdown() {
+        mainThread.stop();
+
+        for (Lane lane : lanes.values()) {
+            lane.close();
+        }
+        lanes.clear();
+
+        ScheduledThreadPoolExecutor currentTimer = timer;
+        timer = null;
+        if (currentTimer != null) {
+            currentTimer.shutdownNow();
+        }
+
+        ForkJoinPool pool = cpuPool;
+        cpuPool = null;
+        if (pool != null) {
+            pool.shutdown();
+            try {
+                if (!pool.awaitTermination(5, TimeUnit.SECONDS)) {
+                    pool.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                pool.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        ExecutorService io = ioExecutor;
+        ioExecutor = null;
+        if (io != null) {
+            io.shutdownNow();
+        }
+        plugin = null;
+    }
+
+    /**
+     * 子系统通道
+     *
+     * 任务在共享线程上执行，通道只负责统计和准入：关闭后尚未开始的任务被丢弃，
+     * 有界通道排队数超过上限时抛出 {@link RejectedExecutionException}。
+     */
+    public static final class Lane implements Executor {
+        private final ExecutionLayer layer;
+        private final String name;
+        private final boolean io;
+        private final int maxQueued;
+
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+        private final LongAdder submitted = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private volatile boolean closed = false;
+
+        private Lane(ExecutionLayer layer, String name, boolean io, int maxQueued) {
+            this.layer = layer;
+            this.name = name;
+            this.io = io;
+            this.maxQueued = Math.max(0, maxQueued);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            if (closed) {
+                rejected.increment();
+                throw new RejectedExecutionException("Lane closed: " + name);
+            }
+            if (maxQueued > 0 && queued.get() >= maxQueued) {
+                rejected.increment();
+                throw new RejectedExecutionException("Lane queue full: " + name + " (" + maxQueued + ")");
+            }
+
+            long enqueuedAt = System.nanoTime();
+            queued.incrementAndGet();
+            submitted.increment();
+            try {
+                layer.dispatch(this, () -> run(task, enqueuedAt));
+            } catch (RejectedExecutionException e) {
+                queued.decrementAndGet();
+                rejected.increment();
+                throw e;
+            }
+        }
+
+        private void run(Runnable task, long enqueuedAt) {
+            queued.decrementAndGet();
+            if (closed) {
+                skipped.increment();
+                return;
+            }
+
+            long wait = System.nanoTime() - enqueuedAt;
+            totalWaitNanos.add(wait);
+            maxWaitNanos.accumulateAndGet(wait, Math::max);
+            running.incrementAndGet();
+            try {
+                task.run();
+                completed.increment();
+            } catch (Throwable t) {
+                failed.increment();
+                LOGGER.log(Level.WARNING, "Task failed in lane " + name, t);
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+
+        /**
+         * 延迟执行
+         */
+        public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+            return layer.schedule(this, task, delay, unit);
+        }
+
+        /**
+         * 周期执行（上一次未结束时跳过）
+         */
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+            return layer.scheduleAtFixedRate(this, task, initialDelay, period, unit);
+        }
+
+        /**
+         * 创建串行视图：提交到视图的任务按顺序逐个执行，替代单线程执行器
+         */
+        public Executor serial() {
+            return new SerialExecutor(this);
+        }
+
+        /**
+         * 关闭通道：拒绝新任务，已排队的任务被丢弃
+         */
+        public void close() {
+            closed = true;
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getQueued() {
+            return queued.get();
+        }
+
+        public int getRunning() {
+            return running.get();
+        }
+
+        public LaneStats getStats() {
+            long done = completed.sum() + failed.sum();
+            return new LaneStats(name, io, queued.get(), running.get(), submitted.sum(), completed.sum(),
+                failed.sum(), rejected.sum(), skipped.sum(),
+                done > 0 ? totalWaitNanos.sum() / (double) done / 1_000_000.0 : 0.0,
+                maxWaitNanos.get() / 1_000_000.0);
+        }
+    }
+
+    /**
+     * 串行执行器：同一时刻最多一个任务占用共享线程
+     */
+    private static final class SerialExecutor implements Executor {
+        private final Lane lane;
+        private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        private SerialExecutor(Lane lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.offer(task);
+            trySchedule();
+        }
+
+        private void trySchedule() {
+            if (!tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+                try {
+                    lane.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    tasks.clear();
+                    throw e;
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    try {
+                        task.run();
+                    } catch (Throwable t) {
+                        LOGGER.log(Level.WARNING, "Serial task failed in lane " + lane.getName(), t);
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+            }
+            // 排空与置位之间可能有新任务入队
+            trySchedule();
+        }
+    }
+
+    /**
+     * 通道统计
+     */
+    public static final class LaneStats {
+        private final String name;
+        private final boolean io;
+        private final int queued;
+        private final int running;
+        private final long submitted;
+        private final long completed;
+        private final long failed;
+        private final long rejected;
+        private final long skipped;
+        private final double avgWaitMs;
+        private final double maxWaitMs;
+
+        public LaneStats(String name, boolean io, int queued, int running, long submitted, long completed,
+                         long failed, long rejected, long skipped, double avgWaitMs, double maxWaitMs) {
+            this.name = name;
+            this.io = io;
+            this.queued = queued;
+            this.running = running;
+            this.submitted = submitted;
+            this.completed = completed;
+            this.failed = failed;
+            this.rejected = rejected;
+            this.skipped = skipped;
+            this.avgWaitMs = avgWaitMs;
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        public String getName() { return name; }
+        public boolean isIo() { return io; }
+        public int getQueued() { return queued; }
+        public int getRunning() { return running; }
+        public long getSubmitted() { return submitted; }
+        public long getCompleted() { return completed; }
+        public long getFailed() { return failed; }
+        public long getRejected() { return rejected; }
+        public long getSkipped() { return skipped; }
+        public double getAvgWaitMs() { return avgWaitMs; }
+        public double getMaxWaitMs() { return maxWaitMs; }
+
+        @Override
+        public String toString() {
+            return String.format("%s[%s] queued=%d running=%d submitted=%d completed=%d failed=%d rejected=%d skipped=%d wait(avg/max)=%.2f/%.2fms",
+                name, io ? "io" : "cpu", queued, running, submitted, completed, failed, rejected, skipped, avgWaitMs, maxWaitMs);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.enadd.core.async;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * 主线程桥 - 批量把后台结果交回服务器主线程
+ *
+ * 后台线程只向无锁队列（多生产者、单消费者）追加任务，不再为每个结果创建一个调度任务；
+ * 主线程上只有一个每 tick 执行一次的排空任务，在时间预算内按提交顺序执行，
+ * 预算用完后剩余任务留到下一 tick。每 tick 至少执行一个任务，保证积压总能前进。
+ *
+ * 顺序：队列只有一个消费者且严格 FIFO，因此同一来源（如同一玩家）的任务按提交顺序执行；
+ * 在主线程上提交时只有队列为空才会直接执行，避免越过已排队的任务。
+ *
+ * 排空任务启动前提交的任务会保留到启动后执行；关闭后队列中未执行的任务被丢弃
+ * （与 Bukkit 在插件禁用时取消未执行任务的行为一致）。
+ */
+public final class MainThreadHandoff {
+
+    private static final Logger LOGGER = Logger.getLogger("EnchAdd");
+
+    /** 默认每 tick 预算 2ms（一个 tick 为 50ms） */
+    public static final long DEFAULT_BUDGET_MS = 2L;
+
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    // 以下只由主线程写入
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong drainTicks = new AtomicLong();
+    private final AtomicLong backlogTicks = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final AtomicLong maxDrainNanos = new AtomicLong();
+
+    private volatile long budgetNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_BUDGET_MS);
+    private volatile BukkitTask drainTask;
+    private volatile boolean accepting = true;
+
+    MainThreadHandoff() {
+    }
+
+    /**
+     * 启动排空任务，需在插件启用后于主线程调用
+     *
+     * @param plugin 插件实例
+     * @param budgetMs 每 tick 的执行预算（毫秒），<=0 使用默认值
+     */
+    public synchronized void start(Plugin plugin, long budgetMs) {
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMs > 0 ? budgetMs : DEFAULT_BUDGET_MS);
+        if (drainTask == null) {
+            drainTask = Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 1L, 1L);
+        }
+    }
+
+    /**
+     * 提交到主线程执行
+     *
+     * @return 关闭后提交返回 false（任务被丢弃）
+     */
+    public boolean submit(Runnable task) {
+        return submit(task, drainTask != null && Bukkit.isPrimaryThread());
+    }
+
+    /**
+     * @param inlineAllowed 调用方在主线程且排空任务已启动，没有积压时可直接执行
+     */
+    boolean submit(Runnable task, boolean inlineAllowed) {
+        if (!accepting) {
+            dropped.increment();
+            return false;
+        }
+        submitted.increment();
+
+        // 先计数再入队：后台线程已提交但尚未入队的任务也计入积压，主线程不会越过它直接执行
+        int current = depth.incrementAndGet();
+        if (inlineAllowed && current == 1) {
+            depth.decrementAndGet();
+            run(task, 0L);
+            return true;
+        }
+
+        int max;
+        while (current > (max = maxDepth.get())) {
+            if (maxDepth.compareAndSet(max, current)) {
+                break;
+            }
+        }
+        queue.offer(new Entry(task, System.nanoTime()));
+        return true;
+    }
+
+    /**
+     * 排空队列，只在主线程调用
+     */
+    void drain() {
+        long begin = System.nanoTime();
+        long deadline = begin + budgetNanos;
+
+        Entry entry;
+        while ((entry = queue.poll()) != null) {
+            depth.decrementAndGet();
+            long now = System.nanoTime();
+            run(entry.task, now - entry.enqueuedNanos);
+            if (System.nanoTime() - deadline >= 0) {
+                break;
+            }
+        }
+
+        drainTicks.incrementAndGet();
+        if (!queue.isEmpty()) {
+            // 预算用完仍有积压
+            backlogTicks.incrementAndGet();
+        }
+        long elapsed = System.nanoTime() - begin;
+        if (elapsed > maxDrainNanos.get()) {
+            maxDrainNanos.set(elapsed);
+        }
+    }
+
+    private void run(Runnable task, long latencyNanos) {
+        try {
+            task.run();
+        } catch (Throwable t) {
+            failed.incrementAndGet();
+            LOGGER.log(Level.WARNING, "Main thread handoff task failed", t);
+        } finally {
+            executed.incrementAndGet();
+            totalLatencyNanos.addAndGet(latencyNanos);
+            if (latencyNanos > maxLatencyNanos.get()) {
+                maxLatencyNanos.set(latencyNanos);
+            }
+        }
+    }
+
+    void open() {
+        accepting = true;
+    }
+
+    /**
+     * 停止排空任务并丢弃未执行的任务
+     */
+    synchronized void stop() {
+        accepting = false;
+        BukkitTask task = drainTask;
+        drainTask = null;
+        if (task != null) {
+            task.cancel();
+        }
+
+        int discarded = 0;
+        while (queue.poll() != null) {
+            depth.decrementAndGet();
+            discarded++;
+        }
+        if (discarded > 0) {
+            dropped.add(discarded);
+            LOGGER.fine("Main thread handoff discarded " + discarded + " pending tasks on shutdown");
+        }
+    }
+
+    public int getDepth() {
+        return depth.get();
+    }
+
+    public HandoffStats getStats() {
+        long done = executed.get();
+        return new HandoffStats(
+            depth.get(),
+            maxDepth.get(),
+            submitted.sum(),
+            done,
+            failed.get(),
+            dropped.sum(),
+            drainTicks.get(),
+            backlogTicks.get(),
+            done > 0 ? totalLatencyNanos.get() / (double) done / 1_000_000.0 : 0.0,
+            maxLatencyNanos.get() / 1_000_000.0,
+            maxDrainNanos.get() / 1_000_000.0
+        );
+    }
+
+    private static final class Entry {
+        private final Runnable task;
+        private final long enqueuedNanos;
+
+        private Entry(Runnable task, long enqueuedNanos) {
+            this.task = task;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    /**
+     * 主线程桥统计
+     */
+    public static final class HandoffStats {
+        private final int depth;
+        private final int maxDepth;
+        private final long submitted;
+        private final long executed;
+        private final long failed;
+        private final long dropped;
+        private final long drainTicks;
+        private final long backlogTicks;
+        private final double avgLatencyMs;
+        private final double maxLatencyMs;
+        private final double maxDrainMs;
+
+        public HandoffStats(int depth, int maxDepth, long submitted, long executed, long failed, long dropped,
+                            long drainTicks, long backlogTicks, double avgLatencyMs, double maxLatencyMs, double maxDrainMs) {
+            this.depth = depth;
+            this.maxDepth = maxDepth;
+            this.submitted = submitted;
+            this.executed = executed;
+            this.failed = failed;
+            this.dropped = dropped;
+            this.drainTicks = drainTicks;
+            this.backlogTicks = backlogTicks;
+            this.avgLatencyMs = avgLatencyMs;
+            this.maxLatencyMs = maxLatencyMs;
+            this.maxDrainMs = maxDrainMs;
+        }
+
+        public int getDepth() { return depth; }
+        public int getMaxDepth() { return maxDepth; }
+        public long getSubmitted() { return submitted; }
+        public long getExecuted() { return executed; }
+        public long getFailed() { return failed; }
+        public long getDropped() { return dropped; }
+        public long getDrainTicks() { return drainTicks; }
+        public long getBacklogTicks() { return backlogTicks; }
+        public double getAvgLatencyMs() { return avgLatencyMs; }
+        public double getMaxLatencyMs() { return maxLatencyMs; }
+        public double getMaxDrainMs() { return maxDrainMs; }
+
+        @Override
+        public String toString() {
+            return String.format("main-handoff depth=%d (max %d) submitted=%d executed=%d failed=%d dropped=%d "
+                    + "backlog-ticks=%d/%d latency(avg/max)=%.2f/%.2fms max-drain=%.2fms",
+                depth, maxDepth, submitted, executed, failed, dropped,
+                backlogTicks, drainTicks, avgLatencyMs, maxLatencyMs, maxDrainMs);
+        }
+    }
+}
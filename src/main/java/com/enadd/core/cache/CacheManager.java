@@ -1,6 +1,11 @@
 package com.enadd.core.cache;
 
+import com.enadd.core.async.ExecutionLayer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
@@ -26,7 +31,7 @@ public final class CacheManager {
     private final AtomicBoolean autoCleanupEnabled = new AtomicBoolean(true);
     private final AtomicBoolean cleanupThreadStarted = new AtomicBoolean(false);
     private volatile long cleanupInterval = 300000; // 5分钟（CPU优化：从1分钟延长）
-    private volatile Thread cleanupThread;
+    private volatile ScheduledFuture<?> cleanupTask;
 
     private CacheManager() {
         try {
@@ -185,7 +190,7 @@ public final class CacheManager {
 
     /**
      * 启动清理任务
-     * 使用守护线程定期清理过期条目
+     * 在统一执行层上定期清理过期条目
      */
     private void startCleanupTask() {
         // Bug修复9: 防止重复启动
@@ -194,37 +199,27 @@ public final class CacheManager {
         }
 
         try {
-            // Bug修复8,10: 线程启动异常处理和参数验证
-            cleanupThread = new Thread(() -> {
-                LOGGER.info("Cache cleanup thread started");
-                while (autoCleanupEnabled.get()) {
-                    try {
-                        long interval = cleanupInterval;
-                        // Bug修复10: 验证清理间隔
-                        if (interval <= 0) {
-                            interval = 60000; // 默认1分钟
-                        }
-                        Thread.sleep(interval);
-                        cleanupAll();
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        LOGGER.info("Cache cleanup thread interrupted");
-                        break;
-                    } catch (Exception e) {
-                        LOGGER.log(Level.WARNING, "Error in cleanup task", e);
-                    }
-                }
-                LOGGER.info("Cache cleanup thread stopped");
-            }, "CacheManager-Cleanup");
-
-            cleanupThread.setDaemon(true);
-            cleanupThread.setPriority(Thread.MIN_PRIORITY); // CPU优化: 最低优先级
-            cleanupThread.start();
+            scheduleCleanup();
         } catch (Exception e) {
             cleanupThreadStarted.set(false);
-            LOGGER.log(Level.SEVERE, "Failed to start cleanup thread", e);
-            throw new RuntimeException("Failed to start cleanup thread", e);
+            LOGGER.log(Level.SEVERE, "Failed to start cleanup task", e);
+            throw new RuntimeException("Failed to start cleanup task", e);
+        }
+    }
+
+    private synchronized void scheduleCleanup() {
+        ScheduledFuture<?> previous = cleanupTask;
+        if (previous != null) {
+            previous.cancel(false);
         }
+
+        long interval = cleanupInterval;
+        // Bug修复10: 验证清理间隔
+        if (interval <= 0) {
+            interval = 60000; // 默认1分钟
+        }
+        cleanupTask = ExecutionLayer.getInstance().cpu("cache-cleanup")
+            .scheduleAtFixedRate(this::cleanupAll, interval, interval, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -239,6 +234,9 @@ public final class CacheManager {
             throw new IllegalArgumentException("Cleanup interval must be positive, got: " + intervalMillis);
         }
         this.cleanupInterval = intervalMillis;
+        if (cleanupThreadStarted.get()) {
+            scheduleCleanup();
+        }
         LOGGER.info("Cleanup interval set to: " + intervalMillis + "ms");
     }
 
@@ -255,19 +253,11 @@ public final class CacheManager {
 
         LOGGER.info("Shutting down CacheManager");
 
-        // Bug修复11,12: 正确停止清理线程
-        Thread thread = cleanupThread;
-        if (thread != null && thread.isAlive()) {
-            thread.interrupt();
-            try {
-                thread.join(5000); // 等待最多5秒
-                if (thread.isAlive()) {
-                    LOGGER.warning("Cleanup thread did not stop within timeout");
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                LOGGER.warning("Interrupted while waiting for cleanup thread to stop");
-            }
+        // Bug修复11,12: 正确停止清理任务
+        ScheduledFuture<?> task = cleanupTask;
+        if (task != null) {
+            task.cancel(false);
+            cleanupTask = null;
         }
 
         clearAll();
@@ -294,6 +284,11 @@ public final class CacheManager {
         private volatile long hits = 0;
         private volatile long misses = 0;
 
+        // 加载模式：同一个键的并发未命中共享一次计算
+        private final SingleFlightLoader<K, V> loader = new SingleFlightLoader<>();
+        private volatile long refreshAfterMillis = 0; // 0表示不做软过期刷新
+        private volatile Executor loaderExecutor = ExecutionLayer.getInstance().cpu("cache-loader");
+
         private Cache(String name, int maxSize, long ttlMillis) {
             // Bug修复30-32: 参数验证
             if (name == null || name.trim().isEmpty()) {
@@ -325,6 +320,11 @@ public final class CacheManager {
                 throw new IllegalArgumentException("Cache key cannot be null");
             }
 
+            CacheEntry<V> entry = lookup(key);
+            return entry != null ? entry.value : null;
+        }
+
+        private CacheEntry<V> lookup(K key) {
             try {
                 // Bug修复14: 完整的null处理
                 CacheEntry<V> entry = entries.get(key);
@@ -335,14 +335,14 @@ public final class CacheManager {
 
                 // Bug修复35: 时间溢出处理
                 if (entry.isExpired()) {
-                    entries.remove(key);
+                    entries.remove(key, entry);
                     misses++;
                     return null;
                 }
 
                 entry.updateAccessTime();
                 hits++;
-                return entry.value;
+                return entry;
             } catch (Exception e) {
                 CACHE_LOGGER.log(Level.WARNING, "Error getting cache value for key: " + key, e);
                 misses++;
@@ -354,6 +354,9 @@ public final class CacheManager {
          * 获取或计算缓存值
          * 如果缓存中不存在，则使用computer函数计算并缓存结果
          *
+         * 同一个键的并发未命中只计算一次，其余调用方等待并共享结果（主线程不等待，自己计算）；
+         * 条目超过软过期时间（{@link #setRefreshAfter}）时先返回旧值，并在加载执行器上后台刷新
+         *
          * @param key 键，不能为null
          * @param computer 计算函数，不能为null
          * @return 缓存的值或计算的值
@@ -368,24 +371,120 @@ public final class CacheManager {
                 throw new IllegalArgumentException("Computer function cannot be null");
             }
 
-            V value = get(key);
-            if (value != null) {
-                return value;
+            CacheEntry<V> entry = lookup(key);
+            if (entry != null) {
+                refreshIfStale(key, entry, computer);
+                return entry.value;
             }
 
             try {
                 // Bug修复17: 计算异常处理
-                value = computer.apply(key);
-                if (value != null) {
-                    put(key, value);
+                if (ExecutionLayer.isMainThread()) {
+                    return loader.loadWithoutWaiting(key, computer, this::put);
                 }
-                return value;
+                return loader.load(key, computer, this::put);
             } catch (Exception e) {
                 CACHE_LOGGER.log(Level.WARNING, "Error computing cache value for key: " + key, e);
                 throw new RuntimeException("Failed to compute cache value", e);
             }
         }
 
+        /**
+         * 异步获取或计算缓存值
+         * 命中时返回已完成的future；未命中时在加载执行器上计算，同一个键的并发调用共享同一个future
+         *
+         * @param key 键，不能为null
+         * @param computer 计算函数，不能为null
+         * @return 缓存的值或计算结果的future，计算失败时异常完成
+         * @throws IllegalArgumentException 如果参数为null
+         */
+        public CompletableFuture<V> getOrComputeAsync(K key, Function<K, V> computer) {
+            if (key == null) {
+                throw new IllegalArgumentException("Cache key cannot be null");
+            }
+            if (computer == null) {
+                throw new IllegalArgumentException("Computer function cannot be null");
+            }
+
+            CacheEntry<V> entry = lookup(key);
+            if (entry != null) {
+                refreshIfStale(key, entry, computer);
+                return CompletableFuture.completedFuture(entry.value);
+            }
+
+            return loader.loadAsync(key, computer, loaderExecutor, this::put);
+        }
+
+        /**
+         * 在后台重新计算缓存值，刷新期间读取仍返回旧值
+         * 已有进行中的加载时直接返回它
+         */
+        public CompletableFuture<V> refresh(K key, Function<K, V> computer) {
+            if (key == null) {
+                throw new IllegalArgumentException("Cache key cannot be null");
+            }
+            if (computer == null) {
+                throw new IllegalArgumentException("Computer function cannot be null");
+            }
+            return loader.loadAsync(key, computer, loaderExecutor, this::put);
+        }
+
+        private void refreshIfStale(K key, CacheEntry<V> entry, Function<K, V> computer) {
+            if (!entry.isStale(refreshAfterMillis) || loader.isLoading(key)) {
+                return;
+            }
+
+            loader.loadAsync(key, computer, loaderExecutor, this::put)
+                .whenComplete((value, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                        CACHE_LOGGER.log(Level.FINE, "Background refresh failed for key: " + key, cause);
+                    }
+                });
+        }
+
+        /**
+         * 设置软过期时间
+         * 超过该时间的条目仍会返回，但会触发一次后台刷新；必须小于TTL才有意义
+         *
+         * @param refreshAfterMillis 软过期时间（毫秒），0表示关闭
+         */
+        public void setRefreshAfter(long refreshAfterMillis) {
+            if (refreshAfterMillis < 0) {
+                throw new IllegalArgumentException("Refresh interval cannot be negative, got: " + refreshAfterMillis);
+            }
+            this.refreshAfterMillis = refreshAfterMillis;
+        }
+
+        /**
+         * 设置异步加载和后台刷新使用的执行器，默认为统一执行层的 cache-loader 通道
+         */
+        public void setLoaderExecutor(Executor executor) {
+            if (executor == null) {
+                throw new IllegalArgumentException("Loader executor cannot be null");
+            }
+            this.loaderExecutor = executor;
+        }
+
+        public long getRefreshAfter() {
+            return refreshAfterMillis;
+        }
+
+        /**
+         * 实际执行的计算次数（不含共享他人结果的调用）
+         */
+        public long getLoadCount() {
+            return loader.getLoads();
+        }
+
+        /**
+         * 因合并并发未命中而省下的计算次数
+         */
+        public long getCoalescedLoads() {
+            return loader.getJoins();
+        }
+
         /**
          * 放入缓存
          * 如果缓存已满，会先淘汰最旧的条目
@@ -604,6 +703,13 @@ public final class CacheManager {
             }
         }
 
+        /**
+         * 检查条目是否超过软过期时间（需要后台刷新但仍可返回）
+         */
+        boolean isStale(long refreshAfterMillis) {
+            return refreshAfterMillis > 0 && System.currentTimeMillis() - createTime > refreshAfterMillis;
+        }
+
         /**
          * 更新最后访问时间
          */
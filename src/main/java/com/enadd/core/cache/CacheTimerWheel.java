@@ -0,0 +1,184 @@
+package com.enadd.core.cache;
+
+import com.enadd.core.async.ExecutionLayer;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * 所有缓存共享的哈希时间轮，用于 TTL 过期
+ *
+ * 每个槽位对应一个 tick，超过一圈的定时器记录剩余圈数。登记操作只向无锁队列追加，
+ * 由 {@link ExecutionLayer} 的定时线程在每个 tick 开始时搬入对应槽位，因此槽位只被定时线程访问。
+ * 过期回调在定时线程上执行，必须短小且不能阻塞。
+ *
+ * 取消只打标记并释放回调，定时器对象留在槽位中，定时线程下次经过该槽位时丢弃；
+ * 回调通常捕获缓存节点，提前释放才不会让已淘汰的条目被持有到原定的过期时间。
+ *
+ * tick 任务在第一次登记时懒启动，{@link #shutdown()} 后再次登记会重新启动。
+ */
+public final class CacheTimerWheel {
+    // Holder模式优化单例
+    private static final class Holder {
+        private static final CacheTimerWheel INSTANCE = new CacheTimerWheel(512, 1000L);
+    }
+
+    private static final Logger LOGGER = Logger.getLogger("EnchAdd");
+
+    private final int mask;
+    private final long tickMs;
+    private final ArrayDeque<Timeout>[] buckets;
+    private final ConcurrentLinkedQueue<Timeout> pending = new ConcurrentLinkedQueue<>();
+
+    // tick 与 shutdown 互斥，保证清空槽位时没有正在执行的 tick
+    private final Object tickLock = new Object();
+    private ScheduledFuture<?> tickTask;
+    private long startTime;
+    // 仅定时线程访问
+    private long tick = 0;
+
+    @SuppressWarnings("unchecked")
+    CacheTimerWheel(int wheelSize, long tickMs) {
+        int size = Integer.highestOneBit(Math.max(16, wheelSize - 1) << 1);
+        this.mask = size - 1;
+        this.tickMs = Math.max(10L, tickMs);
+        this.buckets = new ArrayDeque[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+    }
+
+    public static CacheTimerWheel getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * 登记一个定时器
+     *
+     * @param delayMs 延迟（毫秒），按 tick 向上取整
+     * @param task 到期回调，在定时线程上执行
+     * @return 可取消的定时器
+     */
+    public Timeout schedule(long delayMs, Runnable task) {
+        ensureStarted();
+        Timeout timeout = new Timeout(System.currentTimeMillis() + Math.max(0L, delayMs), task);
+        pending.offer(timeout);
+        return timeout;
+    }
+
+    private synchronized void ensureStarted() {
+        if (tickTask != null) {
+            return;
+        }
+
+        startTime = System.currentTimeMillis();
+        tick = 0;
+        tickTask = ExecutionLayer.getInstance().scheduleOnTimer(this::advance, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void advance() {
+        synchronized (tickLock) {
+            try {
+                transferPending();
+
+                long now = System.currentTimeMillis();
+                ArrayDeque<Timeout> bucket = buckets[(int) (tick & mask)];
+                int count = bucket.size();
+                for (int i = 0; i < count; i++) {
+                    Timeout timeout = bucket.poll();
+                    if (timeout.cancelled) {
+                        continue;
+                    }
+                    if (timeout.remainingRounds > 0) {
+                        timeout.remainingRounds--;
+                        bucket.offer(timeout);
+                    } else if (timeout.deadline <= now) {
+                        fire(timeout);
+                    } else {
+                        // 时钟漂移导致提前到达，放回下一圈
+                        bucket.offer(timeout);
+                    }
+                }
+                tick++;
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Cache timer tick failed", e);
+            }
+        }
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+
+            long ticks = Math.max(tick, (timeout.deadline - startTime + tickMs - 1) / tickMs);
+            timeout.remainingRounds = (ticks - tick) / buckets.length;
+            buckets[(int) (ticks & mask)].offer(timeout);
+        }
+    }
+
+    private void fire(Timeout timeout) {
+        Runnable task = timeout.task;
+        if (task == null) {
+            return;
+        }
+        try {
+            task.run();
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Cache expiry callback failed", e);
+        }
+    }
+
+    public synchronized void shutdown() {
+        if (tickTask != null) {
+            tickTask.cancel(false);
+            tickTask = null;
+        }
+        // 等待正在执行的 tick 结束后再清空槽位
+        synchronized (tickLock) {
+            pending.clear();
+            for (ArrayDeque<Timeout> bucket : buckets) {
+                bucket.clear();
+            }
+        }
+    }
+
+    public long getTickMs() {
+        return tickMs;
+    }
+
+    /**
+     * 已登记的定时器
+     */
+    public static final class Timeout {
+        private final long deadline;
+        // 取消时置空，释放回调捕获的对象
+        private volatile Runnable task;
+        private long remainingRounds;
+        private volatile boolean cancelled = false;
+
+        private Timeout(long deadline, Runnable task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            task = null;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+}
@@ -0,0 +1,414 @@
+package com.enadd.core.cache;
+
+import com.enadd.core.async.ExecutionLayer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * 启动缓存预热
+ *
+ * 预热任务组成一张依赖图：任务在所有依赖完成后才进入就绪队列，就绪队列按优先级排序，
+ * 由不超过 parallelism 个排空任务在统一执行层的 cache-warmup 通道上执行。任务的有效优先级取自身和所有（直接或间接）依赖它的任务中
+ * 最高的一个，因此热数据的前置任务会被提前执行。
+ *
+ * 依赖失败或被跳过的任务标记为 SKIPPED，不会执行。
+ *
+ * 主线程通过 {@link #awaitPriority} 最多等待给定的截止时间，超时后直接返回，
+ * 剩余任务继续在后台执行，全部结束后 {@link #getCompletion()} 完成并给出各任务耗时。
+ */
+public final class CacheWarmer {
+
+    private static final Logger LOGGER = Logger.getLogger("EnchAdd");
+
+    public enum Priority {
+        /** 首个玩家操作就会用到 */
+        CRITICAL,
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        DONE,
+        FAILED,
+        SKIPPED
+    }
+
+    private final String name;
+    private final int parallelism;
+    private final Map<String, Task> tasks = new LinkedHashMap<>();
+    private final CompletableFuture<WarmupReport> completion = new CompletableFuture<>();
+    private final AtomicInteger remaining = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final PriorityBlockingQueue<Task> ready;
+    private final AtomicInteger activeDrainers = new AtomicInteger();
+    private final ExecutionLayer.Lane lane;
+    private long startNanos;
+    private volatile boolean started = false;
+    private volatile boolean cancelled = false;
+
+    /**
+     * @param name 名称，用于日志
+     * @param parallelism 同时执行的任务数上限
+     */
+    public CacheWarmer(String name, int parallelism) {
+        this.name = name;
+        this.parallelism = Math.max(1, parallelism);
+        this.ready = new PriorityBlockingQueue<>(16,
+            Comparator.comparing((Task t) -> t.effectivePriority).thenComparingLong(t -> t.order));
+        this.lane = ExecutionLayer.getInstance().cpu("cache-warmup");
+    }
+
+    /**
+     * 添加预热任务，必须在 {@link #start()} 之前调用
+     *
+     * @param id 任务 id
+     * @param priority 优先级
+     * @param action 预热动作
+     * @param dependsOn 依赖的任务 id，必须已经添加
+     * @return this
+     * @throws IllegalArgumentException id 重复或依赖不存在
+     */
+    public synchronized CacheWarmer addTask(String id, Priority priority, Runnable action, String... dependsOn) {
+        if (started) {
+            throw new IllegalStateException("Warmup already started: " + name);
+        }
+        if (tasks.containsKey(id)) {
+            throw new IllegalArgumentException("Duplicate warmup task: " + id);
+        }
+
+        Task task = new Task(id, priority, action);
+        for (String dependency : dependsOn) {
+            Task parent = tasks.get(dependency);
+            if (parent == null) {
+                throw new IllegalArgumentException("Unknown dependency '" + dependency + "' for warmup task: " + id);
+            }
+            task.dependencies.add(parent);
+            parent.dependents.add(task);
+        }
+        tasks.put(id, task);
+        return this;
+    }
+
+    /**
+     * 启动预热（只能调用一次）
+     *
+     * @return 全部任务结束后完成的 future
+     */
+    public synchronized CompletableFuture<WarmupReport> start() {
+        if (started) {
+            return completion;
+        }
+        started = true;
+        startNanos = System.nanoTime();
+
+        if (tasks.isEmpty()) {
+            completion.complete(buildReport());
+            return completion;
+        }
+
+        // 依赖只能指向先添加的任务，因此逆序遍历即可把优先级传递给所有前置任务
+        List<Task> ordered = new ArrayList<>(tasks.values());
+        for (int i = ordered.size() - 1; i >= 0; i--) {
+            Task task = ordered.get(i);
+            for (Task dependency : task.dependencies) {
+                if (task.effectivePriority.ordinal() < dependency.effectivePriority.ordinal()) {
+                    dependency.effectivePriority = task.effectivePriority;
+                }
+            }
+        }
+
+        remaining.set(tasks.size());
+        for (Task task : ordered) {
+            task.pendingDependencies.set(task.dependencies.size());
+        }
+        // 先把所有根任务放入队列再启动排空任务，保证第一批任务也按优先级出队
+        for (Task task : ordered) {
+            if (task.dependencies.isEmpty()) {
+                enqueue(task);
+            }
+        }
+        spawnDrainers();
+        return completion;
+    }
+
+    private void submit(Task task) {
+        enqueue(task);
+        spawnDrainers();
+    }
+
+    private void enqueue(Task task) {
+        task.order = sequence.incrementAndGet();
+        task.readyNanos = System.nanoTime();
+        ready.offer(task);
+    }
+
+    private void spawnDrainers() {
+        while (!ready.isEmpty() && !cancelled) {
+            int active = activeDrainers.get();
+            if (active >= parallelism) {
+                return;
+            }
+            if (activeDrainers.compareAndSet(active, active + 1)) {
+                try {
+                    lane.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    activeDrainers.decrementAndGet();
+                    LOGGER.warning("Warmup lane rejected work: " + name);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Task task = cancelled ? null : ready.poll();
+            if (task == null) {
+                activeDrainers.decrementAndGet();
+                // 退出前再检查一次，避免与并发入队的任务错过
+                if (ready.isEmpty() || cancelled) {
+                    return;
+                }
+                int active = activeDrainers.get();
+                if (active >= parallelism || !activeDrainers.compareAndSet(active, active + 1)) {
+                    return;
+                }
+                continue;
+            }
+            task.run();
+        }
+    }
+
+    private void finish(Task task, Status status) {
+        task.status = status;
+        task.readyLatch.complete(null);
+
+        Deque<Task> skipped = new ArrayDeque<>();
+        for (Task dependent : task.dependents) {
+            if (status != Status.DONE) {
+                if (dependent.status == Status.PENDING && dependent.skip()) {
+                    skipped.add(dependent);
+                }
+            } else if (dependent.pendingDependencies.decrementAndGet() == 0 && dependent.status == Status.PENDING) {
+                submit(dependent);
+            }
+        }
+
+        while (!skipped.isEmpty()) {
+            Task skippedTask = skipped.poll();
+            skippedTask.readyLatch.complete(null);
+            countDown();
+            for (Task dependent : skippedTask.dependents) {
+                if (dependent.status == Status.PENDING && dependent.skip()) {
+                    skipped.add(dependent);
+                }
+            }
+        }
+        countDown();
+    }
+
+    private void countDown() {
+        if (remaining.decrementAndGet() == 0) {
+            completion.complete(buildReport());
+        }
+    }
+
+    /**
+     * 在调用线程上等待指定优先级及更高优先级的任务结束，最多等待 timeoutMs
+     *
+     * @return 截止前这些任务全部结束时返回 true
+     */
+    public boolean awaitPriority(Priority priority, long timeoutMs) {
+        List<CompletableFuture<Void>> waits = new ArrayList<>();
+        synchronized (this) {
+            for (Task task : tasks.values()) {
+                if (task.priority.ordinal() <= priority.ordinal()) {
+                    waits.add(task.readyLatch);
+                }
+            }
+        }
+
+        try {
+            CompletableFuture.allOf(waits.toArray(new CompletableFuture[0])).get(Math.max(0L, timeoutMs), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    public CompletableFuture<WarmupReport> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * 停止尚未开始的任务（插件关闭时调用）
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        ready.clear();
+        if (!completion.isDone()) {
+            completion.complete(buildReport());
+        }
+    }
+
+    private synchronized WarmupReport buildReport() {
+        List<TaskResult> results = new ArrayList<>(tasks.size());
+        for (Task task : tasks.values()) {
+            results.add(new TaskResult(task.id, task.priority, task.status,
+                task.waitNanos / 1_000_000.0, task.runNanos / 1_000_000.0, task.error));
+        }
+        long elapsed = started ? System.nanoTime() - startNanos : 0L;
+        return new WarmupReport(name, results, elapsed / 1_000_000.0);
+    }
+
+    private final class Task {
+        private final String id;
+        private final Priority priority;
+        private final Runnable action;
+        private final List<Task> dependencies = new ArrayList<>(2);
+        private final List<Task> dependents = new ArrayList<>(2);
+        private final AtomicInteger pendingDependencies = new AtomicInteger();
+        private final CompletableFuture<Void> readyLatch = new CompletableFuture<>();
+        private volatile Priority effectivePriority;
+        private volatile Status status = Status.PENDING;
+        private volatile long order;
+        private volatile long readyNanos;
+        private volatile long waitNanos;
+        private volatile long runNanos;
+        private volatile Throwable error;
+
+        private Task(String id, Priority priority, Runnable action) {
+            this.id = id;
+            this.priority = priority;
+            this.action = action;
+            this.effectivePriority = priority;
+        }
+
+        private synchronized boolean skip() {
+            if (status != Status.PENDING) {
+                return false;
+            }
+            status = Status.SKIPPED;
+            return true;
+        }
+
+        private void run() {
+            synchronized (this) {
+                if (status != Status.PENDING) {
+                    return;
+                }
+                status = Status.RUNNING;
+            }
+
+            long begin = System.nanoTime();
+            waitNanos = begin - readyNanos;
+            Status result = Status.DONE;
+            try {
+                action.run();
+            } catch (Throwable t) {
+                error = t;
+                result = Status.FAILED;
+                LOGGER.log(Level.WARNING, "Warmup task failed: " + id, t);
+            } finally {
+                runNanos = System.nanoTime() - begin;
+            }
+            finish(this, result);
+        }
+    }
+
+    /**
+     * 单个任务的结果
+     */
+    public static final class TaskResult {
+        private final String id;
+        private final Priority priority;
+        private final Status status;
+        private final double waitMs;
+        private final double durationMs;
+        private final Throwable error;
+
+        public TaskResult(String id, Priority priority, Status status, double waitMs, double durationMs, Throwable error) {
+            this.id = id;
+            this.priority = priority;
+            this.status = status;
+            this.waitMs = waitMs;
+            this.durationMs = durationMs;
+            this.error = error;
+        }
+
+        public String getId() { return id; }
+        public Priority getPriority() { return priority; }
+        public Status getStatus() { return status; }
+        public double getWaitMs() { return waitMs; }
+        public double getDurationMs() { return durationMs; }
+        public Throwable getError() { return error; }
+    }
+
+    /**
+     * 预热报告
+     */
+    public static final class WarmupReport {
+        private final String name;
+        private final List<TaskResult> results;
+        private final double totalMs;
+
+        public WarmupReport(String name, List<TaskResult> results, double totalMs) {
+            this.name = name;
+            this.results = Collections.unmodifiableList(results);
+            this.totalMs = totalMs;
+        }
+
+        public List<TaskResult> getResults() { return results; }
+        public double getTotalMs() { return totalMs; }
+
+        public long count(Status status) {
+            return results.stream().filter(r -> r.getStatus() == status).count();
+        }
+
+        public TaskResult get(String id) {
+            for (TaskResult result : results) {
+                if (result.getId().equals(id)) {
+                    return result;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("=== %s warmup: %.1fms, done=%d, failed=%d, skipped=%d ===%n",
+                name, totalMs, count(Status.DONE), count(Status.FAILED), count(Status.SKIPPED)));
+            for (TaskResult result : results) {
+                sb.append(String.format("  - %-24s %-8s %-7s wait=%.1fms run=%.1fms%n",
+                    result.getId(), result.getPriority(), result.getStatus(), result.getWaitMs(), result.getDurationMs()));
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.enadd.core.cache;
+
+import com.enadd.core.async.ExecutionLayer;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+
+/**
+ * GUI 渲染物品共享缓存
+ *
+ * 键为（附魔/按钮 id，等级，语言，模板版本），按估算的驻留字节数限容：带长 lore 的附魔物品
+ * 和边框玻璃板的大小相差两个数量级，按条数限容无法控制内存。
+ *
+ * 缓存中保存的是只读原型：
+ * - {@link #getShared} 直接返回原型，只能用于 {@code Inventory#setItem} 等会自行复制的调用
+ * - {@link #get} 返回克隆，调用方可以修改
+ *
+ * 失效不依赖 TTL：配置或语言文件重载时调用 {@link #invalidateAll()}，模板版本递增，
+ * 重载前开始的渲染即使写回也不会再被命中。
+ *
+ * 渲染按键合并（{@link SingleFlightLoader}），主线程从不等待别人的渲染：
+ * - 重载后保留上一代条目，主线程未命中时先返回旧物品，新物品在加载执行器上后台渲染
+ * - 没有旧物品时主线程自己渲染，不搭后台渲染的车
+ * - {@link #prefetch} 在加载执行器上提前渲染（GUI 预取下一页）
+ *
+ * 接入 {@link PersistentCacheTier} 后，渲染结果同时以序列化字节写入磁盘层（"render:" 前缀），
+ * 重启后首次访问直接反序列化，不再重新渲染。
+ */
+public final class ItemRenderCache {
+    // Holder模式优化单例
+    private static final class Holder {
+        private static final ItemRenderCache INSTANCE = new ItemRenderCache(DEFAULT_MAX_BYTES);
+    }
+
+    private static final Logger LOGGER = Logger.getLogger("EnchAdd");
+
+    private static final long DEFAULT_MAX_BYTES = 8L * 1024 * 1024; // 8MB
+    private static final int MAX_ENTRIES = 4096;
+    // ItemStack + ItemMeta + 组件容器的固定开销估算
+    private static final int BASE_ITEM_BYTES = 512;
+
+    private static final String PERSISTENT_PREFIX = "render:";
+
+    private final AtomicInteger templateVersion = new AtomicInteger(1);
+    private final SingleFlightLoader<RenderKey, ItemStack> loader = new SingleFlightLoader<>();
+    private final LongAdder staleHits = new LongAdder();
+    private volatile SegmentedLruCache<RenderKey, ItemStack> cache;
+    // 上一代模板版本的条目，重载后新物品渲染完成前返回给主线程
+    private volatile SegmentedLruCache<RenderKey, ItemStack> previous;
+    private volatile int previousVersion;
+    private volatile PersistentCacheTier persistentTier;
+    private volatile Executor loaderExecutor = ExecutionLayer.getInstance().cpu("item-render");
+
+    ItemRenderCache(long maxBytes) {
+        this.cache = newCache(maxBytes);
+    }
+
+    public static ItemRenderCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static SegmentedLruCache<RenderKey, ItemStack> newCache(long maxBytes) {
+        return new SegmentedLruCache<>(MAX_ENTRIES, MAX_ENTRIES / 2, 0L, 0L,
+            Math.max(64L * 1024, maxBytes), (key, item) -> estimateBytes(item));
+    }
+
+    /**
+     * 生成当前模板版本下的键
+     *
+     * @param id 附魔 id 或按钮 id
+     * @param level 等级，没有等级的物品传 0
+     * @param locale 语言代码
+     */
+    public RenderKey key(String id, int level, String locale) {
+        return new RenderKey(id, level, locale, templateVersion.get());
+    }
+
+    /**
+     * 获取共享原型，未命中时渲染并缓存；返回值不能被修改
+     *
+     * 主线程未命中时优先返回上一代的旧物品并在后台重新渲染，其次自己渲染，从不等待别的线程
+     */
+    public ItemStack getShared(RenderKey key, Supplier<ItemStack> renderer) {
+        ItemStack item = cache.get(key);
+        if (item != null) {
+            return item;
+        }
+
+        if (!ExecutionLayer.isMainThread()) {
+            return loader.load(key, k -> render(k, renderer), null);
+        }
+
+        ItemStack stale = getPrevious(key);
+        if (stale != null) {
+            staleHits.increment();
+            prefetch(key, renderer);
+            return stale;
+        }
+        return loader.loadWithoutWaiting(key, k -> render(k, renderer), null);
+    }
+
+    /**
+     * 在加载执行器上渲染并缓存，已缓存或正在渲染时不重复提交
+     *
+     * @return 渲染结果；执行器拒绝或渲染失败时异常完成
+     */
+    public CompletableFuture<ItemStack> prefetch(RenderKey key, Supplier<ItemStack> renderer) {
+        ItemStack item = cache.peek(key);
+        if (item != null) {
+            return CompletableFuture.completedFuture(item);
+        }
+        return loader.loadAsync(key, k -> render(k, renderer), loaderExecutor, null);
+    }
+
+    private ItemStack render(RenderKey key, Supplier<ItemStack> renderer) {
+        SegmentedLruCache<RenderKey, ItemStack> current = cache;
+        PersistentCacheTier tier = persistentTier;
+        ItemStack item = tier != null ? loadPersistent(tier, key) : null;
+        if (item != null) {
+            current.put(key, item);
+            return item;
+        }
+
+        item = renderer.get();
+        if (item != null && key.templateVersion == templateVersion.get()) {
+            current.put(key, item);
+            if (tier != null) {
+                storePersistent(tier, key, item);
+            }
+        }
+        return item;
+    }
+
+    private ItemStack getPrevious(RenderKey key) {
+        SegmentedLruCache<RenderKey, ItemStack> old = previous;
+        if (old == null) {
+            return null;
+        }
+        return old.peek(new RenderKey(key.id, key.level, key.locale, previousVersion));
+    }
+
+    /**
+     * 设置后台渲染使用的执行器，默认为统一执行层的 item-render 通道
+     */
+    public void setLoaderExecutor(Executor executor) {
+        if (executor != null) {
+            this.loaderExecutor = executor;
+        }
+    }
+
+    /**
+     * 接入持久化层，传 null 断开
+     */
+    public void attachPersistentTier(PersistentCacheTier tier) {
+        this.persistentTier = tier;
+    }
+
+    private ItemStack loadPersistent(PersistentCacheTier tier, RenderKey key) {
+        String persistentKey = PERSISTENT_PREFIX + key.persistentId();
+        byte[] data = tier.get(persistentKey);
+        if (data == null) {
+            return null;
+        }
+        try {
+            return ItemStack.deserializeBytes(data);
+        } catch (Exception e) {
+            LOGGER.log(Level.FINE, "Discarding unreadable rendered item: " + persistentKey, e);
+            tier.remove(persistentKey);
+            return null;
+        }
+    }
+
+    private void storePersistent(PersistentCacheTier tier, RenderKey key, ItemStack item) {
+        try {
+            tier.put(PERSISTENT_PREFIX + key.persistentId(), item.serializeAsBytes());
+        } catch (Exception e) {
+            LOGGER.log(Level.FINE, "Failed to persist rendered item: " + key, e);
+        }
+    }
+
+    /**
+     * 获取可修改的克隆
+     */
+    public ItemStack get(RenderKey key, Supplier<ItemStack> renderer) {
+        ItemStack item = getShared(key, renderer);
+        return item != null ? item.clone() : null;
+    }
+
+    /**
+     * 配置或语言重载后调用：旧版本的键全部失效
+     *
+     * 旧条目整体降为上一代（再往前的一代被丢弃），只在主线程等待新渲染时使用
+     */
+    public synchronized void invalidateAll() {
+        SegmentedLruCache<RenderKey, ItemStack> old = cache;
+        cache = newCache(old.getMaxWeight());
+        previousVersion = templateVersion.getAndIncrement();
+        previous = old;
+        PersistentCacheTier tier = persistentTier;
+        if (tier != null) {
+            tier.invalidatePrefix(PERSISTENT_PREFIX);
+        }
+    }
+
+    /**
+     * 调整内存上限，会清空现有条目
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        SegmentedLruCache<RenderKey, ItemStack> old = cache;
+        cache = newCache(maxBytes);
+        previous = null;
+        old.clear();
+    }
+
+    /**
+     * 估算物品的驻留字节数：固定开销加上序列化后的组件文本长度
+     */
+    static int estimateBytes(ItemStack item) {
+        if (item == null) {
+            return 0;
+        }
+
+        try {
+            if (!item.hasItemMeta()) {
+                return BASE_ITEM_BYTES;
+            }
+            ItemMeta meta = item.getItemMeta();
+            String data = meta != null ? meta.getAsString() : null;
+            return BASE_ITEM_BYTES + (data != null ? data.length() * 2 : 0);
+        } catch (Exception e) {
+            LOGGER.log(Level.FINE, "Failed to estimate item size", e);
+            return BASE_ITEM_BYTES * 4;
+        }
+    }
+
+    public int getTemplateVersion() {
+        return templateVersion.get();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long getEstimatedBytes() {
+        return cache.getWeightedSize();
+    }
+
+    public long getMaxBytes() {
+        return cache.getMaxWeight();
+    }
+
+    public long getHits() {
+        SegmentedLruCache<RenderKey, ItemStack> current = cache;
+        return current.getProtectedHits() + current.getProbationHits();
+    }
+
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    public long getEvictions() {
+        return cache.getEvictions();
+    }
+
+    /**
+     * 主线程未命中时返回上一代旧物品的次数
+     */
+    public long getStaleHits() {
+        return staleHits.sum();
+    }
+
+    /**
+     * 渲染缓存键
+     */
+    public static final class RenderKey {
+        private final String id;
+        private final int level;
+        private final String locale;
+        private final int templateVersion;
+        private final int hash;
+
+        private RenderKey(String id, int level, String locale, int templateVersion) {
+            this.id = id != null ? id : "";
+            this.level = level;
+            this.locale = locale != null ? locale : "";
+            this.templateVersion = templateVersion;
+            this.hash = Objects.hash(this.id, level, this.locale, templateVersion);
+        }
+
+        public String getId() { return id; }
+        public int getLevel() { return level; }
+        public String getLocale() { return locale; }
+        public int getTemplateVersion() { return templateVersion; }
+
+        /**
+         * 持久化用的键，不含模板版本（重启后版本从头计数，由文件指纹保证有效性）
+         */
+        String persistentId() {
+            return id + "#" + level + "@" + locale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RenderKey other)) return false;
+            return hash == other.hash && level == other.level && templateVersion == other.templateVersion
+                && id.equals(other.id) && locale.equals(other.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return id + "#" + level + "@" + locale + "/v" + templateVersion;
+        }
+    }
+}
@@ -0,0 +1,487 @@
+package com.enadd.core.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+
+/**
+ * 持久化缓存层 - 插件数据目录下的内存映射文件
+ *
+ * 保存重建代价高的派生数据（目前是按语言渲染的 GUI 物品，见 {@link ItemRenderCache}），
+ * 重启后直接读取，跳过重建。冲突列表、权重表等由构建期生成的规则表直接提供，不经过这里。整个文件由一个指纹（插件版本、配置文件、语言文件的哈希）
+ * 标记版本，指纹不一致时在打开时清空。
+ *
+ * 文件格式：
+ * - 头部 32 字节：魔数、格式版本、指纹、数据末尾偏移、保留
+ * - 记录依次追加：键长度(int)、值长度(int，-1 表示删除)、CRC32(int，覆盖键和值)、键(UTF-8)、值
+ *
+ * 同一个键后写的记录覆盖先写的；空间不足时先压缩（只保留最新记录），再按需扩大映射，
+ * 达到上限后写入失败（返回 false），调用方照常在内存中使用数据。
+ * 头部的数据末尾偏移在记录写完后才更新，异常退出时半条记录会被忽略；
+ * 加载时长度越界或校验和不符的记录及其后的数据一并丢弃。
+ *
+ * 所有操作在实例上同步。
+ */
+public final class PersistentCacheTier {
+    // Holder模式优化单例
+    private static final class Holder {
+        private static final PersistentCacheTier INSTANCE = new PersistentCacheTier();
+    }
+
+    private static final Logger LOGGER = Logger.getLogger("EnchAdd");
+
+    private static final int MAGIC = 0x45414443; // "EADC"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int OFFSET_FINGERPRINT = 8;
+    private static final int OFFSET_DATA_END = 16;
+    private static final int RECORD_HEADER = 12;
+    private static final int TOMBSTONE = -1;
+    private static final int MIN_MAPPED_BYTES = 64 * 1024;
+
+    // 键 -> (值偏移 << 32) | 值长度
+    private final Map<String, Long> index = new HashMap<>(256);
+
+    private RandomAccessFile file;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long fingerprint;
+    private int dataEnd = HEADER_SIZE;
+    private int liveBytes = 0;
+    private long maxBytes;
+    private boolean warmStart = false;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder rejectedWrites = new LongAdder();
+
+    PersistentCacheTier() {}
+
+    public static PersistentCacheTier getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * 打开（或创建）缓存文件
+     *
+     * @param path 文件路径
+     * @param fingerprint 当前数据版本指纹，与文件中的不一致时清空文件
+     * @param maxBytes 文件大小上限
+     * @return 文件中有可用的旧数据时返回 true（热启动）
+     */
+    public synchronized boolean open(File path, long fingerprint, long maxBytes) {
+        close();
+
+        this.fingerprint = fingerprint;
+        this.maxBytes = Math.max(MIN_MAPPED_BYTES, maxBytes);
+        try {
+            File parent = path.getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                LOGGER.warning("Failed to create cache directory: " + parent.getPath());
+            }
+
+            file = new RandomAccessFile(path, "rw");
+            channel = file.getChannel();
+            long existing = Math.min(channel.size(), this.maxBytes);
+            map((int) Math.max(MIN_MAPPED_BYTES, existing));
+
+            warmStart = existing >= HEADER_SIZE
+                && buffer.getInt(0) == MAGIC
+                && buffer.getInt(4) == FORMAT_VERSION
+                && buffer.getLong(OFFSET_FINGERPRINT) == fingerprint
+                && loadIndex();
+            if (!warmStart) {
+                reset();
+            }
+
+            LOGGER.info("Persistent cache " + (warmStart ? "loaded " + index.size() + " entries" : "initialized empty")
+                + " (" + path.getName() + ")");
+            return warmStart;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to open persistent cache: " + path.getPath(), e);
+            close();
+            return false;
+        }
+    }
+
+    private void map(int size) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private boolean loadIndex() {
+        int end = buffer.getInt(OFFSET_DATA_END);
+        if (end < HEADER_SIZE || end > buffer.capacity()) {
+            return false;
+        }
+
+        index.clear();
+        liveBytes = 0;
+        int position = HEADER_SIZE;
+        while (position + RECORD_HEADER <= end) {
+            int keyLength = buffer.getInt(position);
+            int valueLength = buffer.getInt(position + 4);
+            int remaining = end - position - RECORD_HEADER;
+            if (keyLength <= 0 || keyLength > remaining
+                    || valueLength < TOMBSTONE || valueLength > remaining - keyLength) {
+                // 损坏的记录，截断到上一条完整记录
+                end = position;
+                break;
+            }
+            int valueOffset = position + RECORD_HEADER + keyLength;
+            int next = valueOffset + Math.max(0, valueLength);
+            if (buffer.getInt(position + 8) != checksum(position + RECORD_HEADER, next)) {
+                end = position;
+                break;
+            }
+
+            byte[] keyBytes = new byte[keyLength];
+            buffer.get(position + RECORD_HEADER, keyBytes);
+            String key = new String(keyBytes, StandardCharsets.UTF_8);
+            forget(key);
+            if (valueLength != TOMBSTONE) {
+                index.put(key, ((long) valueOffset << 32) | valueLength);
+                liveBytes += next - position;
+            }
+            position = next;
+        }
+
+        dataEnd = Math.min(position, end);
+        buffer.putInt(OFFSET_DATA_END, dataEnd);
+        return true;
+    }
+
+    private void reset() {
+        index.clear();
+        liveBytes = 0;
+        dataEnd = HEADER_SIZE;
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, FORMAT_VERSION);
+        buffer.putLong(OFFSET_FINGERPRINT, fingerprint);
+        buffer.putInt(OFFSET_DATA_END, dataEnd);
+    }
+
+    /**
+     * 读取值的副本，不存在或未打开时返回 null
+     */
+    public synchronized byte[] get(String key) {
+        Long location = buffer != null ? index.get(key) : null;
+        if (location == null) {
+            misses.increment();
+            return null;
+        }
+
+        byte[] value = new byte[(int) (location & 0xFFFFFFFFL)];
+        buffer.get((int) (location >>> 32), value);
+        hits.increment();
+        return value;
+    }
+
+    /**
+     * 写入值
+     *
+     * @return 空间不足或未打开时返回 false
+     */
+    public synchronized boolean put(String key, byte[] value) {
+        if (buffer == null || key == null || key.isEmpty() || value == null) {
+            return false;
+        }
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int size = RECORD_HEADER + keyBytes.length + value.length;
+        if (!ensureCapacity(size)) {
+            rejectedWrites.increment();
+            return false;
+        }
+
+        forget(key);
+        int position = dataEnd;
+        buffer.putInt(position, keyBytes.length);
+        buffer.putInt(position + 4, value.length);
+        buffer.put(position + RECORD_HEADER, keyBytes);
+        buffer.put(position + RECORD_HEADER + keyBytes.length, value);
+        buffer.putInt(position + 8, checksum(position + RECORD_HEADER, position + size));
+        index.put(key, ((long) (position + RECORD_HEADER + keyBytes.length) << 32) | value.length);
+        liveBytes += size;
+        commit(position + size);
+        writes.increment();
+        return true;
+    }
+
+    public synchronized void remove(String key) {
+        if (buffer == null || !index.containsKey(key)) {
+            return;
+        }
+        forget(key);
+        appendTombstone(key);
+    }
+
+    /**
+     * 删除所有以指定前缀开头的键，例如语言重载时删除 {@code "render:"} 下的全部条目
+     *
+     * @return 删除的条目数
+     */
+    public synchronized int invalidatePrefix(String prefix) {
+        if (buffer == null) {
+            return 0;
+        }
+
+        List<String> removed = new ArrayList<>();
+        Iterator<String> iterator = index.keySet().iterator();
+        while (iterator.hasNext()) {
+            String key = iterator.next();
+            if (key.startsWith(prefix)) {
+                removed.add(key);
+            }
+        }
+        for (String key : removed) {
+            forget(key);
+            appendTombstone(key);
+        }
+        return removed.size();
+    }
+
+    private void appendTombstone(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int size = RECORD_HEADER + keyBytes.length;
+        if (!ensureCapacity(size)) {
+            // 压缩后仍放不下删除标记时，压缩本身已丢弃该键的旧记录
+            return;
+        }
+        buffer.putInt(dataEnd, keyBytes.length);
+        buffer.putInt(dataEnd + 4, TOMBSTONE);
+        buffer.put(dataEnd + RECORD_HEADER, keyBytes);
+        buffer.putInt(dataEnd + 8, checksum(dataEnd + RECORD_HEADER, dataEnd + size));
+        commit(dataEnd + size);
+    }
+
+    private void forget(String key) {
+        Long old = index.remove(key);
+        if (old != null) {
+            int valueLength = (int) (old & 0xFFFFFFFFL);
+            liveBytes -= RECORD_HEADER + key.getBytes(StandardCharsets.UTF_8).length + valueLength;
+        }
+    }
+
+    private void commit(int newEnd) {
+        dataEnd = newEnd;
+        buffer.putInt(OFFSET_DATA_END, dataEnd);
+    }
+
+    private boolean ensureCapacity(int size) {
+        if (dataEnd + size <= buffer.capacity()) {
+            return true;
+        }
+
+        // 先压缩：死记录超过一半时收益明显
+        if (liveBytes + HEADER_SIZE + size <= buffer.capacity() && liveBytes < (dataEnd - HEADER_SIZE) / 2) {
+            compact();
+            return true;
+        }
+
+        long required = (long) HEADER_SIZE + liveBytes + size;
+        if (required > maxBytes) {
+            compact();
+            return dataEnd + size <= buffer.capacity();
+        }
+
+        try {
+            long target = Math.min(maxBytes, Math.max(required, (long) buffer.capacity() * 2));
+            compact();
+            map((int) target);
+            return dataEnd + size <= buffer.capacity();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to grow persistent cache", e);
+            return dataEnd + size <= buffer.capacity();
+        }
+    }
+
+    /**
+     * 只保留每个键的最新记录，重写数据区
+     */
+    private void compact() {
+        byte[] packed = new byte[liveBytes];
+        Map<String, Long> relocated = new HashMap<>(Math.max(16, index.size() * 2));
+        int position = 0;
+        for (Map.Entry<String, Long> entry : index.entrySet()) {
+            byte[] keyBytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            int valueOffset = (int) (entry.getValue() >>> 32);
+            int valueLength = (int) (entry.getValue() & 0xFFFFFFFFL);
+
+            writeInt(packed, position, keyBytes.length);
+            writeInt(packed, position + 4, valueLength);
+            System.arraycopy(keyBytes, 0, packed, position + RECORD_HEADER, keyBytes.length);
+            buffer.get(valueOffset, packed, position + RECORD_HEADER + keyBytes.length, valueLength);
+            CRC32 crc = new CRC32();
+            crc.update(packed, position + RECORD_HEADER, keyBytes.length + valueLength);
+            writeInt(packed, position + 8, (int) crc.getValue());
+
+            int newValueOffset = HEADER_SIZE + position + RECORD_HEADER + keyBytes.length;
+            relocated.put(entry.getKey(), ((long) newValueOffset << 32) | valueLength);
+            position += RECORD_HEADER + keyBytes.length + valueLength;
+        }
+
+        buffer.put(HEADER_SIZE, packed, 0, position);
+        index.clear();
+        index.putAll(relocated);
+        liveBytes = position;
+        commit(HEADER_SIZE + position);
+    }
+
+    /**
+     * 映射区 [from, to) 的 CRC32
+     */
+    private int checksum(int from, int to) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(from, to - from));
+        return (int) crc.getValue();
+    }
+
+    private static void writeInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+
+    /**
+     * 把映射的修改刷到磁盘
+     */
+    public synchronized void flush() {
+        if (buffer != null) {
+            try {
+                buffer.force();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to flush persistent cache", e);
+            }
+        }
+    }
+
+    /**
+     * 刷盘并关闭文件，可以多次调用
+     */
+    public synchronized void close() {
+        flush();
+        buffer = null;
+        index.clear();
+        liveBytes = 0;
+        dataEnd = HEADER_SIZE;
+        warmStart = false;
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            if (file != null) {
+                file.close();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to close persistent cache", e);
+        }
+        channel = null;
+        file = null;
+    }
+
+    // ========== 指纹 ==========
+
+    /**
+     * 计算数据版本指纹（FNV-1a 64 位）
+     *
+     * @param version 版本字符串，通常是插件版本加服务端版本
+     * @param inputs 参与哈希的文件或目录（目录按文件名排序后递归），不存在的文件会被跳过
+     */
+    public static long fingerprint(String version, File... inputs) {
+        long hash = 0xcbf29ce484222325L;
+        hash = fnv(hash, (version != null ? version : "").getBytes(StandardCharsets.UTF_8));
+        for (File input : inputs) {
+            hash = fingerprintFile(hash, input);
+        }
+        return hash;
+    }
+
+    private static long fingerprintFile(long hash, File input) {
+        if (input == null || !input.exists()) {
+            return hash;
+        }
+        if (input.isDirectory()) {
+            File[] children = input.listFiles();
+            if (children != null) {
+                Arrays.sort(children);
+                for (File child : children) {
+                    hash = fingerprintFile(hash, child);
+                }
+            }
+            return hash;
+        }
+        try {
+            hash = fnv(hash, input.getName().getBytes(StandardCharsets.UTF_8));
+            return fnv(hash, Files.readAllBytes(input.toPath()));
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to read file for fingerprint: " + input.getPath(), e);
+            return hash;
+        }
+    }
+
+    private static long fnv(long hash, byte[] data) {
+        for (byte b : data) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // ========== 统计 ==========
+
+    public synchronized boolean isOpen() {
+        return buffer != null;
+    }
+
+    /**
+     * 本次打开时是否读到了版本一致的旧数据
+     */
+    public synchronized boolean isWarmStart() {
+        return warmStart;
+    }
+
+    public synchronized int getEntryCount() {
+        return index.size();
+    }
+
+    public synchronized int getUsedBytes() {
+        return dataEnd;
+    }
+
+    public synchronized int getLiveBytes() {
+        return liveBytes;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getWrites() {
+        return writes.sum();
+    }
+
+    public long getRejectedWrites() {
+        return rejectedWrites.sum();
+    }
+}
@@ -0,0 +1,397 @@
+package com.enadd.core.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntBiFunction;
+
+
+/**
+ * 分段 LRU（SLRU）缓存引擎
+ *
+ * <p>条目先进入试用段（probation），再次命中后晋升到保护段（protected）；保护段满时把
+ * 最久未用的条目降回试用段头部。总容量满时淘汰试用段尾部（试用段为空时淘汰保护段尾部）。
+ * 两段都是侵入式双向链表，查找、晋升、淘汰均为 O(1)，不需要扫描。</p>
+ *
+ * <p>写入 TTL 由共享的 {@link CacheTimerWheel} 负责主动过期，读取时也会惰性检查。
+ * 保护段驻留 TTL 到期的条目下一次命中按试用段命中统计并重新计时。</p>
+ *
+ * <p>可选按权重限容：给定权重函数和最大总权重后，总权重超限时同样从试用段尾部淘汰；
+ * 单个条目权重超过上限时不缓存。条数上限仍然生效。</p>
+ *
+ * <p>所有结构操作在缓存自身上同步，计数器使用 {@link LongAdder}。</p>
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public final class SegmentedLruCache<K, V> {
+
+    private static final int PROBATION = 0;
+    private static final int PROTECTED = 1;
+
+    private final Map<K, Node<K, V>> map;
+    private final Node<K, V> probationHead = new Node<>(null, null);
+    private final Node<K, V> protectedHead = new Node<>(null, null);
+
+    private final int capacity;
+    private final int protectedCapacity;
+    private final long ttlMs;
+    private final long protectedTtlMs;
+    private final long maxWeight;
+    private final ToIntBiFunction<? super K, ? super V> weigher;
+
+    private int probationSize = 0;
+    private int protectedSize = 0;
+    private long totalWeight = 0;
+
+    private final LongAdder protectedHits = new LongAdder();
+    private final LongAdder probationHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * @param capacity 总容量
+     * @param protectedCapacity 保护段容量（不超过总容量）
+     * @param ttlMs 写入后存活时间，0 表示不过期
+     * @param protectedTtlMs 保护段驻留时间，0 表示不限制
+     */
+    public SegmentedLruCache(int capacity, int protectedCapacity, long ttlMs, long protectedTtlMs) {
+        this(capacity, protectedCapacity, ttlMs, protectedTtlMs, 0L, null);
+    }
+
+    /**
+     * @param maxWeight 最大总权重，0 表示只按条数限容
+     * @param weigher 权重函数（例如估算的驻留字节数），在写入时调用一次
+     */
+    public SegmentedLruCache(int capacity, int protectedCapacity, long ttlMs, long protectedTtlMs,
+                             long maxWeight, ToIntBiFunction<? super K, ? super V> weigher) {
+        this.maxWeight = weigher != null ? Math.max(0L, maxWeight) : 0L;
+        this.weigher = weigher;
+        this.capacity = Math.max(1, capacity);
+        this.protectedCapacity = Math.max(0, Math.min(protectedCapacity, this.capacity));
+        this.ttlMs = Math.max(0L, ttlMs);
+        this.protectedTtlMs = Math.max(0L, protectedTtlMs);
+        this.map = new HashMap<>(Math.max(16, (int) (this.capacity / 0.75f) + 1));
+        probationHead.prev = probationHead;
+        probationHead.next = probationHead;
+        protectedHead.prev = protectedHead;
+        protectedHead.next = protectedHead;
+    }
+
+    public synchronized V get(K key) {
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        if (node.isExpired(now)) {
+            removeNode(node);
+            expirations.increment();
+            misses.increment();
+            return null;
+        }
+
+        if (node.segment == PROTECTED) {
+            if (protectedTtlMs > 0 && now - node.promotedAt > protectedTtlMs) {
+                probationHits.increment();
+                node.promotedAt = now;
+            } else {
+                protectedHits.increment();
+            }
+            unlink(node);
+            linkFirst(protectedHead, node);
+        } else {
+            probationHits.increment();
+            promote(node, now);
+        }
+        return node.value;
+    }
+
+    /**
+     * 不更新访问顺序和计数的读取
+     */
+    public synchronized V peek(K key) {
+        Node<K, V> node = map.get(key);
+        return node != null && !node.isExpired(System.currentTimeMillis()) ? node.value : null;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, false);
+    }
+
+    /**
+     * 写入缓存
+     *
+     * @param hot 为 true 时直接放入保护段
+     */
+    public synchronized void put(K key, V value, boolean hot) {
+        if (key == null || value == null) {
+            return;
+        }
+
+        int weight = weigh(key, value);
+        Node<K, V> node = map.get(key);
+        if (maxWeight > 0 && weight > maxWeight) {
+            // 单个条目超过总权重上限，不缓存
+            if (node != null) {
+                removeNode(node);
+            }
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (node != null) {
+            node.value = value;
+            totalWeight += weight - node.weight;
+            node.weight = weight;
+            scheduleExpiry(node, now);
+            if (hot && node.segment == PROBATION) {
+                promote(node, now);
+            }
+            evictOverflow(node);
+            return;
+        }
+
+        node = new Node<>(key, value);
+        node.weight = weight;
+        totalWeight += weight;
+        map.put(key, node);
+        scheduleExpiry(node, now);
+        if (hot && protectedCapacity > 0) {
+            node.segment = PROTECTED;
+            node.promotedAt = now;
+            linkFirst(protectedHead, node);
+            protectedSize++;
+            demoteOverflow();
+        } else {
+            node.segment = PROBATION;
+            linkFirst(probationHead, node);
+            probationSize++;
+        }
+        evictOverflow(node);
+    }
+
+    private void evictOverflow(Node<K, V> keep) {
+        while (map.size() > capacity || (maxWeight > 0 && totalWeight > maxWeight)) {
+            Node<K, V> victim = probationHead.prev != probationHead ? probationHead.prev : protectedHead.prev;
+            if (victim == keep) {
+                // 刚写入的条目排在队尾时，先淘汰其他条目
+                victim = victim.prev != probationHead ? victim.prev : protectedHead.prev;
+                if (victim == protectedHead || victim == keep) {
+                    break;
+                }
+            }
+            removeNode(victim);
+            evictions.increment();
+        }
+    }
+
+    private int weigh(K key, V value) {
+        if (weigher == null) {
+            return 1;
+        }
+        return Math.max(1, weigher.applyAsInt(key, value));
+    }
+
+    public synchronized V remove(K key) {
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            return null;
+        }
+        removeNode(node);
+        return node.value;
+    }
+
+    public synchronized boolean containsKey(K key) {
+        Node<K, V> node = map.get(key);
+        return node != null && !node.isExpired(System.currentTimeMillis());
+    }
+
+    /**
+     * 主动清理所有已过期条目（全量扫描，仅用于显式调用）
+     *
+     * @return 清理的条目数
+     */
+    public synchronized int cleanupExpired() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        Iterator<Node<K, V>> iterator = map.values().iterator();
+        while (iterator.hasNext()) {
+            Node<K, V> node = iterator.next();
+            if (node.isExpired(now)) {
+                iterator.remove();
+                detach(node);
+                removed++;
+            }
+        }
+        expirations.add(removed);
+        return removed;
+    }
+
+    public synchronized void clear() {
+        for (Node<K, V> node : map.values()) {
+            if (node.timeout != null) {
+                node.timeout.cancel();
+            }
+        }
+        map.clear();
+        totalWeight = 0;
+        probationHead.prev = probationHead;
+        probationHead.next = probationHead;
+        protectedHead.prev = protectedHead;
+        protectedHead.next = protectedHead;
+        probationSize = 0;
+        protectedSize = 0;
+    }
+
+    private void promote(Node<K, V> node, long now) {
+        if (protectedCapacity == 0) {
+            unlink(node);
+            linkFirst(probationHead, node);
+            return;
+        }
+
+        unlink(node);
+        probationSize--;
+        node.segment = PROTECTED;
+        node.promotedAt = now;
+        linkFirst(protectedHead, node);
+        protectedSize++;
+        demoteOverflow();
+    }
+
+    private void demoteOverflow() {
+        while (protectedSize > protectedCapacity) {
+            Node<K, V> demoted = protectedHead.prev;
+            unlink(demoted);
+            protectedSize--;
+            demoted.segment = PROBATION;
+            linkFirst(probationHead, demoted);
+            probationSize++;
+        }
+    }
+
+    private void scheduleExpiry(Node<K, V> node, long now) {
+        if (ttlMs == 0) {
+            return;
+        }
+
+        node.expireAt = now + ttlMs;
+        if (node.timeout != null) {
+            node.timeout.cancel();
+        }
+        node.timeout = CacheTimerWheel.getInstance().schedule(ttlMs, () -> expire(node));
+    }
+
+    private synchronized void expire(Node<K, V> node) {
+        if (map.get(node.key) == node && node.isExpired(System.currentTimeMillis())) {
+            removeNode(node);
+            expirations.increment();
+        }
+    }
+
+    private void removeNode(Node<K, V> node) {
+        map.remove(node.key);
+        detach(node);
+    }
+
+    private void detach(Node<K, V> node) {
+        unlink(node);
+        totalWeight -= node.weight;
+        if (node.segment == PROTECTED) {
+            protectedSize--;
+        } else {
+            probationSize--;
+        }
+        if (node.timeout != null) {
+            node.timeout.cancel();
+            node.timeout = null;
+        }
+    }
+
+    private static <K, V> void linkFirst(Node<K, V> head, Node<K, V> node) {
+        node.prev = head;
+        node.next = head.next;
+        head.next.prev = node;
+        head.next = node;
+    }
+
+    private static <K, V> void unlink(Node<K, V> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public synchronized int getProtectedSize() {
+        return protectedSize;
+    }
+
+    public synchronized int getProbationSize() {
+        return probationSize;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 当前总权重；未设置权重函数时等于条目数
+     */
+    public synchronized long getWeightedSize() {
+        return totalWeight;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public long getProtectedHits() {
+        return protectedHits.sum();
+    }
+
+    public long getProbationHits() {
+        return probationHits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    private static final class Node<K, V> {
+        private final K key;
+        private V value;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+        private int segment;
+        private long expireAt = Long.MAX_VALUE;
+        private long promotedAt;
+        private int weight;
+        private CacheTimerWheel.Timeout timeout;
+
+        private Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        private boolean isExpired(long now) {
+            return now > expireAt;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.enadd.core.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+
+/**
+ * 按键合并并发加载（single-flight）
+ *
+ * 同一个键同一时刻最多只有一个进行中的 {@link CompletableFuture}，并发未命中的调用方
+ * 共享它的结果，而不是各自执行一遍计算。加载完成（成功或失败）后立即从进行中表移除，
+ * 失败不会被缓存。
+ *
+ * - {@link #load}：同步模式，抢到加载权的调用方在自己的线程上计算，其余调用方等待
+ * - {@link #loadWithoutWaiting}：同步模式，但不等待别人的加载，供主线程使用
+ * - {@link #loadAsync}：异步模式，计算在指定执行器上运行，调用方拿到共享的 future
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public final class SingleFlightLoader<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>(32);
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder joins = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * 同步加载
+     *
+     * @param onLoaded 加载成功且结果非 null 时调用（通常写回缓存），在结果对等待者可见之前执行
+     * @return 加载结果，可能为 null
+     * @throws RuntimeException 加载失败时抛出（原始异常作为 cause）
+     */
+    public V load(K key, Function<? super K, ? extends V> loader, BiConsumer<K, V> onLoaded) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            joins.increment();
+            return await(existing);
+        }
+
+        return run(key, loader, onLoaded, future);
+    }
+
+    /**
+     * 不等待的同步加载：没有进行中的加载时与 {@link #load} 相同；
+     * 已有进行中的加载时不搭车，在调用线程上单独计算一次
+     *
+     * 主线程不能阻塞在后台加载上（后台加载可能排在繁忙的线程池后面），重复计算一次的代价更小
+     */
+    public V loadWithoutWaiting(K key, Function<? super K, ? extends V> loader, BiConsumer<K, V> onLoaded) {
+        if (!inFlight.containsKey(key)) {
+            CompletableFuture<V> future = new CompletableFuture<>();
+            if (inFlight.putIfAbsent(key, future) == null) {
+                return run(key, loader, onLoaded, future);
+            }
+        }
+
+        loads.increment();
+        try {
+            V value = loader.apply(key);
+            if (value != null && onLoaded != null) {
+                onLoaded.accept(key, value);
+            }
+            return value;
+        } catch (RuntimeException | Error e) {
+            failures.increment();
+            throw e;
+        }
+    }
+
+    private V run(K key, Function<? super K, ? extends V> loader, BiConsumer<K, V> onLoaded,
+                  CompletableFuture<V> future) {
+        loads.increment();
+        try {
+            V value = loader.apply(key);
+            if (value != null && onLoaded != null) {
+                onLoaded.accept(key, value);
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            failures.increment();
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * 异步加载；已有进行中的加载时直接返回它
+     *
+     * @param executor 执行加载的执行器
+     * @param onLoaded 加载成功且结果非 null 时调用，在 future 完成之前执行
+     */
+    public CompletableFuture<V> loadAsync(K key, Function<? super K, ? extends V> loader,
+                                          Executor executor, BiConsumer<K, V> onLoaded) {
+        CompletableFuture<V> existing = inFlight.get(key);
+        if (existing != null) {
+            joins.increment();
+            return existing;
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            joins.increment();
+            return existing;
+        }
+
+        loads.increment();
+        try {
+            executor.execute(() -> {
+                try {
+                    V value = loader.apply(key);
+                    if (value != null && onLoaded != null) {
+                        onLoaded.accept(key, value);
+                    }
+                    inFlight.remove(key, future);
+                    future.complete(value);
+                } catch (Throwable t) {
+                    failures.increment();
+                    inFlight.remove(key, future);
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RuntimeException e) {
+            // 执行器拒绝任务
+            failures.increment();
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
+    public boolean isLoading(K key) {
+        return inFlight.containsKey(key);
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * 实际执行的加载次数
+     */
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    /**
+     * 搭上已有加载、未重复计算的次数
+     */
+    public long getJoins() {
+        return joins.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+}
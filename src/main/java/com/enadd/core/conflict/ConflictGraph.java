@@ -0,0 +1,302 @@
+package com.enadd.core.conflict;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * 冲突图的预计算结构
+ *
+ * 随冲突矩阵一起编译：用并查集求连通分量，再在每个分量内求全部极大团
+ * （Bron–Kerbosch，带枢轴）。分量按最小成员 ID 排序编号，成员和团都按 ID 升序，
+ * 同一套规则每次得到相同的输出。
+ *
+ * 查询一组附魔的冲突分组时只需按分量归桶：规则由互斥组构成，大多数分量本身就是团，
+ * 其任意子集都连通；只有非团分量才需要在桶内按矩阵再拆分。
+ */
+public final class ConflictGraph {
+
+    static final ConflictGraph EMPTY = build(ConflictMatrix.EMPTY);
+
+    private final ConflictMatrix matrix;
+    // 附魔 ID → 分量编号
+    private final int[] componentOf;
+    private final int[][] members;
+    private final boolean[] clique;
+    private final List<List<int[]>> cliques;
+
+    private ConflictGraph(ConflictMatrix matrix, int[] componentOf, int[][] members,
+                          boolean[] clique, List<List<int[]>> cliques) {
+        this.matrix = matrix;
+        this.componentOf = componentOf;
+        this.members = members;
+        this.clique = clique;
+        this.cliques = cliques;
+    }
+
+    static ConflictGraph build(ConflictMatrix matrix) {
+        int n = matrix.size();
+
+        // 并查集合并所有冲突边
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        for (int a = 0; a < n; a++) {
+            for (int b = a + 1; b < n; b++) {
+                if (matrix.conflicts(a, b)) {
+                    union(parent, a, b);
+                }
+            }
+        }
+
+        // 按最小成员 ID 给分量编号（遍历顺序即 ID 升序）
+        int[] componentOf = new int[n];
+        int[] rootToComponent = new int[n];
+        Arrays.fill(rootToComponent, -1);
+        int[] sizes = new int[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            int root = find(parent, i);
+            if (rootToComponent[root] < 0) {
+                rootToComponent[root] = count++;
+            }
+            componentOf[i] = rootToComponent[root];
+            sizes[componentOf[i]]++;
+        }
+
+        int[][] members = new int[count][];
+        int[] fill = new int[count];
+        for (int c = 0; c < count; c++) {
+            members[c] = new int[sizes[c]];
+        }
+        for (int i = 0; i < n; i++) {
+            int c = componentOf[i];
+            members[c][fill[c]++] = i;
+        }
+
+        boolean[] clique = new boolean[count];
+        List<List<int[]>> cliques = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            List<int[]> found = maximalCliques(matrix, members[c]);
+            clique[c] = found.size() == 1 && found.get(0).length == members[c].length;
+            cliques.add(Collections.unmodifiableList(found));
+        }
+        return new ConflictGraph(matrix, componentOf, members, clique, Collections.unmodifiableList(cliques));
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int ra = find(parent, a);
+        int rb = find(parent, b);
+        if (ra != rb) {
+            // 小根做父节点
+            if (ra < rb) {
+                parent[rb] = ra;
+            } else {
+                parent[ra] = rb;
+            }
+        }
+    }
+
+    private static List<int[]> maximalCliques(ConflictMatrix matrix, int[] component) {
+        List<int[]> result = new ArrayList<>();
+        if (component.length == 1) {
+            result.add(component.clone());
+            return result;
+        }
+        List<Integer> candidates = new ArrayList<>(component.length);
+        for (int id : component) {
+            candidates.add(id);
+        }
+        bronKerbosch(matrix, new ArrayList<>(), candidates, new ArrayList<>(), result);
+        result.sort(ConflictGraph::compareLexicographic);
+        return result;
+    }
+
+    private static void bronKerbosch(ConflictMatrix matrix, List<Integer> current, List<Integer> candidates,
+                                     List<Integer> excluded, List<int[]> result) {
+        if (candidates.isEmpty() && excluded.isEmpty()) {
+            int[] found = new int[current.size()];
+            for (int i = 0; i < found.length; i++) {
+                found[i] = current.get(i);
+            }
+            Arrays.sort(found);
+            result.add(found);
+            return;
+        }
+
+        // 选邻居最多的枢轴，跳过枢轴的邻居
+        int pivot = -1;
+        int best = -1;
+        for (List<Integer> side : Arrays.asList(candidates, excluded)) {
+            for (int u : side) {
+                int degree = 0;
+                for (int v : candidates) {
+                    if (matrix.conflicts(u, v)) {
+                        degree++;
+                    }
+                }
+                if (degree > best) {
+                    best = degree;
+                    pivot = u;
+                }
+            }
+        }
+
+        for (Integer v : new ArrayList<>(candidates)) {
+            if (matrix.conflicts(pivot, v)) {
+                continue;
+            }
+            current.add(v);
+            bronKerbosch(matrix, current, neighbours(matrix, candidates, v), neighbours(matrix, excluded, v), result);
+            current.remove(current.size() - 1);
+            candidates.remove(v);
+            excluded.add(v);
+        }
+    }
+
+    private static List<Integer> neighbours(ConflictMatrix matrix, List<Integer> set, int v) {
+        List<Integer> result = new ArrayList<>();
+        for (int u : set) {
+            if (matrix.conflicts(u, v)) {
+                result.add(u);
+            }
+        }
+        return result;
+    }
+
+    private static int compareLexicographic(int[] a, int[] b) {
+        int n = Math.min(a.length, b.length);
+        for (int i = 0; i < n; i++) {
+            if (a[i] != b[i]) {
+                return Integer.compare(a[i], b[i]);
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    public ConflictMatrix getMatrix() {
+        return matrix;
+    }
+
+    public int getComponentCount() {
+        return members.length;
+    }
+
+    /**
+     * @return 附魔所在的分量编号，ID 无效时返回 -1
+     */
+    public int componentOf(int id) {
+        return id >= 0 && id < componentOf.length ? componentOf[id] : -1;
+    }
+
+    /**
+     * 分量成员（ID 升序，只读）
+     */
+    public int[] members(int component) {
+        return members[component].clone();
+    }
+
+    /**
+     * 分量内的全部极大团（每个团 ID 升序，团之间按字典序）
+     */
+    public List<int[]> cliques(int component) {
+        return cliques.get(component);
+    }
+
+    public boolean isClique(int component) {
+        return clique[component];
+    }
+
+    /**
+     * 对一组附魔求冲突分组
+     *
+     * 返回的每个分组是输入位置的数组；分组按分量编号排序，组内按附魔 ID 排序，
+     * 与输入顺序无关。只有一个成员的分组和未参与冲突规则的附魔（ID 为 -1）不输出。
+     *
+     * @param ids 输入附魔在矩阵中的 ID
+     */
+    public List<int[]> groupsOf(int[] ids) {
+        int n = ids.length;
+        long[] keys = new long[n];
+        int k = 0;
+        for (int pos = 0; pos < n; pos++) {
+            int component = componentOf(ids[pos]);
+            if (component >= 0) {
+                // 分量 | ID | 输入位置，排序后同一分量连续且组内按 ID 有序
+                keys[k++] = ((long) component << 42) | ((long) ids[pos] << 21) | pos;
+            }
+        }
+        Arrays.sort(keys, 0, k);
+
+        List<int[]> groups = new ArrayList<>();
+        int start = 0;
+        while (start < k) {
+            int component = (int) (keys[start] >>> 42);
+            int end = start + 1;
+            while (end < k && (int) (keys[end] >>> 42) == component) {
+                end++;
+            }
+            if (end - start > 1) {
+                int[] positions = new int[end - start];
+                for (int i = start; i < end; i++) {
+                    positions[i - start] = (int) (keys[i] & 0x1FFFFF);
+                }
+                if (clique[component]) {
+                    groups.add(positions);
+                } else {
+                    split(ids, positions, groups);
+                }
+            }
+            start = end;
+        }
+        return groups;
+    }
+
+    /**
+     * 非团分量：按输入子集内实际存在的冲突边再拆分
+     */
+    private void split(int[] ids, int[] positions, List<int[]> groups) {
+        int m = positions.length;
+        int[] parent = new int[m];
+        for (int i = 0; i < m; i++) {
+            parent[i] = i;
+        }
+        for (int i = 0; i < m; i++) {
+            for (int j = i + 1; j < m; j++) {
+                if (matrix.conflicts(ids[positions[i]], ids[positions[j]])) {
+                    union(parent, i, j);
+                }
+            }
+        }
+
+        int[] sizes = new int[m];
+        for (int i = 0; i < m; i++) {
+            sizes[find(parent, i)]++;
+        }
+        // 根为组内最小下标，按根的顺序输出即按最小 ID 排序
+        for (int root = 0; root < m; root++) {
+            if (find(parent, root) != root || sizes[root] < 2) {
+                continue;
+            }
+            int[] group = new int[sizes[root]];
+            int g = 0;
+            for (int i = 0; i < m; i++) {
+                if (find(parent, i) == root) {
+                    group[g++] = positions[i];
+                }
+            }
+            groups.add(group);
+        }
+    }
+}
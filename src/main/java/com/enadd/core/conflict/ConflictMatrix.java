@@ -0,0 +1,198 @@
+package com.enadd.core.conflict;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+
+/**
+ * 编译后的冲突矩阵
+ *
+ * 初始化时把字符串冲突规则编译为稠密整数 ID 和按行存储的 long[] 位矩阵：
+ * 第 i 行的第 j 位表示附魔 i 与附魔 j 冲突。两两判断只是一次位测试，
+ * 统计一件物品上的冲突数则是物品附魔掩码与各行按位与后的 popcount 之和。
+ *
+ * 实例构建后不可变，可在任意线程无锁读取；规则变化时整体替换。
+ * ID 按附魔 ID 字典序分配，同一套规则每次编译结果相同。
+ */
+public final class ConflictMatrix {
+
+    static final ConflictMatrix EMPTY = compile(Collections.emptyMap());
+
+    private final Map<String, Integer> ids;
+    private final String[] names;
+    private final int words;
+    private final long[] bits;
+    private final int pairCount;
+
+    private ConflictMatrix(Map<String, Integer> ids, String[] names, long[] bits, int words, int pairCount) {
+        this.ids = ids;
+        this.names = names;
+        this.bits = bits;
+        this.words = words;
+        this.pairCount = pairCount;
+    }
+
+    /**
+     * 从已标准化的冲突规则编译矩阵，规则按对称处理
+     */
+    static ConflictMatrix compile(Map<String, ? extends Collection<String>> rules) {
+        Set<String> all = new TreeSet<>();
+        for (Map.Entry<String, ? extends Collection<String>> entry : rules.entrySet()) {
+            all.add(entry.getKey());
+            all.addAll(entry.getValue());
+        }
+
+        String[] names = all.toArray(new String[0]);
+        Map<String, Integer> ids = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            ids.put(names[i], i);
+        }
+
+        int words = Math.max(1, (names.length + 63) >>> 6);
+        long[] bits = new long[names.length * words];
+        for (Map.Entry<String, ? extends Collection<String>> entry : rules.entrySet()) {
+            int a = ids.get(entry.getKey());
+            for (String other : entry.getValue()) {
+                int b = ids.get(other);
+                if (a != b) {
+                    bits[a * words + (b >>> 6)] |= 1L << b;
+                    bits[b * words + (a >>> 6)] |= 1L << a;
+                }
+            }
+        }
+
+        int total = 0;
+        for (long word : bits) {
+            total += Long.bitCount(word);
+        }
+        return new ConflictMatrix(Collections.unmodifiableMap(ids), names, bits, words, total / 2);
+    }
+
+    /**
+     * 直接使用构建时生成的矩阵（ID 已排序、位矩阵已对称），不复制数组
+     */
+    static ConflictMatrix fromCompiled(String[] names, long[] bits, int words) {
+        if (words < 1 || bits.length != names.length * words) {
+            throw new IllegalArgumentException("Compiled conflict matrix has " + bits.length
+                + " words for " + names.length + " enchantments");
+        }
+        Map<String, Integer> ids = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            ids.put(names[i], i);
+        }
+
+        int total = 0;
+        for (long word : bits) {
+            total += Long.bitCount(word);
+        }
+        return new ConflictMatrix(Collections.unmodifiableMap(ids), names, bits, words, total / 2);
+    }
+
+    /**
+     * @return 附魔的稠密 ID，未参与任何冲突规则时返回 -1
+     */
+    public int indexOf(String normalizedId) {
+        if (normalizedId == null) {
+            return -1;
+        }
+        Integer id = ids.get(normalizedId);
+        return id != null ? id : -1;
+    }
+
+    public String nameOf(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * 掩码所需的 long 数量
+     */
+    public int words() {
+        return words;
+    }
+
+    /**
+     * 冲突对总数（每对只计一次）
+     */
+    public int pairCount() {
+        return pairCount;
+    }
+
+    public boolean conflicts(int a, int b) {
+        if (a < 0 || b < 0) {
+            return false;
+        }
+        return (bits[a * words + (b >>> 6)] & (1L << b)) != 0;
+    }
+
+    public long[] newMask() {
+        return new long[words];
+    }
+
+    /**
+     * 把附魔加入掩码，未知 ID（-1）被忽略
+     */
+    public static void set(long[] mask, int id) {
+        if (id >= 0) {
+            mask[id >>> 6] |= 1L << id;
+        }
+    }
+
+    /**
+     * 附魔 id 与掩码中附魔的冲突数
+     */
+    public int countConflicts(int id, long[] mask) {
+        if (id < 0) {
+            return 0;
+        }
+        int base = id * words;
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(bits[base + w] & mask[w]);
+        }
+        return count;
+    }
+
+    /**
+     * 掩码内部的冲突对数量
+     */
+    public int countConflicts(long[] mask) {
+        int total = 0;
+        for (int w = 0; w < words; w++) {
+            long word = mask[w];
+            while (word != 0) {
+                int id = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                total += countConflicts(id, mask);
+            }
+        }
+        return total / 2;
+    }
+
+    /**
+     * 掩码内部是否存在任意冲突
+     */
+    public boolean hasConflicts(long[] mask) {
+        for (int w = 0; w < words; w++) {
+            long word = mask[w];
+            while (word != 0) {
+                int id = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                int base = id * words;
+                for (int v = 0; v < words; v++) {
+                    if ((bits[base + v] & mask[v]) != 0) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
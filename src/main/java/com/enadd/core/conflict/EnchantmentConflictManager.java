@@ -1,6 +1,7 @@
 package com.enadd.core.conflict;
 
 import com.enadd.core.api.IEnchantmentConflictRules;
+import com.enadd.core.generated.CompiledEnchantmentRules;
 import net.minecraft.resources.ResourceLocation;
 import org.bukkit.enchantments.Enchantment;
 import java.util.*;
@@ -17,6 +18,8 @@ public final class EnchantmentConflictManager implements IEnchantmentConflictRul
     private final Map<String, Set<String>> conflictRules = new ConcurrentHashMap<>();
     // BUG FIX #4: 添加反向索引提高性能
     private final Map<String, String> enchantmentToCategory = new ConcurrentHashMap<>();
+    // 编译后的冲突矩阵及其分量/团结构，热路径只读这个
+    private volatile ConflictGraph graph = ConflictGraph.EMPTY;
     private volatile boolean initialized = false;
 
     private EnchantmentConflictManager() {
@@ -30,7 +33,7 @@ public final class EnchantmentConflictManager implements IEnchantmentConflictRul
         if (!initialized) {
             try {
                 // BUG FIX #11: 添加异常处理和回滚
-                initializeConflictRules();
+                graph = ConflictGraph.build(initializeConflictRules());
                 initialized = true;
                 // BUG FIX #10: 添加日志
                 LOGGER.info("EnchantmentConflictManager initialized with " + conflictRules.size() + " enchantments");
@@ -41,6 +44,7 @@ public final class EnchantmentConflictManager implements IEnchantmentConflictRul
                 // 回滚
                 conflictRules.clear();
                 enchantmentToCategory.clear();
+                graph = ConflictGraph.EMPTY;
                 initialized = false;
             }
         }
@@ -50,6 +54,7 @@ public final class EnchantmentConflictManager implements IEnchantmentConflictRul
         if (initialized) {
             // BUG FIX #10: 添加日志
             LOGGER.info("Shutting down EnchantmentConflictManager");
+            graph = ConflictGraph.EMPTY;
             conflictRules.clear();
             enchantmentToCategory.clear();
             initialized = false;
@@ -60,177 +65,31 @@ public final class EnchantmentConflictManager implements IEnchantmentConflictRul
         return initialized;
     }
 
-    private void initializeConflictRules() {
-        // BUG FIX #6: 添加原版附魔冲突规则
-        addConflictGroup("vanilla_protection", Arrays.asList(
-            "minecraft:protection", "minecraft:blast_protection", 
-            "minecraft:fire_protection", "minecraft:projectile_protection"
-        ));
-        
-        addConflictGroup("vanilla_damage", Arrays.asList(
-            "minecraft:sharpness", "minecraft:smite", "minecraft:bane_of_arthropods"
-        ));
-        
-        addConflictGroup("vanilla_tool", Arrays.asList(
-            "minecraft:fortune", "minecraft:silk_touch"
-        ));
-        
-        addConflictGroup("vanilla_bow", Arrays.asList(
-            "minecraft:infinity", "minecraft:mending"
-        ));
-        
-        addConflictGroup("vanilla_depth", Arrays.asList(
-            "minecraft:depth_strider", "minecraft:frost_walker"
-        ));
-        
-        addConflictGroup("vanilla_crossbow", Arrays.asList(
-            "minecraft:multishot", "minecraft:piercing"
-        ));
-        
-        // ========== 战斗附魔冲突规则 ==========
-        addConflictGroup("combat", Arrays.asList(
-            "critical_strike", "precision_strike", "execution", "execute"
-        ));
-        addConflictGroup("combat", Arrays.asList(
-            "vampirism", "life_drain", "leech"
-        ));
-        addConflictGroup("combat", Arrays.asList(
-            "crippling", "cripple", "frost_bite"
-        ));
-        addConflictGroup("combat", Arrays.asList(
-            "bleeding", "hemorrhage", "wound", "eviscerate"
-        ));
-        addConflictGroup("combat", Arrays.asList(
-            "backstab", "eviscerate"
-        ));
-        addConflictGroup("combat", Arrays.asList(
-            "momentum", "frenzy"
-        ));
-        addConflictGroup("combat", Arrays.asList(
-            "rampage", "bloodlust"
-        ));
-        addConflictGroup("combat", Arrays.asList(
-            "doom_blade", "annihilate"
-        ));
-
-        // ========== 护甲附魔冲突规则 ==========
-        addConflictGroup("armor", Arrays.asList(
-            "stone_skin", "reinforced_thorns"
-        ));
-        addConflictGroup("armor", Arrays.asList(
-            "dodge", "evasive"
-        ));
-        addConflictGroup("armor", Arrays.asList(
-            "reinforced_thorns", "thorns", "spikes"
-        ));
-        addConflictGroup("armor", Arrays.asList(
-            "barrier", "aegis_shield", "bastion"
-        ));
-        addConflictGroup("armor", Arrays.asList(
-            "adrenaline", "swift_sneak"
-        ));
-
-        // ========== 工具附魔冲突规则 ==========
-        addConflictGroup("tool", Arrays.asList(
-            "efficiency", "efficiency_plus", "miner", "strong_draw"
-        ));
-        addConflictGroup("tool", Arrays.asList(
-            "fortune", "fortune_plus", "fortunes_grace", "treasure_hunter", "luck_of_the_sea"
-        ));
-        addConflictGroup("tool", Arrays.asList(
-            "mending", "experience_boost", "auto_repair"
-        ));
-        addConflictGroup("tool", Arrays.asList(
-            "area_mining", "vein_miner", "excavation", "timber"
-        ));
-        addConflictGroup("tool", Arrays.asList(
-            "auto_smelt", "smelting_touch"
-        ));
-        addConflictGroup("tool", Arrays.asList(
-            "homing", "triple_shot"
-        ));
-        addConflictGroup("tool", Arrays.asList(
-            "quick_draw", "strong_draw"
-        ));
-
-        // ========== 防御附魔冲突规则 ==========
-        addConflictGroup("defense", Arrays.asList(
-            "elemental_resist", "fire_protection", "frost_protection",
-            "lightning_ward", "poison_ward"
-        ));
-        addConflictGroup("defense", Arrays.asList(
-            "reflect", "thorns", "spikes", "retaliate"
-        ));
-        addConflictGroup("defense", Arrays.asList(
-            "protection", "blast_protection", "projectile_protection",
-            "fire_ward", "frost_ward"
-        ));
-        addConflictGroup("defense", Arrays.asList(
-            "energy_shield", "magic_barrier", "physical_barrier"
-        ));
-
-        // ========== 装饰附魔冲突规则 ==========
-        addConflictGroup("cosmetic", Arrays.asList(
-            "weapon_flame_trail", "weapon_frost_trail", "weapon_lightning_trail",
-            "weapon_poison_trail", "weapon_shadow_trail", "weapon_holy_trail"
-        ));
-        addConflictGroup("cosmetic", Arrays.asList(
-            "armor_glow", "armor_aura", "armor_sparkle",
-            "armor_shimmer", "armor_pulse", "armor_ripple"
-        ));
-
-        // ========== 特殊附魔冲突规则 ==========
-        addConflictGroup("special", Arrays.asList(
-            "meteor_strike", "storm_caller", "dragon_breath", "phantom_strike"
-        ));
-        addConflictGroup("special", Arrays.asList(
-            "teleport", "phase", "void_reach"
-        ));
-        addConflictGroup("special", Arrays.asList(
-            "clone", "phantom_strike", "soul_reaper"
-        ));
-    }
-
-    private void addConflictGroup(String category, List<String> enchantments) {
-        // BUG FIX #5: 统一空字符串处理
-        if (category == null || category.trim().isEmpty() || enchantments == null || enchantments.isEmpty()) {
-            return;
-        }
-
-        for (int i = 0; i < enchantments.size(); i++) {
-            String enchant1 = enchantments.get(i);
-            if (enchant1 == null || enchant1.trim().isEmpty()) {
-                continue;
-            }
-            
-            // BUG FIX #7: 标准化附魔ID
-            enchant1 = normalizeEnchantmentId(enchant1);
-
-            if (!conflictRules.containsKey(enchant1)) {
-                conflictRules.put(enchant1, ConcurrentHashMap.newKeySet());
-            }
-            
-            // BUG FIX #4: 添加到反向索引
-            enchantmentToCategory.put(enchant1, category);
-
-            Set<String> conflicts = conflictRules.get(enchant1);
-            if (conflicts == null) {
-                continue;
-            }
-
-            for (int j = 0; j < enchantments.size(); j++) {
-                if (i != j) {
-                    String enchant2 = enchantments.get(j);
-                    if (enchant2 != null && !enchant2.trim().isEmpty()) {
-                        // BUG FIX #7: 标准化附魔ID
-                        enchant2 = normalizeEnchantmentId(enchant2);
-                        conflicts.add(enchant2);
-                    }
+    /**
+     * 载入构建时编译的冲突规则（src/main/rules/enchantment_rules.json）
+     *
+     * 位矩阵直接作为冲突矩阵使用；字符串形式的规则和类别索引由同一张表展开，
+     * 供 getConflictRules 等查询接口使用。
+     */
+    private ConflictMatrix initializeConflictRules() {
+        String[] ids = CompiledEnchantmentRules.CONFLICT_IDS;
+        ConflictMatrix matrix = ConflictMatrix.fromCompiled(ids,
+            CompiledEnchantmentRules.CONFLICT_BITS, CompiledEnchantmentRules.CONFLICT_WORDS);
+
+        for (int a = 0; a < ids.length; a++) {
+            Set<String> conflicts = ConcurrentHashMap.newKeySet();
+            for (int b = 0; b < ids.length; b++) {
+                if (matrix.conflicts(a, b)) {
+                    conflicts.add(ids[b]);
                 }
             }
+            conflictRules.put(ids[a], conflicts);
+            // BUG FIX #4: 添加到反向索引
+            enchantmentToCategory.put(ids[a], CompiledEnchantmentRules.CONFLICT_CATEGORIES[a]);
         }
+        return matrix;
     }
-    
+
     /**
      * BUG FIX #7: 标准化附魔ID处理
      * 确保所有附魔ID都有命名空间
@@ -267,31 +126,91 @@ public final class EnchantmentConflictManager implements IEnchantmentConflictRul
             enchantment2 == null || enchantment2.trim().isEmpty()) {
             return false;
         }
-        
-        // BUG FIX #7: 标准化附魔ID
-        enchantment1 = normalizeEnchantmentId(enchantment1);
-        enchantment2 = normalizeEnchantmentId(enchantment2);
 
-        // 同一个附魔不冲突
-        if (enchantment1.equals(enchantment2)) {
-            return false;
-        }
+        // 同一个附魔在矩阵中没有自身位，不会冲突
+        ConflictMatrix current = graph.getMatrix();
+        return current.conflicts(indexOf(current, enchantment1), indexOf(current, enchantment2));
+    }
+
+    /**
+     * 查找附魔在矩阵中的 ID，已是标准形式的 ID（如 NamespacedKey）直接命中，
+     * 否则再标准化一次
+     */
+    private int indexOf(ConflictMatrix current, String enchantmentId) {
+        int id = current.indexOf(enchantmentId);
+        return id >= 0 ? id : current.indexOf(normalizeEnchantmentId(enchantmentId));
+    }
+
+    /**
+     * 获取编译后的冲突矩阵（不可变快照）
+     */
+    public ConflictMatrix getConflictMatrix() {
+        return graph.getMatrix();
+    }
+
+    /**
+     * 获取预计算的冲突图（连通分量与极大团，不可变快照）
+     */
+    public ConflictGraph getConflictGraph() {
+        return graph;
+    }
 
-        if (conflictRules.containsKey(enchantment1)) {
-            Set<String> conflicts = conflictRules.get(enchantment1);
-            if (conflicts != null && conflicts.contains(enchantment2)) {
-                return true;
+    /**
+     * 附魔的冲突列表，按附魔 ID 排序
+     */
+    public List<String> getSortedConflicts(String enchantmentId) {
+        ConflictMatrix current = graph.getMatrix();
+        int id = getConflictIndex(enchantmentId);
+        if (id < 0) {
+            return Collections.emptyList();
+        }
+        List<String> conflicts = new ArrayList<>();
+        // ID 按字典序分配，按 ID 遍历即有序
+        for (int other = 0; other < current.size(); other++) {
+            if (current.conflicts(id, other)) {
+                conflicts.add(current.nameOf(other));
             }
         }
+        return conflicts;
+    }
 
-        if (conflictRules.containsKey(enchantment2)) {
-            Set<String> conflicts = conflictRules.get(enchantment2);
-            if (conflicts != null && conflicts.contains(enchantment1)) {
-                return true;
+    /**
+     * 全部冲突分量，每个分量给出成员和分量内的极大团（互斥组），顺序确定
+     */
+    public List<ConflictComponent> getConflictComponents() {
+        ConflictGraph current = graph;
+        ConflictMatrix currentMatrix = current.getMatrix();
+        List<ConflictComponent> components = new ArrayList<>();
+        for (int c = 0; c < current.getComponentCount(); c++) {
+            int[] members = current.members(c);
+            if (members.length < 2) {
+                continue;
+            }
+            List<List<String>> cliques = new ArrayList<>();
+            for (int[] clique : current.cliques(c)) {
+                cliques.add(namesOf(currentMatrix, clique));
             }
+            components.add(new ConflictComponent(namesOf(currentMatrix, members), cliques));
+        }
+        return components;
+    }
+
+    private static List<String> namesOf(ConflictMatrix current, int[] ids) {
+        List<String> names = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            names.add(current.nameOf(id));
         }
+        return Collections.unmodifiableList(names);
+    }
 
-        return false;
+    /**
+     * 附魔在当前冲突矩阵中的 ID，不参与冲突规则时返回 -1
+     */
+    public int getConflictIndex(String enchantmentId) {
+        if (enchantmentId == null || enchantmentId.trim().isEmpty()) {
+            return -1;
+        }
+        return indexOf(graph.getMatrix(), enchantmentId);
     }
 
     @Override
@@ -317,11 +236,7 @@ public final class EnchantmentConflictManager implements IEnchantmentConflictRul
      * 获取总冲突规则数量
      */
     public int getTotalConflictCount() {
-        int total = 0;
-        for (Set<String> conflicts : conflictRules.values()) {
-            total += conflicts.size();
-        }
-        return total / 2; // 每对冲突被计算两次
+        return graph.getMatrix().pairCount();
     }
     
     /**
@@ -358,47 +273,33 @@ public final class EnchantmentConflictManager implements IEnchantmentConflictRul
 
     public static boolean hasConflicts(Collection<Enchantment> enchantments) {
         if (enchantments == null || enchantments.size() < 2) return false;
-        List<Enchantment> list = new ArrayList<>(enchantments);
-        for (int i = 0; i < list.size(); i++) {
-            for (int j = i + 1; j < list.size(); j++) {
-                if (conflictsWith(list.get(i), list.get(j))) return true;
-            }
-        }
-        return false;
+        ConflictMatrix current = INSTANCE.graph.getMatrix();
+        return current.hasConflicts(maskOf(current, enchantments));
     }
 
     public static boolean canCombineWithBinder(Enchantment enchantment, int binderLevel, Set<Enchantment> existing) {
         if (enchantment == null) return true;
-        int conflicts = 0;
-        for (Enchantment e : existing) {
-            if (conflictsWith(enchantment, e)) {
-                conflicts++;
-            }
-        }
+        ConflictMatrix current = INSTANCE.graph.getMatrix();
+        int conflicts = current.countConflicts(indexOf(current, enchantment), maskOf(current, existing));
         // 每级Binder允许额外3个冲突（根据CompatibilityChecker中的getMaxConflictsWithLevel）
         return conflicts <= binderLevel * 3;
     }
 
     public static boolean canApplyTogether(Collection<Enchantment> enchantments, int binderLevel) {
         if (enchantments == null || enchantments.size() < 2) return true;
-        int totalConflicts = 0;
-        List<Enchantment> list = new ArrayList<>(enchantments);
-        for (int i = 0; i < list.size(); i++) {
-            for (int j = i + 1; j < list.size(); j++) {
-                if (conflictsWith(list.get(i), list.get(j))) {
-                    totalConflicts++;
-                }
-            }
-        }
+        ConflictMatrix current = INSTANCE.graph.getMatrix();
+        int totalConflicts = current.countConflicts(maskOf(current, enchantments));
         return totalConflicts <= binderLevel * 3;
     }
 
     public static Map<Enchantment, Set<Enchantment>> getAllConflicts(Collection<Enchantment> enchantments) {
         Map<Enchantment, Set<Enchantment>> allConflicts = new HashMap<>();
+        ConflictMatrix current = INSTANCE.graph.getMatrix();
         List<Enchantment> list = new ArrayList<>(enchantments);
+        int[] ids = indexesOf(current, list);
         for (int i = 0; i < list.size(); i++) {
             for (int j = i + 1; j < list.size(); j++) {
-                if (conflictsWith(list.get(i), list.get(j))) {
+                if (current.conflicts(ids[i], ids[j])) {
                     allConflicts.computeIfAbsent(list.get(i), k -> new HashSet<>()).add(list.get(j));
                     allConflicts.computeIfAbsent(list.get(j), k -> new HashSet<>()).add(list.get(i));
                 }
@@ -407,46 +308,56 @@ public final class EnchantmentConflictManager implements IEnchantmentConflictRul
         return allConflicts;
     }
 
+    /**
+     * 冲突分组：按预计算的连通分量归桶，输出顺序与输入顺序无关
+     */
     public static List<Set<Enchantment>> getConflictGroups(Collection<Enchantment> enchantments) {
-        List<Set<Enchantment>> groups = new ArrayList<>();
-        Set<Enchantment> processed = new HashSet<>();
-        List<Enchantment> list = new ArrayList<>(enchantments);
-
-        for (int i = 0; i < list.size(); i++) {
-            Enchantment e1 = list.get(i);
-            if (processed.contains(e1)) continue;
-
-            Set<Enchantment> group = new HashSet<>();
-            group.add(e1);
-            processed.add(e1);
+        if (enchantments == null || enchantments.size() < 2) return new ArrayList<>();
+        ConflictGraph current = INSTANCE.graph;
+        List<Enchantment> list = new ArrayList<>(new LinkedHashSet<>(enchantments));
+        int[] ids = indexesOf(current.getMatrix(), list);
 
-            for (int j = i + 1; j < list.size(); j++) {
-                Enchantment e2 = list.get(j);
-                if (conflictsWith(e1, e2)) {
-                    group.add(e2);
-                    processed.add(e2);
-                }
-            }
-
-            if (group.size() > 1) {
-                groups.add(group);
+        List<Set<Enchantment>> groups = new ArrayList<>();
+        for (int[] positions : current.groupsOf(ids)) {
+            Set<Enchantment> group = new LinkedHashSet<>();
+            for (int position : positions) {
+                group.add(list.get(position));
             }
+            groups.add(group);
         }
         return groups;
     }
 
     public static int calculateRequiredBinderSlots(Set<Enchantment> enchantments) {
         if (enchantments == null || enchantments.size() < 2) return 0;
-        int conflicts = 0;
-        List<Enchantment> list = new ArrayList<>(enchantments);
-        for (int i = 0; i < list.size(); i++) {
-            for (int j = i + 1; j < list.size(); j++) {
-                if (conflictsWith(list.get(i), list.get(j))) {
-                    conflicts++;
-                }
+        ConflictMatrix current = INSTANCE.graph.getMatrix();
+        return current.countConflicts(maskOf(current, enchantments));
+    }
+
+    /**
+     * 构建附魔集合在矩阵中的掩码，不参与冲突规则的附魔被忽略
+     */
+    public static long[] maskOf(ConflictMatrix current, Collection<Enchantment> enchantments) {
+        long[] mask = current.newMask();
+        if (enchantments != null) {
+            for (Enchantment enchantment : enchantments) {
+                ConflictMatrix.set(mask, indexOf(current, enchantment));
             }
         }
-        return conflicts;
+        return mask;
+    }
+
+    private static int[] indexesOf(ConflictMatrix current, List<Enchantment> list) {
+        int[] ids = new int[list.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = indexOf(current, list.get(i));
+        }
+        return ids;
+    }
+
+    private static int indexOf(ConflictMatrix current, Enchantment enchantment) {
+        if (enchantment == null) return -1;
+        return INSTANCE.indexOf(current, getEnchantmentId(enchantment));
     }
 
     public static ResourceLocation getEnchantmentLocation(Enchantment enchantment) {
@@ -468,4 +379,20 @@ public final class EnchantmentConflictManager implements IEnchantmentConflictRul
         if (enchantment == null) return "";
         return enchantment.getKey().toString();
     }
+
+    /**
+     * 冲突分量：成员和分量内的极大团
+     */
+    public static final class ConflictComponent {
+        private final List<String> members;
+        private final List<List<String>> cliques;
+
+        public ConflictComponent(List<String> members, List<List<String>> cliques) {
+            this.members = members;
+            this.cliques = Collections.unmodifiableList(cliques);
+        }
+
+        public List<String> getMembers() { return members; }
+        public List<List<String>> getCliques() { return cliques; }
+    }
 }
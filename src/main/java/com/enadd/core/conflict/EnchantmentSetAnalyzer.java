@@ -0,0 +1,313 @@
+package com.enadd.core.conflict;
+
+import com.enadd.core.cache.SegmentedLruCache;
+import org.bukkit.NamespacedKey;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+/**
+ * 附魔组合分析缓存
+ *
+ * 铁砧预览、附魔台准备等事件会对同一组附魔反复计算冲突数和粘合剂等级。
+ * 这里把物品上的附魔编码为规范签名（按附魔序号排序的 序号/等级 数组），
+ * 以签名为键缓存分析结果（冲突数、粘合剂等级、允许冲突数、冲突分组），
+ * 重复预览只需一次哈希查找。
+ *
+ * 附魔序号在首次出现时分配，整个运行期不变；冲突规则重新编译后缓存整体失效。
+ * 冲突管理器未初始化时回退到原版冲突检查，结果不缓存。
+ */
+public final class EnchantmentSetAnalyzer {
+    // Holder模式优化单例
+    private static final class Holder {
+        private static final EnchantmentSetAnalyzer INSTANCE = new EnchantmentSetAnalyzer();
+    }
+
+    private static final String BINDER_KEY = "enchantment_binder";
+    // 每级粘合剂允许的冲突数
+    private static final int CONFLICTS_PER_LEVEL = 2;
+    private static final int MAX_BINDER_LEVEL = 3;
+
+    private static final int MAX_ENTRIES = 2048;
+
+    private final Map<NamespacedKey, Integer> ordinals = new ConcurrentHashMap<>();
+    private final List<String> ordinalIds = new CopyOnWriteArrayList<>();
+    // 缓存与其对应的冲突图一起替换，旧规则算出的结果不会写进新缓存
+    private volatile Memo memo = new Memo(ConflictGraph.EMPTY);
+
+    private EnchantmentSetAnalyzer() {
+    }
+
+    public static EnchantmentSetAnalyzer getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * 分析物品上的附魔组合
+     */
+    public Analysis analyze(ItemStack item) {
+        if (item == null || !item.hasItemMeta()) {
+            return Analysis.EMPTY;
+        }
+        return analyze(item.getEnchantments());
+    }
+
+    /**
+     * 分析附魔组合（附魔 → 等级）
+     */
+    public Analysis analyze(Map<Enchantment, Integer> enchantments) {
+        if (enchantments == null || enchantments.isEmpty()) {
+            return Analysis.EMPTY;
+        }
+
+        EnchantmentConflictManager manager = EnchantmentConflictManager.getInstance();
+        if (!manager.isInitialized()) {
+            return analyzeVanilla(enchantments);
+        }
+
+        Memo current = memoFor(manager.getConflictGraph());
+        Signature signature = signatureOf(enchantments);
+        Analysis analysis = current.cache.get(signature);
+        if (analysis == null) {
+            analysis = compute(signature, current.graph);
+            current.cache.put(signature, analysis);
+        }
+        return analysis;
+    }
+
+    private Memo memoFor(ConflictGraph graph) {
+        Memo current = memo;
+        if (current.graph == graph) {
+            return current;
+        }
+        synchronized (this) {
+            if (memo.graph != graph) {
+                memo = new Memo(graph);
+            }
+            return memo;
+        }
+    }
+
+    /**
+     * 生成附魔组合的规范签名
+     */
+    Signature signatureOf(Map<Enchantment, Integer> enchantments) {
+        long[] packed = new long[enchantments.size()];
+        int n = 0;
+        for (Map.Entry<Enchantment, Integer> entry : enchantments.entrySet()) {
+            Enchantment enchantment = entry.getKey();
+            if (enchantment == null) {
+                continue;
+            }
+            int level = entry.getValue() != null ? entry.getValue() : 0;
+            packed[n++] = ((long) ordinalOf(enchantment) << 32) | (level & 0xFFFFFFFFL);
+        }
+        if (n != packed.length) {
+            packed = Arrays.copyOf(packed, n);
+        }
+        Arrays.sort(packed);
+        return new Signature(packed);
+    }
+
+    private int ordinalOf(Enchantment enchantment) {
+        NamespacedKey key = enchantment.getKey();
+        Integer ordinal = ordinals.get(key);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        synchronized (ordinals) {
+            ordinal = ordinals.get(key);
+            if (ordinal == null) {
+                // 先写名称再发布序号，读到序号时名称一定可见
+                ordinal = ordinalIds.size();
+                ordinalIds.add(key.toString());
+                ordinals.put(key, ordinal);
+            }
+            return ordinal;
+        }
+    }
+
+    private Analysis compute(Signature signature, ConflictGraph graph) {
+        ConflictMatrix matrix = graph.getMatrix();
+        long[] packed = signature.packed;
+        int n = packed.length;
+        String[] ids = new String[n];
+        int[] matrixIds = new int[n];
+        long[] mask = matrix.newMask();
+        int binderLevel = 0;
+
+        for (int i = 0; i < n; i++) {
+            String id = ordinalIds.get((int) (packed[i] >>> 32));
+            ids[i] = id;
+            matrixIds[i] = matrix.indexOf(id);
+            ConflictMatrix.set(mask, matrixIds[i]);
+            if (isBinder(id)) {
+                binderLevel = Math.max(binderLevel, (int) packed[i]);
+            }
+        }
+
+        int conflictCount = matrix.countConflicts(mask);
+        List<List<String>> groups = Collections.emptyList();
+        if (conflictCount > 0) {
+            groups = conflictGroups(ids, matrixIds, graph);
+        }
+        return new Analysis(conflictCount, binderLevel, groups);
+    }
+
+    /**
+     * 组合内的冲突分组（来自预计算的冲突分量，组内按附魔 ID 排序）
+     */
+    private static List<List<String>> conflictGroups(String[] ids, int[] matrixIds, ConflictGraph graph) {
+        List<List<String>> groups = new ArrayList<>();
+        for (int[] positions : graph.groupsOf(matrixIds)) {
+            List<String> group = new ArrayList<>(positions.length);
+            for (int position : positions) {
+                group.add(ids[position]);
+            }
+            groups.add(Collections.unmodifiableList(group));
+        }
+        return Collections.unmodifiableList(groups);
+    }
+
+    /**
+     * 冲突管理器未初始化时使用原版冲突检查
+     */
+    private static Analysis analyzeVanilla(Map<Enchantment, Integer> enchantments) {
+        List<Enchantment> list = new ArrayList<>(enchantments.keySet());
+        int conflictCount = 0;
+        int binderLevel = 0;
+        for (int i = 0; i < list.size(); i++) {
+            Enchantment e1 = list.get(i);
+            if (isBinder(e1.getKey().toString())) {
+                Integer level = enchantments.get(e1);
+                binderLevel = Math.max(binderLevel, level != null ? level : 0);
+            }
+            for (int j = i + 1; j < list.size(); j++) {
+                if (e1.conflictsWith(list.get(j))) {
+                    conflictCount++;
+                }
+            }
+        }
+        return new Analysis(conflictCount, binderLevel, Collections.emptyList());
+    }
+
+    private static boolean isBinder(String id) {
+        return id.endsWith(":" + BINDER_KEY);
+    }
+
+    /**
+     * 粘合剂等级允许的冲突数
+     */
+    public static int allowedConflicts(int binderLevel) {
+        return Math.min(Math.max(0, binderLevel) * CONFLICTS_PER_LEVEL, MAX_BINDER_LEVEL * CONFLICTS_PER_LEVEL);
+    }
+
+    public void invalidateAll() {
+        memo.cache.clear();
+    }
+
+    public int getCachedCount() {
+        return memo.cache.size();
+    }
+
+    public long getHitCount() {
+        SegmentedLruCache<Signature, Analysis> cache = memo.cache;
+        return cache.getProtectedHits() + cache.getProbationHits();
+    }
+
+    public long getMissCount() {
+        return memo.cache.getMisses();
+    }
+
+    /**
+     * 已晋升到保护段（至少命中过一次）的组合数
+     */
+    public int getProtectedCount() {
+        return memo.cache.getProtectedSize();
+    }
+
+    public long getEvictionCount() {
+        return memo.cache.getEvictions();
+    }
+
+    private static final class Memo {
+        private final ConflictGraph graph;
+        private final SegmentedLruCache<Signature, Analysis> cache =
+            new SegmentedLruCache<>(MAX_ENTRIES, MAX_ENTRIES / 2, 0L, 0L);
+
+        private Memo(ConflictGraph graph) {
+            this.graph = graph;
+        }
+    }
+
+    /**
+     * 附魔组合的规范签名
+     */
+    static final class Signature {
+        private final long[] packed;
+        private final int hash;
+
+        Signature(long[] packed) {
+            this.packed = packed;
+            this.hash = Arrays.hashCode(packed);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Signature)) return false;
+            Signature other = (Signature) o;
+            return hash == other.hash && Arrays.equals(packed, other.packed);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * 附魔组合分析结果（不可变，可在多个调用方之间共享）
+     */
+    public static final class Analysis {
+        static final Analysis EMPTY = new Analysis(0, 0, Collections.emptyList());
+
+        private final int conflictCount;
+        private final int binderLevel;
+        private final int allowedConflicts;
+        private final List<List<String>> conflictGroups;
+
+        Analysis(int conflictCount, int binderLevel, List<List<String>> conflictGroups) {
+            this.conflictCount = conflictCount;
+            this.binderLevel = binderLevel;
+            this.allowedConflicts = allowedConflicts(binderLevel);
+            this.conflictGroups = conflictGroups;
+        }
+
+        public int getConflictCount() { return conflictCount; }
+        public int getBinderLevel() { return binderLevel; }
+        public int getAllowedConflicts() { return allowedConflicts; }
+        public List<List<String>> getConflictGroups() { return conflictGroups; }
+
+        /**
+         * 冲突数是否在粘合剂允许范围内
+         */
+        public boolean isWithinBinderLimit() {
+            return conflictCount <= allowedConflicts;
+        }
+
+        /**
+         * 把 first 和 second 合并得到本组合时，两部分之间是否有冲突（合并后的冲突数多于两部分各自的冲突数）
+         */
+        public boolean hasConflictsBetween(Analysis first, Analysis second) {
+            return conflictCount > first.conflictCount + second.conflictCount;
+        }
+    }
+}
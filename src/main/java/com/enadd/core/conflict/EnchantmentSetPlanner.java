@@ -0,0 +1,244 @@
+package com.enadd.core.conflict;
+
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+
+/**
+ * 最优附魔组合规划器
+ *
+ * 给定候选附魔（及其价值）和粘合剂等级，求总价值最大、且组合内冲突对数量不超过
+ * 粘合剂允许值的子集。没有粘合剂时即冲突图上的最大权独立集。
+ *
+ * 实现为位集分支定界：候选按价值降序排列，已选集合用一个 long 表示，
+ * 新增冲突数是邻接位集与已选集合按位与后的 popcount；上界为当前价值加上
+ * 所有仍可加入的剩余候选价值之和。30 个候选通常只需展开几百个节点。
+ *
+ * 与其他候选都不冲突的附魔直接入选，只有处于冲突关系中的候选进入搜索。
+ * 进入搜索的候选最多 {@value #MAX_CANDIDATES} 个（按价值保留前 64 个），展开节点数也有上限，
+ * 超限时返回已找到的最好结果并标记为非精确，被舍弃的候选数见 {@link Plan#getDroppedCandidates()}。
+ */
+public final class EnchantmentSetPlanner {
+
+    public static final int MAX_CANDIDATES = 64;
+    private static final long MAX_NODES = 500_000L;
+
+    private EnchantmentSetPlanner() {}
+
+    /**
+     * 为物品规划最优组合
+     *
+     * @param item 目标物品，不能附魔到该物品上的候选在截断前就被过滤掉
+     * @param wanted 想要的附魔
+     * @param binderLevel 粘合剂等级（0 表示没有粘合剂）
+     * @param valueFunction 附魔价值，<=0 的候选被跳过
+     */
+    public static Plan plan(ItemStack item, Collection<Enchantment> wanted, int binderLevel,
+                            ToIntFunction<Enchantment> valueFunction) {
+        List<Candidate> candidates = new ArrayList<>();
+        if (wanted != null) {
+            for (Enchantment enchantment : wanted) {
+                if (enchantment == null || (item != null && !enchantment.canEnchantItem(item))) {
+                    continue;
+                }
+                candidates.add(new Candidate(enchantment.getKey().toString(), valueFunction.applyAsInt(enchantment)));
+            }
+        }
+        return plan(candidates, binderLevel);
+    }
+
+    /**
+     * 规划最优组合
+     *
+     * @param candidates 候选附魔 ID 及价值
+     * @param binderLevel 粘合剂等级（0 表示没有粘合剂）
+     */
+    public static Plan plan(List<Candidate> candidates, int binderLevel) {
+        long start = System.nanoTime();
+        List<Candidate> sorted = new ArrayList<>();
+        if (candidates != null) {
+            for (Candidate candidate : candidates) {
+                if (candidate != null && candidate.value > 0) {
+                    sorted.add(candidate);
+                }
+            }
+        }
+        sorted.sort(Comparator.comparingInt((Candidate c) -> -c.value).thenComparing(c -> c.id));
+
+        EnchantmentConflictManager manager = EnchantmentConflictManager.getInstance();
+        ConflictMatrix matrix = manager.getConflictMatrix();
+        int total = sorted.size();
+        int[] allIds = new int[total];
+        for (int i = 0; i < total; i++) {
+            allIds[i] = manager.getConflictIndex(sorted.get(i).id);
+        }
+
+        // 与其他候选都不冲突的附魔必然入选，不占用位集搜索的名额
+        boolean[] contested = new boolean[total];
+        for (int i = 0; i < total; i++) {
+            for (int j = i + 1; j < total; j++) {
+                if (matrix.conflicts(allIds[i], allIds[j])) {
+                    contested[i] = true;
+                    contested[j] = true;
+                }
+            }
+        }
+        List<Candidate> free = new ArrayList<>();
+        List<Candidate> searched = new ArrayList<>();
+        List<Integer> searchedIds = new ArrayList<>();
+        int freeValue = 0;
+        for (int i = 0; i < total; i++) {
+            if (contested[i]) {
+                searched.add(sorted.get(i));
+                searchedIds.add(allIds[i]);
+            } else {
+                free.add(sorted.get(i));
+                freeValue += sorted.get(i).value;
+            }
+        }
+
+        int dropped = Math.max(0, searched.size() - MAX_CANDIDATES);
+        int n = searched.size() - dropped;
+        int[] ids = new int[n];
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = searchedIds.get(i);
+            values[i] = searched.get(i).value;
+        }
+
+        // 有冲突的候选之间的局部邻接位集
+        long[] adjacency = new long[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (matrix.conflicts(ids[i], ids[j])) {
+                    adjacency[i] |= 1L << j;
+                    adjacency[j] |= 1L << i;
+                }
+            }
+        }
+
+        Search search = new Search(values, adjacency, EnchantmentSetAnalyzer.allowedConflicts(binderLevel));
+        search.run(0, 0L, 0, 0);
+
+        List<Candidate> selected = new ArrayList<>(free);
+        for (int i = 0; i < n; i++) {
+            if ((search.bestSet & (1L << i)) != 0) {
+                selected.add(searched.get(i));
+            }
+        }
+        selected.sort(Comparator.comparingInt((Candidate c) -> -c.value).thenComparing(c -> c.id));
+        return new Plan(selected, freeValue + search.bestValue, search.bestConflicts, search.nodes,
+            dropped == 0 && search.nodes < MAX_NODES, (System.nanoTime() - start) / 1000L, dropped);
+    }
+
+    private static final class Search {
+        private final int[] values;
+        private final long[] adjacency;
+        private final int budget;
+        private final int n;
+
+        private long bestSet;
+        private int bestValue = -1;
+        private int bestConflicts;
+        private long nodes;
+
+        private Search(int[] values, long[] adjacency, int budget) {
+            this.values = values;
+            this.adjacency = adjacency;
+            this.budget = budget;
+            this.n = values.length;
+        }
+
+        private void run(int index, long chosen, int value, int used) {
+            nodes++;
+            if (value > bestValue) {
+                bestValue = value;
+                bestSet = chosen;
+                bestConflicts = used;
+            }
+            if (index == n || nodes >= MAX_NODES) {
+                return;
+            }
+
+            // 上界：剩余候选中单独加入仍不超预算的全部加上
+            int bound = value;
+            for (int j = index; j < n; j++) {
+                if (used + Long.bitCount(adjacency[j] & chosen) <= budget) {
+                    bound += values[j];
+                }
+            }
+            if (bound <= bestValue) {
+                return;
+            }
+
+            int added = Long.bitCount(adjacency[index] & chosen);
+            if (used + added <= budget) {
+                run(index + 1, chosen | (1L << index), value + values[index], used + added);
+            }
+            run(index + 1, chosen, value, used);
+        }
+    }
+
+    /**
+     * 候选附魔
+     */
+    public static final class Candidate {
+        private final String id;
+        private final int value;
+
+        public Candidate(String id, int value) {
+            this.id = id;
+            this.value = value;
+        }
+
+        public String getId() { return id; }
+        public int getValue() { return value; }
+    }
+
+    /**
+     * 规划结果
+     */
+    public static final class Plan {
+        private final List<Candidate> selected;
+        private final int totalValue;
+        private final int conflictsUsed;
+        private final long nodesExplored;
+        private final boolean exact;
+        private final long elapsedMicros;
+        private final int droppedCandidates;
+
+        public Plan(List<Candidate> selected, int totalValue, int conflictsUsed, long nodesExplored,
+                    boolean exact, long elapsedMicros) {
+            this(selected, totalValue, conflictsUsed, nodesExplored, exact, elapsedMicros, 0);
+        }
+
+        public Plan(List<Candidate> selected, int totalValue, int conflictsUsed, long nodesExplored,
+                    boolean exact, long elapsedMicros, int droppedCandidates) {
+            this.selected = Collections.unmodifiableList(selected);
+            this.totalValue = Math.max(0, totalValue);
+            this.conflictsUsed = conflictsUsed;
+            this.nodesExplored = nodesExplored;
+            this.exact = exact;
+            this.elapsedMicros = elapsedMicros;
+            this.droppedCandidates = droppedCandidates;
+        }
+
+        /** 选中的附魔，按价值降序 */
+        public List<Candidate> getSelected() { return selected; }
+        public int getTotalValue() { return totalValue; }
+        /** 组合内的冲突对数量（由粘合剂承担） */
+        public int getConflictsUsed() { return conflictsUsed; }
+        public long getNodesExplored() { return nodesExplored; }
+        /** 是否保证最优（候选被截断或节点超限时为 false） */
+        public boolean isExact() { return exact; }
+        public long getElapsedMicros() { return elapsedMicros; }
+        /** 因超过 {@value EnchantmentSetPlanner#MAX_CANDIDATES} 个而未参与搜索的冲突候选数 */
+        public int getDroppedCandidates() { return droppedCandidates; }
+    }
+}
@@ -1,5 +1,6 @@
 package com.enadd.core.dataexport;
 
+import com.enadd.core.conflict.EnchantmentConflictManager;
 import com.enadd.core.registry.EnchantmentRegistry;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -35,11 +36,12 @@ public class EnchantmentDataExporter {
             // 生成主要的enchantments.json文件
             generateMainEnchantmentsJson(categorizedEnchantments);
 
-            // 生成冲突规则JSON
-            generateConflictRulesJson();
+            // 冲突规则的唯一来源是 src/main/rules/enchantment_rules.json，不再导出副本
+            // 生成冲突分组JSON
+            generateConflictGroupsJson();
 
             System.out.println("附魔数据导出完成！");
-            System.out.println("生成了 enchantments.json 和 conflict_rules.json 文件");
+            System.out.println("生成了 enchantments.json 和 conflict_groups.json 文件");
 
         } catch (IOException | RuntimeException e) {
             System.err.println("导出附魔数据时出错: " + e.getMessage());
@@ -88,26 +90,34 @@ public class EnchantmentDataExporter {
     }
 
     /**
-     * 生成冲突规则JSON
+     * 生成冲突分组JSON
+     * 与游戏内冲突分组使用同一份预计算的分量/极大团结构
      */
-    private void generateConflictRulesJson() throws IOException {
-        JsonObject root = new JsonObject();
-
-        // 获取所有附魔
-        Map<String, EnchantmentRegistry.EnchantmentInfo> allEnchantments = EnchantmentRegistry.getAllEnchantments();
+    private void generateConflictGroupsJson() throws IOException {
+        JsonArray root = new JsonArray();
+
+        for (EnchantmentConflictManager.ConflictComponent component
+                : EnchantmentConflictManager.getInstance().getConflictComponents()) {
+            JsonObject group = new JsonObject();
+            JsonArray members = new JsonArray();
+            for (String member : component.getMembers()) {
+                members.add(member);
+            }
+            group.add("members", members);
 
-        for (String enchantId : allEnchantments.keySet()) {
-            List<String> conflicts = EnchantmentRegistry.getEnchantmentConflicts(enchantId);
-            if (!conflicts.isEmpty()) {
-                JsonArray conflictArray = new JsonArray();
-                for (String conflict : conflicts) {
-                    conflictArray.add(conflict);
+            JsonArray cliques = new JsonArray();
+            for (List<String> clique : component.getCliques()) {
+                JsonArray cliqueArray = new JsonArray();
+                for (String id : clique) {
+                    cliqueArray.add(id);
                 }
-                root.add(enchantId, conflictArray);
+                cliques.add(cliqueArray);
             }
+            group.add("exclusive_groups", cliques);
+            root.add(group);
         }
 
-        try (FileWriter writer = new FileWriter(Paths.get("docs", "conflict_rules.json").toFile())) {
+        try (FileWriter writer = new FileWriter(Paths.get("docs", "conflict_groups.json").toFile())) {
             gson.toJson(root, writer);
         }
     }
@@ -161,10 +161,12 @@ public class CriticalStrikeEffect extends BaseEffect {
      * @param target 目标实体
      */
     private void spawnCriticalParticles(LivingEntity target) {
+        if (!particlesAllowed()) return;
+
         target.getWorld().spawnParticle(
             Particle.CRIT,
             target.getLocation().add(0, target.getHeight() / 2, 0),
-            CRITICAL_PARTICLE_COUNT,
+            scaledParticles(CRITICAL_PARTICLE_COUNT),
             PARTICLE_SPREAD, PARTICLE_SPREAD, PARTICLE_SPREAD,
             0.1
         );
@@ -173,7 +175,7 @@ public class CriticalStrikeEffect extends BaseEffect {
         target.getWorld().spawnParticle(
             Particle.FIREWORK,
             target.getLocation().add(0, target.getHeight() / 2, 0),
-            10,
+            scaledParticles(10),
             PARTICLE_SPREAD, PARTICLE_SPREAD, PARTICLE_SPREAD,
             0.05
         );
@@ -185,6 +187,8 @@ public class CriticalStrikeEffect extends BaseEffect {
      * @param target 目标实体
      */
     private void playCriticalSound(LivingEntity target) {
+        if (!soundsAllowed()) return;
+
         target.getWorld().playSound(
             target.getLocation(),
             Sound.ENTITY_PLAYER_ATTACK_CRIT,
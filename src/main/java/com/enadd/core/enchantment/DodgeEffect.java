@@ -140,10 +140,12 @@ public class DodgeEffect extends BaseEffect {
      * @param player 玩家
      */
     private void spawnDodgeParticles(Player player) {
+        if (!particlesAllowed()) return;
+
         player.getWorld().spawnParticle(
             Particle.LARGE_SMOKE,
             player.getLocation().add(0, player.getHeight() / 2, 0),
-            PARTICLE_COUNT,
+            scaledParticles(PARTICLE_COUNT),
             PARTICLE_SPREAD, PARTICLE_SPREAD, PARTICLE_SPREAD,
             0.1
         );
@@ -155,6 +157,8 @@ public class DodgeEffect extends BaseEffect {
      * @param player 玩家
      */
     private void playDodgeSound(Player player) {
+        if (!soundsAllowed()) return;
+
         player.getWorld().playSound(
             player.getLocation(),
             Sound.ENTITY_BAT_TAKEOFF,
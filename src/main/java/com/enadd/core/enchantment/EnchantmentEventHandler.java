@@ -2,6 +2,7 @@ package com.enadd.core.enchantment;
 
 import com.enadd.core.enchantment.EnchantmentEffectManager.EffectContext;
 import com.enadd.core.enchantment.EnchantmentEffectManager.EffectTrigger;
+import com.enadd.core.optimize.EventOptimizer;
 import org.bukkit.Material;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.Entity;
@@ -235,7 +236,10 @@ public final class EnchantmentEventHandler implements Listener {
             int level = entry.getValue();
 
             EffectContext context = new EffectContext(player, target, item, level, event, trigger);
-            effectManager.applyEffect(enchantId, context);
+            if (effectManager.applyEffect(enchantId, context)) {
+                // 只写入事件环，统计与成就消费者在工作线程上批量读取
+                EventOptimizer.publishEvent(trigger.name(), player.getUniqueId(), enchantId, level);
+            }
         }
     }
 
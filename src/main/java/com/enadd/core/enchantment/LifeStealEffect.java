@@ -150,10 +150,12 @@ public class LifeStealEffect extends BaseEffect {
      * @param player 玩家
      */
     private void spawnHealParticles(Player player) {
+        if (!particlesAllowed()) return;
+
         player.getWorld().spawnParticle(
             Particle.HEART,
             player.getLocation().add(0, player.getHeight() / 2, 0),
-            HEAL_PARTICLE_COUNT,
+            scaledParticles(HEAL_PARTICLE_COUNT),
             PARTICLE_SPREAD, PARTICLE_SPREAD, PARTICLE_SPREAD,
             0.1
         );
@@ -165,6 +167,8 @@ public class LifeStealEffect extends BaseEffect {
      * @param player 玩家
      */
     private void playHealSound(Player player) {
+        if (!soundsAllowed()) return;
+
         player.getWorld().playSound(
             player.getLocation(),
             Sound.ENTITY_PLAYER_LEVELUP,
@@ -485,7 +485,8 @@ public final class UniversalEffect extends BaseEffect {
 
     private void applyGlowing(EffectContext context) {
         LivingEntity target = getTargetLiving(context);
-        if (target == null) return;
+        // 发光轮廓随效果质量档位关闭
+        if (target == null || !glowingAllowed()) return;
 
         int duration = getConfigInt("duration", 100) + (context.getLevel() * 20);
         target.addPotionEffect(new PotionEffect(PotionEffectType.GLOWING, duration, 0));
@@ -586,15 +587,19 @@ public final class UniversalEffect extends BaseEffect {
     }
 
     private void showParticle(Location location, Particle particle, Color color) {
+        int count = scaledParticles(10);
+        if (count <= 0) return;
+
         if (color != null) {
-            location.getWorld().spawnParticle(particle, location, 10, 0.3, 0.3, 0.3,
+            location.getWorld().spawnParticle(particle, location, count, 0.3, 0.3, 0.3,
                 new Particle.DustOptions(color, 1.0f));
         } else {
-            location.getWorld().spawnParticle(particle, location, 10, 0.3, 0.3, 0.3);
+            location.getWorld().spawnParticle(particle, location, count, 0.3, 0.3, 0.3);
         }
     }
 
     private void playSound(Location location, Sound sound) {
+        if (!soundsAllowed()) return;
         location.getWorld().playSound(location, sound, 1.0f, 1.0f);
     }
 
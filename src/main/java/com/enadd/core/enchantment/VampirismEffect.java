@@ -140,10 +140,12 @@ public class VampirismEffect extends BaseEffect {
      * @param player 玩家
      */
     private void spawnVampirismParticles(Player player) {
+        if (!particlesAllowed()) return;
+
         player.getWorld().spawnParticle(
             Particle.DUST,
             player.getLocation().add(0, player.getHeight() / 2, 0),
-            PARTICLE_COUNT,
+            scaledParticles(PARTICLE_COUNT),
             PARTICLE_SPREAD, PARTICLE_SPREAD, PARTICLE_SPREAD,
             0.1,
             new Particle.DustOptions(Color.RED, 1.0f)
@@ -156,6 +158,8 @@ public class VampirismEffect extends BaseEffect {
      * @param player 玩家
      */
     private void playVampirismSound(Player player) {
+        if (!soundsAllowed()) return;
+
         player.getWorld().playSound(
             player.getLocation(),
             Sound.ENTITY_BAT_AMBIENT,
@@ -2,6 +2,7 @@ package com.enadd.core.enchantment.effects;
 
 import com.enadd.core.enchantment.EnchantmentEffectManager.EffectContext;
 import com.enadd.core.enchantment.IEnchantmentEffect;
+import com.enadd.core.lod.EffectLodController;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.plugin.java.JavaPlugin;
 import java.util.Map;
@@ -118,4 +119,32 @@ public abstract class BaseEffect implements IEnchantmentEffect {
     protected double calculateChance(int level, double basePerLevel) {
         return Math.min(1.0, level * basePerLevel);
     }
+
+    /**
+     * 按当前效果质量档位缩放粒子数量
+     */
+    protected int scaledParticles(int count) {
+        return EffectLodController.getInstance().scaleParticles(count);
+    }
+
+    /**
+     * 当前效果质量档位是否允许粒子
+     */
+    protected boolean particlesAllowed() {
+        return EffectLodController.getInstance().allowParticles();
+    }
+
+    /**
+     * 当前效果质量档位是否允许音效
+     */
+    protected boolean soundsAllowed() {
+        return EffectLodController.getInstance().allowSounds();
+    }
+
+    /**
+     * 当前效果质量档位是否允许发光效果
+     */
+    protected boolean glowingAllowed() {
+        return EffectLodController.getInstance().allowGlowing();
+    }
 }
@@ -147,10 +147,12 @@ public final class BleedingEffect extends BaseEffect {
      * @param target 目标实体
      */
     private void spawnBleedingParticles(LivingEntity target) {
+        if (!particlesAllowed()) return;
+
         target.getWorld().spawnParticle(
             Particle.DUST,
             target.getLocation().add(0, target.getHeight() / 2, 0),
-            PARTICLE_COUNT,
+            scaledParticles(PARTICLE_COUNT),
             PARTICLE_SPREAD, PARTICLE_SPREAD, PARTICLE_SPREAD,
             new Particle.DustOptions(BLEEDING_PARTICLE_COLOR, PARTICLE_SIZE)
         );
@@ -162,6 +164,8 @@ public final class BleedingEffect extends BaseEffect {
      * @param target 目标实体
      */
     private void playBleedingSound(LivingEntity target) {
+        if (!soundsAllowed()) return;
+
         target.getWorld().playSound(
             target.getLocation(),
             Sound.ENTITY_PLAYER_HURT,
@@ -1,15 +1,23 @@
 package com.enadd.core.entity;
 
 import com.enadd.core.entity.pool.PooledEntity;
+import org.bukkit.Location;
 
 
 public abstract class EnchantmentEntity extends PooledEntity {
-    protected final String enchantmentId;
-    protected final int enchantmentLevel;
-    protected final String sourcePlayerId;
+    // 对象池复用的实体每次借出时由工厂重新绑定触发来源
+    protected volatile String enchantmentId;
+    protected volatile int enchantmentLevel;
+    protected volatile String sourcePlayerId;
     protected final EntityType entityType;
     protected volatile float progress = 0f;
 
+    // 效果锚点（世界名 + 坐标），供按距离分配更新频率；未设置时始终每轮更新
+    private volatile String anchorWorld;
+    private volatile double anchorX;
+    private volatile double anchorY;
+    private volatile double anchorZ;
+
     protected EnchantmentEntity(String enchantmentId, int level, String playerId, EntityType type) {
         this.enchantmentId = enchantmentId;
         this.enchantmentLevel = level;
@@ -68,6 +76,17 @@ public abstract class EnchantmentEntity extends PooledEntity {
 
     protected void onEnchantmentResume() {}
 
+    /**
+     * 绑定触发该实体的附魔、等级和玩家；enchantmentId 为 null 时保留实体类型的默认值
+     */
+    public final void bindSource(String enchantmentId, int level, String playerId) {
+        if (enchantmentId != null) {
+            this.enchantmentId = enchantmentId;
+        }
+        this.enchantmentLevel = level;
+        this.sourcePlayerId = playerId;
+    }
+
     public final String getEnchantmentId() {
         return enchantmentId;
     }
@@ -92,6 +111,52 @@ public abstract class EnchantmentEntity extends PooledEntity {
         return progress;
     }
 
+    public final void setAnchor(Location location) {
+        if (location == null || location.getWorld() == null) {
+            clearAnchor();
+            return;
+        }
+        setAnchor(location.getWorld().getName(), location.getX(), location.getY(), location.getZ());
+    }
+
+    public final void setAnchor(String worldName, double x, double y, double z) {
+        this.anchorX = x;
+        this.anchorY = y;
+        this.anchorZ = z;
+        // 最后写世界名，读取方以世界名非空作为坐标可用的标志
+        this.anchorWorld = worldName;
+    }
+
+    public final void clearAnchor() {
+        this.anchorWorld = null;
+    }
+
+    public final boolean hasAnchor() {
+        return anchorWorld != null;
+    }
+
+    public final String getAnchorWorld() {
+        return anchorWorld;
+    }
+
+    public final double getAnchorX() {
+        return anchorX;
+    }
+
+    public final double getAnchorY() {
+        return anchorY;
+    }
+
+    public final double getAnchorZ() {
+        return anchorZ;
+    }
+
+    @Override
+    protected void onReturn() {
+        super.onReturn();
+        clearAnchor();
+    }
+
     @Override
     public void setPersistent(boolean persistent) {
         super.setPersistent(persistent);
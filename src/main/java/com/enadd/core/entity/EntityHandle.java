@@ -0,0 +1,36 @@
+package com.enadd.core.entity;
+
+
+/**
+ * 代际实体句柄工具
+ *
+ * 句柄是一个 long：高 32 位为代数（generation），低 32 位为槽位下标（index）。
+ * 槽位被释放后代数加一，旧句柄的代数不再匹配，因此可以 O(1) 判定句柄是否过期，
+ * 不需要字符串哈希查找。代数从 1 开始，所以 {@link #NONE}（0）永远不是有效句柄。
+ */
+public final class EntityHandle {
+
+    public static final long NONE = 0L;
+
+    private EntityHandle() {}
+
+    public static long of(int index, int generation) {
+        return ((long) generation << 32) | (index & 0xFFFFFFFFL);
+    }
+
+    public static int index(long handle) {
+        return (int) handle;
+    }
+
+    public static int generation(long handle) {
+        return (int) (handle >>> 32);
+    }
+
+    public static boolean isNone(long handle) {
+        return handle == NONE;
+    }
+
+    public static String toString(long handle) {
+        return handle == NONE ? "none" : index(handle) + "v" + generation(handle);
+    }
+}
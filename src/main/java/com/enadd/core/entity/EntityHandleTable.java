@@ -0,0 +1,135 @@
+package com.enadd.core.entity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * 代际句柄表：槽位数组 + 代数数组 + 空闲槽位栈
+ *
+ * - 分配优先复用空闲槽位，释放时代数加一，旧句柄随即失效
+ * - 查找为一次下标访问加一次代数比较，过期句柄返回 null
+ * - 所有方法在表自身上同步，临界区只有数组读写
+ */
+public final class EntityHandleTable {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private ManagedEntity[] slots;
+    private int[] generations;
+    private int[] freeSlots;
+    private int freeCount = 0;
+    private int highWater = 0;
+    private int size = 0;
+
+    public EntityHandleTable() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public EntityHandleTable(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        slots = new ManagedEntity[capacity];
+        generations = new int[capacity];
+        freeSlots = new int[capacity];
+        Arrays.fill(generations, 1);
+    }
+
+    public synchronized long allocate(ManagedEntity entity) {
+        int index;
+        if (freeCount > 0) {
+            index = freeSlots[--freeCount];
+        } else {
+            if (highWater == slots.length) {
+                grow();
+            }
+            index = highWater++;
+        }
+
+        slots[index] = entity;
+        size++;
+        return EntityHandle.of(index, generations[index]);
+    }
+
+    /**
+     * 释放句柄对应的槽位
+     *
+     * @return 被释放的实体；句柄已过期时返回 null
+     */
+    public synchronized ManagedEntity release(long handle) {
+        int index = EntityHandle.index(handle);
+        if (!matches(index, handle)) {
+            return null;
+        }
+
+        ManagedEntity entity = slots[index];
+        slots[index] = null;
+        // 代数回绕时跳过 0，保证 NONE 永远无效
+        int next = generations[index] + 1;
+        generations[index] = next == 0 ? 1 : next;
+        freeSlots[freeCount++] = index;
+        size--;
+        return entity;
+    }
+
+    public synchronized ManagedEntity get(long handle) {
+        int index = EntityHandle.index(handle);
+        return matches(index, handle) ? slots[index] : null;
+    }
+
+    public synchronized boolean isValid(long handle) {
+        return matches(EntityHandle.index(handle), handle);
+    }
+
+    private boolean matches(int index, long handle) {
+        return index >= 0 && index < highWater
+                && slots[index] != null
+                && generations[index] == EntityHandle.generation(handle);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * 存活实体快照，遍历期间可以安全地增删
+     */
+    public synchronized List<ManagedEntity> liveEntities() {
+        List<ManagedEntity> result = new ArrayList<>(size);
+        for (int i = 0; i < highWater; i++) {
+            if (slots[i] != null) {
+                result.add(slots[i]);
+            }
+        }
+        return result;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < highWater; i++) {
+            if (slots[i] != null) {
+                slots[i] = null;
+                int next = generations[i] + 1;
+                generations[i] = next == 0 ? 1 : next;
+            }
+        }
+        // 保留代数，重置空闲栈，旧句柄在 clear 之后仍然判定为过期
+        freeCount = 0;
+        for (int i = highWater - 1; i >= 0; i--) {
+            freeSlots[freeCount++] = i;
+        }
+        size = 0;
+    }
+
+    private void grow() {
+        int oldCapacity = slots.length;
+        int capacity = oldCapacity << 1;
+        slots = Arrays.copyOf(slots, capacity);
+        generations = Arrays.copyOf(generations, capacity);
+        Arrays.fill(generations, oldCapacity, capacity, 1);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+    }
+}
@@ -1,6 +1,7 @@
 package com.enadd.core.entity;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
@@ -13,9 +14,13 @@ public final class EntityLifecycleManager {
         private static final EntityLifecycleManager INSTANCE = new EntityLifecycleManager();
     }
 
-    // 预分配容量以减少扩容开销
-    private final ConcurrentHashMap<String, ManagedEntity> entities = new ConcurrentHashMap<>(256);
+    // 代际句柄表，预分配容量以减少扩容开销
+    private final EntityHandleTable handles = new EntityHandleTable(256);
+    private final EntityStore store = new EntityStore();
     private final CopyOnWriteArrayList<EntityStateListener> listeners = new CopyOnWriteArrayList<>();
+    // 实体在 update 中请求的释放（归还对象池），由主线程在更新轮次结束后统一处理
+    private final ConcurrentLinkedQueue<ManagedEntity> releaseQueue = new ConcurrentLinkedQueue<>();
+    private volatile Consumer<ManagedEntity> releaseHandler = ManagedEntity::destroy;
     private final AtomicInteger activeCount = new AtomicInteger(0);
     private final AtomicInteger totalCreated = new AtomicInteger(0);
     private final AtomicInteger totalDestroyed = new AtomicInteger(0);
@@ -24,36 +29,46 @@ public final class EntityLifecycleManager {
     private volatile boolean isPaused = false;
     private volatile long lastUpdateTime = System.currentTimeMillis();
 
-    private EntityLifecycleManager() {}
+    private EntityLifecycleManager() {
+        store.setParallelThreshold(batchOperationThreshold.get());
+    }
 
     public static EntityLifecycleManager getInstance() {
         return Holder.INSTANCE;
     }
 
-    public String registerEntity(ManagedEntity entity) {
-        String id = generateEntityId(entity.getClass().getSimpleName());
-        entity.setEntityId(id);
+    /**
+     * 注册实体并分配代际句柄
+     *
+     * @return 实体句柄，注销后该句柄在所有句柄索引的表中都会被判定为过期
+     */
+    public long registerEntity(ManagedEntity entity) {
+        long handle = handles.allocate(entity);
+        entity.setHandle(handle);
         entity.setLifecycleManager(this);
-        entities.put(id, entity);
-        totalCreated.incrementAndGet();
+        store.add(entity);
+        if (!entity.registered) {
+            entity.registered = true;
+            totalCreated.incrementAndGet();
+        }
         activeCount.incrementAndGet();
 
         notifyListeners(e -> e.onEntityCreated(entity));
         entity.transitionTo(EntityState.INIT);
 
-        return id;
+        return handle;
     }
 
-    public boolean destroyEntity(String entityId) {
-        ManagedEntity entity = entities.get(entityId);
+    public boolean destroyEntity(long handle) {
+        ManagedEntity entity = handles.get(handle);
         if (entity != null && entity.getState() != EntityState.DESTROYED) {
             entity.transitionTo(EntityState.DESTROYING);
             entity.onDestroy();
 
-            entities.remove(entityId);
-            if (entity.getState() == EntityState.ACTIVE || entity.getState() == EntityState.RUNNING) {
-                activeCount.decrementAndGet();
-            }
+            handles.release(handle);
+            store.remove(entity);
+            // 注册时无条件计入存活数，这里同样无条件扣除（此时状态已是 DESTROYING）
+            activeCount.decrementAndGet();
             totalDestroyed.incrementAndGet();
 
             entity.transitionTo(EntityState.DESTROYED);
@@ -65,9 +80,26 @@ public final class EntityLifecycleManager {
         return false;
     }
 
+    /**
+     * 从管理器中摘除实体但不销毁（用于归还对象池），旧句柄随即失效
+     *
+     * 存活数随之扣除；实体对象仍在池中，不计入销毁总数，监听器收到摘除通知。
+     */
+    public boolean detachEntity(ManagedEntity entity) {
+        if (entity == null || handles.release(entity.getHandle()) == null) {
+            return false;
+        }
+
+        store.remove(entity);
+        activeCount.decrementAndGet();
+        notifyListeners(e -> e.onEntityDetached(entity));
+        entity.setHandle(EntityHandle.NONE);
+        return true;
+    }
+
     public void pauseAllEntities() {
         isPaused = true;
-        entities.values().forEach(entity -> {
+        handles.liveEntities().forEach(entity -> {
             if (entity.getState().isAlive()) {
                 entity.transitionTo(EntityState.PAUSED);
                 entity.onPause();
@@ -77,7 +109,7 @@ public final class EntityLifecycleManager {
 
     public void resumeAllEntities() {
         isPaused = false;
-        entities.values().forEach(entity -> {
+        handles.liveEntities().forEach(entity -> {
             if (entity.getState() == EntityState.PAUSED) {
                 entity.onResume();
                 entity.transitionTo(EntityState.ACTIVE);
@@ -85,6 +117,12 @@ public final class EntityLifecycleManager {
         });
     }
 
+    /**
+     * 执行一轮实体更新，必须在主线程调用
+     *
+     * 线程安全类型可能在工作线程上并行更新，它们发起的释放请求在本轮结束后
+     * 由调用线程清扫，对象池和生命周期状态只在主线程上修改。
+     */
     public void updateAllEntities() {
         if (isPaused) return;
 
@@ -94,47 +132,96 @@ public final class EntityLifecycleManager {
 
         final float deltaTime = Math.min(rawDeltaTime, 1f);
 
-        int entityCount = entities.size();
-        if (entityCount > batchOperationThreshold.get()) {
-            batchUpdateEntities(deltaTime);
-        } else {
-            entities.values().forEach(entity -> {
-                EntityState state = entity.getState();
-                if (state == EntityState.ACTIVE || state == EntityState.RUNNING) {
-                    entity.update(deltaTime);
-                }
-            });
+        // 列式存储按类型线性更新；只有标记为线程安全的类型在超过阈值时并行
+        store.update(deltaTime);
+        sweepReleased();
+    }
+
+    /**
+     * 登记实体的释放请求，可在任意线程调用
+     *
+     * @return 实体仍由本管理器持有、请求已登记（或已在队列中）时返回 true
+     */
+    public boolean requestRelease(ManagedEntity entity) {
+        if (entity == null || handles.get(entity.getHandle()) != entity) {
+            return false;
+        }
+        if (!entity.releaseRequested) {
+            entity.releaseRequested = true;
+            releaseQueue.offer(entity);
         }
+        return true;
     }
 
-    private void batchUpdateEntities(float deltaTime) {
-        entities.values().parallelStream().forEach(entity -> {
-            EntityState state = entity.getState();
-            if (state == EntityState.ACTIVE || state == EntityState.RUNNING) {
-                entity.update(deltaTime);
+    /**
+     * 处理排队的释放请求，必须在主线程调用
+     *
+     * @return 本次释放的实体数
+     */
+    public int sweepReleased() {
+        int released = 0;
+        ManagedEntity entity;
+        while ((entity = releaseQueue.poll()) != null) {
+            entity.releaseRequested = false;
+            // 请求之后已被销毁或摘除的实体跳过
+            if (handles.get(entity.getHandle()) != entity) {
+                continue;
             }
-        });
+            releaseHandler.accept(entity);
+            released++;
+        }
+        return released;
+    }
+
+    /**
+     * 设置释放请求的处理方式，默认直接销毁；实体工厂会换成归还对象池
+     */
+    public void setReleaseHandler(Consumer<ManagedEntity> handler) {
+        this.releaseHandler = handler != null ? handler : ManagedEntity::destroy;
+    }
+
+    public int getPendingReleaseCount() {
+        return releaseQueue.size();
+    }
+
+    /**
+     * 实体状态变化回调，同步列式存储中的状态列
+     */
+    void onEntityStateChanged(ManagedEntity entity) {
+        if (handles.get(entity.getHandle()) == entity) {
+            store.markStateChanged(entity);
+        }
     }
 
     public void updateEntitiesByFilter(Predicate<ManagedEntity> filter, float deltaTime) {
-        entities.values().stream()
+        handles.liveEntities().stream()
                 .filter(filter)
                 .filter(e -> e.getState() == EntityState.ACTIVE || e.getState() == EntityState.RUNNING)
                 .forEach(e -> e.update(deltaTime));
     }
 
     public int destroyEntitiesByFilter(Predicate<ManagedEntity> filter) {
-        return entities.values().stream()
+        return handles.liveEntities().stream()
                 .filter(filter)
                 .filter(e -> e.getState() != EntityState.DESTROYED)
-                .mapToInt(e -> destroyEntity(e.getEntityId()) ? 1 : 0)
+                .mapToInt(e -> destroyEntity(e.getHandle()) ? 1 : 0)
                 .sum();
     }
 
     public void forceCleanupAll() {
-        entities.values().stream()
+        handles.liveEntities().stream()
                 .filter(e -> e.getState() != EntityState.DESTROYED)
-                .forEach(e -> destroyEntity(e.getEntityId()));
+                .forEach(e -> destroyEntity(e.getHandle()));
+    }
+
+    public void shutdown() {
+        releaseQueue.clear();
+        forceCleanupAll();
+        store.shutdown();
+    }
+
+    public EntityStore getStore() {
+        return store;
     }
 
     public void addListener(EntityStateListener listener) {
@@ -149,12 +236,22 @@ public final class EntityLifecycleManager {
         listeners.forEach(action);
     }
 
-    private String generateEntityId(String prefix) {
-        return String.format("%s_%d_%d", prefix, System.currentTimeMillis(), totalCreated.get());
+    /**
+     * 按句柄查找实体，句柄过期时返回 null
+     */
+    public ManagedEntity getEntity(long handle) {
+        return handles.get(handle);
+    }
+
+    /**
+     * 当前存活实体的快照
+     */
+    public List<ManagedEntity> getEntitiesSnapshot() {
+        return handles.liveEntities();
     }
 
-    public ManagedEntity getEntity(String entityId) {
-        return entities.get(entityId);
+    public boolean isValidHandle(long handle) {
+        return handles.isValid(handle);
     }
 
     public int getActiveEntityCount() {
@@ -162,7 +259,7 @@ public final class EntityLifecycleManager {
     }
 
     public int getTotalEntityCount() {
-        return entities.size();
+        return handles.size();
     }
 
     public int getTotalCreated() {
@@ -182,7 +279,7 @@ public final class EntityLifecycleManager {
                 totalCreated.get(),
                 totalDestroyed.get(),
                 activeCount.get(),
-                entities.size(),
+                handles.size(),
                 isPaused
         );
     }
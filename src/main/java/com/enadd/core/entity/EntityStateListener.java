@@ -5,4 +5,11 @@ public interface EntityStateListener {
     void onEntityDestroyed(ManagedEntity entity);
     void onStateChanged(ManagedEntity entity, EntityState oldState, EntityState newState);
     void onError(ManagedEntity entity, Exception error);
+
+    /**
+     * 实体被摘除并归还对象池，回调时仍持有旧句柄；默认按销毁处理
+     */
+    default void onEntityDetached(ManagedEntity entity) {
+        onEntityDestroyed(entity);
+    }
 }
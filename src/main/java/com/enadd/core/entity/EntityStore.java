@@ -0,0 +1,417 @@
+package com.enadd.core.entity;
+
+import com.enadd.core.async.ExecutionLayer;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * 按 {@link EntityType} 分组的列式（SoA）实体存储
+ *
+ * 每种类型一组紧凑数组：状态、进度、等级、拥有者为原始类型列，实体对象单独一列，
+ * 更新时按下标线性扫描，跳过非活跃实体不需要解引用对象。
+ *
+ * 线程约定：
+ * - 增删实体和状态同步以命令形式进入无锁队列，只在更新轮次的开始和结束时由
+ *   执行 {@link #update(float)} 的线程统一应用，因此列数组和实体槽位只被该线程修改
+ * - 更新轮次之间互斥（同一时刻只有一个线程在执行 update）
+ * - 只有 {@link EntityType#isThreadSafe()} 为 true 的类型、且数量达到阈值时才会
+ *   在统一执行层的共享 CPU 池上按下标区间切分并行更新；各区间只写自己范围内的进度列，
+ *   实体在更新中发起的状态变化只会入队，不会触碰数组结构
+ * - 其余类型始终在调用线程上顺序更新
+ *
+ * 更新频率：每个实体有一个周期移位列（0..3，即每 1/2/4/8 轮更新一次），由
+ * {@link com.enadd.core.update.UpdateFrequencyController} 按距离与可见性重新分桶后通过
+ * {@link #setUpdatePeriodShift(ManagedEntity, int)} 下发。被跳过的轮次的 deltaTime 会累积，
+ * 轮到更新时一次性传入，保证进度推进速度不变。同一周期的实体按句柄下标错开，避免集中在同一轮。
+ */
+public final class EntityStore {
+
+    private static final int INITIAL_CAPACITY = 32;
+    private static final int PARALLEL_SLICE_SIZE = 64;
+    public static final int MAX_PERIOD_SHIFT = 3;
+    private static final byte ACTIVE = (byte) EntityState.ACTIVE.ordinal();
+    private static final byte RUNNING = (byte) EntityState.RUNNING.ordinal();
+
+    private final TypeColumns[] columns;
+    private final ConcurrentLinkedQueue<Command> pending = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<String, Integer> ownerIds = new ConcurrentHashMap<>(64);
+    private final AtomicInteger nextOwnerId = new AtomicInteger(1);
+    private final Object updateLock = new Object();
+
+    private volatile int parallelThreshold = 256;
+    // 更新轮次计数，仅由持有 updateLock 的线程修改
+    private long round = 0;
+
+    public EntityStore() {
+        EntityType[] types = EntityType.values();
+        columns = new TypeColumns[types.length];
+        for (EntityType type : types) {
+            columns[type.ordinal()] = new TypeColumns(type);
+        }
+    }
+
+    public void add(ManagedEntity entity) {
+        if (entity != null) {
+            pending.offer(new Command(CommandType.ADD, entity));
+        }
+    }
+
+    public void remove(ManagedEntity entity) {
+        if (entity != null) {
+            pending.offer(new Command(CommandType.REMOVE, entity));
+        }
+    }
+
+    /**
+     * 实体状态变化后调用，状态列会在下一次应用命令时从实体重新读取
+     */
+    public void markStateChanged(ManagedEntity entity) {
+        if (entity != null) {
+            pending.offer(new Command(CommandType.SYNC, entity));
+        }
+    }
+
+    /**
+     * 设置实体的更新周期（每 2^shift 轮更新一次），在下一轮开始时生效
+     */
+    public void setUpdatePeriodShift(ManagedEntity entity, int shift) {
+        if (entity != null) {
+            int clamped = Math.max(0, Math.min(MAX_PERIOD_SHIFT, shift));
+            pending.offer(new Command(CommandType.PERIOD, entity, clamped));
+        }
+    }
+
+    /**
+     * 执行一轮更新
+     *
+     * @return 本轮实际调用 update 的实体数
+     */
+    public int update(float deltaTime) {
+        synchronized (updateLock) {
+            applyPending();
+
+            long currentRound = round++;
+            int updated = 0;
+            for (TypeColumns cols : columns) {
+                if (cols.size == 0) {
+                    continue;
+                }
+
+                ForkJoinPool pool = cols.type.isThreadSafe() && cols.size >= parallelThreshold
+                    ? ExecutionLayer.getInstance().cpuPool() : null;
+                if (pool != null && hasIdleWorker(pool)) {
+                    UpdateSlice slice = new UpdateSlice(cols, 0, cols.size, deltaTime, currentRound);
+                    pool.invoke(slice);
+                    updated += slice.updated;
+                } else {
+                    updated += cols.updateRange(0, cols.size, deltaTime, currentRound);
+                }
+            }
+
+            // 应用本轮更新过程中实体自身发起的增删和状态变化
+            applyPending();
+            return updated;
+        }
+    }
+
+    /**
+     * 共享 CPU 池的线程全部忙碌或已有排队的提交时，调用线程（主线程）invoke 会等在
+     * 其他子系统的任务后面，此时不如直接在调用线程上顺序更新
+     */
+    static boolean hasIdleWorker(ForkJoinPool pool) {
+        return pool.getActiveThreadCount() < pool.getParallelism() && !pool.hasQueuedSubmissions();
+    }
+
+    private void applyPending() {
+        Command command;
+        while ((command = pending.poll()) != null) {
+            ManagedEntity entity = command.entity;
+            TypeColumns cols = columns[entity.getEntityType().ordinal()];
+
+            switch (command.type) {
+                case ADD -> {
+                    if (entity.storeSlot < 0) {
+                        cols.add(entity, resolveOwner(entity));
+                    }
+                }
+                case REMOVE -> {
+                    if (entity.storeSlot >= 0) {
+                        cols.removeAt(entity.storeSlot);
+                    }
+                }
+                case SYNC -> {
+                    if (entity.storeSlot >= 0) {
+                        cols.states[entity.storeSlot] = (byte) entity.getState().ordinal();
+                    }
+                }
+                case PERIOD -> {
+                    if (entity.storeSlot >= 0) {
+                        cols.periodShifts[entity.storeSlot] = (byte) command.value;
+                    }
+                }
+            }
+        }
+    }
+
+    private int resolveOwner(ManagedEntity entity) {
+        if (!(entity instanceof EnchantmentEntity enchantmentEntity)) {
+            return 0;
+        }
+
+        String owner = enchantmentEntity.getSourcePlayerId();
+        if (owner == null || owner.isEmpty()) {
+            return 0;
+        }
+        return ownerIds.computeIfAbsent(owner, k -> nextOwnerId.getAndIncrement());
+    }
+
+    public void setParallelThreshold(int threshold) {
+        this.parallelThreshold = Math.max(PARALLEL_SLICE_SIZE, threshold);
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * 统计各更新周期的实体数，下标为周期移位（0 = 每轮，3 = 每 8 轮）
+     */
+    public int[] getPeriodHistogram() {
+        int[] histogram = new int[MAX_PERIOD_SHIFT + 1];
+        synchronized (updateLock) {
+            for (TypeColumns cols : columns) {
+                for (int i = 0; i < cols.size; i++) {
+                    histogram[cols.periodShifts[i]]++;
+                }
+            }
+        }
+        return histogram;
+    }
+
+    public int getCount(EntityType type) {
+        return type != null ? columns[type.ordinal()].size : 0;
+    }
+
+    public int getTotalCount() {
+        int total = 0;
+        for (TypeColumns cols : columns) {
+            total += cols.size;
+        }
+        return total;
+    }
+
+    /**
+     * 统计某个玩家拥有的实体数（整型列线性扫描）
+     */
+    public int countOwnedBy(String playerId) {
+        Integer ownerId = playerId != null ? ownerIds.get(playerId) : null;
+        if (ownerId == null) {
+            return 0;
+        }
+
+        int count = 0;
+        synchronized (updateLock) {
+            for (TypeColumns cols : columns) {
+                int[] owners = cols.owners;
+                for (int i = 0; i < cols.size; i++) {
+                    if (owners[i] == ownerId) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    public void clear() {
+        synchronized (updateLock) {
+            pending.clear();
+            for (TypeColumns cols : columns) {
+                cols.clear();
+            }
+            ownerIds.clear();
+        }
+    }
+
+    public void shutdown() {
+        // 并行更新使用共享 CPU 池，由执行层统一关闭
+        clear();
+    }
+
+    private enum CommandType {
+        ADD, REMOVE, SYNC, PERIOD
+    }
+
+    private static final class Command {
+        private final CommandType type;
+        private final ManagedEntity entity;
+        private final int value;
+
+        private Command(CommandType type, ManagedEntity entity) {
+            this(type, entity, 0);
+        }
+
+        private Command(CommandType type, ManagedEntity entity, int value) {
+            this.type = type;
+            this.entity = entity;
+            this.value = value;
+        }
+    }
+
+    /**
+     * 单一实体类型的列数组
+     */
+    private static final class TypeColumns {
+        private final EntityType type;
+        private byte[] states = new byte[INITIAL_CAPACITY];
+        private float[] progress = new float[INITIAL_CAPACITY];
+        private int[] levels = new int[INITIAL_CAPACITY];
+        private int[] owners = new int[INITIAL_CAPACITY];
+        private byte[] periodShifts = new byte[INITIAL_CAPACITY];
+        private float[] deferredDelta = new float[INITIAL_CAPACITY];
+        private ManagedEntity[] entities = new ManagedEntity[INITIAL_CAPACITY];
+        private int size = 0;
+
+        private TypeColumns(EntityType type) {
+            this.type = type;
+        }
+
+        private void add(ManagedEntity entity, int ownerId) {
+            if (size == entities.length) {
+                grow();
+            }
+
+            int slot = size++;
+            entities[slot] = entity;
+            states[slot] = (byte) entity.getState().ordinal();
+            owners[slot] = ownerId;
+            periodShifts[slot] = 0;
+            deferredDelta[slot] = 0f;
+            if (entity instanceof EnchantmentEntity enchantmentEntity) {
+                levels[slot] = enchantmentEntity.getEnchantmentLevel();
+                progress[slot] = enchantmentEntity.getProgress();
+            } else {
+                levels[slot] = 0;
+                progress[slot] = 0f;
+            }
+            entity.storeSlot = slot;
+        }
+
+        /**
+         * 交换删除：把末尾元素移到空出的槽位，保持数组紧凑
+         */
+        private void removeAt(int slot) {
+            int last = --size;
+            entities[slot].storeSlot = -1;
+
+            if (slot != last) {
+                ManagedEntity moved = entities[last];
+                entities[slot] = moved;
+                states[slot] = states[last];
+                progress[slot] = progress[last];
+                levels[slot] = levels[last];
+                owners[slot] = owners[last];
+                periodShifts[slot] = periodShifts[last];
+                deferredDelta[slot] = deferredDelta[last];
+                moved.storeSlot = slot;
+            }
+            entities[last] = null;
+        }
+
+        private void grow() {
+            int capacity = entities.length << 1;
+            states = Arrays.copyOf(states, capacity);
+            progress = Arrays.copyOf(progress, capacity);
+            levels = Arrays.copyOf(levels, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+            periodShifts = Arrays.copyOf(periodShifts, capacity);
+            deferredDelta = Arrays.copyOf(deferredDelta, capacity);
+            entities = Arrays.copyOf(entities, capacity);
+        }
+
+        private int updateRange(int from, int to, float deltaTime, long round) {
+            byte[] stateColumn = states;
+            float[] progressColumn = progress;
+            byte[] shiftColumn = periodShifts;
+            float[] deferredColumn = deferredDelta;
+            ManagedEntity[] entityColumn = entities;
+
+            int updated = 0;
+            for (int i = from; i < to; i++) {
+                byte state = stateColumn[i];
+                if (state != ACTIVE && state != RUNNING) {
+                    continue;
+                }
+
+                ManagedEntity entity = entityColumn[i];
+                // 周期刚降回每轮时也要带上之前累积的 delta
+                float delta = deltaTime + deferredColumn[i];
+                int shift = shiftColumn[i];
+                if (shift > 0) {
+                    long mask = (1L << shift) - 1;
+                    // 按句柄下标错开同周期实体的更新轮次
+                    if (((round + EntityHandle.index(entity.getHandle())) & mask) != 0) {
+                        deferredColumn[i] = delta;
+                        continue;
+                    }
+                }
+                deferredColumn[i] = 0f;
+
+                entity.update(delta);
+                if (entity instanceof EnchantmentEntity enchantmentEntity) {
+                    progressColumn[i] = enchantmentEntity.getProgress();
+                }
+                updated++;
+            }
+            return updated;
+        }
+
+        private void clear() {
+            for (int i = 0; i < size; i++) {
+                entities[i].storeSlot = -1;
+                entities[i] = null;
+            }
+            size = 0;
+        }
+    }
+
+    /**
+     * 线程安全类型的并行更新切片，按下标区间二分直到不超过 {@link #PARALLEL_SLICE_SIZE}
+     */
+    private static final class UpdateSlice extends RecursiveAction {
+        private final TypeColumns cols;
+        private final int from;
+        private final int to;
+        private final float deltaTime;
+        private int updated;
+
+        private final long round;
+
+        private UpdateSlice(TypeColumns cols, int from, int to, float deltaTime, long round) {
+            this.cols = cols;
+            this.from = from;
+            this.to = to;
+            this.deltaTime = deltaTime;
+            this.round = round;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_SLICE_SIZE) {
+                updated = cols.updateRange(from, to, deltaTime, round);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            UpdateSlice left = new UpdateSlice(cols, from, mid, deltaTime, round);
+            UpdateSlice right = new UpdateSlice(cols, mid, to, deltaTime, round);
+            invokeAll(left, right);
+            updated = left.updated + right.updated;
+        }
+    }
+}
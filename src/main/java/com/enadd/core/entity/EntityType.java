@@ -1,20 +1,22 @@
 package com.enadd.core.entity;
 
 public enum EntityType {
-    PARTICLE("粒子效果", 0),
-    PROJECTILE("投射物", 1),
-    AREA_EFFECT("区域效果", 2),
-    SUMMONED("召唤物", 3),
-    TEMPORARY("临时实体", 4),
-    DAMAGE("伤害实体", 5),
-    UTILITY("utility实体", 6);
+    PARTICLE("粒子效果", 0, true),
+    PROJECTILE("投射物", 1, false),
+    AREA_EFFECT("区域效果", 2, false),
+    SUMMONED("召唤物", 3, false),
+    TEMPORARY("临时实体", 4, false),
+    DAMAGE("伤害实体", 5, false),
+    UTILITY("utility实体", 6, false);
 
     private final String displayName;
     private final int priority;
+    private final boolean threadSafe;
 
-    EntityType(String displayName, int priority) {
+    EntityType(String displayName, int priority, boolean threadSafe) {
         this.displayName = displayName;
         this.priority = priority;
+        this.threadSafe = threadSafe;
     }
 
     public String getDisplayName() {
@@ -29,6 +31,16 @@ public enum EntityType {
         return this == SUMMONED;
     }
 
+    /**
+     * 该类型实体的 update 是否只修改自身状态、可在工作线程上并行执行。
+     * 只有标记为 true 的类型会被 {@link EntityStore} 拆分到 ForkJoinPool 上更新。
+     * 这类实体结束时只能调用 {@link com.enadd.core.entity.pool.PooledEntity#returnToPool()} 登记释放，
+     * 归还对象池和状态转换由主线程在更新轮次结束后清扫（{@link EntityLifecycleManager#sweepReleased()}）。
+     */
+    public boolean isThreadSafe() {
+        return threadSafe;
+    }
+
     public boolean isTemporary() {
         return this == PARTICLE || this == TEMPORARY || this == DAMAGE;
     }
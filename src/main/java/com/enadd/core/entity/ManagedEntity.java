@@ -5,12 +5,19 @@ import java.util.concurrent.atomic.AtomicReference;
 
 public abstract class ManagedEntity {
     private final AtomicReference<EntityState> state = new AtomicReference<>(EntityState.INIT);
-    private volatile String entityId;
+    private volatile long handle = EntityHandle.NONE;
     private volatile EntityLifecycleManager lifecycleManager;
     private volatile long creationTime;
     private volatile long lastActivityTime;
     private volatile boolean isPersistent = false;
 
+    // EntityStore 中的槽位，仅由执行更新轮次的线程读写
+    int storeSlot = -1;
+    // 已排入生命周期管理器的释放队列，等待主线程清扫
+    volatile boolean releaseRequested = false;
+    // 曾经注册过；对象池复用时再次注册不计入创建总数
+    volatile boolean registered = false;
+
     protected ManagedEntity() {
         this.creationTime = System.currentTimeMillis();
         this.lastActivityTime = creationTime;
@@ -24,12 +31,17 @@ public abstract class ManagedEntity {
 
         if (!validateTransition(current, newState)) {
             throw new IllegalStateException(String.format("Invalid state transition from %s to %s for entity %s",
-                    current, newState, entityId));
+                    current, newState, getEntityId()));
         }
 
         state.set(newState);
         lastActivityTime = System.currentTimeMillis();
 
+        EntityLifecycleManager manager = lifecycleManager;
+        if (manager != null) {
+            manager.onEntityStateChanged(this);
+        }
+
         onStateChanged(current, newState);
     }
 
@@ -79,8 +91,24 @@ public abstract class ManagedEntity {
 
     public void destroy() {
         if (lifecycleManager != null) {
-            lifecycleManager.destroyEntity(entityId);
+            lifecycleManager.destroyEntity(handle);
+        }
+    }
+
+    /**
+     * 把状态直接重置为 INIT，供对象池回收实体时使用
+     *
+     * 回收不是生命周期中的正常转换（ACTIVE/RUNNING 不能转到 INIT），只能在实体
+     * 已从生命周期管理器摘除后调用；已销毁的实体不能重置。
+     */
+    protected final void resetLifecycle() {
+        EntityState current = state.get();
+        if (current == EntityState.DESTROYED) {
+            throw new IllegalStateException("Cannot recycle destroyed entity " + getEntityId());
         }
+        state.set(EntityState.INIT);
+        releaseRequested = false;
+        lastActivityTime = System.currentTimeMillis();
     }
 
     protected void onActivate() {}
@@ -91,16 +119,26 @@ public abstract class ManagedEntity {
     protected void onDestroy() {}
     protected void cleanup() {}
 
-    public final void setEntityId(String id) {
-        this.entityId = id;
+    final void setHandle(long handle) {
+        this.handle = handle;
     }
 
     public final void setLifecycleManager(EntityLifecycleManager manager) {
         this.lifecycleManager = manager;
     }
 
+    /**
+     * 代际句柄，未注册或已注销时为 {@link EntityHandle#NONE}
+     */
+    public final long getHandle() {
+        return handle;
+    }
+
+    /**
+     * 句柄的可读形式，仅用于日志
+     */
     public final String getEntityId() {
-        return entityId;
+        return getClass().getSimpleName() + "#" + EntityHandle.toString(handle);
     }
 
     public final EntityState getState() {
@@ -131,6 +169,13 @@ public abstract class ManagedEntity {
         return state.get().isValid();
     }
 
+    /**
+     * 实体类型，用于列式存储分组；非附魔实体统一视为临时实体
+     */
+    public EntityType getEntityType() {
+        return EntityType.TEMPORARY;
+    }
+
     public void setPersistent(boolean persistent) {
         isPersistent = persistent;
     }
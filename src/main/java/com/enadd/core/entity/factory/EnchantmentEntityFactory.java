@@ -4,8 +4,18 @@ import com.enadd.core.budget.EntityBudgetController;
 import com.enadd.core.entity.pool.EntityPool;
 import com.enadd.core.entity.EnchantmentEntity;
 import com.enadd.core.entity.EntityLifecycleManager;
+import com.enadd.core.entity.EntityType;
+import com.enadd.core.entity.impl.AreaMiningEntity;
+import com.enadd.core.entity.impl.ChainLightningEntity;
+import com.enadd.core.entity.impl.FlameWhisperEntity;
+import com.enadd.core.entity.impl.FrostAuraEntity;
+import com.enadd.core.entity.impl.FrostNovaEntity;
+import com.enadd.core.entity.impl.ThunderSparkEntity;
+import com.enadd.core.lod.EffectLodController;
+import com.enadd.core.pool.PoolManager;
+import org.bukkit.Location;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 
@@ -18,14 +28,24 @@ public final class EnchantmentEntityFactory {
     // 预分配容量，减少扩容开销
     private final ConcurrentHashMap<String, Supplier<? extends EnchantmentEntity>> entityFactories = new ConcurrentHashMap<>(32);
     private final ConcurrentHashMap<String, EntityPool<?>> entityPools = new ConcurrentHashMap<>(32);
+    // 注册时记录每种实体的类型，预算的申请和释放使用同一类别
+    private final ConcurrentHashMap<String, EntityType> entityTypes = new ConcurrentHashMap<>(32);
 
-    // 使用AtomicLong生成ID，避免字符串拼接
-    private final AtomicLong idGenerator = new AtomicLong(0);
+    // 闪电类实体，效果质量档位关闭闪电时不生成
+    private static final Set<String> LIGHTNING_TYPES = Set.of("chain_lightning", "thunder_spark");
 
     private volatile boolean poolingEnabled = true;
 
     private EnchantmentEntityFactory() {
         registerDefaultFactories();
+        // 实体在更新中请求的释放由主线程清扫转交给工厂，统一归还对象池并释放预算
+        EntityLifecycleManager.getInstance().setReleaseHandler(entity -> {
+            if (entity instanceof EnchantmentEntity enchantmentEntity) {
+                returnEntity(enchantmentEntity);
+            } else {
+                entity.destroy();
+            }
+        });
     }
 
     public static EnchantmentEntityFactory getInstance() {
@@ -33,25 +53,58 @@ public final class EnchantmentEntityFactory {
     }
 
     private void registerDefaultFactories() {
+        registerFactory("frost_aura", FrostAuraEntity::new);
+        registerFactory("frost_nova", FrostNovaEntity::new);
+        registerFactory("chain_lightning", ChainLightningEntity::new);
+        registerFactory("thunder_spark", ThunderSparkEntity::new);
+        registerFactory("flame_whisper", FlameWhisperEntity::new);
+        registerFactory("area_mining", AreaMiningEntity::new);
     }
 
     public <T extends EnchantmentEntity> void registerFactory(String typeId, Supplier<T> factory) {
         entityFactories.put(typeId, factory);
+        entityTypes.put(typeId, factory.get().getEntityType());
 
         if (poolingEnabled) {
-            EntityPool<T> pool = EntityPool.create(factory, 10, 100);
+            EntityPool<T> pool = EntityPool.create("entity:" + typeId, factory, 10, 100);
             entityPools.put(typeId, pool);
+            PoolManager.getInstance().registerPool("entity:" + typeId, pool::getStatistics, pool::adjust);
         }
     }
 
-    @SuppressWarnings("unchecked")
     public <T extends EnchantmentEntity> T createEntity(String typeId, String enchantmentId, int level, String playerId) {
+        return createEntity(typeId, enchantmentId, level, playerId, null, 0, 0, 0);
+    }
+
+    /**
+     * 创建实体并设置效果锚点，更新频率控制器按锚点与玩家的距离分桶
+     */
+    public <T extends EnchantmentEntity> T createEntity(String typeId, String enchantmentId, int level, String playerId,
+                                                        Location anchor) {
+        if (anchor == null || anchor.getWorld() == null) {
+            return createEntity(typeId, enchantmentId, level, playerId);
+        }
+        return createEntity(typeId, enchantmentId, level, playerId,
+            anchor.getWorld().getName(), anchor.getX(), anchor.getY(), anchor.getZ());
+    }
+
+    /**
+     * 创建实体，锚点按世界名和坐标给出；worldName 为 null 时不设锚点（始终每轮更新）
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends EnchantmentEntity> T createEntity(String typeId, String enchantmentId, int level, String playerId,
+                                                        String worldName, double x, double y, double z) {
         Supplier<? extends EnchantmentEntity> factory = entityFactories.get(typeId);
         if (factory == null) {
             return null;
         }
 
-        EntityBudgetController.BudgetCategory category = getCategory(typeId);
+        // 效果质量档位关闭闪电时不生成闪电类实体
+        if (LIGHTNING_TYPES.contains(typeId) && !EffectLodController.getInstance().allowLightning()) {
+            return null;
+        }
+
+        EntityBudgetController.BudgetCategory category = getCategory(entityTypes.getOrDefault(typeId, EntityType.TEMPORARY));
         if (!EntityBudgetController.getInstance().allocate(category, 1)) {
             return null;
         }
@@ -72,26 +125,46 @@ public final class EnchantmentEntityFactory {
         }
 
         if (entity != null) {
-            entity.setEntityId(generateEntityId());
-            entity.setLifecycleManager(EntityLifecycleManager.getInstance());
+            entity.bindSource(enchantmentId, level, playerId);
+            // 注册前设置锚点，首次分桶即可按距离降频；池中复用的实体在归还时已清除旧锚点
+            if (worldName != null) {
+                entity.setAnchor(worldName, x, y, z);
+            } else {
+                entity.clearAnchor();
+            }
+            // 由生命周期管理器分配代际句柄，替代字符串ID
+            EntityLifecycleManager.getInstance().registerEntity(entity);
             entity.activate();
         }
 
         return (T) entity;
     }
 
+    /**
+     * 实体随效果移动后更新锚点（如投射物、跟随玩家的光环）
+     */
+    public void moveEntity(EnchantmentEntity entity, Location location) {
+        if (entity != null) {
+            entity.setAnchor(location);
+        }
+    }
+
+    /**
+     * 归还实体：借自对象池的回到原池，其余直接销毁。必须在主线程调用；
+     * 实体在 update 中调用 {@link EnchantmentEntity#returnToPool()} 时由生命周期管理器的清扫转到这里
+     */
     @SuppressWarnings({"unchecked", "rawtypes"})
     public void returnEntity(EnchantmentEntity entity) {
         if (entity == null) return;
 
-        EntityBudgetController.getInstance().free(getCategory(entity.getEntityType().name()), 1);
+        EntityBudgetController.getInstance().free(getCategory(entity.getEntityType()), 1);
 
-        if (poolingEnabled) {
-            EntityPool pool = entityPools.get(entity.getEntityType().name());
-            if (pool != null) {
-                pool.returnEntity(entity);
-                return;
-            }
+        EntityPool pool = entity.getPool();
+        if (poolingEnabled && pool != null) {
+            // 归还前摘除句柄，持有旧句柄的侧表会把它判定为过期
+            EntityLifecycleManager.getInstance().detachEntity(entity);
+            pool.returnEntity(entity);
+            return;
         }
 
         entity.destroy();
@@ -102,18 +175,13 @@ public final class EnchantmentEntityFactory {
         return (EntityPool<T>) entityPools.get(typeId);
     }
 
-    private String generateEntityId() {
-        // 优化：使用AtomicLong避免时间戳拼接，提升性能
-        return "ENCHANT_" + idGenerator.incrementAndGet();
-    }
-
-    private EntityBudgetController.BudgetCategory getCategory(String typeId) {
-        return switch (typeId) {
-            case "PARTICLE" -> EntityBudgetController.BudgetCategory.PARTICLE;
-            case "PROJECTILE" -> EntityBudgetController.BudgetCategory.PROJECTILE;
-            case "AREA_EFFECT" -> EntityBudgetController.BudgetCategory.AREA_EFFECT;
-            case "SUMMONED" -> EntityBudgetController.BudgetCategory.SUMMONED;
-            case "DAMAGE" -> EntityBudgetController.BudgetCategory.DAMAGE;
+    private EntityBudgetController.BudgetCategory getCategory(EntityType type) {
+        return switch (type) {
+            case PARTICLE -> EntityBudgetController.BudgetCategory.PARTICLE;
+            case PROJECTILE -> EntityBudgetController.BudgetCategory.PROJECTILE;
+            case AREA_EFFECT -> EntityBudgetController.BudgetCategory.AREA_EFFECT;
+            case SUMMONED -> EntityBudgetController.BudgetCategory.SUMMONED;
+            case DAMAGE -> EntityBudgetController.BudgetCategory.DAMAGE;
             default -> EntityBudgetController.BudgetCategory.TEMPORARY;
         };
     }
@@ -126,9 +194,15 @@ public final class EnchantmentEntityFactory {
         return poolingEnabled;
     }
 
+    public boolean hasFactory(String typeId) {
+        return entityFactories.containsKey(typeId);
+    }
+
     public void shutdown() {
+        entityPools.keySet().forEach(typeId -> PoolManager.getInstance().unregisterPool("entity:" + typeId));
         entityPools.values().forEach(pool -> pool.shutdown());
         entityPools.clear();
         entityFactories.clear();
+        entityTypes.clear();
     }
 }
@@ -28,7 +28,7 @@ public final class FlameWhisperEntity extends EnchantmentEntity {
             setProgress(progress);
 
             if (progress >= 1.0f) {
-                transitionTo(EntityState.DESTROYING);
+                returnToPool();
             }
         }
     }
@@ -1,13 +1,27 @@
 package com.enadd.core.entity.pool;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
+import com.enadd.core.entity.EntityLifecycleManager;
+import com.enadd.core.entity.ManagedEntity;
+import com.enadd.core.pool.MagazineDepot;
+import com.enadd.core.pool.PoolStatistics;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 
+/**
+ * 实体对象池
+ *
+ * 空闲实体存放在 {@link MagazineDepot} 中：效果线程、异步任务和维护线程各自从本线程的弹匣借还，
+ * 只有弹匣耗尽或装满时才与共享仓库整匣交换。
+ *
+ * 借出的实体处于 INIT 状态，由调用方注册到生命周期管理器后再激活；受管实体必须先
+ * 摘除句柄再归还（见 {@link PooledEntity#returnToPool()}）。
+ */
 public final class EntityPool<T extends PooledEntity> {
 
-    private final ConcurrentLinkedQueue<T> availableEntities = new ConcurrentLinkedQueue<>();
+    private final MagazineDepot<T> availableEntities;
     private final AtomicInteger poolSize = new AtomicInteger(0);
     private final AtomicInteger activeCount = new AtomicInteger(0);
     private final AtomicInteger borrowedCount = new AtomicInteger(0);
@@ -19,31 +33,38 @@ public final class EntityPool<T extends PooledEntity> {
 
     private volatile boolean isShutdown = false;
 
-    private EntityPool(Supplier<T> factory, int initial, int max) {
+    private EntityPool(String name, Supplier<T> factory, int initial, int max) {
         this.entityFactory = factory;
         this.initialSize = initial;
         this.maxPoolSize = max;
+        this.availableEntities = new MagazineDepot<>(name, initial, max, 8);
         initializePool();
     }
 
     public static <T extends PooledEntity> EntityPool<T> create(Supplier<T> factory, int initial, int max) {
-        return new EntityPool<>(factory, initial, max);
+        return new EntityPool<>("entity", factory, initial, max);
+    }
+
+    public static <T extends PooledEntity> EntityPool<T> create(String name, Supplier<T> factory, int initial, int max) {
+        return new EntityPool<>(name, factory, initial, max);
     }
 
     private void initializePool() {
+        List<T> initial = new ArrayList<>(initialSize);
         for (int i = 0; i < initialSize; i++) {
             T entity = entityFactory.get();
             entity.setPool(this);
             entity.setPooled(true);
-            availableEntities.offer(entity);
+            initial.add(entity);
             poolSize.incrementAndGet();
         }
+        availableEntities.prefill(initial);
     }
 
     public T borrowEntity() {
         if (isShutdown) return null;
 
-        T entity = availableEntities.poll();
+        T entity = availableEntities.take();
         if (entity == null && poolSize.get() < maxPoolSize) {
             entity = entityFactory.get();
             entity.setPool(this);
@@ -56,7 +77,6 @@ public final class EntityPool<T extends PooledEntity> {
             entity.onBorrow();
             activeCount.incrementAndGet();
             borrowedCount.incrementAndGet();
-            entity.activate();
         }
 
         return entity;
@@ -68,15 +88,16 @@ public final class EntityPool<T extends PooledEntity> {
         if (entity.isValid()) {
             entity.onReturn();
             entity.reset();
-            entity.transitionTo(com.enadd.core.entity.EntityState.INIT);
+            entity.recycle();
             entity.setPooled(true);
+            activeCount.decrementAndGet();
 
-            if (poolSize.get() <= maxPoolSize) {
-                availableEntities.offer(entity);
-                activeCount.decrementAndGet();
+            if (availableEntities.put(entity)) {
                 returnedCount.incrementAndGet();
                 return true;
             } else {
+                // 空闲实体已超过按需求计算的目标数
+                poolSize.decrementAndGet();
                 entity.destroy();
                 entity.cleanup();
             }
@@ -84,12 +105,17 @@ public final class EntityPool<T extends PooledEntity> {
         return false;
     }
 
-    public boolean returnEntity(String entityId) {
-        return availableEntities.stream()
-                .filter(e -> entityId.equals(e.getEntityId()))
-                .findFirst()
-                .map(this::returnEntity)
-                .orElse(false);
+    /**
+     * 按句柄归还属于本池的实体，句柄过期或实体不属于本池时返回 false
+     */
+    @SuppressWarnings("unchecked")
+    public boolean returnEntity(long handle) {
+        ManagedEntity entity = EntityLifecycleManager.getInstance().getEntity(handle);
+        if (entity instanceof PooledEntity pooled && pooled.getPool() == this) {
+            EntityLifecycleManager.getInstance().detachEntity(pooled);
+            return returnEntity((T) pooled);
+        }
+        return false;
     }
 
     public void shutdown() {
@@ -103,8 +129,19 @@ public final class EntityPool<T extends PooledEntity> {
         availableEntities.clear();
     }
 
+    /**
+     * 按近期借出峰值调整空闲实体目标数
+     */
+    public void adjust() {
+        availableEntities.adjust();
+    }
+
+    public PoolStatistics getStatistics() {
+        return availableEntities.getStatistics();
+    }
+
     public int getAvailableCount() {
-        return availableEntities.size();
+        return availableEntities.getIdleCount();
     }
 
     public int getActiveCount() {
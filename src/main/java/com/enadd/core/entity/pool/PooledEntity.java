@@ -1,5 +1,6 @@
 package com.enadd.core.entity.pool;
 
+import com.enadd.core.entity.EntityLifecycleManager;
 import com.enadd.core.entity.EntityState;
 import com.enadd.core.entity.ManagedEntity;
 
@@ -40,13 +41,31 @@ public abstract class PooledEntity extends ManagedEntity {
         return isPooled;
     }
 
+    /**
+     * 请求归还对象池
+     *
+     * 受管实体的 update 可能在工作线程上执行，这里只登记释放请求，真正的归还
+     * （摘除句柄、重置状态、放回池）由主线程在更新轮次结束后的清扫中完成。
+     * 未注册到生命周期管理器的实体直接归还。
+     */
     @SuppressWarnings("unchecked")
     public final void returnToPool() {
+        EntityLifecycleManager manager = getLifecycleManager();
+        if (manager != null && manager.requestRelease(this)) {
+            return;
+        }
         if (pool != null) {
             ((EntityPool<PooledEntity>) pool).returnEntity(this);
         }
     }
 
+    /**
+     * 回收前重置生命周期状态，由 {@link EntityPool} 在实体摘除后调用
+     */
+    final void recycle() {
+        resetLifecycle();
+    }
+
     protected void onBorrow() {
         reuseCount++;
     }
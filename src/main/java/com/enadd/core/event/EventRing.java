@@ -0,0 +1,295 @@
+package com.enadd.core.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * 事件环形缓冲区（Disruptor 风格）
+ *
+ * 预分配固定数量的可变事件记录，发布方通过 CAS 认领序号、填充记录、标记可见，
+ * 整个过程不分配对象也不加锁；消费者各自维护读取序号，由工作线程批量读取。
+ *
+ * 发布方只会覆盖所有消费者都已读过的槽位。缓冲区满时 {@link #publish} 直接返回 false
+ * 并计入背压计数，不会阻塞发布线程（通常是主线程），也不会无限增长。
+ *
+ * 记录在消费后会被复用，消费者需要保留的数据必须自行复制。
+ */
+public final class EventRing {
+
+    private static final Logger LOGGER = Logger.getLogger("EnchAdd");
+
+    /**
+     * 事件消费者，在排空线程上按序号顺序调用
+     */
+    @FunctionalInterface
+    public interface EventConsumer {
+        void onEvent(EventRecord record, long sequence, boolean endOfBatch) throws Exception;
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final EventRecord[] records;
+    // 每个槽位最近一次发布的序号，用于判断记录是否已可见
+    private final AtomicLongArray published;
+    private final AtomicLong cursor = new AtomicLong(-1L);
+    private final AtomicLong cachedGating = new AtomicLong(-1L);
+    private final List<ConsumerSlot> consumers = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+
+    private final LongAdder publishedCount = new LongAdder();
+    private final LongAdder backpressure = new LongAdder();
+
+    /**
+     * @param capacity 槽位数，向上取整为 2 的幂
+     */
+    public EventRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.records = new EventRecord[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            // 预分配所有记录
+            records[i] = new EventRecord();
+            published.set(i, -1L);
+        }
+    }
+
+    /**
+     * 注册消费者，从下一个发布的事件开始读取（应在发布前注册）
+     */
+    public void addConsumer(String name, EventConsumer consumer) {
+        ConsumerSlot slot = new ConsumerSlot(name, consumer);
+        slot.sequence.set(cursor.get());
+        consumers.add(slot);
+    }
+
+    /**
+     * 发布事件
+     *
+     * @return 缓冲区已满时返回 false（事件被丢弃并计入背压）
+     */
+    public boolean publish(String type, UUID playerId, String key, long value) {
+        long sequence = tryClaim();
+        if (sequence < 0) {
+            return false;
+        }
+        records[(int) (sequence & mask)].set(type, playerId, key, value);
+        published.lazySet((int) (sequence & mask), sequence);
+        publishedCount.increment();
+        return true;
+    }
+
+    private long tryClaim() {
+        while (true) {
+            long current = cursor.get();
+            long next = current + 1;
+            long wrapPoint = next - capacity;
+
+            if (wrapPoint > cachedGating.get()) {
+                long gating = minimumConsumerSequence(current);
+                cachedGating.set(gating);
+                if (wrapPoint > gating) {
+                    backpressure.increment();
+                    return -1L;
+                }
+            }
+
+            if (cursor.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private long minimumConsumerSequence(long defaultValue) {
+        long minimum = defaultValue;
+        for (ConsumerSlot slot : consumers) {
+            minimum = Math.min(minimum, slot.sequence.get());
+        }
+        return minimum;
+    }
+
+    /**
+     * 为每个消费者批量读取已发布的事件（同一时间只有一个线程排空）
+     *
+     * @param maxBatch 每个消费者本次最多读取的事件数
+     * @return 本次读取的事件总数
+     */
+    public int drain(int maxBatch) {
+        if (!draining.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            int total = 0;
+            long limit = cursor.get();
+            for (ConsumerSlot slot : consumers) {
+                total += drain(slot, limit, Math.max(1, maxBatch));
+            }
+            return total;
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    private int drain(ConsumerSlot slot, long limit, int maxBatch) {
+        long start = slot.sequence.get() + 1;
+        long end = Math.min(limit, start + maxBatch - 1);
+
+        // 只读取连续已发布的部分，认领后尚未填充完的事件留到下次
+        long available = start - 1;
+        for (long sequence = start; sequence <= end; sequence++) {
+            if (published.get((int) (sequence & mask)) != sequence) {
+                break;
+            }
+            available = sequence;
+        }
+        if (available < start) {
+            return 0;
+        }
+
+        for (long sequence = start; sequence <= available; sequence++) {
+            try {
+                slot.consumer.onEvent(records[(int) (sequence & mask)], sequence, sequence == available);
+            } catch (Exception e) {
+                slot.failed.increment();
+                LOGGER.log(Level.FINE, "Event consumer " + slot.name + " failed", e);
+            }
+        }
+
+        int count = (int) (available - start + 1);
+        slot.processed.add(count);
+        slot.maxBatch = Math.max(slot.maxBatch, count);
+        // 释放槽位给发布方
+        slot.sequence.set(available);
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 最慢消费者尚未读取的事件数
+     */
+    public int getPending() {
+        long current = cursor.get();
+        return (int) (current - minimumConsumerSequence(current));
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.sum();
+    }
+
+    public long getBackpressureCount() {
+        return backpressure.sum();
+    }
+
+    public RingStats getStats() {
+        long current = cursor.get();
+        List<ConsumerStats> consumerStats = new ArrayList<>(consumers.size());
+        for (ConsumerSlot slot : consumers) {
+            consumerStats.add(new ConsumerStats(slot.name, slot.processed.sum(), slot.failed.sum(),
+                current - slot.sequence.get(), slot.maxBatch));
+        }
+        return new RingStats(capacity, getPending(), publishedCount.sum(), backpressure.sum(), consumerStats);
+    }
+
+    /**
+     * 可复用的事件记录
+     */
+    public static final class EventRecord {
+        private String type;
+        private UUID playerId;
+        private String key;
+        private long value;
+        private long timestamp;
+
+        void set(String type, UUID playerId, String key, long value) {
+            this.type = type;
+            this.playerId = playerId;
+            this.key = key;
+            this.value = value;
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        public String getType() { return type; }
+        public UUID getPlayerId() { return playerId; }
+        public String getKey() { return key; }
+        public long getValue() { return value; }
+        public long getTimestamp() { return timestamp; }
+    }
+
+    private static final class ConsumerSlot {
+        private final String name;
+        private final EventConsumer consumer;
+        private final AtomicLong sequence = new AtomicLong(-1L);
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        // 只由排空线程写入
+        private volatile int maxBatch;
+
+        private ConsumerSlot(String name, EventConsumer consumer) {
+            this.name = name;
+            this.consumer = consumer;
+        }
+    }
+
+    /**
+     * 消费者统计
+     */
+    public static final class ConsumerStats {
+        private final String name;
+        private final long processed;
+        private final long failed;
+        private final long lag;
+        private final int maxBatch;
+
+        public ConsumerStats(String name, long processed, long failed, long lag, int maxBatch) {
+            this.name = name;
+            this.processed = processed;
+            this.failed = failed;
+            this.lag = lag;
+            this.maxBatch = maxBatch;
+        }
+
+        public String getName() { return name; }
+        public long getProcessed() { return processed; }
+        public long getFailed() { return failed; }
+        public long getLag() { return lag; }
+        public int getMaxBatch() { return maxBatch; }
+    }
+
+    /**
+     * 环形缓冲区统计
+     */
+    public static final class RingStats {
+        private final int capacity;
+        private final int pending;
+        private final long published;
+        private final long backpressure;
+        private final List<ConsumerStats> consumers;
+
+        public RingStats(int capacity, int pending, long published, long backpressure, List<ConsumerStats> consumers) {
+            this.capacity = capacity;
+            this.pending = pending;
+            this.published = published;
+            this.backpressure = backpressure;
+            this.consumers = consumers;
+        }
+
+        public int getCapacity() { return capacity; }
+        public int getPending() { return pending; }
+        public long getPublished() { return published; }
+        public long getBackpressure() { return backpressure; }
+        public List<ConsumerStats> getConsumers() { return consumers; }
+    }
+}
@@ -1,6 +1,7 @@
 package com.enadd.core.event;
 
 import com.enadd.config.EnchantmentConfig;
+import com.enadd.core.async.ExecutionLayer;
 import com.enadd.util.Logger;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
@@ -11,8 +12,7 @@ import org.bukkit.plugin.java.JavaPlugin;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -43,8 +43,8 @@ public class OptimizedEventHandler implements Listener {
     /** 事件处理器注册表 */
     private final Map<Class<? extends Event>, EventHandlerGroup<?>> handlers = new ConcurrentHashMap<>();
 
-    /** 异步事件执行器 */
-    private final ExecutorService asyncExecutor;
+    /** 异步事件执行器（统一执行层通道） */
+    private final ExecutionLayer.Lane asyncExecutor;
 
     /** 事件计数器（用于限流） */
     private final AtomicInteger eventCounter = new AtomicInteger(0);
@@ -72,12 +72,8 @@ public class OptimizedEventHandler implements Listener {
         this.logger = Logger.getInstance();
         this.useAsync = useAsync;
 
-        // 创建异步执行器
-        this.asyncExecutor = Executors.newFixedThreadPool(2, r -> {
-            Thread t = new Thread(r, "OptimizedEventHandler-Async");
-            t.setDaemon(true);
-            return t;
-        });
+        // 异步处理使用统一执行层，不再单独创建线程池
+        this.asyncExecutor = ExecutionLayer.getInstance().cpu("event-handler");
 
         // 注册到插件
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
@@ -134,9 +130,9 @@ public class OptimizedEventHandler implements Listener {
         // 注销所有监听器
         HandlerList.unregisterAll(this);
 
-        // 关闭异步执行器
+        // 关闭通道，尚未开始的异步处理被丢弃
         if (asyncExecutor != null) {
-            asyncExecutor.shutdown();
+            asyncExecutor.close();
         }
 
         handlers.clear();
@@ -154,9 +150,9 @@ public class OptimizedEventHandler implements Listener {
         private final Class<T> eventClass;
         private final Set<EventHandlerConfig<T>> handlerConfigs = ConcurrentHashMap.newKeySet();
         private final boolean useAsync;
-        private final ExecutorService asyncExecutor;
+        private final Executor asyncExecutor;
 
-        EventHandlerGroup(JavaPlugin plugin, Class<T> eventClass, boolean useAsync, ExecutorService asyncExecutor) {
+        EventHandlerGroup(JavaPlugin plugin, Class<T> eventClass, boolean useAsync, Executor asyncExecutor) {
             this.plugin = plugin;
             this.eventClass = eventClass;
             this.useAsync = useAsync;
@@ -211,7 +207,7 @@ public class OptimizedEventHandler implements Listener {
 
                 // 执行处理器
                 if (config.async && useAsync) {
-                    asyncExecutor.submit(() -> {
+                    asyncExecutor.execute(() -> {
                         try {
                             config.handler.accept(event);
                         } catch (Exception e) {
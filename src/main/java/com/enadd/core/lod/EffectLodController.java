@@ -0,0 +1,295 @@
+package com.enadd.core.lod;
+
+import com.enadd.core.optimize.PerformanceMonitor;
+import com.enadd.core.optimize.ServerAnalyzer;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+
+/**
+ * 负载自适应的效果 LOD 控制器
+ *
+ * 周期性在主线程采样 MSPT 与在线玩家数（经由 {@link ServerAnalyzer}），
+ * 在 FULL → REDUCED → MINIMAL → OFF 之间切换效果档位：
+ * - 降级立即生效，避免高峰期拖垮 TPS
+ * - 恢复需连续多次采样低于退出阈值（滞后），且每次只回升一档，避免抖动
+ *
+ * 效果实现通过 {@link #scaleParticles(int)}、{@link #allowSounds()} 等方法查询当前档位。
+ */
+public final class EffectLodController {
+    // Holder模式优化单例
+    private static final class Holder {
+        private static final EffectLodController INSTANCE = new EffectLodController();
+    }
+
+    private static final Logger LOGGER = Logger.getLogger("EnchAdd");
+
+    private final Map<EffectQuality, TierSettings> tiers = new EnumMap<>(EffectQuality.class);
+    private final AtomicLong tierChanges = new AtomicLong(0);
+
+    private volatile EffectQuality currentTier = EffectQuality.FULL;
+    private volatile TierSettings currentSettings;
+    private volatile boolean enabled = true;
+    private volatile long sampleIntervalTicks = 20L;
+    private volatile int recoverSamples = 3;
+
+    // 仅在采样线程（主线程）访问
+    private int consecutiveRecoverSamples = 0;
+    private BukkitTask samplingTask;
+
+    private EffectLodController() {
+        applyDefaults();
+    }
+
+    public static EffectLodController getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private void applyDefaults() {
+        tiers.put(EffectQuality.FULL, new TierSettings(0, 0, 0, 0, 1.0, true, true, true));
+        tiers.put(EffectQuality.REDUCED, new TierSettings(40.0, 35.0, 80, 70, 0.5, true, true, true));
+        tiers.put(EffectQuality.MINIMAL, new TierSettings(46.0, 42.0, 150, 130, 0.2, false, true, false));
+        tiers.put(EffectQuality.OFF, new TierSettings(50.0, 47.0, 250, 220, 0.0, false, false, false));
+        currentSettings = tiers.get(currentTier);
+    }
+
+    /**
+     * 从配置加载各档位设置（对应 config.yml 的 effects.lod 节）
+     *
+     * @param section effects.lod 配置节，为 null 时使用默认值
+     */
+    public synchronized void loadSettings(ConfigurationSection section) {
+        applyDefaults();
+        if (section == null) {
+            return;
+        }
+
+        enabled = section.getBoolean("enabled", true);
+        sampleIntervalTicks = Math.max(1L, section.getLong("sample-interval-ticks", 20L));
+        recoverSamples = Math.max(1, section.getInt("recover-samples", 3));
+
+        ConfigurationSection tierSection = section.getConfigurationSection("tiers");
+        if (tierSection != null) {
+            for (EffectQuality quality : EffectQuality.values()) {
+                ConfigurationSection s = tierSection.getConfigurationSection(quality.getConfigKey());
+                if (s == null) {
+                    continue;
+                }
+
+                TierSettings defaults = tiers.get(quality);
+                double enterMspt = s.getDouble("enter-mspt", defaults.enterMspt);
+                double exitMspt = Math.min(enterMspt, s.getDouble("exit-mspt", defaults.exitMspt));
+                int enterPlayers = s.getInt("enter-players", defaults.enterPlayers);
+                int exitPlayers = Math.min(enterPlayers, s.getInt("exit-players", defaults.exitPlayers));
+
+                tiers.put(quality, new TierSettings(
+                    enterMspt,
+                    exitMspt,
+                    enterPlayers,
+                    exitPlayers,
+                    Math.max(0.0, Math.min(1.0, s.getDouble("particle-multiplier", defaults.particleMultiplier))),
+                    s.getBoolean("sounds", defaults.sounds),
+                    s.getBoolean("glowing", defaults.glowing),
+                    s.getBoolean("lightning", defaults.lightning)
+                ));
+            }
+        }
+
+        if (!enabled) {
+            currentTier = EffectQuality.FULL;
+        }
+        currentSettings = tiers.get(currentTier);
+    }
+
+    /**
+     * 启动主线程采样任务
+     */
+    public synchronized void start(JavaPlugin plugin) {
+        if (plugin == null || samplingTask != null) {
+            return;
+        }
+
+        samplingTask = Bukkit.getScheduler().runTaskTimer(plugin, this::sample,
+            sampleIntervalTicks, sampleIntervalTicks);
+    }
+
+    public synchronized void shutdown() {
+        if (samplingTask != null) {
+            samplingTask.cancel();
+            samplingTask = null;
+        }
+        currentTier = EffectQuality.FULL;
+        currentSettings = tiers.get(EffectQuality.FULL);
+        consecutiveRecoverSamples = 0;
+    }
+
+    private void sample() {
+        try {
+            double mspt = Bukkit.getServer().getAverageTickTime();
+            int players = Bukkit.getOnlinePlayers().size();
+
+            ServerAnalyzer.recordTickSample(mspt, players);
+            PerformanceMonitor.recordCustomMetric("mspt", mspt);
+
+            evaluate(ServerAnalyzer.getRecentMspt(), ServerAnalyzer.getOnlinePlayers());
+        } catch (Exception e) {
+            LOGGER.fine("Effect LOD sampling failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 根据一次负载采样计算并切换档位
+     *
+     * @param mspt 平均每 tick 耗时（毫秒）
+     * @param players 在线玩家数
+     * @return 评估后的当前档位
+     */
+    public EffectQuality evaluate(double mspt, int players) {
+        if (!enabled) {
+            return currentTier;
+        }
+
+        EffectQuality current = currentTier;
+        EffectQuality target = EffectQuality.FULL;
+        EffectQuality[] values = EffectQuality.values();
+        for (int i = values.length - 1; i > 0; i--) {
+            if (tiers.get(values[i]).shouldEnter(mspt, players)) {
+                target = values[i];
+                break;
+            }
+        }
+
+        if (target.isLowerThan(current)) {
+            // 降级立即生效
+            consecutiveRecoverSamples = 0;
+            switchTier(target, mspt, players);
+        } else if (current != EffectQuality.FULL && tiers.get(current).canExit(mspt, players)) {
+            // 恢复需要连续满足退出条件，且每次只回升一档
+            if (++consecutiveRecoverSamples >= recoverSamples) {
+                consecutiveRecoverSamples = 0;
+                switchTier(values[current.ordinal() - 1], mspt, players);
+            }
+        } else {
+            consecutiveRecoverSamples = 0;
+        }
+
+        return currentTier;
+    }
+
+    private void switchTier(EffectQuality tier, double mspt, int players) {
+        EffectQuality previous = currentTier;
+        currentSettings = tiers.get(tier);
+        currentTier = tier;
+        tierChanges.incrementAndGet();
+
+        LOGGER.info(String.format("Effect quality %s -> %s (MSPT %.1f, players %d)",
+            previous.getDisplayName(), tier.getDisplayName(), mspt, players));
+    }
+
+    public EffectQuality getCurrentTier() {
+        return currentTier;
+    }
+
+    public TierSettings getSettings(EffectQuality quality) {
+        return quality != null ? tiers.get(quality) : currentSettings;
+    }
+
+    /**
+     * 按当前档位缩放粒子数量；原始数量大于 0 且档位未关闭粒子时至少保留 1 个
+     */
+    public int scaleParticles(int count) {
+        if (count <= 0) {
+            return 0;
+        }
+
+        double multiplier = currentSettings.particleMultiplier;
+        if (multiplier <= 0) {
+            return 0;
+        }
+        return Math.max(1, (int) Math.round(count * multiplier));
+    }
+
+    public boolean allowParticles() {
+        return currentSettings.particleMultiplier > 0;
+    }
+
+    public boolean allowSounds() {
+        return currentSettings.sounds;
+    }
+
+    public boolean allowGlowing() {
+        return currentSettings.glowing;
+    }
+
+    public boolean allowLightning() {
+        return currentSettings.lightning;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            currentTier = EffectQuality.FULL;
+            currentSettings = tiers.get(EffectQuality.FULL);
+            consecutiveRecoverSamples = 0;
+        }
+    }
+
+    public long getTierChanges() {
+        return tierChanges.get();
+    }
+
+    /**
+     * 单个档位的阈值与效果开关
+     */
+    public static final class TierSettings {
+        private final double enterMspt;
+        private final double exitMspt;
+        private final int enterPlayers;
+        private final int exitPlayers;
+        private final double particleMultiplier;
+        private final boolean sounds;
+        private final boolean glowing;
+        private final boolean lightning;
+
+        public TierSettings(double enterMspt, double exitMspt, int enterPlayers, int exitPlayers,
+                            double particleMultiplier, boolean sounds, boolean glowing, boolean lightning) {
+            this.enterMspt = enterMspt;
+            this.exitMspt = exitMspt;
+            this.enterPlayers = enterPlayers;
+            this.exitPlayers = exitPlayers;
+            this.particleMultiplier = particleMultiplier;
+            this.sounds = sounds;
+            this.glowing = glowing;
+            this.lightning = lightning;
+        }
+
+        boolean shouldEnter(double mspt, int players) {
+            return (enterMspt > 0 && mspt >= enterMspt) || (enterPlayers > 0 && players >= enterPlayers);
+        }
+
+        boolean canExit(double mspt, int players) {
+            boolean msptOk = enterMspt <= 0 || mspt < exitMspt;
+            boolean playersOk = enterPlayers <= 0 || players < exitPlayers;
+            return msptOk && playersOk;
+        }
+
+        public double getEnterMspt() { return enterMspt; }
+        public double getExitMspt() { return exitMspt; }
+        public int getEnterPlayers() { return enterPlayers; }
+        public int getExitPlayers() { return exitPlayers; }
+        public double getParticleMultiplier() { return particleMultiplier; }
+        public boolean isSounds() { return sounds; }
+        public boolean isGlowing() { return glowing; }
+        public boolean isLightning() { return lightning; }
+    }
+}
@@ -0,0 +1,35 @@
+package com.enadd.core.lod;
+
+
+/**
+ * 附魔效果视觉质量档位，按降级顺序排列
+ */
+public enum EffectQuality {
+    FULL("full", "完整"),
+    REDUCED("reduced", "精简"),
+    MINIMAL("minimal", "最低"),
+    OFF("off", "关闭");
+
+    private final String configKey;
+    private final String displayName;
+
+    EffectQuality(String configKey, String displayName) {
+        this.configKey = configKey;
+        this.displayName = displayName;
+    }
+
+    public String getConfigKey() {
+        return configKey;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * 是否比另一个档位更低（降级程度更高）
+     */
+    public boolean isLowerThan(EffectQuality other) {
+        return other != null && ordinal() > other.ordinal();
+    }
+}
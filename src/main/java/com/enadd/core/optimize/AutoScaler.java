@@ -1,5 +1,6 @@
 package com.enadd.core.optimize;
 
+import com.enadd.core.async.ExecutionLayer;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -19,8 +20,8 @@ public final class AutoScaler {
     private static final AtomicReference<ServerProfile> PROFILE = new AtomicReference<>();
     private static final AtomicReference<PerformanceSummary> LAST_SUMMARY = new AtomicReference<>();
 
-    private static ScheduledExecutorService scheduler;
-    private static ExecutorService asyncExecutor;
+    private static ScheduledFuture<?> scalingTask;
+    private static ExecutionLayer.Lane asyncExecutor;
     private static volatile int targetThreadCount;
     private static volatile int targetTickInterval;
     private static volatile long targetMemoryThreshold;
@@ -46,13 +47,7 @@ public final class AutoScaler {
 
         initializeResources(profile);
 
-        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "AutoScaler-Scheduler");
-            t.setDaemon(true);
-            return t;
-        });
-
-        scheduler.scheduleAtFixedRate(AutoScaler::scalingDecision,
+        scalingTask = asyncExecutor.scheduleAtFixedRate(AutoScaler::scalingDecision,
                                      SCALING_INTERVAL_MS,
                                      SCALING_INTERVAL_MS,
                                      TimeUnit.MILLISECONDS);
@@ -73,22 +68,8 @@ public final class AutoScaler {
         long optimalMemoryThreshold = calculateOptimalMemoryThreshold(hardware);
         targetMemoryThreshold = optimalMemoryThreshold;
 
-        asyncExecutor = new ThreadPoolExecutor(
-            optimalThreads,
-            optimalThreads,
-            60L, TimeUnit.SECONDS,
-            new LinkedBlockingQueue<>(1000),
-            new ThreadFactory() {
-                private int counter = 0;
-                @Override
-                public Thread newThread(Runnable r) {
-                    Thread t = new Thread(r, "AutoScaler-Worker-" + counter++);
-                    t.setDaemon(true);
-                    return t;
-                }
-            },
-            new ThreadPoolExecutor.CallerRunsPolicy()
-        );
+        // 工作线程由统一执行层提供，这里只保留有界通道
+        asyncExecutor = ExecutionLayer.getInstance().cpu("auto-scaler", 1000);
     }
 
     private static int calculateOptimalThreadCount(HardwareInfo hardware) {
@@ -207,14 +188,8 @@ public final class AutoScaler {
     private static void adjustThreadPool(int newSize) {
         targetThreadCount = newSize;
 
-        if (asyncExecutor instanceof ThreadPoolExecutor) {
-            ThreadPoolExecutor executor = (ThreadPoolExecutor) asyncExecutor;
-
-            executor.setCorePoolSize(newSize);
-            executor.setMaximumPoolSize(newSize);
-
-            PerformanceMonitor.recordCustomMetric("thread_pool_resized", newSize);
-        }
+        // 共享线程池大小固定，目标线程数只作为建议值上报
+        PerformanceMonitor.recordCustomMetric("thread_pool_resized", newSize);
     }
 
     public static void submitTask(Runnable task) {
@@ -223,8 +198,12 @@ public final class AutoScaler {
             return;
         }
 
-        if (asyncExecutor != null && !asyncExecutor.isShutdown()) {
-            asyncExecutor.submit(task);
+        if (asyncExecutor != null && !asyncExecutor.isClosed()) {
+            try {
+                asyncExecutor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
         } else {
             task.run();
         }
@@ -243,8 +222,14 @@ public final class AutoScaler {
             }
         }
 
-        if (asyncExecutor != null && !asyncExecutor.isShutdown()) {
-            return asyncExecutor.submit(task);
+        if (asyncExecutor != null && !asyncExecutor.isClosed()) {
+            FutureTask<T> future = new FutureTask<>(task);
+            try {
+                asyncExecutor.execute(future);
+            } catch (RejectedExecutionException e) {
+                future.run();
+            }
+            return future;
         }
 
         try {
@@ -279,10 +264,9 @@ public final class AutoScaler {
 
         int activeThreads = 0;
         int queuedTasks = 0;
-        if (asyncExecutor instanceof ThreadPoolExecutor) {
-            ThreadPoolExecutor executor = (ThreadPoolExecutor) asyncExecutor;
-            activeThreads = executor.getActiveCount();
-            queuedTasks = executor.getQueue().size();
+        if (asyncExecutor != null) {
+            activeThreads = asyncExecutor.getRunning();
+            queuedTasks = asyncExecutor.getQueued();
         }
 
         return new ScalingReport(
@@ -314,28 +298,13 @@ public final class AutoScaler {
 
         ENABLED.set(false);
 
-        if (scheduler != null && !scheduler.isShutdown()) {
-            scheduler.shutdown();
-            try {
-                if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                    scheduler.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                scheduler.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
+        if (scalingTask != null) {
+            scalingTask.cancel(false);
+            scalingTask = null;
         }
 
-        if (asyncExecutor != null && !asyncExecutor.isShutdown()) {
-            asyncExecutor.shutdown();
-            try {
-                if (!asyncExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
-                    asyncExecutor.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                asyncExecutor.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
+        if (asyncExecutor != null) {
+            asyncExecutor.close();
         }
 
         LOGGER.info("AutoScaler shutdown complete");
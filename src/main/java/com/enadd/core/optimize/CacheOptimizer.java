@@ -1,5 +1,7 @@
 package com.enadd.core.optimize;
 
+import com.enadd.core.async.ExecutionLayer;
+import com.enadd.core.cache.SingleFlightLoader;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -21,8 +23,8 @@ public final class CacheOptimizer {
     private static final AtomicLong TOTAL_SIZE = new AtomicLong(0);
 
     private static ConcurrentHashMap<String, CacheLevel> caches;
-    private static ScheduledExecutorService maintenanceScheduler;
-    private static ScheduledExecutorService warmingScheduler;
+    private static ScheduledFuture<?> maintenanceTask;
+    private static ScheduledFuture<?> warmingTask;
 
     private static volatile double maxMemoryPercent = 25.0;
     private static volatile int defaultTTLSeconds = 300;
@@ -40,6 +42,10 @@ public final class CacheOptimizer {
 
     private static final Map<String, Object> warmingData = new ConcurrentHashMap<>();
 
+    // 以 "缓存名:键" 合并并发未命中，同一个键同一时刻只有一个计算在进行
+    private static final SingleFlightLoader<String, Object> LOADER = new SingleFlightLoader<>();
+    private static volatile Executor loaderExecutor = ExecutionLayer.getInstance().cpu("cache-optimizer-loader");
+
     private CacheOptimizer() {}
 
     public static synchronized void initialize() {
@@ -49,37 +55,29 @@ public final class CacheOptimizer {
 
         caches = new ConcurrentHashMap<>();
 
-        maintenanceScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "CacheOptimizer-Maintenance");
-            t.setDaemon(true);
-            return t;
-        });
-
-        maintenanceScheduler.scheduleAtFixedRate(CacheOptimizer::performMaintenance,
-                                                  cleanupIntervalSeconds,
-                                                  cleanupIntervalSeconds,
-                                                  TimeUnit.SECONDS);
+        // 维护和预热都在统一执行层上运行，不再各自创建调度线程
+        ExecutionLayer.Lane lane = ExecutionLayer.getInstance().cpu("cache-optimizer");
+        maintenanceTask = lane.scheduleAtFixedRate(CacheOptimizer::performMaintenance,
+                                                   cleanupIntervalSeconds,
+                                                   cleanupIntervalSeconds,
+                                                   TimeUnit.SECONDS);
 
         if (warmingEnabled) {
-            warmingScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-                Thread t = new Thread(r, "CacheOptimizer-Warming");
-                t.setDaemon(true);
-                return t;
-            });
-
-            warmingScheduler.scheduleAtFixedRate(CacheOptimizer::warmCaches,
-                                                 300000L,
-                                                 300000L,
-                                                 TimeUnit.MILLISECONDS);
+            warmingTask = lane.scheduleAtFixedRate(CacheOptimizer::warmCaches,
+                                                   300000L,
+                                                   300000L,
+                                                   TimeUnit.MILLISECONDS);
         }
 
+        // createDefaultCache 要求已启用，先置位再创建默认缓存
+        ENABLED.set(true);
+
         createDefaultCache("default", 1000, 3600);
         createDefaultCache("player", 500, 1800);
         createDefaultCache("chunk", 2000, 900);
         createDefaultCache("entity", 1000, 600);
         createDefaultCache("config", 100, 7200);
 
-        ENABLED.set(true);
         LOGGER.log(Level.INFO, "CacheOptimizer initialized with {0} cache levels", MAX_CACHES);
     }
 
@@ -143,25 +141,103 @@ public final class CacheOptimizer {
             }
         }
 
-        Optional<T> cached = cache.get(key, type);
-        if (cached.isPresent()) {
+        CacheLevel.CacheEntry<?> entry = cache.getEntry(key);
+        if (entry != null && type.isInstance(entry.getValue())) {
             TOTAL_HITS.incrementAndGet();
-            return cached.get();
+            refreshIfStale(cache, key, entry, computation);
+            return type.cast(entry.getValue());
         }
 
         TOTAL_MISSES.incrementAndGet();
 
         try {
-            T value = computation.call();
-            if (value != null) {
-                cache.put(key, value);
-            }
-            return value;
+            // 主线程不搭后台加载的车：加载可能排在繁忙的线程池后面，自己算一次更快
+            String compositeKey = cacheName + ":" + key;
+            Object value = ExecutionLayer.isMainThread()
+                ? LOADER.loadWithoutWaiting(compositeKey, k -> call(computation), (k, v) -> cache.put(key, v))
+                : LOADER.load(compositeKey, k -> call(computation), (k, v) -> cache.put(key, v));
+            return type.isInstance(value) ? type.cast(value) : null;
         } catch (Exception e) {
             return null;
         }
     }
 
+    /**
+     * 异步版 {@link #getOrCompute}：未命中时在加载执行器上计算，同一个键的并发调用共享同一个 future
+     * 计算失败或结果类型不符时 future 以 null 完成，与同步版保持一致
+     */
+    public static <T> CompletableFuture<T> getOrComputeAsync(String cacheName, String key,
+                                                             Callable<T> computation, Class<T> type) {
+        CacheLevel cache = ENABLED.get() ? caches.get(cacheName) : null;
+        if (cache != null) {
+            CacheLevel.CacheEntry<?> entry = cache.getEntry(key);
+            if (entry != null && type.isInstance(entry.getValue())) {
+                TOTAL_HITS.incrementAndGet();
+                refreshIfStale(cache, key, entry, computation);
+                return CompletableFuture.completedFuture(type.cast(entry.getValue()));
+            }
+            TOTAL_MISSES.incrementAndGet();
+        }
+
+        CompletableFuture<Object> future;
+        if (cache != null) {
+            future = LOADER.loadAsync(cacheName + ":" + key, k -> call(computation), loaderExecutor,
+                (k, v) -> cache.put(key, v));
+        } else {
+            future = CompletableFuture.supplyAsync(() -> call(computation), loaderExecutor);
+        }
+
+        return future.handle((value, error) ->
+            error == null && type.isInstance(value) ? type.cast(value) : null);
+    }
+
+    private static void refreshIfStale(CacheLevel cache, String key, CacheLevel.CacheEntry<?> entry,
+                                       Callable<?> computation) {
+        String compositeKey = cache.name + ":" + key;
+        if (!cache.isStale(entry) || LOADER.isLoading(compositeKey)) {
+            return;
+        }
+
+        // 软过期：继续返回旧值，后台刷新
+        LOADER.loadAsync(compositeKey, k -> call(computation), loaderExecutor, (k, v) -> cache.put(key, v))
+            .whenComplete((value, error) -> {
+                if (error != null) {
+                    LOGGER.log(Level.FINE, "Background refresh failed for key: " + compositeKey, error);
+                }
+            });
+    }
+
+    private static Object call(Callable<?> computation) {
+        try {
+            return computation.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * 设置缓存的软过期时间：超过该时间的条目仍会返回，同时触发一次后台刷新
+     *
+     * @param seconds 软过期时间（秒），0 表示关闭
+     */
+    public static void setRefreshAfter(String cacheName, int seconds) {
+        CacheLevel cache = caches != null ? caches.get(cacheName) : null;
+        if (cache != null) {
+            cache.refreshAfterMillis = Math.max(0, seconds) * 1000L;
+        }
+    }
+
+    /**
+     * 设置异步加载和后台刷新使用的执行器，默认为统一执行层的 cache-optimizer-loader 通道
+     */
+    public static void setLoaderExecutor(Executor executor) {
+        if (executor != null) {
+            loaderExecutor = executor;
+        }
+    }
+
     public static void invalidate(String cacheName, String key) {
         CacheLevel cache = caches.get(cacheName);
         if (cache != null) {
@@ -320,28 +396,14 @@ public final class CacheOptimizer {
 
         ENABLED.set(false);
 
-        if (maintenanceScheduler != null && !maintenanceScheduler.isShutdown()) {
-            maintenanceScheduler.shutdown();
-            try {
-                if (!maintenanceScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                    maintenanceScheduler.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                maintenanceScheduler.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
+        if (maintenanceTask != null) {
+            maintenanceTask.cancel(false);
+            maintenanceTask = null;
         }
 
-        if (warmingScheduler != null && !warmingScheduler.isShutdown()) {
-            warmingScheduler.shutdown();
-            try {
-                if (!warmingScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                    warmingScheduler.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                warmingScheduler.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
+        if (warmingTask != null) {
+            warmingTask.cancel(false);
+            warmingTask = null;
         }
 
         caches.forEach((name, cache) -> cache.invalidateAll());
@@ -359,6 +421,7 @@ public final class CacheOptimizer {
         private final LinkedHashMap<String, Long> accessOrder;
         private final ReadWriteLock lock;
         private final AtomicInteger size;
+        private volatile long refreshAfterMillis = 0;
 
         public CacheLevel(String name, int maxSize, int ttlSeconds) {
             this.name = name;
@@ -371,13 +434,23 @@ public final class CacheOptimizer {
         }
 
         public <T> Optional<T> get(String key, Class<T> type) {
+            CacheEntry<?> entry = getEntry(key);
+            return entry != null && type.isInstance(entry.getValue())
+                ? Optional.of(type.cast(entry.getValue()))
+                : Optional.empty();
+        }
+
+        /**
+         * 读取未过期的条目并更新访问顺序
+         */
+        CacheEntry<?> getEntry(String key) {
             CacheEntry<?> entry = storage.get(key);
             if (entry == null || entry.isExpired()) {
                 if (entry != null) {
                     storage.remove(key);
                     size.decrementAndGet();
                 }
-                return Optional.empty();
+                return null;
             }
 
             lock.writeLock().lock();
@@ -387,10 +460,12 @@ public final class CacheOptimizer {
             } finally {
                 lock.writeLock().unlock();
             }
+            return entry;
+        }
 
-            return type.isInstance(entry.getValue())
-                ? Optional.of(type.cast(entry.getValue()))
-                : Optional.empty();
+        boolean isStale(CacheEntry<?> entry) {
+            long refreshAfter = refreshAfterMillis;
+            return refreshAfter > 0 && System.currentTimeMillis() - entry.getCreationTime() > refreshAfter;
         }
 
         public <T> void put(String key, T value) {
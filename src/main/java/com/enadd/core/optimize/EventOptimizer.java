@@ -1,5 +1,7 @@
 package com.enadd.core.optimize;
 
+import com.enadd.core.async.ExecutionLayer;
+import com.enadd.core.event.EventRing;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -9,6 +11,14 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 
+/**
+ * 事件优化器
+ *
+ * 两条通道：
+ * - {@link #publishEvent}：监听器把事件写入预分配的 {@link EventRing}，不创建任务对象；
+ *   成就、统计等消费者由批处理任务在工作线程上批量读取，缓冲区满时丢弃并计入背压
+ * - {@link #submitEvent}：按优先级排队的 Runnable 处理器（旧接口）
+ */
 public final class EventOptimizer {
     private static final Logger LOGGER = Logger.getLogger(EventOptimizer.class.getName());
 
@@ -19,8 +29,10 @@ public final class EventOptimizer {
     private static final AtomicLong TOTAL_PROCESSING_TIME_MS = new AtomicLong(0);
 
     private static PriorityBlockingQueue<PrioritizedEvent> eventQueue;
-    private static ScheduledExecutorService scheduler;
-    private static ExecutorService asyncExecutor;
+    private static EventRing eventRing;
+    private static ScheduledFuture<?> batchTask;
+    private static ScheduledFuture<?> cleanupTask;
+    private static ExecutionLayer.Lane asyncExecutor;
     private static ConcurrentHashMap<String, EventCounter> eventTypeCounters;
 
     private static volatile int batchSize = 10;
@@ -31,10 +43,12 @@ public final class EventOptimizer {
     private static final Set<String> HIGH_PRIORITY_EVENTS = ConcurrentHashMap.newKeySet();
     private static final Set<String> LOW_PRIORITY_EVENTS = ConcurrentHashMap.newKeySet();
 
-    private static final int CORE_POOL_SIZE = 4;
-    private static final int MAX_POOL_SIZE = 16;
-    private static final long KEEP_ALIVE_TIME_MS = 30000L;
     private static final int QUEUE_CAPACITY = 5000;
+    private static final int RING_CAPACITY = 8192;
+    /** 每个消费者每批最多读取的事件数 */
+    private static final int RING_BATCH_LIMIT = 1024;
+    private static final List<PendingConsumer> PENDING_CONSUMERS = new ArrayList<>();
+    private static volatile long lastBackpressureWarn = 0L;
 
     private EventOptimizer() {}
 
@@ -46,35 +60,22 @@ public final class EventOptimizer {
         eventQueue = new PriorityBlockingQueue<>(QUEUE_CAPACITY, Comparator.comparingInt(PrioritizedEvent::getPriority).reversed());
         eventTypeCounters = new ConcurrentHashMap<>();
 
-        asyncExecutor = new ThreadPoolExecutor(
-            CORE_POOL_SIZE,
-            MAX_POOL_SIZE,
-            KEEP_ALIVE_TIME_MS, TimeUnit.MILLISECONDS,
-            new LinkedBlockingQueue<>(QUEUE_CAPACITY / 2),
-            new ThreadFactory() {
-                private int counter = 0;
-                @Override
-                public Thread newThread(Runnable r) {
-                    Thread t = new Thread(r, "EventOptimizer-Worker-" + counter++);
-                    t.setDaemon(true);
-                    return t;
-                }
-            },
-            new ThreadPoolExecutor.CallerRunsPolicy()
-        );
+        // 统计消费者：事件类型计数从发布线程移到工作线程
+        eventRing = new EventRing(RING_CAPACITY);
+        eventRing.addConsumer("metrics", (record, sequence, endOfBatch) -> recordEventType(record.getType()));
+        for (PendingConsumer pending : PENDING_CONSUMERS) {
+            eventRing.addConsumer(pending.name, pending.consumer);
+        }
 
-        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "EventOptimizer-Scheduler");
-            t.setDaemon(true);
-            return t;
-        });
+        // 批处理和事件处理都在统一执行层上运行
+        asyncExecutor = ExecutionLayer.getInstance().cpu("event-optimizer", QUEUE_CAPACITY / 2);
 
-        scheduler.scheduleAtFixedRate(EventOptimizer::processBatch,
+        batchTask = asyncExecutor.scheduleAtFixedRate(EventOptimizer::processBatch,
                                      batchTimeoutMs,
                                      batchTimeoutMs,
                                      TimeUnit.MILLISECONDS);
 
-        scheduler.scheduleAtFixedRate(EventOptimizer::cleanupCounters,
+        cleanupTask = asyncExecutor.scheduleAtFixedRate(EventOptimizer::cleanupCounters,
                                      60000L,
                                      60000L,
                                      TimeUnit.MILLISECONDS);
@@ -82,7 +83,8 @@ public final class EventOptimizer {
         registerDefaultPriorities();
 
         ENABLED.set(true);
-        LOGGER.log(Level.INFO, "EventOptimizer initialized with pool size: {0}", MAX_POOL_SIZE);
+        LOGGER.log(Level.INFO, "EventOptimizer initialized on shared execution layer ({0} threads)",
+            ExecutionLayer.getInstance().getCpuThreads());
     }
 
     private static void registerDefaultPriorities() {
@@ -122,6 +124,39 @@ public final class EventOptimizer {
         }
     }
 
+    /**
+     * 注册环形缓冲区消费者（成就、统计、分析等），可在初始化前调用
+     */
+    public static synchronized void registerConsumer(String name, EventRing.EventConsumer consumer) {
+        if (eventRing != null) {
+            eventRing.addConsumer(name, consumer);
+        } else {
+            PENDING_CONSUMERS.add(new PendingConsumer(name, consumer));
+        }
+    }
+
+    /**
+     * 发布事件到环形缓冲区，主线程调用开销只有一次 CAS 和几次字段写入
+     *
+     * @return 未启用或缓冲区已满（背压）时返回 false
+     */
+    public static boolean publishEvent(String eventType, UUID playerId, String key, long value) {
+        EventRing ring = eventRing;
+        if (ring == null || !ENABLED.get()) {
+            return false;
+        }
+        if (ring.publish(eventType, playerId, key, value)) {
+            return true;
+        }
+        FAILED_EVENTS.incrementAndGet();
+        long now = System.currentTimeMillis();
+        if (now - lastBackpressureWarn > 10000L) {
+            lastBackpressureWarn = now;
+            LOGGER.log(Level.WARNING, "Event ring full, dropping events (backpressure: {0})", ring.getBackpressureCount());
+        }
+        return false;
+    }
+
     public static void submitEvent(String eventType, Runnable handler) {
         if (!ENABLED.get()) {
             handler.run();
@@ -184,6 +219,16 @@ public final class EventOptimizer {
     private static void processBatch() {
         if (!ENABLED.get() || eventQueue == null) return;
 
+        // 环形缓冲区：每个消费者一次读取所有连续已发布的事件
+        if (eventRing != null) {
+            long startNanos = System.nanoTime();
+            int drained = eventRing.drain(RING_BATCH_LIMIT);
+            if (drained > 0) {
+                PROCESSED_EVENTS.addAndGet(drained);
+                TOTAL_PROCESSING_TIME_MS.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            }
+        }
+
         List<PrioritizedEvent> batch = new ArrayList<>(batchSize);
 
         for (int i = 0; i < batchSize; i++) {
@@ -222,10 +267,7 @@ public final class EventOptimizer {
     }
 
     private static int getCurrentConcurrentEvents() {
-        if (asyncExecutor instanceof ThreadPoolExecutor) {
-            return ((ThreadPoolExecutor) asyncExecutor).getActiveCount();
-        }
-        return 0;
+        return asyncExecutor != null ? asyncExecutor.getRunning() : 0;
     }
 
     private static void cleanupCounters() {
@@ -255,6 +297,7 @@ public final class EventOptimizer {
 
     public static EventOptimizerReport getReport() {
         int queueSize = eventQueue != null ? eventQueue.size() : 0;
+        EventRing.RingStats ringStats = eventRing != null ? eventRing.getStats() : null;
         int activeThreads = getCurrentConcurrentEvents();
         long processed = PROCESSED_EVENTS.get();
         long failed = FAILED_EVENTS.get();
@@ -278,7 +321,8 @@ public final class EventOptimizer {
             batchTimeoutMs,
             asyncMode,
             MAX_CONCURRENT_EVENTS.get(),
-            topEventTypes
+            topEventTypes,
+            ringStats
         );
     }
 
@@ -299,33 +343,23 @@ public final class EventOptimizer {
 
         ENABLED.set(false);
 
-        if (scheduler != null && !scheduler.isShutdown()) {
-            scheduler.shutdown();
-            try {
-                if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                    scheduler.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                scheduler.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
+        if (batchTask != null) {
+            batchTask.cancel(false);
+            batchTask = null;
+        }
+        if (cleanupTask != null) {
+            cleanupTask.cancel(false);
+            cleanupTask = null;
         }
 
-        if (asyncExecutor != null && !asyncExecutor.isShutdown()) {
-            asyncExecutor.shutdown();
-            try {
-                if (!asyncExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
-                    asyncExecutor.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                asyncExecutor.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
+        if (asyncExecutor != null) {
+            asyncExecutor.close();
         }
 
         if (eventQueue != null) {
             eventQueue.clear();
         }
+        eventRing = null;
 
         eventTypeCounters.clear();
         EVENT_PRIORITIES.clear();
@@ -348,6 +382,16 @@ public final class EventOptimizer {
         public int getPriority() { return priority; }
     }
 
+    private static final class PendingConsumer {
+        private final String name;
+        private final EventRing.EventConsumer consumer;
+
+        private PendingConsumer(String name, EventRing.EventConsumer consumer) {
+            this.name = name;
+            this.consumer = consumer;
+        }
+    }
+
     private static final class EventCounter {
         private final AtomicLong count = new AtomicLong(0);
         private final AtomicLong lastEventTime = new AtomicLong(System.currentTimeMillis());
@@ -373,12 +417,14 @@ public final class EventOptimizer {
         private final boolean asyncMode;
         private final int maxConcurrentEvents;
         private final Map<String, Long> topEventTypes;
+        private final EventRing.RingStats ringStats;
 
         public EventOptimizerReport(boolean enabled, int queueSize, int activeThreads,
                                    long processedEvents, long failedEvents,
                                    double avgProcessingTimeMs, int batchSize,
                                    long batchTimeoutMs, boolean asyncMode,
-                                   int maxConcurrentEvents, Map<String, Long> topEventTypes) {
+                                   int maxConcurrentEvents, Map<String, Long> topEventTypes,
+                                   EventRing.RingStats ringStats) {
             this.enabled = enabled;
             this.queueSize = queueSize;
             this.activeThreads = activeThreads;
@@ -390,6 +436,7 @@ public final class EventOptimizer {
             this.asyncMode = asyncMode;
             this.maxConcurrentEvents = maxConcurrentEvents;
             this.topEventTypes = topEventTypes;
+            this.ringStats = ringStats;
         }
 
         public boolean isEnabled() { return enabled; }
@@ -403,6 +450,7 @@ public final class EventOptimizer {
         public boolean isAsyncMode() { return asyncMode; }
         public int getMaxConcurrentEvents() { return maxConcurrentEvents; }
         public Map<String, Long> getTopEventTypes() { return topEventTypes; }
+        public EventRing.RingStats getRingStats() { return ringStats; }
 
         @Override
         public String toString() {
@@ -418,6 +466,15 @@ public final class EventOptimizer {
             sb.append("Batch Timeout: ").append(batchTimeoutMs).append("ms\n");
             sb.append("Async Mode: ").append(asyncMode).append("\n");
             sb.append("Max Concurrent: ").append(maxConcurrentEvents).append("\n");
+            if (ringStats != null) {
+                sb.append("Event Ring: ").append(ringStats.getPending()).append("/").append(ringStats.getCapacity())
+                    .append(" pending, published ").append(ringStats.getPublished())
+                    .append(", backpressure ").append(ringStats.getBackpressure()).append("\n");
+                for (EventRing.ConsumerStats consumer : ringStats.getConsumers()) {
+                    sb.append("  - ").append(consumer.getName()).append(": processed ").append(consumer.getProcessed())
+                        .append(", lag ").append(consumer.getLag()).append(", failed ").append(consumer.getFailed()).append("\n");
+                }
+            }
             sb.append("Top Event Types:\n");
             topEventTypes.forEach((type, count) ->
                 sb.append("  - ").append(type).append(": ").append(count).append("\n"));
@@ -1,5 +1,6 @@
 package com.enadd.core.optimize;
 
+import com.enadd.core.async.ExecutionLayer;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.*;
@@ -15,7 +16,7 @@ public final class OptimizationVerifier {
     private static final AtomicBoolean ENABLED = new AtomicBoolean(false);
     private static final AtomicInteger VERIFICATION_COUNT = new AtomicInteger(0);
 
-    private static ScheduledExecutorService verificationScheduler;
+    private static ScheduledFuture<?> verificationTask;
     private static volatile int verificationIntervalSeconds = 600;
     private static volatile boolean autoVerify = false;
 
@@ -38,14 +39,8 @@ public final class OptimizationVerifier {
 
         registerDefaultGoals();
 
-        verificationScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "OptimizationVerifier-Scheduler");
-            t.setDaemon(true);
-            return t;
-        });
-
         if (autoVerify) {
-            verificationScheduler.scheduleAtFixedRate(
+            verificationTask = ExecutionLayer.getInstance().cpu("optimization-verifier").scheduleAtFixedRate(
                 OptimizationVerifier::performAutoVerification,
                 verificationIntervalSeconds,
                 verificationIntervalSeconds,
@@ -411,16 +406,9 @@ public final class OptimizationVerifier {
 
         ENABLED.set(false);
 
-        if (verificationScheduler != null && !verificationScheduler.isShutdown()) {
-            verificationScheduler.shutdown();
-            try {
-                if (!verificationScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                    verificationScheduler.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                verificationScheduler.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
+        if (verificationTask != null) {
+            verificationTask.cancel(false);
+            verificationTask = null;
         }
 
         verificationHistory.clear();
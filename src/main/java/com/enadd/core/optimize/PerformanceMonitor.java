@@ -1,11 +1,14 @@
 package com.enadd.core.optimize;
 
+import com.enadd.core.async.ExecutionLayer;
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
@@ -36,6 +39,7 @@ public final class PerformanceMonitor {
 
     private static final int MAX_HISTORY_SIZE = 100;
     private static long MONITORING_INTERVAL_MS = 5000;
+    private static volatile ScheduledFuture<?> monitoringTask;
 
     private static volatile long startTime = 0;
     private static int samplesCollected = 0;
@@ -163,6 +167,11 @@ public final class PerformanceMonitor {
         }
 
         MONITORING_ENABLED.set(false);
+        ScheduledFuture<?> task = monitoringTask;
+        if (task != null) {
+            task.cancel(false);
+            monitoringTask = null;
+        }
         LOGGER.accept("[PerformanceMonitor] Shutdown complete");
     }
 
@@ -171,17 +180,22 @@ public final class PerformanceMonitor {
     }
 
     private static void startMonitoring() {
-        new Thread(() -> {
-            while (MONITORING_ENABLED.get()) {
-                try {
-                    collectMetrics();
-                    checkThresholds();
-                    Thread.sleep(MONITORING_INTERVAL_MS);
-                } catch (InterruptedException e) {
-                    break;
-                }
+        scheduleNextSample(0L);
+    }
+
+    // 每次采样后按当前间隔重新登记，间隔调整无需重启
+    private static void scheduleNextSample(long delayMs) {
+        if (!MONITORING_ENABLED.get()) {
+            return;
+        }
+        monitoringTask = ExecutionLayer.getInstance().cpu("performance-monitor").schedule(() -> {
+            try {
+                collectMetrics();
+                checkThresholds();
+            } finally {
+                scheduleNextSample(MONITORING_INTERVAL_MS);
             }
-        }, "PerformanceMonitor-Thread").start();
+        }, delayMs, TimeUnit.MILLISECONDS);
     }
 
     private static void collectMetrics() {
@@ -1,5 +1,6 @@
 package com.enadd.core.optimize;
 
+import com.enadd.core.async.ExecutionLayer;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.*;
@@ -14,7 +15,7 @@ public final class PerformanceReporter {
     private static final AtomicBoolean ENABLED = new AtomicBoolean(false);
     private static final AtomicLong REPORT_COUNT = new AtomicLong(0);
 
-    private static ScheduledExecutorService reportScheduler;
+    private static ScheduledFuture<?> reportTask;
     private static volatile int reportIntervalSeconds = 300;
     private static volatile boolean autoGenerateReports = false;
 
@@ -31,19 +32,8 @@ public final class PerformanceReporter {
             return;
         }
 
-        reportScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "PerformanceReporter-Scheduler");
-            t.setDaemon(true);
-            return t;
-        });
-
         if (autoGenerateReports) {
-            reportScheduler.scheduleAtFixedRate(
-                PerformanceReporter::generateAndLogReport,
-                reportIntervalSeconds,
-                reportIntervalSeconds,
-                TimeUnit.SECONDS
-            );
+            scheduleReports();
         }
 
         baseline = collectMetrics();
@@ -304,30 +294,21 @@ public final class PerformanceReporter {
     public static void setReportInterval(int seconds) {
         reportIntervalSeconds = Math.max(60, Math.min(3600, seconds));
 
-        if (autoGenerateReports && reportScheduler != null && !reportScheduler.isShutdown()) {
-            reportScheduler.shutdown();
-            try {
-                if (!reportScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                    reportScheduler.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                reportScheduler.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
+        if (autoGenerateReports && reportTask != null) {
+            scheduleReports();
+        }
+    }
 
-            reportScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-                Thread t = new Thread(r, "PerformanceReporter-Scheduler");
-                t.setDaemon(true);
-                return t;
-            });
-
-            reportScheduler.scheduleAtFixedRate(
-                PerformanceReporter::generateAndLogReport,
-                reportIntervalSeconds,
-                reportIntervalSeconds,
-                TimeUnit.SECONDS
-            );
+    private static synchronized void scheduleReports() {
+        if (reportTask != null) {
+            reportTask.cancel(false);
         }
+        reportTask = ExecutionLayer.getInstance().cpu("performance-reporter").scheduleAtFixedRate(
+            PerformanceReporter::generateAndLogReport,
+            reportIntervalSeconds,
+            reportIntervalSeconds,
+            TimeUnit.SECONDS
+        );
     }
 
     public static void setAutoGenerateReports(boolean enabled) {
@@ -364,16 +345,9 @@ public final class PerformanceReporter {
 
         ENABLED.set(false);
 
-        if (reportScheduler != null && !reportScheduler.isShutdown()) {
-            reportScheduler.shutdown();
-            try {
-                if (!reportScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                    reportScheduler.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                reportScheduler.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
+        if (reportTask != null) {
+            reportTask.cancel(false);
+            reportTask = null;
         }
 
         snapshots.clear();
@@ -1,5 +1,6 @@
 package com.enadd.core.optimize;
 
+import com.enadd.core.async.ExecutionLayer;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.MemoryUsage;
@@ -7,6 +8,8 @@ import java.lang.management.ThreadMXBean;
 import java.net.NetworkInterface;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 
 public final class ServerAnalyzer {
@@ -21,10 +24,18 @@ public final class ServerAnalyzer {
     private static final ConcurrentHashMap<String, MetricSnapshot> metricHistory = new ConcurrentHashMap<>();
     private static long analysisStartTime = 0;
 
+    // 主线程采样的 MSPT 环形窗口，供效果 LOD 等负载感知组件读取
+    private static final int TICK_SAMPLE_WINDOW = 10;
+    private static final double[] tickSamples = new double[TICK_SAMPLE_WINDOW];
+    private static int tickSampleIndex = 0;
+    private static int tickSampleCount = 0;
+    private static volatile double recentMspt = 0;
+    private static volatile int onlinePlayers = 0;
+
     // Fields for singleton and analysis state
     private static volatile ServerAnalyzer instance;
     private volatile boolean isAnalyzing = false;
-    private volatile Thread analysisThread = null;
+    private volatile ScheduledFuture<?> analysisTask = null;
 
     public enum ServerType {
         DEDICATED("Dedicated Server"),
@@ -395,6 +406,47 @@ public final class ServerAnalyzer {
         return true;
     }
 
+    /**
+     * 记录一次服务器 tick 采样（应在主线程调用）
+     *
+     * @param mspt 最近的平均每 tick 耗时（毫秒）
+     * @param players 当前在线玩家数
+     */
+    public static void recordTickSample(double mspt, int players) {
+        if (Double.isNaN(mspt) || mspt < 0) {
+            return;
+        }
+
+        synchronized (tickSamples) {
+            tickSamples[tickSampleIndex] = mspt;
+            tickSampleIndex = (tickSampleIndex + 1) % TICK_SAMPLE_WINDOW;
+            if (tickSampleCount < TICK_SAMPLE_WINDOW) {
+                tickSampleCount++;
+            }
+
+            double sum = 0;
+            for (int i = 0; i < tickSampleCount; i++) {
+                sum += tickSamples[i];
+            }
+            recentMspt = sum / tickSampleCount;
+        }
+        onlinePlayers = Math.max(0, players);
+    }
+
+    /**
+     * 获取最近采样窗口内的平均 MSPT，无采样时返回 0
+     */
+    public static double getRecentMspt() {
+        return recentMspt;
+    }
+
+    /**
+     * 获取最近一次采样时的在线玩家数
+     */
+    public static int getOnlinePlayers() {
+        return onlinePlayers;
+    }
+
     private static double calculateCurrentCpuUsage() {
         try {
             var osBean = ManagementFactory.getOperatingSystemMXBean();
@@ -469,22 +521,15 @@ public final class ServerAnalyzer {
     public void startAnalysis() {
         if (!isAnalyzing) {
             isAnalyzing = true;
-            analysisThread = new Thread(() -> {
-                while (isAnalyzing) {
-                    try {
-                        MetricSnapshot snapshot = captureMetrics();
-                        recordMetric("current_" + System.currentTimeMillis(), snapshot);
-                        Thread.sleep(5000); // Capture metrics every 5 seconds
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    } catch (Exception e) {
-                        // Log error but continue analysis
-                    }
+            // Capture metrics every 5 seconds on the shared execution layer
+            analysisTask = ExecutionLayer.getInstance().cpu("server-analyzer").scheduleAtFixedRate(() -> {
+                try {
+                    MetricSnapshot snapshot = captureMetrics();
+                    recordMetric("current_" + System.currentTimeMillis(), snapshot);
+                } catch (Exception e) {
+                    // Log error but continue analysis
                 }
-            }, "ServerAnalyzer-Thread");
-            analysisThread.setDaemon(true);
-            analysisThread.start();
+            }, 0L, 5L, TimeUnit.SECONDS);
         }
     }
 
@@ -503,9 +548,9 @@ public final class ServerAnalyzer {
 
     public void stopAnalysis() {
         isAnalyzing = false;
-        if (analysisThread != null) {
-            analysisThread.interrupt();
-            analysisThread = null;
+        if (analysisTask != null) {
+            analysisTask.cancel(false);
+            analysisTask = null;
         }
     }
 }
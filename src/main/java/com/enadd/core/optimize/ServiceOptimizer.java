@@ -1,5 +1,6 @@
 package com.enadd.core.optimize;
 
+import com.enadd.core.async.ExecutionLayer;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.*;
@@ -19,7 +20,8 @@ public final class ServiceOptimizer {
     private static ConcurrentHashMap<String, ServiceInstance> services;
     private static ConcurrentHashMap<String, Set<String>> serviceDependencies;
     private static ConcurrentHashMap<String, Set<String>> dependentServices;
-    private static ScheduledExecutorService monitorScheduler;
+    private static ScheduledFuture<?> healthCheckTask;
+    private static ScheduledFuture<?> redundancyTask;
 
     private static volatile long healthCheckIntervalMs = 10000L;
     private static volatile double maxCpuPercentPerService = 10.0;
@@ -40,18 +42,13 @@ public final class ServiceOptimizer {
         serviceDependencies = new ConcurrentHashMap<>();
         dependentServices = new ConcurrentHashMap<>();
 
-        monitorScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "ServiceOptimizer-Monitor");
-            t.setDaemon(true);
-            return t;
-        });
-
-        monitorScheduler.scheduleAtFixedRate(ServiceOptimizer::performHealthChecks,
+        ExecutionLayer.Lane monitorLane = ExecutionLayer.getInstance().cpu("service-monitor");
+        healthCheckTask = monitorLane.scheduleAtFixedRate(ServiceOptimizer::performHealthChecks,
                                             healthCheckIntervalMs,
                                             healthCheckIntervalMs,
                                             TimeUnit.MILLISECONDS);
 
-        monitorScheduler.scheduleAtFixedRate(ServiceOptimizer::analyzeRedundancy,
+        redundancyTask = monitorLane.scheduleAtFixedRate(ServiceOptimizer::analyzeRedundancy,
                                             60000L,
                                             60000L,
                                             TimeUnit.MILLISECONDS);
@@ -391,16 +388,13 @@ public final class ServiceOptimizer {
 
         ENABLED.set(false);
 
-        if (monitorScheduler != null && !monitorScheduler.isShutdown()) {
-            monitorScheduler.shutdown();
-            try {
-                if (!monitorScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                    monitorScheduler.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                monitorScheduler.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
+        if (healthCheckTask != null) {
+            healthCheckTask.cancel(false);
+            healthCheckTask = null;
+        }
+        if (redundancyTask != null) {
+            redundancyTask.cancel(false);
+            redundancyTask = null;
         }
 
         services.forEach((name, service) -> service.stop());
@@ -513,7 +507,8 @@ public final class ServiceOptimizer {
         private final Runnable healthCheck;
         private final Consumer<Boolean> stateChange;
         private final AtomicBoolean running = new AtomicBoolean(false);
-        private final ExecutorService executor;
+        private final ExecutionLayer.Lane lane;
+        private final Executor executor;
 
         private volatile double cpuUsage;
         private volatile long memoryUsage;
@@ -525,11 +520,9 @@ public final class ServiceOptimizer {
             this.initializer = initializer;
             this.healthCheck = healthCheck;
             this.stateChange = stateChange;
-            this.executor = Executors.newSingleThreadExecutor(r -> {
-                Thread t = new Thread(r, "Service-" + name);
-                t.setDaemon(true);
-                return t;
-            });
+            // 每个服务一个串行视图，保持原单线程执行器的顺序语义
+            this.lane = ExecutionLayer.getInstance().cpu("service:" + name);
+            this.executor = lane.serial();
         }
 
         public String getName() { return name; }
@@ -545,15 +538,7 @@ public final class ServiceOptimizer {
 
         public void stop() {
             if (running.compareAndSet(true, false)) {
-                executor.shutdown();
-                try {
-                    if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
-                        executor.shutdownNow();
-                    }
-                } catch (InterruptedException e) {
-                    executor.shutdownNow();
-                    Thread.currentThread().interrupt();
-                }
+                lane.close();
                 stateChange.accept(false);
                 LOGGER.info("Service stopped: " + name);
             }
@@ -561,7 +546,7 @@ public final class ServiceOptimizer {
 
         public void submitTask(Runnable task) {
             if (running.get()) {
-                executor.submit(task);
+                executor.execute(task);
             } else {
                 task.run();
             }
@@ -0,0 +1,409 @@
+package com.enadd.core.pool;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * 线程本地弹匣 + 共享仓库的空闲对象缓存
+ *
+ * 每个线程持有两个小弹匣（当前 + 备用），取还对象时只操作本线程的弹匣，不需要任何同步；
+ * 两个弹匣都空（或都满）时才和共享仓库整匣交换一次，仓库操作在锁内完成但频率低一个数量级。
+ *
+ * 容量按观测到的需求调整：统计窗口内借出数量的峰值乘以余量作为空闲对象目标数，
+ * 空闲对象超过目标时归还会被丢弃，仓库中多余的满弹匣在调整时释放。
+ * 借出数、峰值和空闲数的变化先记在本线程的弹匣对上，只在和仓库交换（或未命中）时
+ * 在锁内汇总，取还对象的常见路径不写任何共享变量；因此共享计数最多滞后每个线程两个弹匣。
+ *
+ * 已退出线程的弹匣在新线程注册和调整时回收到仓库，避免计数漂移和弹匣堆积；
+ * 清空时通过纪元号让各线程在下次访问时自行丢弃本地弹匣，不跨线程修改弹匣。
+ *
+ * @param <T> 缓存对象类型
+ */
+public final class MagazineDepot<T> {
+
+    private static final int DEFAULT_MAGAZINE_SIZE = 16;
+    private static final long ADJUST_INTERVAL_NANOS = 5_000_000_000L;
+    private static final double DEMAND_HEADROOM = 1.25;
+
+    private final String name;
+    private final int magazineSize;
+    private final int minIdle;
+    private final int maxIdle;
+
+    private final ThreadLocal<ThreadCache<T>> localCache;
+    private final ConcurrentLinkedQueue<ThreadCache<T>> threadCaches = new ConcurrentLinkedQueue<>();
+
+    // 共享仓库，仅在 depotLock 内访问
+    private final Object depotLock = new Object();
+    private final ArrayDeque<Magazine<T>> fullMagazines = new ArrayDeque<>();
+    private final ArrayDeque<Magazine<T>> emptyMagazines = new ArrayDeque<>();
+
+    // 汇总后的计数，只在 depotLock 内写入
+    private volatile int idleCount = 0;
+    private volatile int outstanding = 0;
+    private int windowPeak = 0;
+    private volatile int targetIdle;
+    private volatile int epoch = 0;
+    private volatile long lastAdjustNanos = System.nanoTime();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder depotLoads = new LongAdder();
+    private final LongAdder depotUnloads = new LongAdder();
+    private final LongAdder drops = new LongAdder();
+
+    public MagazineDepot(String name, int minIdle, int maxIdle) {
+        this(name, minIdle, maxIdle, DEFAULT_MAGAZINE_SIZE);
+    }
+
+    public MagazineDepot(String name, int minIdle, int maxIdle, int magazineSize) {
+        this.name = name;
+        this.maxIdle = Math.max(1, maxIdle);
+        this.minIdle = Math.max(0, Math.min(minIdle, this.maxIdle));
+        this.magazineSize = Math.max(2, Math.min(magazineSize, this.maxIdle));
+        this.targetIdle = this.maxIdle;
+        this.localCache = ThreadLocal.withInitial(() -> {
+            ThreadCache<T> cache = new ThreadCache<>(Thread.currentThread(), this.magazineSize, epoch);
+            synchronized (depotLock) {
+                // 新线程注册的频率很低，顺带回收已退出线程的弹匣
+                reclaimDeadThreads();
+                threadCaches.add(cache);
+            }
+            return cache;
+        });
+    }
+
+    /**
+     * 预先放入空闲对象（直接装入仓库的满弹匣）
+     */
+    public void prefill(List<T> objects) {
+        synchronized (depotLock) {
+            Magazine<T> magazine = new Magazine<>(magazineSize);
+            for (T obj : objects) {
+                if (idleCount >= maxIdle) {
+                    break;
+                }
+                if (magazine.isFull()) {
+                    fullMagazines.push(magazine);
+                    magazine = new Magazine<>(magazineSize);
+                }
+                magazine.push(obj);
+                idleCount++;
+            }
+            if (magazine.count > 0) {
+                fullMagazines.push(magazine);
+            }
+        }
+    }
+
+    /**
+     * 取出一个空闲对象
+     *
+     * @return 空闲对象；没有可用对象时返回 null，由调用方创建新对象
+     */
+    public T take() {
+        ThreadCache<T> cache = currentCache();
+        cache.recordBorrow();
+
+        T obj = cache.loaded.pop();
+        if (obj == null) {
+            if (cache.previous.count > 0) {
+                cache.swap();
+                obj = cache.loaded.pop();
+            } else {
+                // 两个本地弹匣都空：用空弹匣向仓库换一个满弹匣
+                Magazine<T> full;
+                synchronized (depotLock) {
+                    fold(cache);
+                    full = fullMagazines.poll();
+                    if (full != null) {
+                        emptyMagazines.push(cache.previous);
+                    }
+                }
+                if (full != null) {
+                    cache.previous = cache.loaded;
+                    cache.loaded = full;
+                    depotLoads.increment();
+                    obj = full.pop();
+                }
+            }
+        }
+
+        if (obj != null) {
+            cache.idleDelta--;
+            hits.increment();
+        } else {
+            misses.increment();
+            maybeAdjust();
+        }
+        return obj;
+    }
+
+    /**
+     * 归还一个空闲对象
+     *
+     * @return 是否被缓存；空闲对象已达目标数时返回 false，调用方应丢弃对象
+     */
+    public boolean put(T obj) {
+        if (obj == null) {
+            return false;
+        }
+        ThreadCache<T> cache = currentCache();
+        cache.borrowed--;
+
+        if (idleCount + cache.idleDelta >= Math.min(targetIdle, maxIdle)) {
+            drops.increment();
+            return false;
+        }
+
+        if (!cache.loaded.isFull()) {
+            cache.loaded.push(obj);
+        } else if (!cache.previous.isFull()) {
+            cache.swap();
+            cache.loaded.push(obj);
+        } else {
+            // 两个本地弹匣都满：把满弹匣交给仓库，换一个空弹匣
+            Magazine<T> empty;
+            synchronized (depotLock) {
+                fold(cache);
+                fullMagazines.push(cache.previous);
+                empty = emptyMagazines.poll();
+            }
+            if (empty == null) {
+                empty = new Magazine<>(magazineSize);
+            }
+            cache.previous = cache.loaded;
+            cache.loaded = empty;
+            depotUnloads.increment();
+            empty.push(obj);
+        }
+
+        cache.idleDelta++;
+        return true;
+    }
+
+    private ThreadCache<T> currentCache() {
+        ThreadCache<T> cache = localCache.get();
+        int current = epoch;
+        if (cache.epoch != current) {
+            // 池已被清空，本地弹匣中的对象不再计入空闲数，直接丢弃
+            cache.loaded.clear();
+            cache.previous.clear();
+            cache.idleDelta = 0;
+            cache.epoch = current;
+        }
+        return cache;
+    }
+
+    /**
+     * 把线程本地的计数变化汇总到共享计数，调用方持有 depotLock
+     */
+    private void fold(ThreadCache<T> cache) {
+        windowPeak = Math.max(windowPeak, outstanding + cache.peakBorrowed);
+        outstanding += cache.borrowed;
+        idleCount += cache.idleDelta;
+        cache.borrowed = 0;
+        cache.peakBorrowed = 0;
+        cache.idleDelta = 0;
+    }
+
+    /**
+     * 汇总当前线程的计数，使本线程读到的统计包含自己尚未交换的变化
+     */
+    private void foldCurrentThread() {
+        ThreadCache<T> cache = currentCache();
+        if (cache.borrowed != 0 || cache.idleDelta != 0 || cache.peakBorrowed != 0) {
+            synchronized (depotLock) {
+                fold(cache);
+            }
+        }
+    }
+
+    private void maybeAdjust() {
+        if (System.nanoTime() - lastAdjustNanos >= ADJUST_INTERVAL_NANOS) {
+            adjust();
+        }
+    }
+
+    /**
+     * 按上一个窗口的需求峰值调整空闲对象目标数，释放仓库中多余的满弹匣，并回收已退出线程的弹匣
+     */
+    public void adjust() {
+        synchronized (depotLock) {
+            lastAdjustNanos = System.nanoTime();
+
+            int peak = windowPeak;
+            windowPeak = Math.max(0, outstanding);
+            int target = (int) Math.ceil(peak * DEMAND_HEADROOM);
+            targetIdle = Math.max(minIdle, Math.min(maxIdle, Math.max(target, magazineSize)));
+
+            reclaimDeadThreads();
+
+            while (idleCount > targetIdle + magazineSize && !fullMagazines.isEmpty()) {
+                Magazine<T> magazine = fullMagazines.poll();
+                idleCount -= magazine.count;
+                magazine.clear();
+                emptyMagazines.push(magazine);
+            }
+        }
+    }
+
+    private void reclaimDeadThreads() {
+        Iterator<ThreadCache<T>> iterator = threadCaches.iterator();
+        while (iterator.hasNext()) {
+            ThreadCache<T> cache = iterator.next();
+            Thread owner = cache.owner.get();
+            if (owner != null && owner.isAlive()) {
+                continue;
+            }
+
+            // 线程已退出（isAlive 返回 false 保证可见性），其弹匣和计数可以安全地由当前线程接管
+            iterator.remove();
+            boolean stale = cache.epoch != epoch;
+            if (stale) {
+                cache.idleDelta = 0;
+            }
+            fold(cache);
+            for (Magazine<T> magazine : List.of(cache.loaded, cache.previous)) {
+                if (stale) {
+                    magazine.clear();
+                    emptyMagazines.push(magazine);
+                } else if (magazine.isFull()) {
+                    fullMagazines.push(magazine);
+                } else if (magazine.count > 0) {
+                    idleCount -= magazine.count;
+                    magazine.clear();
+                    emptyMagazines.push(magazine);
+                } else {
+                    emptyMagazines.push(magazine);
+                }
+            }
+        }
+    }
+
+    /**
+     * 清空仓库；各线程的本地弹匣在该线程下次访问时丢弃
+     */
+    public void clear() {
+        synchronized (depotLock) {
+            for (Magazine<T> magazine : fullMagazines) {
+                magazine.clear();
+            }
+            fullMagazines.clear();
+            emptyMagazines.clear();
+            epoch++;
+            idleCount = 0;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getIdleCount() {
+        foldCurrentThread();
+        return Math.max(0, idleCount);
+    }
+
+    public int getOutstanding() {
+        foldCurrentThread();
+        return Math.max(0, outstanding);
+    }
+
+    public int getTargetIdle() {
+        return targetIdle;
+    }
+
+    public int getMaxIdle() {
+        return maxIdle;
+    }
+
+    public PoolStatistics getStatistics() {
+        return new PoolStatistics(
+            name,
+            hits.sum(),
+            misses.sum(),
+            depotLoads.sum(),
+            depotUnloads.sum(),
+            drops.sum(),
+            getIdleCount(),
+            targetIdle,
+            maxIdle
+        );
+    }
+
+    /**
+     * 固定容量的对象栈
+     */
+    private static final class Magazine<T> {
+        private final T[] rounds;
+        private int count = 0;
+
+        @SuppressWarnings("unchecked")
+        private Magazine(int capacity) {
+            this.rounds = (T[]) new Object[capacity];
+        }
+
+        private boolean isFull() {
+            return count == rounds.length;
+        }
+
+        private void push(T obj) {
+            rounds[count++] = obj;
+        }
+
+        private T pop() {
+            if (count == 0) {
+                return null;
+            }
+            T obj = rounds[--count];
+            rounds[count] = null;
+            return obj;
+        }
+
+        private void clear() {
+            for (int i = 0; i < count; i++) {
+                rounds[i] = null;
+            }
+            count = 0;
+        }
+    }
+
+    /**
+     * 单个线程的弹匣对和未汇总的计数，只由所属线程访问（线程退出后由仓库回收）
+     */
+    private static final class ThreadCache<T> {
+        private final WeakReference<Thread> owner;
+        private Magazine<T> loaded;
+        private Magazine<T> previous;
+        private int epoch;
+        // 自上次汇总以来的借出减归还、其间的最大值、空闲数变化
+        private int borrowed;
+        private int peakBorrowed;
+        private int idleDelta;
+
+        private ThreadCache(Thread owner, int magazineSize, int epoch) {
+            this.owner = new WeakReference<>(owner);
+            this.epoch = epoch;
+            this.loaded = new Magazine<>(magazineSize);
+            this.previous = new Magazine<>(magazineSize);
+        }
+
+        private void recordBorrow() {
+            if (++borrowed > peakBorrowed) {
+                peakBorrowed = borrowed;
+            }
+        }
+
+        private void swap() {
+            Magazine<T> tmp = loaded;
+            loaded = previous;
+            previous = tmp;
+        }
+    }
+}
@@ -1,22 +1,21 @@
 package com.enadd.core.pool;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
 
 
 /**
  * 高性能对象池 - 减少GC压力
- * 使用无锁队列实现，支持并发访问
+ * 基于线程本地弹匣 + 共享仓库（{@link MagazineDepot}），常见路径上取还对象不产生竞争
  *
  * @param <T> 池化对象类型
  */
 public final class ObjectPool<T> {
 
-    private final ConcurrentLinkedQueue<T> pool;
+    private final MagazineDepot<T> depot;
     private final Supplier<T> factory;
     private final int maxSize;
-    private final AtomicInteger currentSize;
 
     /**
      * 创建对象池
@@ -26,16 +25,23 @@ public final class ObjectPool<T> {
      * @param maxSize 最大大小
      */
     public ObjectPool(Supplier<T> factory, int initialSize, int maxSize) {
+        this("pool", factory, initialSize, maxSize);
+    }
+
+    /**
+     * 创建带名称的对象池，名称用于统计输出
+     */
+    public ObjectPool(String name, Supplier<T> factory, int initialSize, int maxSize) {
         this.factory = factory;
         this.maxSize = maxSize;
-        this.pool = new ConcurrentLinkedQueue<>();
-        this.currentSize = new AtomicInteger(0);
+        this.depot = new MagazineDepot<>(name, initialSize, maxSize);
 
         // 预创建对象
+        List<T> initial = new ArrayList<>(initialSize);
         for (int i = 0; i < initialSize; i++) {
-            pool.offer(factory.get());
-            currentSize.incrementAndGet();
+            initial.add(factory.get());
         }
+        depot.prefill(initial);
     }
 
     /**
@@ -43,7 +49,7 @@ public final class ObjectPool<T> {
      * 如果池为空，创建新对象
      */
     public T acquire() {
-        T obj = pool.poll();
+        T obj = depot.take();
         if (obj == null) {
             obj = factory.get();
         }
@@ -52,32 +58,34 @@ public final class ObjectPool<T> {
 
     /**
      * 归还对象到池中
-     * 如果池已满，丢弃对象
+     * 空闲对象超过按需求计算的目标数时丢弃对象
      */
     public void release(T obj) {
         if (obj == null) {
             return;
         }
-
-        if (currentSize.get() < maxSize) {
-            pool.offer(obj);
-            currentSize.incrementAndGet();
-        }
+        depot.put(obj);
     }
 
     /**
      * 清空对象池
      */
     public void clear() {
-        pool.clear();
-        currentSize.set(0);
+        depot.clear();
     }
 
     /**
-     * 获取当前池大小
+     * 按近期需求调整空闲对象目标数
+     */
+    public void adjust() {
+        depot.adjust();
+    }
+
+    /**
+     * 获取当前池大小（空闲对象数）
      */
     public int size() {
-        return currentSize.get();
+        return depot.getIdleCount();
     }
 
     /**
@@ -86,4 +94,8 @@ public final class ObjectPool<T> {
     public int getMaxSize() {
         return maxSize;
     }
+
+    public PoolStatistics getStatistics() {
+        return depot.getStatistics();
+    }
 }
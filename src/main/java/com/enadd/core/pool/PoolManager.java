@@ -1,11 +1,16 @@
 package com.enadd.core.pool;
 
+import com.enadd.core.async.ExecutionLayer;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.Material;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 
 
@@ -28,12 +33,20 @@ public final class PoolManager {
     // ItemStack对象池 - 按Material分类
     private final ConcurrentHashMap<Material, ObjectPool<ItemStack>> itemStackPools;
 
+    // 其他模块的对象池（如实体池）注册的统计来源
+    private final ConcurrentHashMap<String, Supplier<PoolStatistics>> externalPools = new ConcurrentHashMap<>(16);
+    private final ConcurrentHashMap<String, Runnable> externalAdjusters = new ConcurrentHashMap<>(16);
+
+    // 与 MagazineDepot 的调整窗口一致
+    private static final long ADJUST_INTERVAL_SECONDS = 5L;
+    private ScheduledFuture<?> maintenanceTask;
+
     private PoolManager() {
         // 初始化集合对象池
-        arrayListPool = new ObjectPool<>(ArrayList::new, 50, 200);
-        hashMapPool = new ObjectPool<>(HashMap::new, 30, 100);
-        hashSetPool = new ObjectPool<>(HashSet::new, 30, 100);
-        concurrentMapPool = new ObjectPool<>(ConcurrentHashMap::new, 20, 80);
+        arrayListPool = new ObjectPool<>("ArrayList", ArrayList::new, 50, 200);
+        hashMapPool = new ObjectPool<>("HashMap", HashMap::new, 30, 100);
+        hashSetPool = new ObjectPool<>("HashSet", HashSet::new, 30, 100);
+        concurrentMapPool = new ObjectPool<>("ConcurrentHashMap", ConcurrentHashMap::new, 20, 80);
 
         // 初始化ItemStack池容器
         itemStackPools = new ConcurrentHashMap<>(32);
@@ -81,7 +94,7 @@ public final class PoolManager {
      */
     public ObjectPool<ItemStack> getItemStackPool(Material material) {
         return itemStackPools.computeIfAbsent(material,
-            m -> new ObjectPool<>(() -> new ItemStack(m), 10, 50));
+            m -> new ObjectPool<>("ItemStack:" + m.name(), () -> new ItemStack(m), 10, 50));
     }
 
     /**
@@ -164,6 +177,85 @@ public final class PoolManager {
         }
     }
 
+    /**
+     * 注册外部对象池的统计来源
+     */
+    public void registerPool(String name, Supplier<PoolStatistics> statistics) {
+        if (name != null && statistics != null) {
+            externalPools.put(name, statistics);
+        }
+    }
+
+    /**
+     * 注册外部对象池的统计来源和调整入口，调整随 {@link #adjustAll()} 一起执行
+     */
+    public void registerPool(String name, Supplier<PoolStatistics> statistics, Runnable adjuster) {
+        registerPool(name, statistics);
+        if (name != null && adjuster != null) {
+            externalAdjusters.put(name, adjuster);
+        }
+    }
+
+    public void unregisterPool(String name) {
+        if (name != null) {
+            externalPools.remove(name);
+            externalAdjusters.remove(name);
+        }
+    }
+
+    /**
+     * 按近期需求调整所有对象池（含已注册的外部对象池）的空闲目标数
+     */
+    public void adjustAll() {
+        arrayListPool.adjust();
+        hashMapPool.adjust();
+        hashSetPool.adjust();
+        concurrentMapPool.adjust();
+        itemStackPools.values().forEach(ObjectPool::adjust);
+        externalAdjusters.values().forEach(Runnable::run);
+    }
+
+    /**
+     * 启动定期维护：每个调整窗口执行一次 {@link #adjustAll()}
+     *
+     * 对象池只在未命中时顺带调整，需求下降后没有未命中，不定期调整的话空闲对象不会释放。
+     */
+    public synchronized void startMaintenance() {
+        if (maintenanceTask != null) {
+            return;
+        }
+        maintenanceTask = ExecutionLayer.getInstance().cpu("pool-maintenance")
+            .scheduleAtFixedRate(this::adjustAll, ADJUST_INTERVAL_SECONDS, ADJUST_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stopMaintenance() {
+        if (maintenanceTask != null) {
+            maintenanceTask.cancel(false);
+            maintenanceTask = null;
+        }
+    }
+
+    /**
+     * 获取每个对象池的命中率、仓库交换次数等统计
+     */
+    public List<PoolStatistics> getPoolStatistics() {
+        List<PoolStatistics> result = new ArrayList<>(4 + itemStackPools.size() + externalPools.size());
+        result.add(arrayListPool.getStatistics());
+        result.add(hashMapPool.getStatistics());
+        result.add(hashSetPool.getStatistics());
+        result.add(concurrentMapPool.getStatistics());
+        for (ObjectPool<ItemStack> pool : itemStackPools.values()) {
+            result.add(pool.getStatistics());
+        }
+        for (Supplier<PoolStatistics> source : externalPools.values()) {
+            PoolStatistics stats = source.get();
+            if (stats != null) {
+                result.add(stats);
+            }
+        }
+        return result;
+    }
+
     /**
      * 清空所有对象池
      */
@@ -180,15 +272,20 @@ public final class PoolManager {
      * 获取对象池统计信息
      */
     public PoolStats getStats() {
-        int totalPools = 4 + itemStackPools.size();
-        int totalObjects = arrayListPool.size() + hashMapPool.size() +
-                          hashSetPool.size() + concurrentMapPool.size();
-
-        for (ObjectPool<ItemStack> pool : itemStackPools.values()) {
-            totalObjects += pool.size();
+        List<PoolStatistics> pools = getPoolStatistics();
+        int totalObjects = 0;
+        long hits = 0;
+        long misses = 0;
+        long depotTransfers = 0;
+
+        for (PoolStatistics pool : pools) {
+            totalObjects += pool.getIdle();
+            hits += pool.getHits();
+            misses += pool.getMisses();
+            depotTransfers += pool.getDepotTransfers();
         }
 
-        return new PoolStats(totalPools, totalObjects);
+        return new PoolStats(pools.size(), totalObjects, hits, misses, depotTransfers);
     }
 
     /**
@@ -197,10 +294,16 @@ public final class PoolManager {
     public static final class PoolStats {
         private final int totalPools;
         private final int totalObjects;
+        private final long hits;
+        private final long misses;
+        private final long depotTransfers;
 
-        public PoolStats(int totalPools, int totalObjects) {
+        public PoolStats(int totalPools, int totalObjects, long hits, long misses, long depotTransfers) {
             this.totalPools = totalPools;
             this.totalObjects = totalObjects;
+            this.hits = hits;
+            this.misses = misses;
+            this.depotTransfers = depotTransfers;
         }
 
         public int getTotalPools() {
@@ -211,9 +314,27 @@ public final class PoolManager {
             return totalObjects;
         }
 
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getDepotTransfers() {
+            return depotTransfers;
+        }
+
+        public double getHitRate() {
+            long total = hits + misses;
+            return total > 0 ? (double) hits / total * 100 : 0;
+        }
+
         @Override
         public String toString() {
-            return String.format("Pools: %d, Objects: %d", totalPools, totalObjects);
+            return String.format("Pools: %d, Objects: %d, Hit rate: %.1f%%, Depot transfers: %d",
+                totalPools, totalObjects, getHitRate(), depotTransfers);
         }
     }
 }
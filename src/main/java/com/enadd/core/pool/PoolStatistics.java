@@ -0,0 +1,52 @@
+package com.enadd.core.pool;
+
+
+/**
+ * 单个对象池的统计快照
+ */
+public final class PoolStatistics {
+    private final String name;
+    private final long hits;
+    private final long misses;
+    private final long depotLoads;
+    private final long depotUnloads;
+    private final long drops;
+    private final int idle;
+    private final int targetIdle;
+    private final int maxIdle;
+
+    public PoolStatistics(String name, long hits, long misses, long depotLoads, long depotUnloads,
+                          long drops, int idle, int targetIdle, int maxIdle) {
+        this.name = name;
+        this.hits = hits;
+        this.misses = misses;
+        this.depotLoads = depotLoads;
+        this.depotUnloads = depotUnloads;
+        this.drops = drops;
+        this.idle = idle;
+        this.targetIdle = targetIdle;
+        this.maxIdle = maxIdle;
+    }
+
+    public String getName() { return name; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getDepotLoads() { return depotLoads; }
+    public long getDepotUnloads() { return depotUnloads; }
+    public long getDepotTransfers() { return depotLoads + depotUnloads; }
+    public long getDrops() { return drops; }
+    public int getIdle() { return idle; }
+    public int getTargetIdle() { return targetIdle; }
+    public int getMaxIdle() { return maxIdle; }
+
+    public double getHitRate() {
+        long total = hits + misses;
+        return total > 0 ? (double) hits / total * 100 : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: hit %.1f%%, depot %d, drops %d, idle %d/%d (max %d)",
+            name, getHitRate(), getDepotTransfers(), drops, idle, targetIdle, maxIdle);
+    }
+}
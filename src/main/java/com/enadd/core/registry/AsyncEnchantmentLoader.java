@@ -1,24 +1,20 @@
 package com.enadd.core.registry;
 
 import com.enadd.EnchAdd;
-import org.bukkit.Bukkit;
+import com.enadd.core.async.ExecutionLayer;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 
 public class AsyncEnchantmentLoader {
 
     private static AsyncEnchantmentLoader instance;
-    private final ExecutorService executorService;
+    private final ExecutionLayer.Lane executorService;
     private final AtomicInteger loadedCount;
     private volatile boolean isLoading;
 
     private AsyncEnchantmentLoader() {
-        this.executorService = Executors.newFixedThreadPool(
-            Math.max(2, Runtime.getRuntime().availableProcessors() / 2)
-        );
+        this.executorService = ExecutionLayer.getInstance().cpu("enchantment-loader");
         this.loadedCount = new AtomicInteger(0);
         this.isLoading = false;
     }
@@ -45,8 +41,7 @@ public class AsyncEnchantmentLoader {
                 EnchantmentRegistry.registerAll();
 
                 long duration = System.currentTimeMillis() - startTime;
-                Bukkit.getScheduler().runTask(
-                    EnchAdd.getInstance(),
+                ExecutionLayer.getInstance().runOnMain(
                     () -> {
                         int count = EnchantmentRegistry.getCount();
                         EnchAdd.getInstance().getLogger()
@@ -55,8 +50,7 @@ public class AsyncEnchantmentLoader {
                     }
                 );
             } catch (Exception e) {
-                Bukkit.getScheduler().runTask(
-                    EnchAdd.getInstance(),
+                ExecutionLayer.getInstance().runOnMain(
                     () -> {
                         EnchAdd.getInstance().getLogger()
                             .severe("异步加载失败: " + e.getMessage());
@@ -73,7 +67,7 @@ public class AsyncEnchantmentLoader {
     }
 
     public void shutdown() {
-        executorService.shutdown();
+        executorService.close();
     }
 
     public boolean isLoading() {
@@ -17,7 +17,16 @@ import java.util.Collections;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import com.enadd.core.conflict.EnchantmentConflictManager;
 
 
@@ -36,9 +45,38 @@ public final class EnchantmentRegistry {
         return INSTANCE;
     }
 
+    /**
+     * 分类加载超时，超时的分类视为失败
+     */
+    private static final long CATEGORY_TIMEOUT_SECONDS = 30L;
+
+    /**
+     * 附魔分类，顺序即合并顺序：同一 ID 出现在多个分类时后面的分类覆盖前面的
+     */
+    private static final List<Category> CATEGORIES = List.of(
+        new Category("enhanced", "增强版", EnhancedEnchantmentLoader::registerAll, EnhancedEnchantmentLoader::getAllEnchantments),
+        new Category("armor", "护甲", ArmorEnchantmentLoader::registerAll, ArmorEnchantmentLoader::getAllEnchantments),
+        new Category("combat", "战斗", CombatEnchantmentLoader::registerAll, CombatEnchantmentLoader::getAllEnchantments),
+        new Category("curse", "诅咒", CurseEnchantmentLoader::registerAll, CurseEnchantmentLoader::getAllEnchantments),
+        new Category("defense", "防御", DefenseEnchantmentLoader::registerAll, DefenseEnchantmentLoader::getAllEnchantments),
+        new Category("tool", "工具", ToolEnchantmentLoader::registerAll, ToolEnchantmentLoader::getAllEnchantments),
+        new Category("special", "特殊",
+            com.enadd.enchantments.special.SpecialEnchantmentLoader::registerAll,
+            com.enadd.enchantments.special.SpecialEnchantmentLoader::getAllEnchantments),
+        new Category("utility", "实用",
+            com.enadd.enchantments.utility.UtilityEnchantmentLoader::registerAll,
+            com.enadd.enchantments.utility.UtilityEnchantmentLoader::getAllEnchantments)
+    );
+
+    private static volatile LoadReport lastLoadReport;
+
     /**
      * 注册所有附魔
      * 包含普通扩展附魔和增强版附魔
+     *
+     * 各分类在虚拟线程上并行构建附魔定义，全部结束（或超时）后在调用线程上
+     * 按分类顺序、分类内按 ID 排序一次性合并，合并结果与加载快慢无关。
+     * 向 Paper 注册仍由调用方（Bootstrap）在同一线程完成。
      */
     public static void registerAll() {
         EnchantmentRegistry registry = getInstance();
@@ -48,134 +86,83 @@ public final class EnchantmentRegistry {
             return;
         }
 
-        try {
-            // 1. 注册增强版附魔
-            EnhancedEnchantmentLoader.registerAll();
-            Map<String, Enchantment> enhanced = EnhancedEnchantmentLoader.getAllEnchantments();
-            if (enhanced != null && !enhanced.isEmpty()) {
-                for (Map.Entry<String, Enchantment> entry : enhanced.entrySet()) {
-                    if (entry != null && entry.getKey() != null && entry.getValue() != null) {
-                        registry.register(entry.getKey(), entry.getValue());
-                    }
-                }
-            }
-        } catch (Exception e) {
-            Bukkit.getLogger().warning("注册增强版附魔时出错: " + e.getMessage());
-        }
-
-        // 2. 注册各类扩展附魔
+        long begin = System.nanoTime();
+        List<CategoryResult> results = loadCategories();
 
-        // Armor
-        try {
-            ArmorEnchantmentLoader.registerAll();
-            Map<String, Enchantment> armorEnchants = ArmorEnchantmentLoader.getAllEnchantments();
-            if (armorEnchants != null && !armorEnchants.isEmpty()) {
-                for (Map.Entry<String, Enchantment> entry : armorEnchants.entrySet()) {
-                    if (entry != null && entry.getKey() != null && entry.getValue() != null) {
-                        registry.register(entry.getKey(), entry.getValue());
-                    }
-                }
+        // 单线程合并，保证覆盖顺序确定
+        long mergeBegin = System.nanoTime();
+        for (CategoryResult result : results) {
+            if (result.error != null) {
+                Bukkit.getLogger().warning("注册" + result.category.label + "附魔时出错: " + result.error.getMessage());
+                continue;
             }
-        } catch (Exception e) {
-            Bukkit.getLogger().warning("注册护甲附魔时出错: " + e.getMessage());
-        }
-
-        // Combat
-        try {
-            CombatEnchantmentLoader.registerAll();
-            Map<String, Enchantment> combatEnchants = CombatEnchantmentLoader.getAllEnchantments();
-            if (combatEnchants != null && !combatEnchants.isEmpty()) {
-                for (Map.Entry<String, Enchantment> entry : combatEnchants.entrySet()) {
-                    if (entry != null && entry.getKey() != null && entry.getValue() != null) {
-                        registry.register(entry.getKey(), entry.getValue());
-                    }
-                }
+            for (Map.Entry<String, Enchantment> entry : result.enchantments.entrySet()) {
+                registry.register(entry.getKey(), entry.getValue());
             }
-        } catch (Exception e) {
-            Bukkit.getLogger().warning("注册战斗附魔时出错: " + e.getMessage());
         }
+        long mergeNanos = System.nanoTime() - mergeBegin;
 
-        // Curse
-        try {
-            CurseEnchantmentLoader.registerAll();
-            Map<String, Enchantment> curseEnchants = CurseEnchantmentLoader.getAllEnchantments();
-            if (curseEnchants != null && !curseEnchants.isEmpty()) {
-                for (Map.Entry<String, Enchantment> entry : curseEnchants.entrySet()) {
-                    if (entry != null && entry.getKey() != null && entry.getValue() != null) {
-                        registry.register(entry.getKey(), entry.getValue());
-                    }
-                }
-            }
-        } catch (Exception e) {
-            Bukkit.getLogger().warning("注册诅咒附魔时出错: " + e.getMessage());
+        List<CategoryTiming> timings = new ArrayList<>(results.size());
+        for (CategoryResult result : results) {
+            timings.add(new CategoryTiming(result.category.name, result.enchantments.size(),
+                result.nanos / 1_000_000.0, result.error != null));
         }
+        LoadReport report = new LoadReport(timings, mergeNanos / 1_000_000.0,
+            (System.nanoTime() - begin) / 1_000_000.0);
+        lastLoadReport = report;
+        Bukkit.getLogger().info(report.toString());
 
-        // Defense
-        try {
-            DefenseEnchantmentLoader.registerAll();
-            Map<String, Enchantment> defenseEnchants = DefenseEnchantmentLoader.getAllEnchantments();
-            if (defenseEnchants != null && !defenseEnchants.isEmpty()) {
-                for (Map.Entry<String, Enchantment> entry : defenseEnchants.entrySet()) {
-                    if (entry != null && entry.getKey() != null && entry.getValue() != null) {
-                        registry.register(entry.getKey(), entry.getValue());
-                    }
-                }
-            }
-        } catch (Exception e) {
-            Bukkit.getLogger().warning("注册防御附魔时出错: " + e.getMessage());
+        int totalRegistered = registry.registeredEnchantments.size();
+        if (totalRegistered > 0) {
+            Bukkit.getLogger().info("已成功注册 " + totalRegistered + " 个自定义附魔");
+        } else {
+            Bukkit.getLogger().warning("警告：没有注册任何附魔！");
         }
+    }
 
-        // Tool
-        try {
-            ToolEnchantmentLoader.registerAll();
-            Map<String, Enchantment> toolEnchants = ToolEnchantmentLoader.getAllEnchantments();
-            if (toolEnchants != null && !toolEnchants.isEmpty()) {
-                for (Map.Entry<String, Enchantment> entry : toolEnchants.entrySet()) {
-                    if (entry != null && entry.getKey() != null && entry.getValue() != null) {
-                        registry.register(entry.getKey(), entry.getValue());
-                    }
-                }
-            }
-        } catch (Exception e) {
-            Bukkit.getLogger().warning("注册工具附魔时出错: " + e.getMessage());
+    /**
+     * 在作用域内的虚拟线程上并行加载所有分类，返回顺序与 {@link #CATEGORIES} 一致
+     */
+    private static List<CategoryResult> loadCategories() {
+        List<Callable<CategoryResult>> tasks = new ArrayList<>(CATEGORIES.size());
+        for (Category category : CATEGORIES) {
+            tasks.add(category::load);
         }
 
-        // Special
-        try {
-            com.enadd.enchantments.special.SpecialEnchantmentLoader.registerAll();
-            Map<String, Enchantment> specialEnchants = com.enadd.enchantments.special.SpecialEnchantmentLoader.getAllEnchantments();
-            if (specialEnchants != null && !specialEnchants.isEmpty()) {
-                for (Map.Entry<String, Enchantment> entry : specialEnchants.entrySet()) {
-                    if (entry != null && entry.getKey() != null && entry.getValue() != null) {
-                        registry.register(entry.getKey(), entry.getValue());
-                    }
-                }
+        List<CategoryResult> results = new ArrayList<>(CATEGORIES.size());
+        // close() 等待所有子任务结束，线程不会逃出本方法
+        try (ExecutorService scope = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("EnchAdd-Registry-", 0).factory())) {
+            List<Future<CategoryResult>> futures = scope.invokeAll(tasks, CATEGORY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            for (int i = 0; i < futures.size(); i++) {
+                results.add(join(CATEGORIES.get(i), futures.get(i)));
             }
-        } catch (Exception e) {
-            Bukkit.getLogger().warning("注册特殊附魔时出错: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Bukkit.getLogger().warning("附魔分类加载被中断");
         }
+        return results;
+    }
 
-        // Utility
+    private static CategoryResult join(Category category, Future<CategoryResult> future) {
         try {
-            com.enadd.enchantments.utility.UtilityEnchantmentLoader.registerAll();
-            Map<String, Enchantment> utilityEnchants = com.enadd.enchantments.utility.UtilityEnchantmentLoader.getAllEnchantments();
-            if (utilityEnchants != null && !utilityEnchants.isEmpty()) {
-                for (Map.Entry<String, Enchantment> entry : utilityEnchants.entrySet()) {
-                    if (entry != null && entry.getKey() != null && entry.getValue() != null) {
-                        registry.register(entry.getKey(), entry.getValue());
-                    }
-                }
-            }
-        } catch (Exception e) {
-            Bukkit.getLogger().warning("注册实用附魔时出错: " + e.getMessage());
+            return future.get();
+        } catch (CancellationException e) {
+            return CategoryResult.failed(category, 0L,
+                new TimeoutException("loading exceeded " + CATEGORY_TIMEOUT_SECONDS + "s"));
+        } catch (ExecutionException e) {
+            return CategoryResult.failed(category, 0L, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CategoryResult.failed(category, 0L, e);
         }
+    }
 
-        int totalRegistered = registry.registeredEnchantments.size();
-        if (totalRegistered > 0) {
-            Bukkit.getLogger().info("已成功注册 " + totalRegistered + " 个自定义附魔");
-        } else {
-            Bukkit.getLogger().warning("警告：没有注册任何附魔！");
-        }
+    /**
+     * 最近一次 {@link #registerAll()} 的分类耗时
+     */
+    public static LoadReport getLastLoadReport() {
+        return lastLoadReport;
     }
 
     /**
@@ -315,8 +302,8 @@ public final class EnchantmentRegistry {
         }
 
         try {
-            Set<String> conflicts = EnchantmentConflictManager.getInstance().getConflicts(id);
-            return conflicts != null ? new ArrayList<>(conflicts) : new ArrayList<>();
+            // 来自编译后的冲突矩阵，按附魔 ID 排序，GUI 与数据导出看到的顺序一致
+            return new ArrayList<>(EnchantmentConflictManager.getInstance().getSortedConflicts(id));
         } catch (Exception e) {
             Bukkit.getLogger().warning("获取附魔 " + id + " 的冲突列表时出错: " + e.getMessage());
             return new ArrayList<>();
@@ -361,6 +348,116 @@ public final class EnchantmentRegistry {
         return infoMap;
     }
 
+    /**
+     * 附魔分类加载器
+     */
+    private static final class Category {
+        private final String name;
+        private final String label;
+        private final Runnable loader;
+        private final Supplier<Map<String, Enchantment>> source;
+
+        private Category(String name, String label, Runnable loader, Supplier<Map<String, Enchantment>> source) {
+            this.name = name;
+            this.label = label;
+            this.loader = loader;
+            this.source = source;
+        }
+
+        /**
+         * 构建本分类的附魔定义（在虚拟线程上执行，不触碰注册中心）
+         */
+        private CategoryResult load() {
+            long begin = System.nanoTime();
+            try {
+                loader.run();
+                Map<String, Enchantment> loaded = source.get();
+                // 按 ID 排序，合并顺序不受加载器内部 Map 影响
+                Map<String, Enchantment> sorted = new TreeMap<>();
+                if (loaded != null) {
+                    for (Map.Entry<String, Enchantment> entry : loaded.entrySet()) {
+                        if (entry != null && entry.getKey() != null && entry.getValue() != null) {
+                            sorted.put(entry.getKey(), entry.getValue());
+                        }
+                    }
+                }
+                return new CategoryResult(this, sorted, System.nanoTime() - begin, null);
+            } catch (Exception e) {
+                return CategoryResult.failed(this, System.nanoTime() - begin, e);
+            }
+        }
+    }
+
+    private static final class CategoryResult {
+        private final Category category;
+        private final Map<String, Enchantment> enchantments;
+        private final long nanos;
+        private final Throwable error;
+
+        private CategoryResult(Category category, Map<String, Enchantment> enchantments, long nanos, Throwable error) {
+            this.category = category;
+            this.enchantments = enchantments;
+            this.nanos = nanos;
+            this.error = error;
+        }
+
+        private static CategoryResult failed(Category category, long nanos, Throwable error) {
+            return new CategoryResult(category, Collections.emptyMap(), nanos, error);
+        }
+    }
+
+    /**
+     * 单个分类的加载耗时
+     */
+    public static final class CategoryTiming {
+        private final String category;
+        private final int count;
+        private final double durationMs;
+        private final boolean failed;
+
+        public CategoryTiming(String category, int count, double durationMs, boolean failed) {
+            this.category = category;
+            this.count = count;
+            this.durationMs = durationMs;
+            this.failed = failed;
+        }
+
+        public String getCategory() { return category; }
+        public int getCount() { return count; }
+        public double getDurationMs() { return durationMs; }
+        public boolean isFailed() { return failed; }
+    }
+
+    /**
+     * 附魔加载报告
+     */
+    public static final class LoadReport {
+        private final List<CategoryTiming> categories;
+        private final double mergeMs;
+        private final double totalMs;
+
+        public LoadReport(List<CategoryTiming> categories, double mergeMs, double totalMs) {
+            this.categories = Collections.unmodifiableList(categories);
+            this.mergeMs = mergeMs;
+            this.totalMs = totalMs;
+        }
+
+        public List<CategoryTiming> getCategories() { return categories; }
+        public double getMergeMs() { return mergeMs; }
+        public double getTotalMs() { return totalMs; }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(128);
+            sb.append(String.format("附魔分类加载: 总耗时 %.1fms (合并 %.1fms)", totalMs, mergeMs));
+            for (CategoryTiming timing : categories) {
+                sb.append(String.format(" | %s=%d/%.1fms%s", timing.getCategory(), timing.getCount(),
+                    timing.getDurationMs(), timing.isFailed() ? "(失败)" : ""));
+            }
+            return sb.toString();
+        }
+    }
+
     /**
      * 附魔信息传输类
      */
@@ -1,5 +1,6 @@
 package com.enadd.core.safe;
 
+import com.enadd.core.async.ExecutionLayer;
 import org.bukkit.plugin.java.JavaPlugin;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -9,7 +10,7 @@ import java.util.logging.Logger;
  * 安全的异步任务管理器
  * 
  * 特点：
- * - 固定线程池大小（不会无限增长）
+ * - 运行在统一执行层上（不单独创建线程）
  * - 任务队列大小限制（防止内存溢出）
  * - 自动超时取消（防止任务卡死）
  * - 资源泄露检测（自动清理）
@@ -24,40 +25,24 @@ public final class SafeAsyncManager {
     private final JavaPlugin plugin;
     
     // 安全配置
-    private static final int CORE_THREADS = 2;
-    private static final int MAX_THREADS = 4;
     private static final int QUEUE_SIZE = 100;
     private static final int TASK_TIMEOUT_SECONDS = 10;
     
-    private final ThreadPoolExecutor executor;
-    private final ScheduledExecutorService monitor;
+    private final ExecutionLayer.Lane lane;
+    private final ScheduledFuture<?> healthTask;
     private final AtomicInteger taskCounter = new AtomicInteger(0);
     private final AtomicInteger timeoutCounter = new AtomicInteger(0);
     
     private SafeAsyncManager(JavaPlugin plugin) {
         this.plugin = plugin;
         
-        // 创建有界队列的线程池
-        this.executor = new ThreadPoolExecutor(
-            CORE_THREADS,
-            MAX_THREADS,
-            60L, TimeUnit.SECONDS,
-            new LinkedBlockingQueue<>(QUEUE_SIZE),
-            new SafeThreadFactory(),
-            new SafeRejectionHandler()
-        );
-        
-        // 创建监控线程
-        this.monitor = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "SafeAsyncManager-Monitor");
-            t.setDaemon(true);
-            return t;
-        });
+        // 有界通道，排队超过上限时在调用者线程执行
+        this.lane = ExecutionLayer.getInstance().cpu("safe-async", QUEUE_SIZE);
         
         // 每分钟检查一次
-        monitor.scheduleAtFixedRate(this::checkHealth, 60, 60, TimeUnit.SECONDS);
+        this.healthTask = lane.scheduleAtFixedRate(this::checkHealth, 60, 60, TimeUnit.SECONDS);
         
-        LOGGER.info("SafeAsyncManager initialized with " + CORE_THREADS + "-" + MAX_THREADS + " threads");
+        LOGGER.info("SafeAsyncManager initialized on shared execution layer (queue=" + QUEUE_SIZE + ")");
     }
     
     public static synchronized void initialize(JavaPlugin plugin) {
@@ -80,18 +65,23 @@ public final class SafeAsyncManager {
         
         taskCounter.incrementAndGet();
         
-        // 包装任务以添加超时
-        return executor.submit(() -> {
-            Future<T> future = executor.submit(task);
-            try {
-                return future.get(TASK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-            } catch (TimeoutException e) {
-                future.cancel(true);
+        FutureTask<T> future = new FutureTask<>(task);
+        try {
+            lane.execute(future);
+        } catch (RejectedExecutionException e) {
+            LOGGER.warning("Task rejected! Queue is full. Task will be executed in caller thread.");
+            future.run();
+            return future;
+        }
+        
+        // 超时由共享定时器直接取消，不再占用一个工作线程等待结果
+        ExecutionLayer.getInstance().scheduleOnTimer(() -> {
+            if (!future.isDone() && future.cancel(true)) {
                 timeoutCounter.incrementAndGet();
                 LOGGER.warning("Task timeout after " + TASK_TIMEOUT_SECONDS + " seconds");
-                throw new RuntimeException("Task timeout", e);
             }
-        });
+        }, TASK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        return future;
     }
     
     /**
@@ -112,8 +102,8 @@ public final class SafeAsyncManager {
      * 健康检查
      */
     private void checkHealth() {
-        int active = executor.getActiveCount();
-        int queued = executor.getQueue().size();
+        int active = lane.getRunning();
+        int queued = lane.getQueued();
         int completed = taskCounter.get();
         int timeouts = timeoutCounter.get();
         
@@ -135,8 +125,8 @@ public final class SafeAsyncManager {
      */
     public Stats getStats() {
         return new Stats(
-            executor.getActiveCount(),
-            executor.getQueue().size(),
+            lane.getRunning(),
+            lane.getQueued(),
             taskCounter.get(),
             timeoutCounter.get()
         );
@@ -148,54 +138,12 @@ public final class SafeAsyncManager {
     public void shutdown() {
         LOGGER.info("Shutting down SafeAsyncManager...");
         
-        monitor.shutdown();
-        executor.shutdown();
-        
-        try {
-            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
-                executor.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            executor.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
+        healthTask.cancel(false);
+        lane.close();
         
         LOGGER.info("SafeAsyncManager shutdown complete");
     }
     
-    /**
-     * 安全的线程工厂
-     */
-    private static class SafeThreadFactory implements ThreadFactory {
-        private final AtomicInteger counter = new AtomicInteger(0);
-        
-        @Override
-        public Thread newThread(Runnable r) {
-            Thread t = new Thread(r, "SafeAsync-Worker-" + counter.incrementAndGet());
-            t.setDaemon(true);
-            t.setPriority(Thread.NORM_PRIORITY);
-            t.setUncaughtExceptionHandler((thread, throwable) -> {
-                LOGGER.severe("Uncaught exception in " + thread.getName() + ": " + throwable.getMessage());
-                throwable.printStackTrace();
-            });
-            return t;
-        }
-    }
-    
-    /**
-     * 安全的拒绝策略
-     */
-    private static class SafeRejectionHandler implements RejectedExecutionHandler {
-        @Override
-        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
-            LOGGER.warning("Task rejected! Queue is full. Task will be executed in caller thread.");
-            // 在调用者线程中执行（CallerRunsPolicy）
-            if (!executor.isShutdown()) {
-                r.run();
-            }
-        }
-    }
-    
     /**
      * 统计信息
      */
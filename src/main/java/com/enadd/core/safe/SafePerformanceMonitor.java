@@ -1,11 +1,10 @@
 package com.enadd.core.safe;
 
+import com.enadd.core.async.ExecutionLayer;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
@@ -36,7 +35,9 @@ public final class SafePerformanceMonitor {
     private static final int MAX_HISTORY_MINUTES = 60;
     
     private final MemoryMXBean memoryBean;
-    private final ScheduledExecutorService scheduler;
+    private final ExecutionLayer.Lane lane;
+    private final ScheduledFuture<?> sampleTask;
+    private final ScheduledFuture<?> aggregateTask;
     
     // 聚合数据（不保存原始数据）
     private final AtomicLong totalSamples = new AtomicLong(0);
@@ -52,18 +53,13 @@ public final class SafePerformanceMonitor {
     private SafePerformanceMonitor() {
         this.memoryBean = ManagementFactory.getMemoryMXBean();
         
-        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "SafePerformanceMonitor");
-            t.setDaemon(true);
-            t.setPriority(Thread.MIN_PRIORITY); // 最低优先级
-            return t;
-        });
+        this.lane = ExecutionLayer.getInstance().cpu("safe-performance-monitor");
         
         // 每秒采样一次（但只有1%的概率真正采样）
-        scheduler.scheduleAtFixedRate(this::sample, 1, 1, TimeUnit.SECONDS);
+        this.sampleTask = lane.scheduleAtFixedRate(this::sample, 1, 1, TimeUnit.SECONDS);
         
         // 每分钟聚合一次
-        scheduler.scheduleAtFixedRate(this::aggregate, 
+        this.aggregateTask = lane.scheduleAtFixedRate(this::aggregate, 
             AGGREGATION_INTERVAL_SECONDS, 
             AGGREGATION_INTERVAL_SECONDS, 
             TimeUnit.SECONDS);
@@ -91,15 +87,13 @@ public final class SafePerformanceMonitor {
         }
         
         try {
-            // 异步采样，不阻塞
-            CompletableFuture.runAsync(() -> {
-                double tps = Bukkit.getTPS()[0]; // 1分钟平均TPS
-                long usedMemory = memoryBean.getHeapMemoryUsage().getUsed();
-                
-                totalSamples.incrementAndGet();
-                tpsSum.addAndGet((long) (tps * 100)); // 保留2位小数
-                memorySum.addAndGet(usedMemory);
-            });
+            // 已经在执行层的工作线程上，直接采样
+            double tps = Bukkit.getTPS()[0]; // 1分钟平均TPS
+            long usedMemory = memoryBean.getHeapMemoryUsage().getUsed();
+            
+            totalSamples.incrementAndGet();
+            tpsSum.addAndGet((long) (tps * 100)); // 保留2位小数
+            memorySum.addAndGet(usedMemory);
         } catch (Exception e) {
             // 静默失败，不影响服务器
         }
@@ -171,15 +165,9 @@ public final class SafePerformanceMonitor {
     public void shutdown() {
         LOGGER.info("Shutting down SafePerformanceMonitor...");
         
-        scheduler.shutdown();
-        try {
-            if (!scheduler.awaitTermination(2, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            scheduler.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
+        sampleTask.cancel(false);
+        aggregateTask.cancel(false);
+        lane.close();
         
         history.clear();
         LOGGER.info("SafePerformanceMonitor shutdown complete");
@@ -1,10 +1,12 @@
 package com.enadd.core.tracking;
 
+import com.enadd.core.entity.EntityHandle;
+import com.enadd.core.entity.EntityLifecycleManager;
 import com.enadd.core.entity.EntityState;
 import com.enadd.core.entity.ManagedEntity;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Arrays;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -15,8 +17,9 @@ public final class EntityTracker {
         private static final EntityTracker INSTANCE = new EntityTracker();
     }
 
-    // 预分配容量，减少扩容
-    private final ConcurrentHashMap<String, EntityRecord> entityRecords = new ConcurrentHashMap<>(128);
+    // 按句柄槽位下标索引的稠密记录表，记录自身保存完整句柄用于过期判定
+    private EntityRecord[] records = new EntityRecord[128];
+    private int recordCount = 0;
     private final CopyOnWriteArrayList<TrackerListener> listeners = new CopyOnWriteArrayList<>();
     private final AtomicInteger totalTracked = new AtomicInteger(0);
     private final AtomicInteger totalTransitions = new AtomicInteger(0);
@@ -30,12 +33,12 @@ public final class EntityTracker {
     }
 
     public void trackEntity(ManagedEntity entity) {
-        String entityId = entity.getEntityId();
-        if (entityRecords.containsKey(entityId)) {
+        long handle = entity.getHandle();
+        if (EntityHandle.isNone(handle)) {
             return;
         }
 
-        EntityRecord record = new EntityRecord(entityId, entity.getClass().getSimpleName());
+        EntityRecord record = new EntityRecord(handle, entity.getClass().getSimpleName());
         record.addEntry(new TrackerEntry(
                 entity.getState(),
                 "ENTITY_CREATED",
@@ -43,15 +46,41 @@ public final class EntityTracker {
                 null
         ));
 
-        entityRecords.put(entityId, record);
+        synchronized (this) {
+            int index = EntityHandle.index(handle);
+            if (index >= records.length) {
+                records = Arrays.copyOf(records, Math.max(records.length << 1, index + 1));
+            }
+
+            EntityRecord previous = records[index];
+            if (previous != null) {
+                if (previous.handle == handle) {
+                    return;
+                }
+                // 槽位已被新一代实体复用，旧记录直接作废
+                previous.close();
+                recordCount--;
+            }
+            records[index] = record;
+            recordCount++;
+        }
         totalTracked.incrementAndGet();
 
-        notifyListeners(l -> l.onEntityTracked(entityId));
+        notifyListeners(l -> l.onEntityTracked(handle));
+    }
+
+    private synchronized EntityRecord lookup(long handle) {
+        int index = EntityHandle.index(handle);
+        if (index < 0 || index >= records.length) {
+            return null;
+        }
+        EntityRecord record = records[index];
+        return record != null && record.handle == handle ? record : null;
     }
 
     public void recordTransition(ManagedEntity entity, EntityState oldState, EntityState newState) {
-        String entityId = entity.getEntityId();
-        EntityRecord record = entityRecords.get(entityId);
+        long handle = entity.getHandle();
+        EntityRecord record = lookup(handle);
 
         if (record != null) {
             String transition = String.format("%s -> %s", oldState.getDisplayName(), newState.getDisplayName());
@@ -59,11 +88,11 @@ public final class EntityTracker {
             totalTransitions.incrementAndGet();
         }
 
-        notifyListeners(l -> l.onStateChanged(entityId, oldState, newState));
+        notifyListeners(l -> l.onStateChanged(handle, oldState, newState));
     }
 
-    public void recordEvent(String entityId, String eventType, String details) {
-        EntityRecord record = entityRecords.get(entityId);
+    public void recordEvent(long handle, String eventType, String details) {
+        EntityRecord record = lookup(handle);
         if (record != null) {
             ManagedEntity entity = record.getEntity();
             if (entity != null) {
@@ -72,16 +101,25 @@ public final class EntityTracker {
         }
     }
 
-    public EntityRecord getRecord(String entityId) {
-        return entityRecords.get(entityId);
+    /**
+     * 按句柄获取记录，句柄过期（槽位已被复用或已注销）时返回 null
+     */
+    public EntityRecord getRecord(long handle) {
+        return lookup(handle);
     }
 
-    public void untrackEntity(String entityId) {
-        EntityRecord record = entityRecords.remove(entityId);
-        if (record != null) {
-            record.close();
-            notifyListeners(l -> l.onEntityUntracked(entityId));
+    public void untrackEntity(long handle) {
+        EntityRecord record;
+        synchronized (this) {
+            record = lookup(handle);
+            if (record == null) {
+                return;
+            }
+            records[EntityHandle.index(handle)] = null;
+            recordCount--;
         }
+        record.close();
+        notifyListeners(l -> l.onEntityUntracked(handle));
     }
 
     public void addListener(TrackerListener listener) {
@@ -104,19 +142,27 @@ public final class EntityTracker {
         return loggingEnabled;
     }
 
-    public void cleanupInactiveEntities(long maxIdleTime) {
-        entityRecords.entrySet().removeIf(entry -> {
-            ManagedEntity entity = entry.getValue().getEntity();
-            return entity != null && entity.getIdleTime() > maxIdleTime;
-        });
+    public synchronized void cleanupInactiveEntities(long maxIdleTime) {
+        for (int i = 0; i < records.length; i++) {
+            EntityRecord record = records[i];
+            if (record == null) {
+                continue;
+            }
+            ManagedEntity entity = record.getEntity();
+            if (entity != null && entity.getIdleTime() > maxIdleTime) {
+                records[i] = null;
+                recordCount--;
+            }
+        }
     }
 
-    public void clearAllRecords() {
-        entityRecords.clear();
+    public synchronized void clearAllRecords() {
+        Arrays.fill(records, null);
+        recordCount = 0;
     }
 
-    public int getTrackedCount() {
-        return entityRecords.size();
+    public synchronized int getTrackedCount() {
+        return recordCount;
     }
 
     public int getTotalTracked() {
@@ -127,12 +173,15 @@ public final class EntityTracker {
         return totalTransitions.get();
     }
 
-    public TrackerStats getStats() {
+    public synchronized TrackerStats getStats() {
         int alive = 0;
         int destroyed = 0;
         int orphaned = 0;
 
-        for (EntityRecord record : entityRecords.values()) {
+        for (EntityRecord record : records) {
+            if (record == null) {
+                continue;
+            }
             ManagedEntity entity = record.getEntity();
             if (entity != null) {
                 switch (entity.getState()) {
@@ -149,19 +198,19 @@ public final class EntityTracker {
                 alive,
                 destroyed,
                 orphaned,
-                entityRecords.size()
+                recordCount
         );
     }
 
     public static final class EntityRecord {
-        private final String entityId;
+        private final long handle;
         private final String entityType;
         private final CopyOnWriteArrayList<TrackerEntry> entries = new CopyOnWriteArrayList<>();
         private volatile long lastUpdateTime = System.currentTimeMillis();
         private volatile boolean finalized = false;
 
-        public EntityRecord(String id, String type) {
-            this.entityId = id;
+        public EntityRecord(long handle, String type) {
+            this.handle = handle;
             this.entityType = type;
         }
 
@@ -176,19 +225,19 @@ public final class EntityTracker {
             finalized = true;
         }
 
-        public String getEntityId() { return entityId; }
+        public long getHandle() { return handle; }
         public String getEntityType() { return entityType; }
         public java.util.List<TrackerEntry> getEntries() { return entries; }
         public long getLastUpdateTime() { return lastUpdateTime; }
         public boolean isFinalized() { return finalized; }
 
         public ManagedEntity getEntity() {
-            return com.enadd.core.entity.EntityLifecycleManager.getInstance().getEntity(entityId);
+            return EntityLifecycleManager.getInstance().getEntity(handle);
         }
 
         public String getLogSummary() {
             StringBuilder sb = new StringBuilder();
-            sb.append(String.format("Entity: %s (%s)\n", entityId, entityType));
+            sb.append(String.format("Entity: %s (%s)\n", EntityHandle.toString(handle), entityType));
             sb.append("State History:\n");
             for (TrackerEntry entry : entries) {
                 sb.append(String.format("  [%s] %s: %s\n",
@@ -228,9 +277,9 @@ public final class EntityTracker {
     }
 
     public interface TrackerListener {
-        void onEntityTracked(String entityId);
-        void onEntityUntracked(String entityId);
-        void onStateChanged(String entityId, EntityState oldState, EntityState newState);
+        void onEntityTracked(long handle);
+        void onEntityUntracked(long handle);
+        void onStateChanged(long handle, EntityState oldState, EntityState newState);
     }
 
     public static final class TrackerStats {
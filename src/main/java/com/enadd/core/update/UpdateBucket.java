@@ -0,0 +1,57 @@
+package com.enadd.core.update;
+
+import com.enadd.core.entity.EntityType;
+
+
+/**
+ * 实体更新频率分桶：每 1/2/4/8 轮更新一次
+ */
+public enum UpdateBucket {
+    EVERY_TICK("每轮", 0),
+    EVERY_2("每2轮", 1),
+    EVERY_4("每4轮", 2),
+    EVERY_8("每8轮", 3);
+
+    private final String displayName;
+    private final int shift;
+
+    UpdateBucket(String displayName, int shift) {
+        this.displayName = displayName;
+        this.shift = shift;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * 周期的二进制移位，周期 = 1 << shift
+     */
+    public int getShift() {
+        return shift;
+    }
+
+    public int getPeriod() {
+        return 1 << shift;
+    }
+
+    public static UpdateBucket fromShift(int shift) {
+        UpdateBucket[] values = values();
+        return values[Math.max(0, Math.min(values.length - 1, shift))];
+    }
+
+    /**
+     * 该实体类型允许的最低更新频率：投射物和伤害实体影响玩法判定，最多降到每 2 轮；
+     * 召唤物最多每 4 轮；纯视觉类型可以降到每 8 轮
+     */
+    public static UpdateBucket slowestFor(EntityType type) {
+        if (type == null) {
+            return EVERY_8;
+        }
+        return switch (type) {
+            case PROJECTILE, DAMAGE -> EVERY_2;
+            case SUMMONED, UTILITY -> EVERY_4;
+            default -> EVERY_8;
+        };
+    }
+}
@@ -1,19 +1,66 @@
 package com.enadd.core.update;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
-
-
+import com.enadd.core.entity.EnchantmentEntity;
+import com.enadd.core.entity.EntityHandle;
+import com.enadd.core.entity.EntityLifecycleManager;
+import com.enadd.core.entity.EntityStore;
+import com.enadd.core.entity.ManagedEntity;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.bukkit.util.Vector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+
+/**
+ * 实体更新频率控制
+ *
+ * 以实体句柄的槽位下标索引稠密侧表。除按时间间隔节流外，还按相关性给实体分桶：
+ * 主线程周期性采样玩家位置与朝向，按实体锚点到最近玩家的距离、是否在某个玩家视野内
+ * 以及 {@link com.enadd.core.entity.EntityType} 把实体放进每 1/2/4/8 轮更新一次的桶，
+ * 结果下发到 {@link com.enadd.core.entity.EntityStore} 的周期列。远处或背后的纯视觉实体
+ * 几乎不消耗更新预算，靠近玩家的实体保持每轮更新。
+ */
 public final class UpdateFrequencyController {
     // Holder模式优化单例
     private static final class Holder {
         private static final UpdateFrequencyController INSTANCE = new UpdateFrequencyController();
     }
 
-    // 预分配容量
-    private final ConcurrentHashMap<String, AtomicInteger> updateCounters = new ConcurrentHashMap<>(256);
-    private final ConcurrentHashMap<String, Float> updateIntervals = new ConcurrentHashMap<>(256);
-    private final ConcurrentHashMap<String, Long> lastUpdateTimes = new ConcurrentHashMap<>(256);
+    private static final int INITIAL_CAPACITY = 256;
+
+    // 按句柄槽位下标索引的稠密侧表；generations 记录当前占用槽位的实体代数，
+    // 代数不匹配说明槽位已被新实体复用，旧数据在首次访问时重置
+    private int[] generations = new int[INITIAL_CAPACITY];
+    private float[] updateIntervals = new float[INITIAL_CAPACITY];
+    private long[] lastUpdateTimes = new long[INITIAL_CAPACITY];
+    private int[] updateCounters = new int[INITIAL_CAPACITY];
+    private byte[] bucketShifts = new byte[INITIAL_CAPACITY];
+    private int trackedCount = 0;
+    private final int[] bucketCounts = new int[UpdateBucket.values().length];
+
+    private static final Logger LOGGER = Logger.getLogger("EnchAdd");
+
+    // 距离分桶配置（方块）
+    private volatile boolean lodEnabled = true;
+    private volatile double nearDistance = 16.0;
+    private volatile double midDistance = 32.0;
+    private volatile double farDistance = 64.0;
+    private volatile double viewDistance = 96.0;
+    private volatile double viewCosine = Math.cos(Math.toRadians(55.0));
+    private volatile long rebalanceIntervalTicks = 20L;
+
+    private final AtomicLong rebalanceCount = new AtomicLong(0);
+    private final AtomicLong bucketChanges = new AtomicLong(0);
+    private volatile long lastRebalanceNanos = 0L;
+    private BukkitTask rebalanceTask;
 
     private volatile float globalUpdateInterval = 0.05f;
     private volatile int maxUpdatesPerTick = 100;
@@ -25,19 +72,30 @@ public final class UpdateFrequencyController {
         return Holder.INSTANCE;
     }
 
-    public boolean shouldUpdate(String entityId, float deltaTime) {
-        Float interval = updateIntervals.get(entityId);
-        float effectiveInterval = interval != null ? interval : globalUpdateInterval;
-
+    /**
+     * 按实体自身的更新间隔节流
+     *
+     * 距离分桶的降频只由 {@link EntityStore} 的周期列执行，这里不再乘以桶周期，
+     * 否则同时经过两处检查的实体会被降频两次。
+     */
+    public synchronized boolean shouldUpdate(long handle, float deltaTime) {
         if (!adaptiveEnabled) {
             return true;
         }
 
-        Long lastTime = lastUpdateTimes.get(entityId);
+        int slot = slot(handle, true);
+        if (slot < 0) {
+            return false;
+        }
+
+        float interval = updateIntervals[slot];
+        float effectiveInterval = Float.isNaN(interval) ? globalUpdateInterval : interval;
+
+        long lastTime = lastUpdateTimes[slot];
         long currentTime = System.currentTimeMillis();
 
-        if (lastTime == null) {
-            lastUpdateTimes.put(entityId, currentTime);
+        if (lastTime == 0L) {
+            lastUpdateTimes[slot] = currentTime;
             return true;
         }
 
@@ -45,14 +103,278 @@ public final class UpdateFrequencyController {
         boolean shouldUpdate = elapsed >= effectiveInterval * 1000;
 
         if (shouldUpdate) {
-            lastUpdateTimes.put(entityId, currentTime);
+            lastUpdateTimes[slot] = currentTime;
         }
 
         return shouldUpdate;
     }
 
-    public void setUpdateInterval(String entityId, float interval) {
-        updateIntervals.put(entityId, interval);
+    public synchronized void setUpdateInterval(long handle, float interval) {
+        int slot = slot(handle, true);
+        if (slot >= 0) {
+            updateIntervals[slot] = interval;
+        }
+    }
+
+    /**
+     * 定位句柄对应的槽位
+     *
+     * @param create 为 true 时为新句柄（或新一代实体）初始化槽位
+     * @return 槽位下标；句柄无效或比槽位中的记录更旧时返回 -1
+     */
+    private int slot(long handle, boolean create) {
+        if (EntityHandle.isNone(handle)) {
+            return -1;
+        }
+
+        int index = EntityHandle.index(handle);
+        int generation = EntityHandle.generation(handle);
+        if (index >= generations.length) {
+            if (!create) {
+                return -1;
+            }
+            grow(index + 1);
+        }
+
+        int current = generations[index];
+        if (current == generation) {
+            return index;
+        }
+        if (!create || (current != 0 && generation - current < 0)) {
+            // 过期句柄：槽位已属于更新一代的实体
+            return -1;
+        }
+
+        if (current == 0) {
+            trackedCount++;
+        }
+        generations[index] = generation;
+        updateIntervals[index] = Float.NaN;
+        lastUpdateTimes[index] = 0L;
+        updateCounters[index] = 0;
+        bucketShifts[index] = 0;
+        return index;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = generations.length;
+        while (capacity < minCapacity) {
+            capacity <<= 1;
+        }
+        generations = Arrays.copyOf(generations, capacity);
+        updateIntervals = Arrays.copyOf(updateIntervals, capacity);
+        lastUpdateTimes = Arrays.copyOf(lastUpdateTimes, capacity);
+        updateCounters = Arrays.copyOf(updateCounters, capacity);
+        bucketShifts = Arrays.copyOf(bucketShifts, capacity);
+    }
+
+    /**
+     * 加载距离分桶配置（对应 config.yml 的 settings.performance.entity-update-lod 节）
+     *
+     * @param section 配置节，为 null 时使用默认值
+     */
+    public void loadLodSettings(ConfigurationSection section) {
+        if (section == null) {
+            return;
+        }
+
+        lodEnabled = section.getBoolean("enabled", true);
+        rebalanceIntervalTicks = Math.max(1L, section.getLong("rebalance-interval-ticks", 20L));
+        double near = Math.max(1.0, section.getDouble("near-distance", 16.0));
+        double mid = Math.max(near, section.getDouble("mid-distance", 32.0));
+        double far = Math.max(mid, section.getDouble("far-distance", 64.0));
+        nearDistance = near;
+        midDistance = mid;
+        farDistance = far;
+        viewDistance = Math.max(near, section.getDouble("view-distance", 96.0));
+        double fov = Math.max(1.0, Math.min(180.0, section.getDouble("view-angle", 110.0)));
+        viewCosine = Math.cos(Math.toRadians(fov / 2.0));
+    }
+
+    /**
+     * 启动主线程重新分桶任务
+     */
+    public synchronized void start(JavaPlugin plugin) {
+        if (plugin == null || rebalanceTask != null || !lodEnabled) {
+            return;
+        }
+
+        rebalanceTask = Bukkit.getScheduler().runTaskTimer(plugin, this::rebalanceNow,
+            rebalanceIntervalTicks, rebalanceIntervalTicks);
+    }
+
+    public synchronized void shutdown() {
+        if (rebalanceTask != null) {
+            rebalanceTask.cancel();
+            rebalanceTask = null;
+        }
+    }
+
+    /**
+     * 采样在线玩家并重新分桶，必须在主线程调用
+     */
+    private void rebalanceNow() {
+        try {
+            List<ManagedEntity> entities = EntityLifecycleManager.getInstance().getEntitiesSnapshot();
+            if (entities.isEmpty()) {
+                return;
+            }
+
+            List<Viewer> viewers = new ArrayList<>(Bukkit.getOnlinePlayers().size());
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                Location eye = player.getEyeLocation();
+                if (eye.getWorld() == null) {
+                    continue;
+                }
+                Vector direction = eye.getDirection();
+                viewers.add(new Viewer(eye.getWorld().getName(), eye.getX(), eye.getY(), eye.getZ(),
+                    direction.getX(), direction.getY(), direction.getZ()));
+            }
+
+            rebalance(entities, viewers);
+        } catch (Exception e) {
+            LOGGER.fine("Entity update rebalance failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 按观察者快照重新计算实体的更新桶，桶发生变化的实体会同步到列式存储
+     *
+     * @return 桶发生变化的实体数
+     */
+    public int rebalance(List<? extends ManagedEntity> entities, List<Viewer> viewers) {
+        long start = System.nanoTime();
+        int changed = 0;
+        List<ManagedEntity> pushes = new ArrayList<>();
+        List<UpdateBucket> pushBuckets = new ArrayList<>();
+
+        synchronized (this) {
+            Arrays.fill(bucketCounts, 0);
+            for (ManagedEntity entity : entities) {
+                int slot = slot(entity.getHandle(), true);
+                if (slot < 0) {
+                    continue;
+                }
+
+                UpdateBucket bucket = lodEnabled ? classify(entity, viewers) : UpdateBucket.EVERY_TICK;
+                bucketCounts[bucket.ordinal()]++;
+                if (bucketShifts[slot] != bucket.getShift()) {
+                    bucketShifts[slot] = (byte) bucket.getShift();
+                    pushes.add(entity);
+                    pushBuckets.add(bucket);
+                    changed++;
+                }
+            }
+        }
+
+        // 在锁外下发，列式存储在下一轮更新开始时应用
+        EntityStore store = EntityLifecycleManager.getInstance().getStore();
+        for (int i = 0; i < pushes.size(); i++) {
+            store.setUpdatePeriodShift(pushes.get(i), pushBuckets.get(i).getShift());
+        }
+
+        rebalanceCount.incrementAndGet();
+        bucketChanges.addAndGet(changed);
+        lastRebalanceNanos = System.nanoTime() - start;
+        return changed;
+    }
+
+    /**
+     * 根据距离、可见性和实体类型计算更新桶
+     *
+     * - 最近玩家距离 ≤ near：每轮；≤ mid：每 2 轮；≤ far：每 4 轮；更远：每 8 轮
+     * - 不在任何玩家视野内再降一档（near 范围内视为可见）
+     * - 同一世界没有玩家时直接使用最低频率
+     * - 结果不低于 {@link UpdateBucket#slowestFor} 给出的类型下限；没有锚点的实体始终每轮更新
+     */
+    public UpdateBucket classify(ManagedEntity entity, List<Viewer> viewers) {
+        if (!(entity instanceof EnchantmentEntity enchantmentEntity) || !enchantmentEntity.hasAnchor()) {
+            return UpdateBucket.EVERY_TICK;
+        }
+
+        UpdateBucket slowest = UpdateBucket.slowestFor(enchantmentEntity.getEntityType());
+        String world = enchantmentEntity.getAnchorWorld();
+        double x = enchantmentEntity.getAnchorX();
+        double y = enchantmentEntity.getAnchorY();
+        double z = enchantmentEntity.getAnchorZ();
+
+        double nearestSq = Double.MAX_VALUE;
+        boolean visible = false;
+        double viewDistanceSq = viewDistance * viewDistance;
+        for (Viewer viewer : viewers) {
+            if (!viewer.world.equals(world)) {
+                continue;
+            }
+
+            double dx = x - viewer.x;
+            double dy = y - viewer.y;
+            double dz = z - viewer.z;
+            double distSq = dx * dx + dy * dy + dz * dz;
+            if (distSq < nearestSq) {
+                nearestSq = distSq;
+            }
+
+            if (!visible && distSq <= viewDistanceSq) {
+                if (distSq <= nearDistance * nearDistance) {
+                    visible = true;
+                } else {
+                    double dot = dx * viewer.dirX + dy * viewer.dirY + dz * viewer.dirZ;
+                    visible = dot > 0 && dot * dot >= viewCosine * viewCosine * distSq;
+                }
+            }
+        }
+
+        if (nearestSq == Double.MAX_VALUE) {
+            return slowest;
+        }
+
+        int shift;
+        if (nearestSq <= nearDistance * nearDistance) {
+            shift = 0;
+        } else if (nearestSq <= midDistance * midDistance) {
+            shift = 1;
+        } else if (nearestSq <= farDistance * farDistance) {
+            shift = 2;
+        } else {
+            shift = 3;
+        }
+        if (!visible) {
+            shift++;
+        }
+
+        return UpdateBucket.fromShift(Math.min(shift, slowest.getShift()));
+    }
+
+    public synchronized UpdateBucket getBucket(long handle) {
+        int slot = slot(handle, false);
+        return slot >= 0 ? UpdateBucket.fromShift(bucketShifts[slot]) : UpdateBucket.EVERY_TICK;
+    }
+
+    /**
+     * 最近一次重新分桶后各桶的实体数，下标为 {@link UpdateBucket#ordinal()}
+     */
+    public synchronized int[] getBucketCounts() {
+        return bucketCounts.clone();
+    }
+
+    public boolean isLodEnabled() {
+        return lodEnabled;
+    }
+
+    public void setLodEnabled(boolean enabled) {
+        this.lodEnabled = enabled;
+    }
+
+    public long getRebalanceCount() {
+        return rebalanceCount.get();
+    }
+
+    public long getBucketChanges() {
+        return bucketChanges.get();
+    }
+
+    public long getLastRebalanceNanos() {
+        return lastRebalanceNanos;
     }
 
     public void setGlobalUpdateInterval(float interval) {
@@ -71,37 +393,53 @@ public final class UpdateFrequencyController {
         return maxUpdatesPerTick;
     }
 
-    public void incrementUpdateCount(String entityId) {
-        updateCounters.computeIfAbsent(entityId, k -> new AtomicInteger(0)).incrementAndGet();
+    public synchronized void incrementUpdateCount(long handle) {
+        int slot = slot(handle, true);
+        if (slot >= 0) {
+            updateCounters[slot]++;
+        }
     }
 
-    public int getUpdateCount(String entityId) {
-        return updateCounters.getOrDefault(entityId, new AtomicInteger(0)).get();
+    public synchronized int getUpdateCount(long handle) {
+        int slot = slot(handle, false);
+        return slot >= 0 ? updateCounters[slot] : 0;
     }
 
-    public void resetCounter(String entityId) {
-        AtomicInteger counter = updateCounters.get(entityId);
-        if (counter != null) {
-            counter.set(0);
+    public synchronized void resetCounter(long handle) {
+        int slot = slot(handle, false);
+        if (slot >= 0) {
+            updateCounters[slot] = 0;
         }
     }
 
-    public void clearEntity(String entityId) {
-        updateCounters.remove(entityId);
-        updateIntervals.remove(entityId);
-        lastUpdateTimes.remove(entityId);
+    public synchronized void clearEntity(long handle) {
+        int slot = slot(handle, false);
+        if (slot >= 0) {
+            generations[slot] = 0;
+            updateIntervals[slot] = Float.NaN;
+            lastUpdateTimes[slot] = 0L;
+            updateCounters[slot] = 0;
+            bucketShifts[slot] = 0;
+            trackedCount--;
+        }
     }
 
-    public void clearAll() {
-        updateCounters.clear();
-        updateIntervals.clear();
-        lastUpdateTimes.clear();
+    public synchronized void clearAll() {
+        Arrays.fill(generations, 0);
+        Arrays.fill(updateIntervals, Float.NaN);
+        Arrays.fill(lastUpdateTimes, 0L);
+        Arrays.fill(updateCounters, 0);
+        Arrays.fill(bucketShifts, (byte) 0);
+        Arrays.fill(bucketCounts, 0);
+        trackedCount = 0;
     }
 
-    public int getTotalUpdateCount() {
-        return updateCounters.values().stream()
-                .mapToInt(AtomicInteger::get)
-                .sum();
+    public synchronized int getTotalUpdateCount() {
+        int total = 0;
+        for (int count : updateCounters) {
+            total += count;
+        }
+        return total;
     }
 
     public void setAdaptiveEnabled(boolean enabled) {
@@ -112,32 +450,63 @@ public final class UpdateFrequencyController {
         return adaptiveEnabled;
     }
 
-    public UpdateStats getStats() {
+    public synchronized UpdateStats getStats() {
         int total = getTotalUpdateCount();
-        int unique = updateCounters.size();
+        int unique = trackedCount;
 
         return new UpdateStats(
                 globalUpdateInterval,
                 maxUpdatesPerTick,
                 total,
                 unique,
-                adaptiveEnabled
+                adaptiveEnabled,
+                bucketCounts.clone()
         );
     }
 
+    /**
+     * 观察者（玩家眼睛位置与视线方向）的不可变快照，在主线程采集
+     */
+    public static final class Viewer {
+        private final String world;
+        private final double x;
+        private final double y;
+        private final double z;
+        private final double dirX;
+        private final double dirY;
+        private final double dirZ;
+
+        public Viewer(String world, double x, double y, double z, double dirX, double dirY, double dirZ) {
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.dirX = dirX;
+            this.dirY = dirY;
+            this.dirZ = dirZ;
+        }
+
+        public String getWorld() { return world; }
+        public double getX() { return x; }
+        public double getY() { return y; }
+        public double getZ() { return z; }
+    }
+
     public static final class UpdateStats {
         private final float globalInterval;
         private final int maxPerTick;
         private final int totalUpdates;
         private final int uniqueEntities;
         private final boolean adaptive;
+        private final int[] bucketCounts;
 
-        public UpdateStats(float interval, int max, int total, int unique, boolean adaptive) {
+        public UpdateStats(float interval, int max, int total, int unique, boolean adaptive, int[] bucketCounts) {
             this.globalInterval = interval;
             this.maxPerTick = max;
             this.totalUpdates = total;
             this.uniqueEntities = unique;
             this.adaptive = adaptive;
+            this.bucketCounts = bucketCounts;
         }
 
         public float getGlobalInterval() { return globalInterval; }
@@ -145,6 +514,7 @@ public final class UpdateFrequencyController {
         public int getTotalUpdates() { return totalUpdates; }
         public int getUniqueEntities() { return uniqueEntities; }
         public boolean isAdaptive() { return adaptive; }
+        public int getBucketCount(UpdateBucket bucket) { return bucketCounts[bucket.ordinal()]; }
         public float getAvgUpdatesPerEntity() { return uniqueEntities > 0 ? (float) totalUpdates / uniqueEntities : 0; }
     }
 }
@@ -45,9 +45,6 @@ public class ConflictVisualizationManager {
             // 生成增强版附魔数据
             generateEnhancedEnchantmentsJson();
 
-            // 生成冲突规则数据
-            generateConflictRulesJson();
-
             // 生成综合冲突列表数据
             generateComprehensiveConflictListJson();
 
@@ -103,81 +100,6 @@ public class ConflictVisualizationManager {
         }
     }
 
-    /**
-     * 生成冲突规则JSON数据
-     */
-    private void generateConflictRulesJson() throws IOException {
-        Map<String, ConflictRule> conflictRules = new HashMap<>();
-
-        // 添加冲突规则
-        conflictRules.put("combat", new ConflictRule(
-            Arrays.asList("armor", "special"),
-            Arrays.asList("tool", "curse", "utility", "defense", "cosmetic"),
-            Arrays.asList("defense")
-        ));
-
-        conflictRules.put("armor", new ConflictRule(
-            Arrays.asList("combat", "special"),
-            Arrays.asList("tool", "curse", "utility", "defense", "cosmetic"),
-            Arrays.asList("defense")
-        ));
-
-        conflictRules.put("tool", new ConflictRule(
-            Arrays.asList("curse"),
-            Arrays.asList("combat", "armor", "utility", "defense", "cosmetic"),
-            Arrays.asList("special")
-        ));
-
-        conflictRules.put("curse", new ConflictRule(
-            Arrays.asList("combat", "armor", "tool", "utility", "defense", "special"),
-            Arrays.asList("cosmetic"),
-            Arrays.asList()
-        ));
-
-        conflictRules.put("utility", new ConflictRule(
-            Arrays.asList("curse", "special"),
-            Arrays.asList("combat", "armor", "tool", "defense", "cosmetic"),
-            Arrays.asList("special")
-        ));
-
-        conflictRules.put("defense", new ConflictRule(
-            Arrays.asList("special"),
-            Arrays.asList("combat", "armor", "tool", "curse", "utility", "cosmetic"),
-            Arrays.asList("combat", "armor")
-        ));
-
-        conflictRules.put("special", new ConflictRule(
-            Arrays.asList("combat", "armor", "curse", "utility"),
-            Arrays.asList("cosmetic"),
-            Arrays.asList("tool", "defense")
-        ));
-
-        conflictRules.put("cosmetic", new ConflictRule(
-            Arrays.asList("curse", "special"),
-            Arrays.asList("combat", "armor", "tool", "utility", "defense"),
-            Arrays.asList()
-        ));
-
-        // 添加原版附魔冲突规则
-        conflictRules.put("vanilla_weapon", new ConflictRule(
-            Arrays.asList("vanilla_armor", "special"),
-            Arrays.asList("vanilla_tool", "vanilla_curse", "vanilla_utility", "defense", "cosmetic"),
-            Arrays.asList("defense")
-        ));
-
-        conflictRules.put("vanilla_armor", new ConflictRule(
-            Arrays.asList("vanilla_weapon", "special"),
-            Arrays.asList("vanilla_tool", "vanilla_curse", "vanilla_utility", "defense", "cosmetic"),
-            Arrays.asList("defense")
-        ));
-
-        // 写入冲突规则JSON文件
-        String outputPath = Paths.get("docs", "conflict_rules.json").toString();
-        try (FileWriter writer = new FileWriter(outputPath)) {
-            gson.toJson(conflictRules, writer);
-        }
-    }
-
     /**
      * 生成综合冲突列表JSON数据
      */
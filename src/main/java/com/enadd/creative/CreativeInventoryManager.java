@@ -1,5 +1,7 @@
 package com.enadd.creative;
 
+import com.enadd.config.ConfigManager;
+import com.enadd.core.cache.ItemRenderCache;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.TextDecoration;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
@@ -118,6 +120,12 @@ public final class CreativeInventoryManager implements Listener {
                 }
             }
 
+            // 下一页在后台提前渲染，翻页时直接命中
+            int prefetchEnd = Math.min(endIndex + ENCHANTMENT_PAGE_SIZE, enchantments.size());
+            for (int i = endIndex; i < prefetchEnd; i++) {
+                prefetchEnchantmentItem(enchantments.get(i));
+            }
+
             gui.setItem(45, createNavigationItem(Material.ARROW, "§7← 上一页", page > 0));
             gui.setItem(49, createInfoItem(page + 1, totalPages, enchantments.size()));
             gui.setItem(53, createNavigationItem(Material.ARROW, "§7下一页 →", page < totalPages - 1));
@@ -139,6 +147,14 @@ public final class CreativeInventoryManager implements Listener {
     }
 
     private ItemStack createNavigationItem(Material material, String name, boolean enabled) {
+        // 共享原型只交给 setItem，由背包自行复制
+        ItemRenderCache renderCache = ItemRenderCache.getInstance();
+        return renderCache.getShared(
+            renderCache.key("creative:nav:" + name, enabled ? 1 : 0, ConfigManager.getLanguage()),
+            () -> renderNavigationItem(material, name, enabled));
+    }
+
+    private ItemStack renderNavigationItem(Material material, String name, boolean enabled) {
         ItemStack item = new ItemStack(enabled ? material : Material.GRAY_DYE);
         ItemMeta meta = item.getItemMeta();
         if (meta != null) {
@@ -176,6 +192,13 @@ public final class CreativeInventoryManager implements Listener {
     }
 
     private ItemStack createFilterButton(String category, boolean isActive) {
+        ItemRenderCache renderCache = ItemRenderCache.getInstance();
+        return renderCache.getShared(
+            renderCache.key("creative:filter:" + category, isActive ? 1 : 0, ConfigManager.getLanguage()),
+            () -> renderFilterButton(category, isActive));
+    }
+
+    private ItemStack renderFilterButton(String category, boolean isActive) {
         ItemStack item = new ItemStack(isActive ? Material.LIME_CONCRETE : Material.GRAY_CONCRETE);
         ItemMeta meta = item.getItemMeta();
         if (meta != null) {
@@ -293,19 +316,13 @@ public final class CreativeInventoryManager implements Listener {
             }
 
             if (!enchantId.isEmpty()) {
-                ItemStack book = new ItemStack(Material.ENCHANTED_BOOK);
-                ItemMeta meta = book.getItemMeta();
-                if (meta != null) {
-                    String displayName = getEnchantmentDisplayName(enchantId);
-                    meta.displayName(LEGACY_SERIALIZER.deserialize("§5§l" + displayName));
-
-                    List<Component> loreComponents = new ArrayList<>();
-                    loreComponents.add(LEGACY_SERIALIZER.deserialize("§7附魔等级: " + level).decoration(TextDecoration.ITALIC, false));
-                    loreComponents.add(LEGACY_SERIALIZER.deserialize("§7来源: EnchAdd 创造模式").decoration(TextDecoration.ITALIC, false));
-                    meta.lore(loreComponents);
-
-                    book.setItemMeta(meta);
-                }
+                // 交给玩家背包的物品可能被修改（堆叠、改名），取克隆而不是共享原型
+                ItemRenderCache renderCache = ItemRenderCache.getInstance();
+                String bookId = enchantId;
+                int bookLevel = level;
+                ItemStack book = renderCache.get(
+                    renderCache.key("creative:book:" + bookId, bookLevel, ConfigManager.getLanguage()),
+                    () -> renderEnchantedBook(bookId, bookLevel));
 
                 player.getInventory().addItem(book);
                 player.sendMessage(format("&a你获得了附魔书: &f" + getEnchantmentDisplayName(enchantId)));
@@ -317,7 +334,38 @@ public final class CreativeInventoryManager implements Listener {
         }
     }
 
+    private ItemStack renderEnchantedBook(String enchantId, int level) {
+        ItemStack book = new ItemStack(Material.ENCHANTED_BOOK);
+        ItemMeta meta = book.getItemMeta();
+        if (meta != null) {
+            String displayName = getEnchantmentDisplayName(enchantId);
+            meta.displayName(LEGACY_SERIALIZER.deserialize("§5§l" + displayName));
+
+            List<Component> loreComponents = new ArrayList<>();
+            loreComponents.add(LEGACY_SERIALIZER.deserialize("§7附魔等级: " + level).decoration(TextDecoration.ITALIC, false));
+            loreComponents.add(LEGACY_SERIALIZER.deserialize("§7来源: EnchAdd 创造模式").decoration(TextDecoration.ITALIC, false));
+            meta.lore(loreComponents);
+
+            book.setItemMeta(meta);
+        }
+        return book;
+    }
+
     private ItemStack createEnchantmentItem(CreativeEnchantmentItem item) {
+        ItemRenderCache renderCache = ItemRenderCache.getInstance();
+        return renderCache.getShared(renderKey(renderCache, item), () -> renderEnchantmentItem(item));
+    }
+
+    private void prefetchEnchantmentItem(CreativeEnchantmentItem item) {
+        ItemRenderCache renderCache = ItemRenderCache.getInstance();
+        renderCache.prefetch(renderKey(renderCache, item), () -> renderEnchantmentItem(item));
+    }
+
+    private static ItemRenderCache.RenderKey renderKey(ItemRenderCache renderCache, CreativeEnchantmentItem item) {
+        return renderCache.key("creative:" + item.getId(), item.getMaxLevel(), ConfigManager.getLanguage());
+    }
+
+    private ItemStack renderEnchantmentItem(CreativeEnchantmentItem item) {
         Material baseMaterial = getBaseMaterialForCategory(item.getCategory());
 
         ItemStack stack = new ItemStack(baseMaterial);
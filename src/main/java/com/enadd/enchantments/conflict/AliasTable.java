@@ -0,0 +1,166 @@
+package com.enadd.enchantments.conflict;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+
+/**
+ * 加权随机抽样的别名表（Vose 别名法）
+ *
+ * 构建 O(n)，每次抽样 O(1)：随机选一个桶，再按桶内概率决定取桶本身还是它的别名。
+ * 表构建后不可变，可在多线程间共享；随机源由调用方提供
+ * （主线程用 ThreadLocalRandom，批量模拟可传入 SplittableRandom 的独立流）。
+ *
+ * 不放回抽样用拒绝法：已抽中的下标被拒绝后重抽；剩余权重不足一半时
+ * 在剩余下标上重建一张小表，保证每次有效抽样的期望尝试次数不超过 2。
+ */
+public final class AliasTable {
+
+    private final int[] weights;
+    private final long totalWeight;
+    private final double[] probability;
+    private final int[] alias;
+
+    private AliasTable(int[] weights, long totalWeight, double[] probability, int[] alias) {
+        this.weights = weights;
+        this.totalWeight = totalWeight;
+        this.probability = probability;
+        this.alias = alias;
+    }
+
+    /**
+     * @param weights 各下标的权重，必须非负且总和大于 0
+     */
+    public static AliasTable of(int[] weights) {
+        int n = weights.length;
+        long total = 0;
+        for (int weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight: " + weight);
+            }
+            total += weight;
+        }
+        if (n == 0 || total == 0) {
+            throw new IllegalArgumentException("Alias table needs a positive total weight");
+        }
+
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallSize = 0;
+        int largeSize = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = (double) weights[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallSize++] = i;
+            } else {
+                large[largeSize++] = i;
+            }
+        }
+
+        double[] probability = new double[n];
+        int[] alias = new int[n];
+        while (smallSize > 0 && largeSize > 0) {
+            int less = small[--smallSize];
+            int more = large[--largeSize];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallSize++] = more;
+            } else {
+                large[largeSize++] = more;
+            }
+        }
+        // 剩下的桶概率为 1（small 中残留的只可能来自浮点误差）
+        while (largeSize > 0) {
+            int i = large[--largeSize];
+            probability[i] = 1.0;
+            alias[i] = i;
+        }
+        while (smallSize > 0) {
+            int i = small[--smallSize];
+            probability[i] = 1.0;
+            alias[i] = i;
+        }
+        return new AliasTable(weights.clone(), total, probability, alias);
+    }
+
+    public int size() {
+        return weights.length;
+    }
+
+    public int weight(int index) {
+        return weights[index];
+    }
+
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * 按权重抽取一个下标
+     */
+    public int sample(RandomGenerator random) {
+        int bucket = random.nextInt(probability.length);
+        return random.nextDouble() < probability[bucket] ? bucket : alias[bucket];
+    }
+
+    /**
+     * 不放回地按权重抽取最多 count 个不同下标，按抽中顺序返回
+     *
+     * 每一步在尚未抽中的下标中按权重抽样，与逐个删除后重新抽样的分布相同。
+     * 权重为 0 的下标不会被抽中，因此结果可能少于 count 个。
+     */
+    public int[] sampleDistinct(int count, RandomGenerator random) {
+        int positive = 0;
+        for (int weight : weights) {
+            if (weight > 0) {
+                positive++;
+            }
+        }
+        int target = Math.min(count, positive);
+        int[] result = new int[Math.max(0, target)];
+        if (target <= 0) {
+            return result;
+        }
+
+        boolean[] taken = new boolean[weights.length];
+        AliasTable current = this;
+        // 重建后的小表下标 → 本表下标
+        int[] mapping = null;
+        long remaining = totalWeight;
+        int found = 0;
+        while (found < target) {
+            if (remaining * 2 < current.totalWeight) {
+                mapping = remainingIndexes(taken);
+                int[] rest = new int[mapping.length];
+                for (int i = 0; i < mapping.length; i++) {
+                    rest[i] = weights[mapping[i]];
+                }
+                current = of(rest);
+            }
+
+            int drawn = current.sample(random);
+            int index = mapping != null ? mapping[drawn] : drawn;
+            if (taken[index]) {
+                continue;
+            }
+            taken[index] = true;
+            remaining -= weights[index];
+            result[found++] = index;
+        }
+        return result;
+    }
+
+    private int[] remainingIndexes(boolean[] taken) {
+        int[] indexes = new int[weights.length];
+        int n = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (!taken[i] && weights[i] > 0) {
+                indexes[n++] = i;
+            }
+        }
+        return Arrays.copyOf(indexes, n);
+    }
+}
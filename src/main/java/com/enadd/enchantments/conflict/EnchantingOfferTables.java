@@ -0,0 +1,584 @@
+package com.enadd.enchantments.conflict;
+
+import com.enadd.config.ConfigManager;
+import com.enadd.core.conflict.ConflictGraph;
+import com.enadd.core.conflict.EnchantmentConflictManager;
+import io.papermc.paper.datacomponent.DataComponentTypes;
+import io.papermc.paper.datacomponent.item.Enchantable;
+import org.bukkit.Material;
+import org.bukkit.Registry;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.random.RandomGenerator;
+
+
+/**
+ * 附魔台选项表
+ *
+ * 按 (物品组, 书架数, 槽位) 预计算附魔台选项的全部随机结构，准备选项时只需查表加几次抽样：
+ * - 物品组：可附魔集合、附魔能力和是否为书都相同的物品类型共用一组（如所有剑）
+ * - 每张表把原版的槽位花费公式和附魔能力/波动修正枚举成 (花费, 修正等级) 结果的别名表
+ * - 每个 (物品组, 修正等级) 共用一个候选池：可用附魔及其等级、按
+ *   {@link EnchantmentWeightManager} 权重的别名表、候选之间的冲突位集；
+ *   追加附魔时用冲突位集拒绝与已选附魔冲突的候选
+ *
+ * 随机模型与原版一致：±15% 的三角分布等级波动按取整区间精确积分，
+ * 每个修正等级的概率以 {@value #NOISE_SCALE} 为分母取整（误差低于 1e-5）。
+ * 配置重载或冲突规则重新编译后整体失效。
+ */
+public final class EnchantingOfferTables {
+    // Holder模式优化单例
+    private static final class Holder {
+        private static final EnchantingOfferTables INSTANCE = new EnchantingOfferTables();
+    }
+
+    private static final Logger LOGGER = Logger.getLogger("EnchAdd");
+
+    public static final int SLOTS = 3;
+    public static final int MAX_BOOKSHELF_POWER = 15;
+
+    // 原版等级波动 (f1 + f2 - 1) * 0.15 是三角分布，按取整区间积分后的概率乘以该值取整
+    static final int NOISE_SCALE = 1 << 16;
+    private static final double NOISE_SPREAD = 0.15;
+    // 追加附魔时拒绝抽样的最大尝试次数，超过后改为精确筛选
+    private static final int MAX_REJECTIONS = 32;
+
+    // 选项表与其对应的冲突图一起替换
+    private volatile Memo memo = new Memo(null);
+
+    private EnchantingOfferTables() {
+    }
+
+    public static EnchantingOfferTables getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * 为一个槽位生成选项
+     *
+     * @param bookshelfPower 书架数（超过 15 按 15 处理）
+     * @param slot 槽位 0-2
+     * @return 选项，该槽位没有选项时返回 null
+     */
+    public Offer roll(ItemStack item, int bookshelfPower, int slot, RandomGenerator random) {
+        OfferTable table = table(item, bookshelfPower, slot);
+        return table != null ? table.roll(random) : null;
+    }
+
+    /**
+     * 取预计算的选项表
+     *
+     * @return 选项表，物品不可附魔时返回 null
+     */
+    public OfferTable table(ItemStack item, int bookshelfPower, int slot) {
+        if (item == null || slot < 0 || slot >= SLOTS) {
+            return null;
+        }
+        Memo current = currentMemo();
+        Group group = current.groupOf(item);
+        if (group == null) {
+            return null;
+        }
+        int power = Math.max(0, Math.min(bookshelfPower, MAX_BOOKSHELF_POWER));
+        int key = (group.index * (MAX_BOOKSHELF_POWER + 1) + power) * SLOTS + slot;
+        return current.tables.computeIfAbsent(key, k -> current.buildTable(group, power, slot));
+    }
+
+    /**
+     * 物品能否在附魔台附魔
+     */
+    public boolean isEnchantable(ItemStack item) {
+        return item != null && currentMemo().groupOf(item) != null;
+    }
+
+    private Memo currentMemo() {
+        ConflictGraph graph = EnchantmentConflictManager.getInstance().getConflictGraph();
+        Memo current = memo;
+        if (current.graph == graph) {
+            return current;
+        }
+        synchronized (this) {
+            if (memo.graph != graph) {
+                memo = new Memo(graph);
+            }
+            return memo;
+        }
+    }
+
+    /**
+     * 丢弃全部选项表（配置重载后调用）
+     */
+    public synchronized void invalidateAll() {
+        memo = new Memo(EnchantmentConflictManager.getInstance().getConflictGraph());
+    }
+
+    public int getGroupCount() {
+        return memo.groupsByKey.size();
+    }
+
+    public int getTableCount() {
+        return memo.tables.size();
+    }
+
+    public int getPoolCount() {
+        return memo.pools.size();
+    }
+
+    // ---- 原版公式 ----
+
+    /**
+     * 原版槽位花费：j = rand(8) + 1 + power/2 + rand(power + 1)
+     */
+    static int slotCost(int j, int power, int slot) {
+        switch (slot) {
+            case 0:
+                return Math.max(j / 3, 1);
+            case 1:
+                return j * 2 / 3 + 1;
+            default:
+                return Math.max(j, power * 2);
+        }
+    }
+
+    /**
+     * 枚举原版随机过程，得到 (花费, 修正等级) 结果的整数权重
+     *
+     * @return 键为 (花费 << 32) | 修正等级，没有选项的结果以 {@link #NO_OFFER} 为键
+     */
+    static Map<Long, Integer> outcomeWeights(int enchantability, int power, int slot) {
+        Map<Long, Integer> outcomes = new LinkedHashMap<>();
+        int spread = enchantability / 4;
+        int noOffer = 0;
+        for (int a = 1; a <= 8; a++) {
+            for (int b = 0; b <= power; b++) {
+                int cost = slotCost(a + (power >> 1) + b, power, slot);
+                if (cost < slot + 1) {
+                    // 原版把低于槽位序号的花费清零，该槽位不显示选项
+                    noOffer += (spread + 1) * (spread + 1) * NOISE_SCALE;
+                    continue;
+                }
+                for (int r1 = 0; r1 <= spread; r1++) {
+                    for (int r2 = 0; r2 <= spread; r2++) {
+                        int base = cost + 1 + r1 + r2;
+                        int[] noise = noiseWeights(base);
+                        int low = noiseLow(base);
+                        for (int k = 0; k < noise.length; k++) {
+                            if (noise[k] > 0) {
+                                outcomes.merge(((long) cost << 32) | (low + k), noise[k], Integer::sum);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (noOffer > 0) {
+            outcomes.put(NO_OFFER, noOffer);
+        }
+        return outcomes;
+    }
+
+    static final long NO_OFFER = -1L;
+
+    // 波动后可能的最低修正等级
+    private static int noiseLow(int base) {
+        return Math.max(1, (int) Math.floor(base * (1 - NOISE_SPREAD) + 0.5));
+    }
+
+    /**
+     * 修正等级 round(base + base * f) 的分布，f 在 [-0.15, 0.15] 上呈三角分布；
+     * 下标 k 对应等级 {@code noiseLow(base) + k}，权重之和为 {@link #NOISE_SCALE}
+     */
+    static int[] noiseWeights(int base) {
+        int low = noiseLow(base);
+        int high = Math.max(1, (int) Math.floor(base * (1 + NOISE_SPREAD) + 0.5));
+        int[] weights = new int[high - low + 1];
+        int assigned = 0;
+        int largest = 0;
+        for (int level = low; level <= high; level++) {
+            // Math.round 向上取整半数：level 覆盖 base * (1 + f) ∈ [level - 0.5, level + 0.5)
+            double from = level == low ? -NOISE_SPREAD : (level - 0.5) / base - 1;
+            double to = level == high ? NOISE_SPREAD : (level + 0.5) / base - 1;
+            int k = level - low;
+            weights[k] = (int) Math.round((triangularCdf(to) - triangularCdf(from)) * NOISE_SCALE);
+            assigned += weights[k];
+            if (weights[k] > weights[largest]) {
+                largest = k;
+            }
+        }
+        // 取整误差计入概率最大的等级，保证每个基础等级的总权重相同
+        weights[largest] += NOISE_SCALE - assigned;
+        return weights;
+    }
+
+    private static double triangularCdf(double x) {
+        double t = Math.max(-1, Math.min(1, x / NOISE_SPREAD));
+        return t <= 0 ? (t + 1) * (t + 1) / 2 : 1 - (1 - t) * (1 - t) / 2;
+    }
+
+    private static int enchantabilityOf(ItemStack item) {
+        try {
+            Enchantable enchantable = item.getData(DataComponentTypes.ENCHANTABLE);
+            return enchantable != null ? enchantable.value() : 0;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static final class Memo {
+        private final ConflictGraph graph;
+        private final Map<Material, Group> groupsByType = new ConcurrentHashMap<>();
+        private final Map<GroupKey, Group> groupsByKey = new ConcurrentHashMap<>();
+        private final AtomicInteger nextGroup = new AtomicInteger();
+        private final Map<Integer, OfferTable> tables = new ConcurrentHashMap<>();
+        private final Map<Long, CandidatePool> pools = new ConcurrentHashMap<>();
+        // 可出现在附魔台的附魔（非宝藏、可发现、未被禁用），首次使用时收集
+        private volatile List<Enchantment> candidates;
+
+        private Memo(ConflictGraph graph) {
+            this.graph = graph;
+        }
+
+        private List<Enchantment> candidates() {
+            List<Enchantment> result = candidates;
+            if (result == null) {
+                synchronized (this) {
+                    if (candidates == null) {
+                        candidates = tableEnchantments();
+                    }
+                    result = candidates;
+                }
+            }
+            return result;
+        }
+
+        @SuppressWarnings("removal")
+        private static List<Enchantment> tableEnchantments() {
+            List<Enchantment> result = new ArrayList<>();
+            // 候选池按 EnchantmentWeightManager 的权重抽取
+            EnchantmentWeightManager.initialize();
+            boolean allowTreasure = !ConfigManager.isTreasureEnchantments();
+            try {
+                for (Enchantment enchantment : Registry.ENCHANTMENT) {
+                    if (enchantment == null || !enchantment.isDiscoverable()) {
+                        continue;
+                    }
+                    if (enchantment.isTreasure() && !allowTreasure) {
+                        continue;
+                    }
+                    if (!ConfigManager.isEnchantmentEnabled(enchantment.getKey().toString())) {
+                        continue;
+                    }
+                    result.add(enchantment);
+                }
+            } catch (Exception e) {
+                LOGGER.warning("Failed to collect enchanting table enchantments: " + e.getMessage());
+            }
+            // 按键排序，同一套配置每次得到相同的表
+            result.sort((a, b) -> a.getKey().toString().compareTo(b.getKey().toString()));
+            return result;
+        }
+
+        private Group groupOf(ItemStack item) {
+            Material type = item.getType();
+            Group group = groupsByType.get(type);
+            if (group != null) {
+                return group.isUsable() ? group : null;
+            }
+
+            List<Enchantment> candidates = candidates();
+            boolean book = type == Material.BOOK;
+            int enchantability = enchantabilityOf(item);
+            int[] applicable = new int[candidates.size()];
+            int n = 0;
+            if (enchantability > 0) {
+                for (int i = 0; i < candidates.size(); i++) {
+                    // 书可以获得附魔台里的任意附魔
+                    if (book || candidates.get(i).canEnchantItem(item)) {
+                        applicable[n++] = i;
+                    }
+                }
+            }
+            GroupKey key = new GroupKey(book, enchantability, Arrays.copyOf(applicable, n));
+            group = groupsByKey.computeIfAbsent(key, k -> new Group(nextGroup.getAndIncrement(), k));
+            groupsByType.put(type, group);
+            return group.isUsable() ? group : null;
+        }
+
+        private OfferTable buildTable(Group group, int power, int slot) {
+            Map<Long, Integer> outcomes = outcomeWeights(group.enchantability, power, slot);
+            int size = outcomes.size();
+            int[] costs = new int[size];
+            int[] weights = new int[size];
+            CandidatePool[] outcomePools = new CandidatePool[size];
+            int i = 0;
+            for (Map.Entry<Long, Integer> entry : outcomes.entrySet()) {
+                weights[i] = entry.getValue();
+                if (entry.getKey() != NO_OFFER) {
+                    costs[i] = (int) (entry.getKey() >>> 32);
+                    int level = (int) (long) entry.getKey();
+                    outcomePools[i] = pools.computeIfAbsent(((long) group.index << 32) | level,
+                        k -> buildPool(group, level));
+                }
+                i++;
+            }
+            return new OfferTable(group.book, costs, outcomePools, AliasTable.of(weights));
+        }
+
+        private CandidatePool buildPool(Group group, int level) {
+            List<Enchantment> enchantments = new ArrayList<>();
+            List<Integer> levels = new ArrayList<>();
+            for (int index : group.applicable) {
+                Enchantment enchantment = candidates().get(index);
+                // 与原版相同：从最高等级往下找第一个花费区间包含修正等级的等级
+                for (int l = enchantment.getMaxLevel(); l >= enchantment.getStartLevel(); l--) {
+                    if (level >= enchantment.getMinModifiedCost(l) && level <= enchantment.getMaxModifiedCost(l)) {
+                        enchantments.add(enchantment);
+                        levels.add(l);
+                        break;
+                    }
+                }
+            }
+            return new CandidatePool(level, enchantments, levels);
+        }
+    }
+
+    private static final class GroupKey {
+        private final boolean book;
+        private final int enchantability;
+        private final int[] applicable;
+        private final int hash;
+
+        private GroupKey(boolean book, int enchantability, int[] applicable) {
+            this.book = book;
+            this.enchantability = enchantability;
+            this.applicable = applicable;
+            this.hash = (Arrays.hashCode(applicable) * 31 + enchantability) * 31 + (book ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof GroupKey)) return false;
+            GroupKey other = (GroupKey) o;
+            return book == other.book && enchantability == other.enchantability
+                && Arrays.equals(applicable, other.applicable);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Group {
+        private final int index;
+        private final boolean book;
+        private final int enchantability;
+        private final int[] applicable;
+
+        private Group(int index, GroupKey key) {
+            this.index = index;
+            this.book = key.book;
+            this.enchantability = key.enchantability;
+            this.applicable = key.applicable;
+        }
+
+        private boolean isUsable() {
+            return enchantability > 0 && applicable.length > 0;
+        }
+    }
+
+    /**
+     * 一个 (物品组, 修正等级) 的候选池
+     */
+    static final class CandidatePool {
+        private final int level;
+        private final Enchantment[] enchantments;
+        private final int[] levels;
+        private final AliasTable alias;
+        private final int words;
+        // 候选之间的冲突位集，第 i 行是与候选 i 冲突的候选
+        private final long[] conflicts;
+        private final boolean conflictFree;
+
+        CandidatePool(int level, List<Enchantment> enchantments, List<Integer> levels) {
+            int n = enchantments.size();
+            this.level = level;
+            this.enchantments = enchantments.toArray(new Enchantment[0]);
+            this.levels = new int[n];
+            int[] weights = new int[n];
+            for (int i = 0; i < n; i++) {
+                this.levels[i] = levels.get(i);
+                weights[i] = EnchantmentWeightManager.getWeight(this.enchantments[i]);
+            }
+            this.alias = n > 0 ? AliasTable.of(weights) : null;
+            this.words = Math.max(1, (n + 63) >>> 6);
+            this.conflicts = new long[n * words];
+            boolean any = false;
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    if (this.enchantments[i].conflictsWith(this.enchantments[j])
+                            || this.enchantments[j].conflictsWith(this.enchantments[i])) {
+                        conflicts[i * words + (j >>> 6)] |= 1L << j;
+                        conflicts[j * words + (i >>> 6)] |= 1L << i;
+                        any = true;
+                    }
+                }
+            }
+            this.conflictFree = !any;
+        }
+
+        int size() {
+            return enchantments.length;
+        }
+
+        /**
+         * 原版选择过程：按权重选第一个附魔，然后以 (等级+1)/50 的概率继续追加
+         * 与已选附魔都不冲突的附魔，每追加一个等级减半
+         */
+        List<Integer> select(RandomGenerator random) {
+            List<Integer> chosen = new ArrayList<>(4);
+            if (alias == null) {
+                return chosen;
+            }
+            long[] mask = new long[words];
+            int first = alias.sample(random);
+            chosen.add(first);
+            mask[first >>> 6] |= 1L << first;
+
+            int remainingLevel = level;
+            while (random.nextInt(50) <= remainingLevel) {
+                int next = drawCompatible(mask, random);
+                if (next < 0) {
+                    break;
+                }
+                chosen.add(next);
+                mask[next >>> 6] |= 1L << next;
+                remainingLevel /= 2;
+            }
+            return chosen;
+        }
+
+        private int drawCompatible(long[] mask, RandomGenerator random) {
+            for (int attempt = 0; attempt < MAX_REJECTIONS; attempt++) {
+                int candidate = alias.sample(random);
+                if (isCompatible(candidate, mask)) {
+                    return candidate;
+                }
+            }
+
+            // 剩余可选的很少：精确筛选后按权重抽
+            int total = 0;
+            for (int i = 0; i < enchantments.length; i++) {
+                if (isCompatible(i, mask)) {
+                    total += alias.weight(i);
+                }
+            }
+            if (total == 0) {
+                return -1;
+            }
+            int target = random.nextInt(total);
+            for (int i = 0; i < enchantments.length; i++) {
+                if (isCompatible(i, mask)) {
+                    target -= alias.weight(i);
+                    if (target < 0) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private boolean isCompatible(int candidate, long[] mask) {
+            if ((mask[candidate >>> 6] & (1L << candidate)) != 0) {
+                return false;
+            }
+            if (conflictFree) {
+                return true;
+            }
+            int base = candidate * words;
+            for (int w = 0; w < words; w++) {
+                if ((conflicts[base + w] & mask[w]) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 一个 (物品组, 书架数, 槽位) 的选项表
+     */
+    public static final class OfferTable {
+        private final boolean book;
+        private final int[] costs;
+        private final CandidatePool[] pools;
+        private final AliasTable outcomes;
+
+        OfferTable(boolean book, int[] costs, CandidatePool[] pools, AliasTable outcomes) {
+            this.book = book;
+            this.costs = costs;
+            this.pools = pools;
+            this.outcomes = outcomes;
+        }
+
+        /**
+         * @return 选项，本次没有选项时返回 null
+         */
+        public Offer roll(RandomGenerator random) {
+            int outcome = outcomes.sample(random);
+            CandidatePool pool = pools[outcome];
+            if (pool == null || pool.size() == 0) {
+                return null;
+            }
+
+            List<Integer> chosen = pool.select(random);
+            // 原版：附魔书在多于一个附魔时随机去掉一个
+            if (book && chosen.size() > 1) {
+                chosen.remove(random.nextInt(chosen.size()));
+            }
+
+            Map<Enchantment, Integer> enchantments = new LinkedHashMap<>();
+            for (int index : chosen) {
+                enchantments.put(pool.enchantments[index], pool.levels[index]);
+            }
+            int hint = chosen.get(random.nextInt(chosen.size()));
+            return new Offer(costs[outcome], enchantments, pool.enchantments[hint], pool.levels[hint]);
+        }
+
+        public int getOutcomeCount() {
+            return costs.length;
+        }
+    }
+
+    /**
+     * 附魔台选项：显示的花费和提示附魔，以及点击后实际添加的附魔
+     */
+    public static final class Offer {
+        private final int cost;
+        private final Map<Enchantment, Integer> enchantments;
+        private final Enchantment hint;
+        private final int hintLevel;
+
+        public Offer(int cost, Map<Enchantment, Integer> enchantments, Enchantment hint, int hintLevel) {
+            this.cost = cost;
+            this.enchantments = Collections.unmodifiableMap(enchantments);
+            this.hint = hint;
+            this.hintLevel = hintLevel;
+        }
+
+        public int getCost() { return cost; }
+        public Map<Enchantment, Integer> getEnchantments() { return enchantments; }
+        public Enchantment getHint() { return hint; }
+        public int getHintLevel() { return hintLevel; }
+    }
+}
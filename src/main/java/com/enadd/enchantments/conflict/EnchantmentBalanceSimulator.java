@@ -0,0 +1,737 @@
+package com.enadd.enchantments.conflict;
+
+import com.enadd.core.api.IEnchantmentConfig;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiPredicate;
+import java.util.random.RandomGenerator;
+
+
+/**
+ * 附魔平衡蒙特卡洛模拟
+ *
+ * 按原版附魔台和战利品（enchant_with_levels）的随机过程批量抽样，统计每个附魔的获取率及其
+ * 95% Wilson 置信区间，以及追加附魔时抽中后因与已选附魔冲突而被拒绝的比例，
+ * 用来检验手工权重和 {@link EnchantmentWeightManager#getRarityFactor(int)} 的实际效果。
+ *
+ * 抽样在 ForkJoinPool 上按次数二分并行，每次拆分用 SplittableRandom.split() 派生独立随机流。
+ * 拆分树只取决于抽样次数，同一种子的结果与线程数无关，可以直接对比两次平衡调整。
+ * 每个修正等级的候选池（可用附魔及其权重别名表）在构造时预先算好。
+ *
+ * 不依赖服务器运行时：候选附魔由调用方提供，冲突关系通过谓词查询。
+ */
+public final class EnchantmentBalanceSimulator {
+
+    private static final double Z_95 = 1.959964;
+    // 每个叶子任务的抽样次数，拆分树只取决于它和总次数
+    private static final int LEAF_ROLLS = 16_384;
+    // 追加附魔时拒绝抽样的最大尝试次数，超过后改为精确筛选
+    private static final int MAX_REJECTIONS = 32;
+
+    private final Settings settings;
+    private final Candidate[] candidates;
+    private final int words;
+    // 候选之间的冲突位集，第 i 行是与候选 i 冲突的候选
+    private final long[] conflicts;
+    private final int conflictPairs;
+    // 下标为修正等级
+    private final Pool[] tablePools;
+    private final Pool[] lootPools;
+
+    /**
+     * @param candidates 参与模拟的附魔
+     * @param conflicts 两个附魔 ID 是否冲突
+     */
+    public EnchantmentBalanceSimulator(List<Candidate> candidates, BiPredicate<String, String> conflicts,
+                                       Settings settings) {
+        this.settings = settings;
+        this.candidates = candidates.toArray(new Candidate[0]);
+        int n = this.candidates.length;
+        this.words = Math.max(1, (n + 63) >>> 6);
+        this.conflicts = new long[n * words];
+        int pairs = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                String a = this.candidates[i].id;
+                String b = this.candidates[j].id;
+                if (conflicts.test(a, b) || conflicts.test(b, a)) {
+                    this.conflicts[i * words + (j >>> 6)] |= 1L << j;
+                    this.conflicts[j * words + (i >>> 6)] |= 1L << i;
+                    pairs++;
+                }
+            }
+        }
+        this.conflictPairs = pairs;
+
+        // 附魔台：槽位花费最高为 8 + power/2 + power；战利品：配置的最高等级
+        int spread = settings.enchantability / 4;
+        int power = settings.bookshelfPower;
+        int maxBase = Math.max(8 + (power >> 1) + power, settings.lootMaxLevel) + 1 + 2 * spread;
+        int maxLevel = (int) Math.ceil(maxBase * 1.15) + 1;
+        this.tablePools = new Pool[maxLevel + 1];
+        this.lootPools = new Pool[maxLevel + 1];
+        for (int level = 1; level <= maxLevel; level++) {
+            tablePools[level] = buildPool(level, false);
+            lootPools[level] = buildPool(level, true);
+        }
+    }
+
+    private Pool buildPool(int level, boolean treasure) {
+        int[] members = new int[candidates.length];
+        int[] weights = new int[candidates.length];
+        int n = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            Candidate candidate = candidates[i];
+            if ((treasure || !candidate.treasure) && candidate.isAvailableAt(level)) {
+                members[n] = i;
+                weights[n] = candidate.weight;
+                n++;
+            }
+        }
+        if (n == 0) {
+            return null;
+        }
+        return new Pool(Arrays.copyOf(members, n), AliasTable.of(Arrays.copyOf(weights, n)));
+    }
+
+    public int getConflictPairCount() {
+        return conflictPairs;
+    }
+
+    /**
+     * 在给定的线程池上执行全部抽样
+     */
+    public Report run(ForkJoinPool pool) {
+        long start = System.nanoTime();
+        SplittableRandom root = new SplittableRandom(settings.seed);
+        RollTask table = new RollTask(false, settings.tableRolls, root.split());
+        RollTask loot = new RollTask(true, settings.lootRolls, root.split());
+        pool.invoke(table);
+        pool.invoke(loot);
+        return new Report(this, table.tally, loot.tally, pool.getParallelism(), System.nanoTime() - start);
+    }
+
+    // ---- 原版随机过程 ----
+
+    /**
+     * 一次附魔台选项：随机槽位，按原版花费公式得到花费，再按附魔能力和 ±15% 波动修正等级
+     */
+    private void rollTable(RandomGenerator random, Tally tally, long[] mask, int[] chosen) {
+        int power = settings.bookshelfPower;
+        int slot = random.nextInt(EnchantingOfferTables.SLOTS);
+        int j = random.nextInt(8) + 1 + (power >> 1) + random.nextInt(power + 1);
+        int cost = EnchantingOfferTables.slotCost(j, power, slot);
+        if (cost < slot + 1) {
+            tally.empty++;
+            return;
+        }
+        int n = select(tablePools, modifiedLevel(cost, random), random, tally, mask, chosen);
+        if (settings.book && n > 1) {
+            // 原版附魔台给书的选项随机去掉一个附魔
+            chosen[random.nextInt(n)] = chosen[n - 1];
+            n--;
+        }
+        record(tally, chosen, n);
+    }
+
+    /**
+     * 一次战利品附魔：等级在 [lootMinLevel, lootMaxLevel] 中均匀取值，允许宝藏附魔
+     */
+    private void rollLoot(RandomGenerator random, Tally tally, long[] mask, int[] chosen) {
+        int base = settings.lootMinLevel + random.nextInt(settings.lootMaxLevel - settings.lootMinLevel + 1);
+        record(tally, chosen, select(lootPools, modifiedLevel(base, random), random, tally, mask, chosen));
+    }
+
+    private int modifiedLevel(int level, RandomGenerator random) {
+        int spread = settings.enchantability / 4 + 1;
+        level += 1 + random.nextInt(spread) + random.nextInt(spread);
+        float noise = (random.nextFloat() + random.nextFloat() - 1.0F) * 0.15F;
+        return Math.max(1, Math.round(level + level * noise));
+    }
+
+    /**
+     * 原版选择过程：按权重选第一个附魔，然后以 (等级+1)/50 的概率继续追加
+     * 与已选附魔都不冲突的附魔，每追加一个等级减半
+     *
+     * @return 选中的附魔数，候选下标写入 chosen
+     */
+    private int select(Pool[] pools, int level, RandomGenerator random, Tally tally, long[] mask, int[] chosen) {
+        Pool pool = pools[Math.min(level, pools.length - 1)];
+        if (pool == null) {
+            tally.empty++;
+            return 0;
+        }
+        Arrays.fill(mask, 0L);
+        int first = pool.members[pool.alias.sample(random)];
+        chosen[0] = first;
+        mask[first >>> 6] |= 1L << first;
+        int n = 1;
+
+        int remainingLevel = level;
+        while (random.nextInt(50) <= remainingLevel) {
+            int next = drawCompatible(pool, mask, random, tally);
+            if (next < 0) {
+                break;
+            }
+            chosen[n++] = next;
+            mask[next >>> 6] |= 1L << next;
+            remainingLevel /= 2;
+        }
+        return n;
+    }
+
+    private int drawCompatible(Pool pool, long[] mask, RandomGenerator random, Tally tally) {
+        for (int attempt = 0; attempt < MAX_REJECTIONS; attempt++) {
+            int candidate = pool.members[pool.alias.sample(random)];
+            if ((mask[candidate >>> 6] & (1L << candidate)) != 0) {
+                continue;
+            }
+            tally.bonusDraws[candidate]++;
+            if (conflictsWith(candidate, mask)) {
+                tally.rejections[candidate]++;
+                continue;
+            }
+            return candidate;
+        }
+
+        // 剩余可选的很少：精确筛选后按权重抽
+        long total = 0;
+        for (int i = 0; i < pool.members.length; i++) {
+            if (isCompatible(pool.members[i], mask)) {
+                total += pool.alias.weight(i);
+            }
+        }
+        if (total == 0) {
+            return -1;
+        }
+        long target = random.nextLong(total);
+        for (int i = 0; i < pool.members.length; i++) {
+            if (isCompatible(pool.members[i], mask)) {
+                target -= pool.alias.weight(i);
+                if (target < 0) {
+                    return pool.members[i];
+                }
+            }
+        }
+        return -1;
+    }
+
+    private boolean isCompatible(int candidate, long[] mask) {
+        return (mask[candidate >>> 6] & (1L << candidate)) == 0 && !conflictsWith(candidate, mask);
+    }
+
+    private boolean conflictsWith(int candidate, long[] mask) {
+        int base = candidate * words;
+        for (int w = 0; w < words; w++) {
+            if ((conflicts[base + w] & mask[w]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void record(Tally tally, int[] chosen, int n) {
+        for (int i = 0; i < n; i++) {
+            tally.hits[chosen[i]]++;
+        }
+        tally.enchantments += n;
+    }
+
+    /**
+     * 95% Wilson 置信区间
+     */
+    static double[] wilson(long hits, long trials) {
+        if (trials <= 0) {
+            return new double[] {0.0, 0.0};
+        }
+        double n = trials;
+        double p = hits / n;
+        double z2 = Z_95 * Z_95;
+        double denominator = 1 + z2 / n;
+        double center = (p + z2 / (2 * n)) / denominator;
+        double half = Z_95 * Math.sqrt(p * (1 - p) / n + z2 / (4 * n * n)) / denominator;
+        return new double[] {Math.max(0.0, center - half), Math.min(1.0, center + half)};
+    }
+
+    /**
+     * 一段抽样，次数超过 {@link #LEAF_ROLLS} 时二分，左半使用拆分出的新随机流
+     */
+    private final class RollTask extends RecursiveAction {
+        private final boolean loot;
+        private final long rolls;
+        private final SplittableRandom random;
+        private Tally tally;
+
+        private RollTask(boolean loot, long rolls, SplittableRandom random) {
+            this.loot = loot;
+            this.rolls = rolls;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            if (rolls <= LEAF_ROLLS) {
+                tally = new Tally(candidates.length);
+                long[] mask = new long[words];
+                int[] chosen = new int[Math.max(1, candidates.length)];
+                for (long i = 0; i < rolls; i++) {
+                    if (loot) {
+                        rollLoot(random, tally, mask, chosen);
+                    } else {
+                        rollTable(random, tally, mask, chosen);
+                    }
+                }
+                tally.rolls = rolls;
+                return;
+            }
+
+            long half = rolls >>> 1;
+            RollTask left = new RollTask(loot, half, random.split());
+            RollTask right = new RollTask(loot, rolls - half, random);
+            invokeAll(left, right);
+            tally = left.tally.merge(right.tally);
+        }
+    }
+
+    private static final class Pool {
+        // 候选下标，与别名表下标一一对应
+        private final int[] members;
+        private final AliasTable alias;
+
+        private Pool(int[] members, AliasTable alias) {
+            this.members = members;
+            this.alias = alias;
+        }
+    }
+
+    private static final class Tally {
+        private long rolls;
+        private long empty;
+        private long enchantments;
+        private final long[] hits;
+        private final long[] bonusDraws;
+        private final long[] rejections;
+
+        private Tally(int size) {
+            this.hits = new long[size];
+            this.bonusDraws = new long[size];
+            this.rejections = new long[size];
+        }
+
+        private Tally merge(Tally other) {
+            rolls += other.rolls;
+            empty += other.empty;
+            enchantments += other.enchantments;
+            for (int i = 0; i < hits.length; i++) {
+                hits[i] += other.hits[i];
+                bonusDraws[i] += other.bonusDraws[i];
+                rejections[i] += other.rejections[i];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * 参与模拟的附魔
+     */
+    public static final class Candidate {
+        private final String id;
+        private final int weight;
+        private final boolean treasure;
+        // 下标为等级 - 1
+        private final int[] minCosts;
+        private final int[] maxCosts;
+
+        /**
+         * @param minCosts 各等级（从 1 级起）的最小修正等级
+         * @param maxCosts 各等级的最大修正等级
+         */
+        public Candidate(String id, int weight, boolean treasure, int[] minCosts, int[] maxCosts) {
+            if (minCosts.length == 0 || minCosts.length != maxCosts.length) {
+                throw new IllegalArgumentException("Cost curve of " + id + " needs one range per level");
+            }
+            this.id = id;
+            this.weight = Math.max(1, weight);
+            this.treasure = treasure;
+            this.minCosts = minCosts.clone();
+            this.maxCosts = maxCosts.clone();
+        }
+
+        /**
+         * 使用附魔配置的花费曲线，最大花费与 BaseEnchantment 相同为最小花费 + 15
+         */
+        public static Candidate withConfig(String id, int weight, IEnchantmentConfig config) {
+            int levels = Math.max(1, config.getMaxLevel());
+            int[] min = new int[levels];
+            int[] max = new int[levels];
+            for (int level = 1; level <= levels; level++) {
+                min[level - 1] = config.getBaseCost(level);
+                max[level - 1] = min[level - 1] + 15;
+            }
+            return new Candidate(id, weight, config.isTreasure(), min, max);
+        }
+
+        private boolean isAvailableAt(int level) {
+            for (int i = 0; i < minCosts.length; i++) {
+                if (level >= minCosts[i] && level <= maxCosts[i]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public String getId() { return id; }
+        public int getWeight() { return weight; }
+        public boolean isTreasure() { return treasure; }
+        public int getMaxLevel() { return minCosts.length; }
+    }
+
+    /**
+     * 模拟参数
+     */
+    public static final class Settings {
+        private final long seed;
+        private final long tableRolls;
+        private final long lootRolls;
+        private final int bookshelfPower;
+        private final int enchantability;
+        private final boolean book;
+        private final int lootMinLevel;
+        private final int lootMaxLevel;
+        private final String source;
+
+        private Settings(Builder builder) {
+            this.seed = builder.seed;
+            this.tableRolls = builder.tableRolls;
+            this.lootRolls = builder.lootRolls;
+            this.bookshelfPower = builder.bookshelfPower;
+            this.enchantability = builder.enchantability;
+            this.book = builder.book;
+            this.lootMinLevel = builder.lootMinLevel;
+            this.lootMaxLevel = Math.max(builder.lootMinLevel, builder.lootMaxLevel);
+            this.source = builder.source;
+        }
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        public long getSeed() { return seed; }
+        public long getTableRolls() { return tableRolls; }
+        public long getLootRolls() { return lootRolls; }
+        public int getBookshelfPower() { return bookshelfPower; }
+        public int getEnchantability() { return enchantability; }
+        public boolean isBook() { return book; }
+        public int getLootMinLevel() { return lootMinLevel; }
+        public int getLootMaxLevel() { return lootMaxLevel; }
+        public String getSource() { return source; }
+
+        public static final class Builder {
+            private long seed = 42L;
+            private long tableRolls = 5_000_000L;
+            private long lootRolls = 5_000_000L;
+            private int bookshelfPower = EnchantingOfferTables.MAX_BOOKSHELF_POWER;
+            // 书的附魔能力
+            private int enchantability = 1;
+            private boolean book = true;
+            // 原版末地城宝箱的 enchant_with_levels 区间
+            private int lootMinLevel = 20;
+            private int lootMaxLevel = 39;
+            private String source = "";
+
+            public Builder seed(long seed) {
+                this.seed = seed;
+                return this;
+            }
+
+            public Builder tableRolls(long tableRolls) {
+                this.tableRolls = Math.max(0, tableRolls);
+                return this;
+            }
+
+            public Builder lootRolls(long lootRolls) {
+                this.lootRolls = Math.max(0, lootRolls);
+                return this;
+            }
+
+            public Builder bookshelfPower(int bookshelfPower) {
+                this.bookshelfPower = Math.max(0, Math.min(bookshelfPower, EnchantingOfferTables.MAX_BOOKSHELF_POWER));
+                return this;
+            }
+
+            public Builder enchantability(int enchantability) {
+                this.enchantability = Math.max(1, enchantability);
+                return this;
+            }
+
+            public Builder book(boolean book) {
+                this.book = book;
+                return this;
+            }
+
+            public Builder lootLevels(int min, int max) {
+                this.lootMinLevel = Math.max(1, min);
+                this.lootMaxLevel = Math.max(1, max);
+                return this;
+            }
+
+            /**
+             * 候选附魔的来源说明，写入报告
+             */
+            public Builder source(String source) {
+                this.source = source != null ? source : "";
+                return this;
+            }
+
+            public Settings build() {
+                return new Settings(this);
+            }
+        }
+    }
+
+    /**
+     * 单个附魔的统计结果
+     */
+    public static final class EnchantmentStats {
+        private final Candidate candidate;
+        private final long tableHits;
+        private final long lootHits;
+        private final long bonusDraws;
+        private final long rejections;
+        private final double[] tableInterval;
+        private final double[] lootInterval;
+        private final double tableRate;
+        private final double lootRate;
+
+        private EnchantmentStats(Candidate candidate, long tableHits, long tableRolls, long lootHits, long lootRolls,
+                                 long bonusDraws, long rejections) {
+            this.candidate = candidate;
+            this.tableHits = tableHits;
+            this.lootHits = lootHits;
+            this.bonusDraws = bonusDraws;
+            this.rejections = rejections;
+            this.tableRate = tableRolls > 0 ? (double) tableHits / tableRolls : 0.0;
+            this.lootRate = lootRolls > 0 ? (double) lootHits / lootRolls : 0.0;
+            this.tableInterval = wilson(tableHits, tableRolls);
+            this.lootInterval = wilson(lootHits, lootRolls);
+        }
+
+        public String getId() { return candidate.id; }
+        public int getWeight() { return candidate.weight; }
+        public String getRarityName() { return EnchantmentWeightManager.getRarityName(candidate.weight); }
+        public double getRarityFactor() { return EnchantmentWeightManager.getRarityFactor(candidate.weight); }
+        public long getTableHits() { return tableHits; }
+        public long getLootHits() { return lootHits; }
+        public double getTableRate() { return tableRate; }
+        public double getTableLow() { return tableInterval[0]; }
+        public double getTableHigh() { return tableInterval[1]; }
+        public double getLootRate() { return lootRate; }
+        public double getLootLow() { return lootInterval[0]; }
+        public double getLootHigh() { return lootInterval[1]; }
+        public long getBonusDraws() { return bonusDraws; }
+        public long getRejections() { return rejections; }
+
+        /**
+         * 追加附魔时抽中该附魔后因冲突被拒绝的比例
+         */
+        public double getRejectionRate() {
+            return bonusDraws > 0 ? (double) rejections / bonusDraws : 0.0;
+        }
+    }
+
+    /**
+     * 模拟报告
+     */
+    public static final class Report {
+        private final Settings settings;
+        private final int parallelism;
+        private final long elapsedNanos;
+        private final int conflictPairs;
+        private final Tally table;
+        private final Tally loot;
+        private final List<EnchantmentStats> enchantments;
+
+        private Report(EnchantmentBalanceSimulator simulator, Tally table, Tally loot, int parallelism,
+                       long elapsedNanos) {
+            this.settings = simulator.settings;
+            this.parallelism = parallelism;
+            this.elapsedNanos = elapsedNanos;
+            this.conflictPairs = simulator.conflictPairs;
+            this.table = table;
+            this.loot = loot;
+            List<EnchantmentStats> stats = new ArrayList<>(simulator.candidates.length);
+            for (int i = 0; i < simulator.candidates.length; i++) {
+                stats.add(new EnchantmentStats(simulator.candidates[i], table.hits[i], table.rolls,
+                    loot.hits[i], loot.rolls, table.bonusDraws[i] + loot.bonusDraws[i],
+                    table.rejections[i] + loot.rejections[i]));
+            }
+            stats.sort(Comparator.comparingDouble((EnchantmentStats s) -> -s.tableRate)
+                .thenComparingDouble(s -> -s.lootRate).thenComparing(EnchantmentStats::getId));
+            this.enchantments = Collections.unmodifiableList(stats);
+        }
+
+        public List<EnchantmentStats> getEnchantments() { return enchantments; }
+        public long getTableRolls() { return table.rolls; }
+        public long getLootRolls() { return loot.rolls; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        public double getTableEmptyRate() {
+            return table.rolls > 0 ? (double) table.empty / table.rolls : 0.0;
+        }
+
+        public double getLootEmptyRate() {
+            return loot.rolls > 0 ? (double) loot.empty / loot.rolls : 0.0;
+        }
+
+        public EnchantmentStats get(String id) {
+            for (EnchantmentStats stats : enchantments) {
+                if (stats.getId().equals(id)) {
+                    return stats;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * 各稀有度档位的平均获取率，按稀有度系数降序（越往后越稀有）
+         */
+        public List<TierStats> getTiers() {
+            Map<String, TierStats> tiers = new LinkedHashMap<>();
+            for (EnchantmentStats stats : enchantments) {
+                tiers.computeIfAbsent(stats.getRarityName(), name -> new TierStats(name, stats.getRarityFactor()))
+                    .add(stats);
+            }
+            List<TierStats> result = new ArrayList<>(tiers.values());
+            result.sort(Comparator.comparingDouble((TierStats t) -> -t.factor));
+            return result;
+        }
+
+        /**
+         * 写入 UTF-8 文本报告
+         */
+        public void write(Path file) throws IOException {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.writeString(file, format(), StandardCharsets.UTF_8);
+        }
+
+        public String format() {
+            StringBuilder out = new StringBuilder();
+            long total = table.rolls + loot.rolls;
+            double seconds = elapsedNanos / 1e9;
+            out.append("EnchAdd 附魔平衡模拟报告\n");
+            out.append("========================\n");
+            if (!settings.source.isEmpty()) {
+                out.append("候选来源: ").append(settings.source).append('\n');
+            }
+            out.append(String.format(Locale.ROOT, "种子 %d，%d 线程，耗时 %.2f s（%.1f 万次/秒）%n",
+                settings.seed, parallelism, seconds, seconds > 0 ? total / seconds / 1e4 : 0.0));
+            out.append(String.format(Locale.ROOT, "附魔 %d 个，候选之间冲突 %d 对%n", enchantments.size(), conflictPairs));
+            out.append(String.format(Locale.ROOT, "附魔台: %d 次（书架 %d，附魔能力 %d%s，随机槽位），无选项 %.2f%%，平均 %.3f 个附魔%n",
+                table.rolls, settings.bookshelfPower, settings.enchantability, settings.book ? "，书" : "",
+                getTableEmptyRate() * 100, table.rolls > 0 ? (double) table.enchantments / table.rolls : 0.0));
+            out.append(String.format(Locale.ROOT, "战利品: %d 次（等级 %d-%d，含宝藏附魔），无结果 %.2f%%，平均 %.3f 个附魔%n",
+                loot.rolls, settings.lootMinLevel, settings.lootMaxLevel, getLootEmptyRate() * 100,
+                loot.rolls > 0 ? (double) loot.enchantments / loot.rolls : 0.0));
+
+            out.append("\n稀有度档位（按稀有度系数降序）\n");
+            out.append(String.format(Locale.ROOT, "  %-10s %6s %8s %8s %12s %12s%n",
+                "档位", "附魔数", "平均权重", "稀有度系数", "附魔台平均", "战利品平均"));
+            List<TierStats> tiers = getTiers();
+            for (TierStats tier : tiers) {
+                out.append(String.format(Locale.ROOT, "  %-10s %6d %8.1f %8.2f %11.4f%% %11.4f%%%n",
+                    tier.name, tier.count, tier.getMeanWeight(), tier.factor,
+                    tier.getMeanTableRate() * 100, tier.getMeanLootRate() * 100));
+            }
+            for (int i = 1; i < tiers.size(); i++) {
+                TierStats common = tiers.get(i - 1);
+                TierStats rare = tiers.get(i);
+                if (rare.getMeanTableRate() > common.getMeanTableRate()) {
+                    out.append(String.format(Locale.ROOT, "  ! 档位倒挂: %s（系数 %.2f）平均获取率 %.4f%% 高于 %s（系数 %.2f）的 %.4f%%%n",
+                        rare.name, rare.factor, rare.getMeanTableRate() * 100,
+                        common.name, common.factor, common.getMeanTableRate() * 100));
+                }
+            }
+
+            out.append("\n附魔明细（按附魔台获取率降序，区间为 95% Wilson 置信区间）\n");
+            out.append(String.format(Locale.ROOT, "  %-32s %4s %-10s %26s %26s %10s%n",
+                "附魔", "权重", "档位", "附魔台获取率", "战利品获取率", "冲突拒绝率"));
+            for (EnchantmentStats stats : enchantments) {
+                out.append(String.format(Locale.ROOT,
+                    "  %-32s %4d %-10s %8.4f%% [%7.4f, %7.4f] %8.4f%% [%7.4f, %7.4f] %9.2f%%%n",
+                    stats.getId(), stats.getWeight(), stats.getRarityName(),
+                    stats.tableRate * 100, stats.getTableLow() * 100, stats.getTableHigh() * 100,
+                    stats.lootRate * 100, stats.getLootLow() * 100, stats.getLootHigh() * 100,
+                    stats.getRejectionRate() * 100));
+            }
+
+            List<String> warnings = new ArrayList<>();
+            for (EnchantmentStats stats : enchantments) {
+                if (table.rolls > 0 && stats.tableHits == 0 && !stats.candidate.treasure) {
+                    warnings.add(stats.getId() + " 在附魔台中没有出现");
+                }
+                if (loot.rolls > 0 && stats.lootHits == 0) {
+                    warnings.add(stats.getId() + " 在战利品中没有出现");
+                }
+                if (stats.bonusDraws >= 100 && stats.getRejectionRate() > 0.5) {
+                    warnings.add(String.format(Locale.ROOT, "%s 追加时 %.1f%% 因冲突被拒绝（%d 次抽中）",
+                        stats.getId(), stats.getRejectionRate() * 100, stats.bonusDraws));
+                }
+            }
+            out.append("\n警告\n");
+            if (warnings.isEmpty()) {
+                out.append("  无\n");
+            }
+            for (String warning : warnings) {
+                out.append("  - ").append(warning).append('\n');
+            }
+            return out.toString();
+        }
+    }
+
+    /**
+     * 一个稀有度档位的汇总
+     */
+    public static final class TierStats {
+        private final String name;
+        private final double factor;
+        private int count;
+        private long weightSum;
+        private double tableRateSum;
+        private double lootRateSum;
+
+        private TierStats(String name, double factor) {
+            this.name = name;
+            this.factor = factor;
+        }
+
+        private void add(EnchantmentStats stats) {
+            count++;
+            weightSum += stats.getWeight();
+            tableRateSum += stats.tableRate;
+            lootRateSum += stats.lootRate;
+        }
+
+        public String getName() { return name; }
+        public double getFactor() { return factor; }
+        public int getCount() { return count; }
+        public double getMeanWeight() { return count > 0 ? (double) weightSum / count : 0.0; }
+        public double getMeanTableRate() { return count > 0 ? tableRateSum / count : 0.0; }
+        public double getMeanLootRate() { return count > 0 ? lootRateSum / count : 0.0; }
+    }
+}
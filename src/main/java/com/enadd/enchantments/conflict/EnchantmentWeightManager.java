@@ -2,9 +2,15 @@ package com.enadd.enchantments.conflict;
 
 import org.bukkit.enchantments.Enchantment;
 import net.minecraft.resources.ResourceLocation;
+import com.enadd.core.cache.SegmentedLruCache;
 import com.enadd.core.conflict.EnchantmentConflictManager;
+import com.enadd.core.generated.CompiledEnchantmentRules;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+import java.util.random.RandomGenerator;
 
 
 
@@ -19,13 +25,18 @@ public final class EnchantmentWeightManager {
 
     private static final Map<ResourceLocation, Integer> ENCHANTMENT_WEIGHTS = new ConcurrentHashMap<>();
     private static final Map<String, List<ResourceLocation>> WEIGHT_CATEGORIES = new ConcurrentHashMap<>();
-    private static final Random WEIGHT_RANDOM = new Random();
     private static volatile boolean initialized = false;
 
     private static final int MIN_WEIGHT = 1;
     private static final int MAX_WEIGHT = 100;
     private static final int DEFAULT_WEIGHT = 10;
 
+    // 候选集签名 → 别名表。签名带权重版本号，权重变化后旧表不会再命中
+    private static final int MAX_ALIAS_TABLES = 256;
+    private static final SegmentedLruCache<CandidateSignature, AliasTable> ALIAS_TABLES =
+        new SegmentedLruCache<>(MAX_ALIAS_TABLES, MAX_ALIAS_TABLES / 2, 0L, 0L);
+    private static final AtomicInteger WEIGHTS_VERSION = new AtomicInteger();
+
     private EnchantmentWeightManager() {}
 
     private static ResourceLocation rl(String id) {
@@ -48,349 +59,39 @@ public final class EnchantmentWeightManager {
         initialized = true;
     }
 
+    // 权重表和分类来自构建时编译的 src/main/rules/enchantment_rules.json
     private static void initializeVanillaWeights() {
-        registerWeight("protection", 10);
-        registerWeight("fire_protection", 5);
-        registerWeight("feather_falling", 5);
-        registerWeight("blast_protection", 5);
-        registerWeight("projectile_protection", 5);
-
-        registerWeight("sharpness", 10);
-        registerWeight("smite", 5);
-        registerWeight("bane_of_arthropods", 5);
-        registerWeight("knockback", 5);
-        registerWeight("fire_aspect", 2);
-        registerWeight("looting", 2);
-        registerWeight("sweeping", 2);
-
-        registerWeight("efficiency", 10);
-        registerWeight("silk_touch", 1);
-        registerWeight("unbreaking", 5);
-        registerWeight("fortune", 2);
-
-        registerWeight("power", 10);
-        registerWeight("punch", 2);
-        registerWeight("flame", 2);
-        registerWeight("infinity", 1);
-
-        registerWeight("mending", 2);
-        registerWeight("vanishing_curse", 1);
-        registerWeight("binding_curse", 1);
-
-        registerWeight("lure", 2);
-        registerWeight("luck_of_the_sea", 2);
-        registerWeight("respiration", 2);
-        registerWeight("depth_strider", 2);
-        registerWeight("aqua_affinity", 2);
-        registerWeight("frost_walker", 2);
-
-        registerWeight("thorns", 1);
-        registerWeight("loyalty", 3);
-        registerWeight("rill", 2);
-        registerWeight("channeling", 2);
-
-        registerWeight("soul_speed", 2);
-        registerWeight("swift_sneak", 2);
+        for (int i = 0; i < CompiledEnchantmentRules.VANILLA_WEIGHT_IDS.length; i++) {
+            registerWeight(CompiledEnchantmentRules.VANILLA_WEIGHT_IDS[i], CompiledEnchantmentRules.VANILLA_WEIGHTS[i]);
+        }
     }
 
     private static void initializeCustomWeights() {
-        registerWeight("cleave", 4);
-        registerWeight("bleeding", 5);
-        registerWeight("armor_pierce", 4);
-        registerWeight("execution", 2);
-        registerWeight("momentum", 5);
-        registerWeight("disarm", 3);
-        registerWeight("crippling", 4);
-        registerWeight("reprisal", 4);
-        registerWeight("hemorrhage", 5);
-        registerWeight("backstab", 4);
-        registerWeight("stagger", 4);
-        registerWeight("rend", 4);
-        registerWeight("savage", 3);
-        registerWeight("duelist", 5);
-        registerWeight("hunter", 4);
-        registerWeight("juggernaut", 3);
-        registerWeight("finisher", 3);
-        registerWeight("vampirism", 2);
-
-        registerWeight("chain_lightning", 3);
-        registerWeight("frost_nova", 4);
-        registerWeight("fire_storm", 3);
-        registerWeight("shadow_strike", 4);
-        registerWeight("berserker_rage", 3);
-        registerWeight("life_stal", 3);
-        registerWeight("mana_steal", 3);
-        registerWeight("critical_strike", 5);
-        registerWeight("poison_cloud", 4);
-        registerWeight("thunder_strike", 3);
-        registerWeight("void_slash", 2);
-        registerWeight("dragon_breath", 3);
-        registerWeight("soul_burn", 3);
-        registerWeight("bloodlust", 2);
-        registerWeight("death_mark", 3);
-
-        registerWeight("stone_skin", 4);
-        registerWeight("dodge", 5);
-        registerWeight("reinforced_thorns", 3);
-        registerWeight("barrier", 3);
-        registerWeight("adrenaline", 4);
-        registerWeight("willpower", 4);
-        registerWeight("grounding", 5);
-        registerWeight("thermostatic", 4);
-        registerWeight("iron_will", 4);
-        registerWeight("recoil", 3);
-        registerWeight("endurance", 5);
-        registerWeight("last_stand", 2);
-
-        registerWeight("miner", 10);
-        registerWeight("chain_mining", 4);
-        registerWeight("prospecting", 5);
-        registerWeight("auto_smelt", 8);
-        registerWeight("magnetic", 5);
-        registerWeight("tree_feller", 4);
-        registerWeight("precision", 8);
-        registerWeight("strong_draw", 6);
-        registerWeight("catapult", 4);
-        registerWeight("enhanced_piercing", 6);
-        registerWeight("sniper", 5);
-        registerWeight("frost_arrow", 4);
-        registerWeight("signal_arrow", 5);
-        registerWeight("silence", 4);
-        registerWeight("harvest", 8);
-        registerWeight("navigation", 6);
-
-        registerWeight("titan_strength", 3);
-        registerWeight("lightning_speed", 4);
-        registerWeight("explosive_mining", 3);
-        registerWeight("combo_breaker", 4);
-        registerWeight("arbor_master", 4);
-        registerWeight("fortunes_grace", 3);
-        registerWeight("smelting_touch", 5);
-        registerWeight("collector", 4);
-        registerWeight("speed_surge", 5);
-        registerWeight("ethereal_step", 4);
-        registerWeight("heavy_hand", 5);
-        registerWeight("shadow_veil", 3);
-        registerWeight("climber", 6);
-        registerWeight("intimidation", 3);
-        registerWeight("torch_light", 5);
-        registerWeight("ore_sight", 4);
-        registerWeight("traveler", 5);
-        registerWeight("vacuum", 4);
-        registerWeight("void_mining", 2);
-        registerWeight("transmutation", 3);
-        registerWeight("multitool", 2);
-        registerWeight("instant_mining", 2);
-        registerWeight("infinite", 1);
-        registerWeight("duplication", 1);
-        registerWeight("builder", 4);
-        registerWeight("area_mining", 3);
-        registerWeight("auto_sort", 5);
-        registerWeight("magnet", 4);
-
-        registerWeight("auto_repair", 3);
-        registerWeight("soul_bound", 2);
-        registerWeight("teleport", 3);
-        registerWeight("time_accel", 1);
-        registerWeight("time_stop", 1);
-        registerWeight("gravity", 3);
-        registerWeight("anti_gravity", 3);
-        registerWeight("cloud_step", 4);
-        registerWeight("phase", 2);
-        registerWeight("water_walk", 4);
-        registerWeight("wall_walk", 3);
-        registerWeight("dimension_shift", 1);
-        registerWeight("weather_control", 1);
-        registerWeight("xray", 2);
-        registerWeight("light_source", 5);
-        registerWeight("night_vision", 5);
-        registerWeight("invisibility", 3);
-        registerWeight("mind_control", 2);
-
-        registerWeight("curse_fragile", 1);
-        registerWeight("curse_sluggish", 1);
-        registerWeight("curse_noise", 1);
-        registerWeight("curse_binding_plus", 1);
-        registerWeight("curse_drain", 1);
-        registerWeight("curse_weakness", 1);
-        registerWeight("curse_confusion", 1);
-
-        registerWeight("meteor_strike", 1);
-        registerWeight("homecoming", 2);
-
-        registerWeight("binder", 3);
+        for (int i = 0; i < CompiledEnchantmentRules.CUSTOM_WEIGHT_IDS.length; i++) {
+            // 自定义附魔注册在 enadd 命名空间下，不带命名空间的 ID 会被解析为 minecraft:
+            String id = CompiledEnchantmentRules.CUSTOM_WEIGHT_IDS[i];
+            registerWeight(id.contains(":") ? id : "enadd:" + id, CompiledEnchantmentRules.CUSTOM_WEIGHTS[i]);
+        }
     }
 
     private static void initializeWeightCategories() {
-        WEIGHT_CATEGORIES.put("weapon", Arrays.asList(
-            rl("sharpness"),
-            rl("smite"),
-            rl("bane_of_arthropods"),
-            rl("knockback"),
-            rl("fire_aspect"),
-            rl("looting"),
-            rl("sweeping"),
-            rl("cleave"),
-            rl("bleeding"),
-            rl("execution"),
-            rl("momentum"),
-            rl("vampirism"),
-            rl("critical_strike"),
-            rl("armor_pierce"),
-            rl("disarm"),
-            rl("crippling"),
-            rl("hemorrhage"),
-            rl("backstab"),
-            rl("stagger"),
-            rl("rend"),
-            rl("savage"),
-            rl("duelist"),
-            rl("hunter"),
-            rl("juggernaut"),
-            rl("finisher")
-        ));
-
-        WEIGHT_CATEGORIES.put("armor", Arrays.asList(
-            rl("protection"),
-            rl("fire_protection"),
-            rl("feather_falling"),
-            rl("blast_protection"),
-            rl("projectile_protection"),
-            rl("thorns"),
-            rl("stone_skin"),
-            rl("dodge"),
-            rl("reinforced_thorns"),
-            rl("barrier"),
-            rl("adrenaline"),
-            rl("willpower"),
-            rl("grounding"),
-            rl("thermostatic"),
-            rl("iron_will"),
-            rl("recoil"),
-            rl("endurance"),
-            rl("last_stand")
-        ));
-
-        WEIGHT_CATEGORIES.put("tool", Arrays.asList(
-            rl("efficiency"),
-            rl("silk_touch"),
-            rl("fortune"),
-            rl("unbreaking"),
-            rl("miner"),
-            rl("chain_mining"),
-            rl("prospecting"),
-            rl("auto_smelt"),
-            rl("magnetic"),
-            rl("tree_feller"),
-            rl("precision"),
-            rl("strong_draw"),
-            rl("catapult"),
-            rl("enhanced_piercing"),
-            rl("sniper"),
-            rl("frost_arrow"),
-            rl("signal_arrow"),
-            rl("silence"),
-            rl("harvest"),
-            rl("navigation"),
-            rl("titan_strength"),
-            rl("lightning_speed"),
-            rl("explosive_mining"),
-            rl("smelting_touch"),
-            rl("speed_surge"),
-            rl("collector"),
-            rl("heavy_hand"),
-            rl("climber"),
-            rl("torch_light"),
-            rl("ore_sight"),
-            rl("traveler")
-        ));
-
-        WEIGHT_CATEGORIES.put("bow", Arrays.asList(
-            rl("power"),
-            rl("punch"),
-            rl("flame"),
-            rl("infinity"),
-            rl("sniper"),
-            rl("hunter"),
-            rl("frost_arrow"),
-            rl("signal_arrow")
-        ));
-
-        WEIGHT_CATEGORIES.put("fishing_rod", Arrays.asList(
-            rl("luck_of_the_sea"),
-            rl("lure"),
-            rl("unbreaking")
-        ));
-
-        WEIGHT_CATEGORIES.put("trident", Arrays.asList(
-            rl("loyalty"),
-            rl("rill"),
-            rl("channeling"),
-            rl("impaling"),
-            rl("riptide")
-        ));
-
-        WEIGHT_CATEGORIES.put("crossbow", Arrays.asList(
-            rl("multishot"),
-            rl("piercing"),
-            rl("quick_charge")
-        ));
-
-        WEIGHT_CATEGORIES.put("utility", Arrays.asList(
-            rl("mending"),
-            rl("unbreaking"),
-            rl("soul_speed"),
-            rl("swift_sneak"),
-            rl("depth_strider"),
-            rl("aqua_affinity"),
-            rl("respiration"),
-            rl("auto_repair"),
-            rl("soul_bound"),
-            rl("teleport"),
-            rl("cloud_step"),
-            rl("water_walk"),
-            rl("wall_walk"),
-            rl("light_source"),
-            rl("night_vision"),
-            rl("invisibility")
-        ));
-
-        WEIGHT_CATEGORIES.put("special", Arrays.asList(
-            rl("meteor_strike"),
-            rl("homecoming"),
-            rl("binder"),
-            rl("time_accel"),
-            rl("time_stop"),
-            rl("gravity"),
-            rl("anti_gravity"),
-            rl("phase"),
-            rl("dimension_shift"),
-            rl("weather_control"),
-            rl("xray"),
-            rl("mind_control"),
-            rl("transmutation"),
-            rl("multitool"),
-            rl("instant_mining"),
-            rl("infinite"),
-            rl("duplication")
-        ));
-
-        WEIGHT_CATEGORIES.put("curse", Arrays.asList(
-            rl("vanishing_curse"),
-            rl("binding_curse"),
-            rl("curse_fragile"),
-            rl("curse_sluggish"),
-            rl("curse_noise"),
-            rl("curse_binding_plus"),
-            rl("curse_drain"),
-            rl("curse_weakness"),
-            rl("curse_confusion")
-        ));
+        for (int i = 0; i < CompiledEnchantmentRules.WEIGHT_CATEGORY_NAMES.length; i++) {
+            String[] members = CompiledEnchantmentRules.WEIGHT_CATEGORY_MEMBERS[i];
+            ResourceLocation[] locations = new ResourceLocation[members.length];
+            for (int j = 0; j < members.length; j++) {
+                locations[j] = rl(members[j]);
+            }
+            WEIGHT_CATEGORIES.put(CompiledEnchantmentRules.WEIGHT_CATEGORY_NAMES[i], Arrays.asList(locations));
+        }
     }
 
     public static void registerWeight(ResourceLocation enchantment, int weight) {
+        if (enchantment == null) {
+            return;
+        }
         int normalizedWeight = normalizeWeight(weight);
         ENCHANTMENT_WEIGHTS.put(enchantment, normalizedWeight);
+        invalidateAliasTables();
     }
 
     public static void registerWeight(String enchantmentId, int weight) {
@@ -411,11 +112,14 @@ public final class EnchantmentWeightManager {
     }
 
     public static int getWeight(ResourceLocation enchantment) {
+        if (enchantment == null) {
+            return DEFAULT_WEIGHT;
+        }
         return ENCHANTMENT_WEIGHTS.getOrDefault(enchantment, DEFAULT_WEIGHT);
     }
 
     public static void setWeight(ResourceLocation enchantment, int weight) {
-        ENCHANTMENT_WEIGHTS.put(enchantment, normalizeWeight(weight));
+        registerWeight(enchantment, weight);
     }
 
     public static void setWeight(String enchantmentId, int weight) {
@@ -426,102 +130,111 @@ public final class EnchantmentWeightManager {
         return Math.max(MIN_WEIGHT, Math.min(weight, MAX_WEIGHT));
     }
 
+    /**
+     * 按权重不放回地抽取最多 availableSlots 个附魔（按抽中顺序）
+     */
     public static List<ResourceLocation> getAvailableEnchantments(Collection<ResourceLocation> candidates, int availableSlots) {
-        if (candidates == null || candidates.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        List<ResourceLocation> result = new ArrayList<>();
-        List<ResourceLocation> shuffled = new ArrayList<>(candidates);
-        Collections.shuffle(shuffled, WEIGHT_RANDOM);
-
-        int totalWeight = 0;
-        for (ResourceLocation ench : shuffled) {
-            totalWeight += getWeight(ench);
-        }
-
-        int remainingWeight = totalWeight;
-        int slotsFilled = 0;
-
-        for (ResourceLocation ench : shuffled) {
-            if (slotsFilled >= availableSlots) {
-                break;
-            }
-
-            int enchWeight = getWeight(ench);
-            double probability = (double) enchWeight / remainingWeight;
-
-            if (WEIGHT_RANDOM.nextDouble() < probability) {
-                result.add(ench);
-                slotsFilled++;
-                remainingWeight -= enchWeight;
-            }
-        }
-
-        return result;
+        return getAvailableEnchantments(candidates, availableSlots, ThreadLocalRandom.current());
     }
 
-    public static List<Enchantment> getAvailableEnchantmentsByWeight(Collection<Enchantment> candidates, int availableSlots) {
-        if (candidates == null || candidates.isEmpty()) {
+    public static List<ResourceLocation> getAvailableEnchantments(Collection<ResourceLocation> candidates, int availableSlots,
+                                                                  RandomGenerator random) {
+        List<ResourceLocation> list = withoutNulls(candidates);
+        if (list.isEmpty() || availableSlots <= 0) {
             return new ArrayList<>();
         }
 
-        List<ResourceLocation> candidateLocations = new ArrayList<>();
-        for (Enchantment ench : candidates) {
-            ResourceLocation loc = EnchantmentConflictManager.getEnchantmentLocation(ench);
-            if (loc != null) {
-                candidateLocations.add(loc);
-            }
-        }
+        AliasTable table = aliasTable(list.toArray(), i -> getWeight(list.get(i)));
+        return pick(list, table.sampleDistinct(availableSlots, random));
+    }
 
-        List<ResourceLocation> selected = getAvailableEnchantments(candidateLocations, availableSlots);
+    /**
+     * 按权重不放回地抽取最多 availableSlots 个附魔（按抽中顺序），用于多槽位附魔选项
+     */
+    public static List<Enchantment> getAvailableEnchantmentsByWeight(Collection<Enchantment> candidates, int availableSlots) {
+        return getAvailableEnchantmentsByWeight(candidates, availableSlots, ThreadLocalRandom.current());
+    }
 
-        List<Enchantment> result = new ArrayList<>();
-        for (Enchantment ench : candidates) {
-            ResourceLocation loc = EnchantmentConflictManager.getEnchantmentLocation(ench);
-            if (loc != null && selected.contains(loc)) {
-                result.add(ench);
-            }
+    public static List<Enchantment> getAvailableEnchantmentsByWeight(Collection<Enchantment> candidates, int availableSlots,
+                                                                     RandomGenerator random) {
+        List<Enchantment> list = withoutNulls(candidates);
+        if (list.isEmpty() || availableSlots <= 0) {
+            return new ArrayList<>();
         }
 
-        return result;
+        AliasTable table = aliasTable(keysOf(list), i -> getWeight(list.get(i)));
+        return pick(list, table.sampleDistinct(availableSlots, random));
     }
 
     public static Enchantment selectEnchantmentByWeight(Collection<Enchantment> candidates) {
-        if (candidates == null || candidates.isEmpty()) {
+        return selectEnchantmentByWeight(candidates, ThreadLocalRandom.current());
+    }
+
+    public static Enchantment selectEnchantmentByWeight(Collection<Enchantment> candidates, RandomGenerator random) {
+        List<Enchantment> list = withoutNulls(candidates);
+        if (list.isEmpty()) {
             return null;
         }
 
-        List<Enchantment> candidateList = new ArrayList<>(candidates);
-        List<ResourceLocation> candidateLocations = new ArrayList<>();
+        AliasTable table = aliasTable(keysOf(list), i -> getWeight(list.get(i)));
+        return list.get(table.sample(random));
+    }
 
-        for (Enchantment ench : candidateList) {
-            ResourceLocation loc = EnchantmentConflictManager.getEnchantmentLocation(ench);
-            if (loc != null) {
-                candidateLocations.add(loc);
+    /**
+     * 取候选集的别名表；未命中时才解析附魔位置并读取权重
+     *
+     * @param keys 候选的规范键（按候选顺序），作为缓存签名
+     * @param weightAt 候选下标 → 权重
+     */
+    private static AliasTable aliasTable(Object[] keys, IntUnaryOperator weightAt) {
+        CandidateSignature signature = new CandidateSignature(keys, WEIGHTS_VERSION.get());
+        AliasTable table = ALIAS_TABLES.get(signature);
+        if (table == null) {
+            int[] weights = new int[keys.length];
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = weightAt.applyAsInt(i);
             }
+            table = AliasTable.of(weights);
+            ALIAS_TABLES.put(signature, table);
         }
+        return table;
+    }
 
-        int totalWeight = 0;
-        for (ResourceLocation loc : candidateLocations) {
-            totalWeight += getWeight(loc);
+    private static Object[] keysOf(List<Enchantment> enchantments) {
+        Object[] keys = new Object[enchantments.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = enchantments.get(i).getKey();
         }
+        return keys;
+    }
 
-        if (totalWeight <= 0) {
-            return candidateList.get(WEIGHT_RANDOM.nextInt(candidateList.size()));
+    private static <T> List<T> withoutNulls(Collection<T> candidates) {
+        List<T> list = new ArrayList<>(candidates != null ? candidates.size() : 0);
+        if (candidates != null) {
+            for (T candidate : candidates) {
+                if (candidate != null) {
+                    list.add(candidate);
+                }
+            }
         }
+        return list;
+    }
 
-        int randomValue = WEIGHT_RANDOM.nextInt(totalWeight);
-        int currentWeight = 0;
-
-        for (int i = 0; i < candidateLocations.size(); i++) {
-            currentWeight += getWeight(candidateLocations.get(i));
-            if (currentWeight > randomValue) {
-                return candidateList.get(i);
-            }
+    private static <T> List<T> pick(List<T> candidates, int[] indexes) {
+        List<T> result = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            result.add(candidates.get(index));
         }
+        return result;
+    }
 
-        return candidateList.get(candidateList.size() - 1);
+    private static void invalidateAliasTables() {
+        WEIGHTS_VERSION.incrementAndGet();
+        ALIAS_TABLES.clear();
+    }
+
+    public static int getCachedAliasTableCount() {
+        return ALIAS_TABLES.size();
     }
 
     public static int calculateTotalWeightForLocations(Collection<ResourceLocation> enchantments) {
@@ -587,12 +300,15 @@ public final class EnchantmentWeightManager {
     public static void reset() {
         ENCHANTMENT_WEIGHTS.clear();
         WEIGHT_CATEGORIES.clear();
+        invalidateAliasTables();
         initialized = false;
     }
 
     public static double getRarityFactor(Enchantment enchantment) {
-        int weight = getWeight(enchantment);
+        return getRarityFactor(getWeight(enchantment));
+    }
 
+    public static double getRarityFactor(int weight) {
         if (weight >= 80) {
             return 0.01;
         } else if (weight >= 60) {
@@ -609,8 +325,10 @@ public final class EnchantmentWeightManager {
     }
 
     public static String getRarityName(Enchantment enchantment) {
-        int weight = getWeight(enchantment);
+        return getRarityName(getWeight(enchantment));
+    }
 
+    public static String getRarityName(int weight) {
         if (weight >= 80) {
             return "legendary";
         } else if (weight >= 60) {
@@ -629,8 +347,37 @@ public final class EnchantmentWeightManager {
     public static void shutdown() {
         ENCHANTMENT_WEIGHTS.clear();
         WEIGHT_CATEGORIES.clear();
+        invalidateAliasTables();
         initialized = false;
     }
+
+    /**
+     * 候选集签名（候选键按顺序 + 权重版本）
+     */
+    private static final class CandidateSignature {
+        private final Object[] keys;
+        private final int version;
+        private final int hash;
+
+        private CandidateSignature(Object[] keys, int version) {
+            this.keys = keys;
+            this.version = version;
+            this.hash = 31 * Arrays.hashCode(keys) + version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CandidateSignature)) return false;
+            CandidateSignature other = (CandidateSignature) o;
+            return hash == other.hash && version == other.version && Arrays.equals(keys, other.keys);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
 
 
@@ -1,5 +1,6 @@
 package com.enadd.enchantments.decorative;
 
+import com.enadd.core.lod.EffectLodController;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -37,11 +38,15 @@ public final class ParticleEffectRenderer {
         ParticleEffectConfig.EffectSettings settings = config.getEffectConfig(type.getId());
         if (!settings.isEnabled()) return;
 
+        // 装饰性效果跟随服务器负载降级
+        int count = EffectLodController.getInstance().scaleParticles(settings.getCount());
+        if (count <= 0) return;
+
         for (ParticleType pType : type.getParticleTypes()) {
             location.getWorld().spawnParticle(
                 pType.getBukkitParticle(),
                 location.clone().add(0, 1, 0),
-                settings.getCount(),
+                count,
                 type.getEffectRadius(),
                 type.getEffectRadius(),
                 type.getEffectRadius(),
@@ -2,6 +2,7 @@ package com.enadd.enchantments.special;
 
 import com.enadd.config.EnchantmentConfig;
 import com.enadd.core.api.IEnchantmentConfig;
+import com.enadd.core.conflict.EnchantmentSetAnalyzer;
 import com.enadd.enchantments.BaseEnchantment;
 import io.papermc.paper.registry.RegistryKey;
 import io.papermc.paper.registry.TypedKey;
@@ -16,11 +17,7 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.ItemType;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashSet;
-import java.util.Set;
 import java.util.Map;
-import java.util.List;
-import java.util.ArrayList;
 
 /**
  * 附魔粘合剂 - Enchantment Binder
@@ -45,7 +42,6 @@ import java.util.ArrayList;
 public class EnchantmentBinderEnchantment extends BaseEnchantment {
     
     private static final int MAX_LEVEL = 3;
-    private static final int CONFLICTS_PER_LEVEL = 2;
     
     @SuppressWarnings("removal")
     public EnchantmentBinderEnchantment() {
@@ -139,78 +135,28 @@ public class EnchantmentBinderEnchantment extends BaseEnchantment {
      * 获取粘合剂允许的冲突数量
      */
     public static int getAllowedConflicts(int level) {
-        return Math.min(level * CONFLICTS_PER_LEVEL, MAX_LEVEL * CONFLICTS_PER_LEVEL);
+        return EnchantmentSetAnalyzer.allowedConflicts(level);
     }
     
     /**
      * 检查物品是否有粘合剂
      */
     public static boolean hasBinder(ItemStack item) {
-        if (item == null || !item.hasItemMeta()) {
-            return false;
-        }
-        
-        for (Enchantment ench : item.getEnchantments().keySet()) {
-            if (ench.getKey().getKey().equals("enchantment_binder")) {
-                return true;
-            }
-        }
-        return false;
+        return getBinderLevel(item) > 0;
     }
     
     /**
      * 获取粘合剂等级
      */
     public static int getBinderLevel(ItemStack item) {
-        if (item == null || !item.hasItemMeta()) {
-            return 0;
-        }
-        
-        for (Enchantment ench : item.getEnchantments().keySet()) {
-            if (ench.getKey().getKey().equals("enchantment_binder")) {
-                return item.getEnchantmentLevel(ench);
-            }
-        }
-        return 0;
+        return EnchantmentSetAnalyzer.getInstance().analyze(item).getBinderLevel();
     }
     
     /**
      * 计算物品上的冲突数量
      */
     public static int countConflicts(ItemStack item) {
-        if (item == null || !item.hasItemMeta()) {
-            return 0;
-        }
-        
-        Map<Enchantment, Integer> enchants = item.getEnchantments();
-        if (enchants.size() <= 1) {
-            return 0;
-        }
-
-        Set<String> conflictPairs = new HashSet<>();
-        List<Enchantment> enchantList = new ArrayList<>(enchants.keySet());
-        com.enadd.core.conflict.EnchantmentConflictManager manager = com.enadd.core.conflict.EnchantmentConflictManager.getInstance();
-
-        for (int i = 0; i < enchantList.size(); i++) {
-            for (int j = i + 1; j < enchantList.size(); j++) {
-                Enchantment e1 = enchantList.get(i);
-                Enchantment e2 = enchantList.get(j);
-                
-                boolean conflicting = false;
-                if (manager != null && manager.isInitialized()) {
-                    conflicting = manager.areConflicting(e1.getKey().toString(), e2.getKey().toString());
-                } else {
-                    conflicting = e1.conflictsWith(e2);
-                }
-
-                if (conflicting) {
-                    String pair = e1.getKey().toString() + ":" + e2.getKey().toString();
-                    conflictPairs.add(pair);
-                }
-            }
-        }
-        
-        return conflictPairs.size();
+        return EnchantmentSetAnalyzer.getInstance().analyze(item).getConflictCount();
     }
     
     /**
@@ -221,23 +167,21 @@ public class EnchantmentBinderEnchantment extends BaseEnchantment {
             return false;
         }
         
-        int binderLevel = getBinderLevel(item);
-        if (binderLevel == 0) {
+        Map<Enchantment, Integer> enchants = item.getEnchantments();
+        EnchantmentSetAnalyzer.Analysis current = EnchantmentSetAnalyzer.getInstance().analyze(enchants);
+        if (current.getBinderLevel() == 0) {
             // 没有粘合剂，使用正常冲突检查
             return true;
         }
         
-        int allowedConflicts = getAllowedConflicts(binderLevel);
-        int currentConflicts = countConflicts(item);
-        
         // 计算添加新附魔后的冲突数
         int newConflicts = 0;
-        for (Enchantment existing : item.getEnchantments().keySet()) {
+        for (Enchantment existing : enchants.keySet()) {
             if (existing.conflictsWith(newEnchant)) {
                 newConflicts++;
             }
         }
-        
-        return (currentConflicts + newConflicts) <= allowedConflicts;
+
+        return (current.getConflictCount() + newConflicts) <= current.getAllowedConflicts();
     }
 }
@@ -1,5 +1,10 @@
 package com.enadd.gui;
 
+import com.enadd.config.ConfigManager;
+import com.enadd.core.async.ExecutionLayer;
+import com.enadd.core.cache.CacheManager;
+import com.enadd.core.cache.ItemRenderCache;
+import com.enadd.core.conflict.EnchantmentConflictManager;
 import com.enadd.core.registry.EnchantmentRegistry;
 import com.enadd.enchantments.enhanced.EnhancedEnchantmentRegistry;
 import com.enadd.enchantments.enhanced.EnhancedEnchantmentData;
@@ -13,6 +18,7 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.plugin.java.JavaPlugin;
 import java.util.*;
+import java.util.concurrent.Executor;
 
 
 public class EnchantmentChestGUI implements org.bukkit.inventory.InventoryHolder {
@@ -30,19 +36,91 @@ public class EnchantmentChestGUI implements org.bukkit.inventory.InventoryHolder
     private int currentPage;
     private static final int ITEMS_PER_PAGE = 45;
 
+    // 所有玩家共享的只读目录，启动预热时构建，避免每次打开GUI都遍历注册表
+    private static volatile Map<String, List<GUIEnchantment>> sharedCatalog;
+
+    // 详情消息中的冲突附魔名称，按附魔 id 缓存，在加载执行器上计算
+    private static final String CONFLICT_CACHE = "gui-conflict-lists";
+
     public EnchantmentChestGUI(Player player, JavaPlugin plugin) {
         this.player = player;
         this.plugin = plugin;
         this.currentEnchantments = new ArrayList<>();
-        this.categoryMap = new HashMap<>();
+        this.categoryMap = getCatalog();
         this.currentCategory = "all";
         this.currentPage = 0;
+    }
+
+    /**
+     * 获取共享的分类目录（不可修改），首次调用时构建
+     */
+    public static Map<String, List<GUIEnchantment>> getCatalog() {
+        Map<String, List<GUIEnchantment>> catalog = sharedCatalog;
+        if (catalog == null) {
+            synchronized (EnchantmentChestGUI.class) {
+                catalog = sharedCatalog;
+                if (catalog == null) {
+                    catalog = buildCatalog();
+                    sharedCatalog = catalog;
+                }
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * 配置或语言重新加载时调用（与 ItemRenderCache 同时失效），下次打开GUI时重新构建
+     */
+    public static void invalidateCatalog() {
+        sharedCatalog = null;
+        conflictCache().clear();
+    }
+
+    private static CacheManager.Cache<String, List<String>> conflictCache() {
+        return CacheManager.getInstance().getCache(CONFLICT_CACHE, 512, 0L);
+    }
 
-        initializeCategories();
-        loadAllEnchantments();
+    /**
+     * 配置冲突列表的后台加载（插件启用时调用）
+     *
+     * @param executor 加载和软过期刷新使用的执行器
+     * @param refreshAfterMillis 软过期时间，超过后继续返回旧列表并在后台刷新，0 表示关闭
+     */
+    public static void configureConflictLoading(Executor executor, long refreshAfterMillis) {
+        CacheManager.Cache<String, List<String>> cache = conflictCache();
+        cache.setLoaderExecutor(executor);
+        cache.setRefreshAfter(refreshAfterMillis);
     }
 
-    private void initializeCategories() {
+    private static Map<String, List<GUIEnchantment>> buildCatalog() {
+        Map<String, List<GUIEnchantment>> categoryMap = new HashMap<>();
+        initializeCategories(categoryMap);
+        loadAllEnchantments(categoryMap);
+
+        Map<String, List<GUIEnchantment>> catalog = new HashMap<>(categoryMap.size() * 2);
+        for (Map.Entry<String, List<GUIEnchantment>> entry : categoryMap.entrySet()) {
+            catalog.put(entry.getKey(), List.copyOf(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(catalog);
+    }
+
+    /**
+     * 预渲染目录中所有附魔的展示物品（预热任务调用）
+     *
+     * @return 渲染的物品数量
+     */
+    public static int prerenderCatalog() {
+        List<GUIEnchantment> all = getCatalog().get("all");
+        if (all == null) {
+            return 0;
+        }
+        for (GUIEnchantment enchant : all) {
+            createEnchantmentItem(enchant);
+        }
+        return all.size();
+    }
+
+    private static void initializeCategories(Map<String, List<GUIEnchantment>> categoryMap) {
         categoryMap.put("all", new ArrayList<>());
         categoryMap.put("weapon", new ArrayList<>());
         categoryMap.put("armor", new ArrayList<>());
@@ -54,7 +132,7 @@ public class EnchantmentChestGUI implements org.bukkit.inventory.InventoryHolder
         categoryMap.put("curse_enhanced", new ArrayList<>());
     }
 
-    private void loadAllEnchantments() {
+    private static void loadAllEnchantments(Map<String, List<GUIEnchantment>> categoryMap) {
         Map<String, EnchantmentRegistry.EnchantmentInfo> basicEnchants =
             EnchantmentRegistry.getAllEnchantments();
 
@@ -79,7 +157,7 @@ public class EnchantmentChestGUI implements org.bukkit.inventory.InventoryHolder
                 if (allList != null) {
                     allList.add(guiEnchant);
                 }
-                categorizeEnchantment(guiEnchant);
+                categorizeEnchantment(categoryMap, guiEnchant);
             }
         }
 
@@ -107,12 +185,12 @@ public class EnchantmentChestGUI implements org.bukkit.inventory.InventoryHolder
                 if (allList != null) {
                     allList.add(guiEnchant);
                 }
-                categorizeEnchantment(guiEnchant);
+                categorizeEnchantment(categoryMap, guiEnchant);
             }
         }
     }
 
-    private void categorizeEnchantment(GUIEnchantment enchant) {
+    private static void categorizeEnchantment(Map<String, List<GUIEnchantment>> categoryMap, GUIEnchantment enchant) {
         if (enchant == null) {
             return;
         }
@@ -171,7 +249,7 @@ public class EnchantmentChestGUI implements org.bukkit.inventory.InventoryHolder
         }
     }
 
-    private String getRarityFromCost(int baseCost) {
+    private static String getRarityFromCost(int baseCost) {
         if (baseCost >= 50) return "epic";
         if (baseCost >= 35) return "rare";
         if (baseCost >= 25) return "uncommon";
@@ -217,6 +295,19 @@ public class EnchantmentChestGUI implements org.bukkit.inventory.InventoryHolder
         setupNavigationItems(inv, enchantments.size());
 
         player.openInventory(inv);
+
+        // 下一页在后台提前渲染，翻页时直接命中
+        prefetchPage(enchantments, currentPage + 1);
+    }
+
+    private static void prefetchPage(List<GUIEnchantment> enchantments, int page) {
+        int startIndex = page * ITEMS_PER_PAGE;
+        int endIndex = Math.min(startIndex + ITEMS_PER_PAGE, enchantments.size());
+        ItemRenderCache renderCache = ItemRenderCache.getInstance();
+        for (int i = startIndex; i < endIndex; i++) {
+            GUIEnchantment enchant = enchantments.get(i);
+            renderCache.prefetch(renderKey(renderCache, enchant), () -> renderEnchantmentItem(enchant));
+        }
     }
     
     @Override
@@ -229,7 +320,7 @@ public class EnchantmentChestGUI implements org.bukkit.inventory.InventoryHolder
         return "§6附魔预览 - " + categoryName + " §7(第" + (currentPage + 1) + "页)";
     }
 
-    private String getCategoryDisplayName(String category) {
+    private static String getCategoryDisplayName(String category) {
         return switch (category) {
             case "all" -> "全部";
             case "weapon" -> "武器";
@@ -244,7 +335,18 @@ public class EnchantmentChestGUI implements org.bukkit.inventory.InventoryHolder
         };
     }
 
-    private ItemStack createEnchantmentItem(GUIEnchantment enchant) {
+    private static ItemStack createEnchantmentItem(GUIEnchantment enchant) {
+        // 共享渲染缓存：返回的原型只交给 setItem，由背包自行复制
+        ItemRenderCache renderCache = ItemRenderCache.getInstance();
+        return renderCache.getShared(renderKey(renderCache, enchant), () -> renderEnchantmentItem(enchant));
+    }
+
+    private static ItemRenderCache.RenderKey renderKey(ItemRenderCache renderCache, GUIEnchantment enchant) {
+        String renderId = "chest:" + enchant.getId() + (enchant.isEnhanced() ? ":enhanced" : "");
+        return renderCache.key(renderId, enchant.getMaxLevel(), ConfigManager.getLanguage());
+    }
+
+    private static ItemStack renderEnchantmentItem(GUIEnchantment enchant) {
         // 使用附魔书代替铁锭等材料
         ItemStack item = new ItemStack(Material.ENCHANTED_BOOK);
         ItemMeta meta = item.getItemMeta();
@@ -281,7 +383,7 @@ public class EnchantmentChestGUI implements org.bukkit.inventory.InventoryHolder
         return item;
     }
 
-    private String getRarityDisplayName(String rarity) {
+    private static String getRarityDisplayName(String rarity) {
         return switch (rarity) {
             case "LEGENDARY" -> "§6传说";
             case "EPIC" -> "§5史诗";
@@ -297,7 +399,7 @@ public class EnchantmentChestGUI implements org.bukkit.inventory.InventoryHolder
         return Material.ENCHANTED_BOOK;
     }
 
-    private String getRarityColor(String rarity) {
+    private static String getRarityColor(String rarity) {
         return switch (rarity) {
             case "epic" -> "§6";
             case "rare" -> "§3";
@@ -330,6 +432,14 @@ public class EnchantmentChestGUI implements org.bukkit.inventory.InventoryHolder
     }
 
     private ItemStack createNavigationItem(String name, Material material, String action) {
+        // 按钮内容固定，与附魔物品共用渲染缓存；返回的原型只交给 setItem
+        ItemRenderCache renderCache = ItemRenderCache.getInstance();
+        return renderCache.getShared(
+            renderCache.key("chest:nav:" + action, 0, ConfigManager.getLanguage()),
+            () -> renderNavigationItem(name, material, action));
+    }
+
+    private static ItemStack renderNavigationItem(String name, Material material, String action) {
         ItemStack item = new ItemStack(material);
         ItemMeta meta = item.getItemMeta();
 
@@ -344,6 +454,13 @@ public class EnchantmentChestGUI implements org.bukkit.inventory.InventoryHolder
     }
 
     private ItemStack createCategoryItem(String name, String category) {
+        ItemRenderCache renderCache = ItemRenderCache.getInstance();
+        return renderCache.getShared(
+            renderCache.key("chest:category:" + category, 0, ConfigManager.getLanguage()),
+            () -> renderCategoryItem(name, category));
+    }
+
+    private static ItemStack renderCategoryItem(String name, String category) {
         Material material = switch (category) {
             case "all" -> Material.BOOK;
             case "weapon" -> Material.DIAMOND_SWORD;
@@ -450,6 +567,41 @@ public class EnchantmentChestGUI implements org.bukkit.inventory.InventoryHolder
     }
 
     private void showEnchantmentDetails(GUIEnchantment enchant) {
+        // 冲突列表在加载执行器上计算，主线程不等待；命中时在当前 tick 内直接发送
+        conflictCache().getOrComputeAsync(enchant.getId(), EnchantmentChestGUI::loadConflictNames)
+            .whenComplete((conflicts, error) -> {
+                List<String> names = error == null && conflicts != null ? conflicts : Collections.emptyList();
+                ExecutionLayer.getInstance().runOnMain(() -> sendEnchantmentDetails(enchant, names));
+            });
+    }
+
+    private static List<String> loadConflictNames(String enchantmentId) {
+        List<String> conflictIds = EnchantmentConflictManager.getInstance().getSortedConflicts(enchantmentId);
+        if (conflictIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<String, String> displayNames = new HashMap<>();
+        List<GUIEnchantment> all = getCatalog().get("all");
+        if (all != null) {
+            for (GUIEnchantment enchant : all) {
+                displayNames.putIfAbsent(enchant.getId(), enchant.getDisplayName());
+            }
+        }
+
+        List<String> names = new ArrayList<>(conflictIds.size());
+        for (String conflictId : conflictIds) {
+            String path = conflictId.substring(conflictId.indexOf(':') + 1);
+            names.add(displayNames.getOrDefault(path, path));
+        }
+        return List.copyOf(names);
+    }
+
+    private void sendEnchantmentDetails(GUIEnchantment enchant, List<String> conflicts) {
+        if (!player.isOnline()) {
+            return;
+        }
+
         StringBuilder message = new StringBuilder();
         message.append("§6═══════════════════════════════════════\n");
         message.append("  §e").append(enchant.getDisplayName()).append("\n");
@@ -461,7 +613,8 @@ public class EnchantmentChestGUI implements org.bukkit.inventory.InventoryHolder
         message.append("§7ID: §f").append(enchant.getId()).append("\n");
         message.append("§7类别: §f").append(getCategoryDisplayName(enchant.getCategory())).append("\n");
         message.append("§7稀有度: ").append(getRarityDisplayName(enchant.getRarity())).append("\n");
-        message.append("§7最大等级: §f").append(enchant.getMaxLevel()).append("\n\n");
+        message.append("§7最大等级: §f").append(enchant.getMaxLevel()).append("\n");
+        message.append("§7冲突附魔: §f").append(conflicts.isEmpty() ? "无" : String.join("§7, §f", conflicts)).append("\n\n");
 
         message.append("§7描述:\n");
         message.append("§f").append(enchant.getDescription()).append("\n\n");
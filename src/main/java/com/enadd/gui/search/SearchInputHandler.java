@@ -1,5 +1,6 @@
 package com.enadd.gui.search;
 
+import com.enadd.core.async.ExecutionLayer;
 import com.enadd.gui.EnchantmentGuiManager;
 import io.papermc.paper.event.player.AsyncChatEvent;
 import net.kyori.adventure.text.Component;
@@ -77,7 +78,8 @@ public final class SearchInputHandler implements Listener {
             return;
         }
 
-        Bukkit.getScheduler().runTask(plugin, () -> {
+        // 聊天事件在异步线程触发，结果经主线程桥交回
+        ExecutionLayer.getInstance().runOnMain(() -> {
             try {
                 guiManager.setSearchQuery(player, input);
                 guiManager.refreshGui(player, 0);
@@ -1,5 +1,9 @@
 package com.enadd.gui.simulation;
 
+import com.enadd.core.conflict.EnchantmentSetAnalyzer;
+import com.enadd.core.conflict.EnchantmentSetPlanner;
+import com.enadd.core.registry.EnchantmentRegistry;
+import com.enadd.enchantments.BaseEnchantment;
 import com.enadd.gui.EnchantmentGuiManager;
 import com.enadd.gui.components.GuiButtonBuilder;
 import org.bukkit.Bukkit;
@@ -19,6 +23,9 @@ public final class EnchantmentSimulator {
     private static final int SIMULATION_ROWS = 3;
     private static final int SIMULATION_SIZE = SIMULATION_ROWS * 9;
     private static final String SIMULATION_TITLE = "附魔模拟预览 | EnCh Add";
+    private static final int PLANNER_SLOT = 11;
+    // 按钮 lore 中最多列出的附魔数
+    private static final int PLANNER_LORE_LIMIT = 8;
 
     private final JavaPlugin plugin;
     private final Map<Player, SimulationSession> activeSessions = new ConcurrentHashMap<>();
@@ -69,6 +76,7 @@ public final class EnchantmentSimulator {
         ItemStack previewSlot = createPreviewSlot(player, data);
         gui.setItem(22, previewSlot);
 
+        gui.setItem(PLANNER_SLOT, createPlannerButton(null));
         gui.setItem(17, createActionButton("apply", "§a§l应用附魔", "§7点击将附魔应用到物品"));
         gui.setItem(26, createActionButton("close", "§c§l关闭", "§7关闭模拟界面"));
 
@@ -150,6 +158,109 @@ public final class EnchantmentSimulator {
                 .build();
     }
 
+    private ItemStack createPlannerButton(EnchantmentSetPlanner.Plan plan) {
+        if (plan == null) {
+            return GuiButtonBuilder.create()
+                    .material(Material.NETHER_STAR)
+                    .displayName("§6§l最佳组合")
+                    .lore("§7计算手持物品可拥有的", "§7总价值最高的无冲突附魔组合", "", "§e点击计算（考虑粘合剂等级）")
+                    .build();
+        }
+
+        List<String> lore = new ArrayList<>();
+        if (plan.getSelected().isEmpty()) {
+            lore.add("§7没有可用于该物品的附魔");
+        } else {
+            lore.add("§7总价值: §f" + plan.getTotalValue() + " §7| 附魔数: §f" + plan.getSelected().size());
+            if (plan.getConflictsUsed() > 0) {
+                lore.add("§d粘合剂承担冲突: §f" + plan.getConflictsUsed());
+            }
+            lore.add("");
+            int shown = Math.min(PLANNER_LORE_LIMIT, plan.getSelected().size());
+            for (int i = 0; i < shown; i++) {
+                lore.add("§a  ✔ §f" + plan.getSelected().get(i).getId());
+            }
+            if (plan.getSelected().size() > shown) {
+                lore.add("§7  及其他 " + (plan.getSelected().size() - shown) + " 个");
+            }
+        }
+        if (!plan.isExact()) {
+            lore.add(plan.getDroppedCandidates() > 0
+                ? "§c有 " + plan.getDroppedCandidates() + " 个冲突候选未参与计算，结果为近似最优"
+                : "§c搜索达到上限，结果为近似最优");
+        }
+        return GuiButtonBuilder.create()
+                .material(Material.NETHER_STAR)
+                .displayName("§6§l最佳组合")
+                .lore(lore)
+                .build();
+    }
+
+    /**
+     * 为手持物品规划最佳附魔组合，结果写回按钮并发送到聊天栏
+     */
+    private void showBestCombination(Player player, SimulationSession session) {
+        EnchantmentSetPlanner.Plan plan = planBestCombination(player);
+        if (plan != null) {
+            session.inventory.setItem(PLANNER_SLOT, createPlannerButton(plan));
+        }
+    }
+
+    /**
+     * 为玩家手持物品规划最佳附魔组合并发送到聊天栏（供模拟界面和 /enchadd plan 共用）
+     *
+     * 只有能附魔到手持物品上的附魔参与规划；结果不保证最优时会提示玩家。
+     *
+     * @return 规划结果，未手持物品时返回 null
+     */
+    public static EnchantmentSetPlanner.Plan planBestCombination(Player player) {
+        ItemStack handItem = player.getInventory().getItemInMainHand();
+        if (handItem == null || handItem.getType() == Material.AIR) {
+            player.sendMessage("§c请先手持物品！");
+            return null;
+        }
+
+        int binderLevel = EnchantmentSetAnalyzer.getInstance().analyze(handItem).getBinderLevel();
+        EnchantmentSetPlanner.Plan plan = EnchantmentSetPlanner.plan(handItem,
+            EnchantmentRegistry.getInstance().getAllRegisteredEnchantments().values(), binderLevel,
+            EnchantmentSimulator::plannerValue);
+
+        if (plan.getSelected().isEmpty()) {
+            player.sendMessage("§7没有可用于该物品的附魔");
+            return plan;
+        }
+        player.sendMessage("§6最佳组合 §7(粘合剂 " + binderLevel + " 级, 总价值 " + plan.getTotalValue() + "):");
+        for (EnchantmentSetPlanner.Candidate candidate : plan.getSelected()) {
+            player.sendMessage("§a  ✔ §f" + candidate.getId() + " §7(价值 " + candidate.getValue() + ")");
+        }
+        if (!plan.isExact()) {
+            if (plan.getDroppedCandidates() > 0) {
+                player.sendMessage("§e注意: 冲突候选过多，价值最低的 " + plan.getDroppedCandidates()
+                    + " 个未参与计算，结果为近似最优");
+            } else {
+                player.sendMessage("§e注意: 搜索达到上限，结果为近似最优");
+            }
+        }
+        Bukkit.getLogger().fine(String.format("Planned %d enchantments for %s in %dus (%d nodes, %d dropped)",
+            plan.getSelected().size(), player.getName(), plan.getElapsedMicros(), plan.getNodesExplored(),
+            plan.getDroppedCandidates()));
+        return plan;
+    }
+
+    /**
+     * 附魔价值：最高等级 × 稀有度系数
+     */
+    private static int plannerValue(org.bukkit.enchantments.Enchantment enchantment) {
+        int maxLevel = Math.max(1, enchantment.getMaxLevel());
+        if (enchantment instanceof BaseEnchantment base) {
+            if (base.isCursed()) {
+                return 0;
+            }
+            return maxLevel * (base.getLocalRarity().ordinal() + 1);
+        }
+        return maxLevel;
+    }
+
     private void updatePreview(Inventory gui, Player player, EnchantmentGuiManager.EnchantmentData data) {
         ItemStack handItem = player.getInventory().getItemInMainHand();
 
@@ -328,6 +439,8 @@ public final class EnchantmentSimulator {
 
             if (slot == 18) {
                 applyEnchantment(player, session.enchantmentData);
+            } else if (slot == PLANNER_SLOT) {
+                showBestCombination(player, session);
             } else if (slot == 26) {
                 closeSimulation(player);
             }
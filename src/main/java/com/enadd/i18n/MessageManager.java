@@ -192,6 +192,9 @@ public final class MessageManager {
         languageConfigs.clear();
         messageCache.clear();
         loadLanguages();
+        // 语言文件变化后，GUI目录和已渲染的GUI物品全部失效
+        com.enadd.gui.EnchantmentChestGUI.invalidateCatalog();
+        com.enadd.core.cache.ItemRenderCache.getInstance().invalidateAll();
     }
 
     /**
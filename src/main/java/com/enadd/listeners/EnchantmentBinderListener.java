@@ -1,20 +1,26 @@
 package com.enadd.listeners;
 
-import com.enadd.enchantments.special.EnchantmentBinderEnchantment;
-import com.enadd.core.conflict.EnchantmentConflictManager;
+import com.enadd.config.ConfigManager;
+import com.enadd.core.conflict.EnchantmentSetAnalyzer;
+import com.enadd.enchantments.conflict.EnchantingOfferTables;
 import org.bukkit.enchantments.Enchantment;
+import org.bukkit.enchantments.EnchantmentOffer;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.enchantment.EnchantItemEvent;
 import org.bukkit.event.enchantment.PrepareItemEnchantEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryType;
 import org.bukkit.event.inventory.PrepareAnvilEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.entity.Player;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
+import java.util.SplittableRandom;
 
 /**
  * 附魔粘合剂监听器
@@ -33,6 +39,8 @@ public final class EnchantmentBinderListener implements Listener {
     
     private final JavaPlugin plugin;
     private final Logger logger;
+    // 玩家当前附魔台上显示的预计算选项，点击时按槽位应用
+    private final Map<UUID, PendingOffers> pendingOffers = new ConcurrentHashMap<>();
     
     public EnchantmentBinderListener(JavaPlugin plugin) {
         this.plugin = plugin;
@@ -64,15 +72,16 @@ public final class EnchantmentBinderListener implements Listener {
             }
             
             // BUG FIX #4: 使用统一的冲突计数
-            int conflictCount = EnchantmentBinderEnchantment.countConflicts(result);
+            // 同一组附魔的重复预览直接命中分析缓存
+            EnchantmentSetAnalyzer.Analysis analysis = EnchantmentSetAnalyzer.getInstance().analyze(enchants);
+            int conflictCount = analysis.getConflictCount();
             
             if (conflictCount == 0) {
                 return; // 没有冲突，允许
             }
             
             // 有冲突，检查粘合剂
-            // BUG FIX #1: 使用实际存在的方法
-            int binderLevel = getBinderLevel(result);
+            int binderLevel = analysis.getBinderLevel();
             if (binderLevel == 0) {
                 // 没有粘合剂，阻止合成
                 event.setResult(null);
@@ -87,7 +96,7 @@ public final class EnchantmentBinderListener implements Listener {
             }
             
             // 检查粘合剂槽位是否足够
-            int allowedConflicts = getAllowedConflicts(binderLevel);
+            int allowedConflicts = analysis.getAllowedConflicts();
             
             if (conflictCount > allowedConflicts) {
                 // 超出粘合剂限制，阻止合成
@@ -112,22 +121,6 @@ public final class EnchantmentBinderListener implements Listener {
         }
     }
     
-    /**
-     * BUG FIX #1: 实现缺失的方法
-     * 获取物品上的粘合剂等级
-     */
-    private int getBinderLevel(ItemStack item) {
-        return EnchantmentBinderEnchantment.getBinderLevel(item);
-    }
-    
-    /**
-     * BUG FIX #1: 实现缺失的方法
-     * 根据粘合剂等级计算允许的冲突数量
-     */
-    private int getAllowedConflicts(int binderLevel) {
-        return EnchantmentBinderEnchantment.getAllowedConflicts(binderLevel);
-    }
-    
     /**
      * 监听附魔台附魔
      * 防止附魔台给出冲突附魔
@@ -138,46 +131,52 @@ public final class EnchantmentBinderListener implements Listener {
             ItemStack item = event.getItem();
             Map<Enchantment, Integer> toAdd = event.getEnchantsToAdd();
             
+            // 使用预计算选项时，实际添加的附魔以显示的选项为准
+            PendingOffers pending = pendingOffers.remove(event.getEnchanter().getUniqueId());
+            if (pending != null && toAdd != null) {
+                EnchantingOfferTables.Offer offer = pending.offerFor(item, event.whichButton());
+                if (offer != null) {
+                    toAdd.clear();
+                    toAdd.putAll(offer.getEnchantments());
+                }
+            }
+            
             if (toAdd == null || toAdd.isEmpty()) {
                 return;
             }
             
             // BUG FIX #11: 添加粘合剂检查
             // 检查物品当前的粘合剂等级
-            int currentBinderLevel = getBinderLevel(item);
+            EnchantmentSetAnalyzer analyzer = EnchantmentSetAnalyzer.getInstance();
+            Map<Enchantment, Integer> existing = item.getEnchantments();
+            EnchantmentSetAnalyzer.Analysis current = analyzer.analyze(existing);
+            EnchantmentSetAnalyzer.Analysis offered = analyzer.analyze(toAdd);
             
-            // 检查新附魔是否与现有附魔冲突
-            for (Enchantment newEnch : toAdd.keySet()) {
-                for (Enchantment existing : item.getEnchantments().keySet()) {
-                    if (conflictsWith(newEnch, existing)) {
-                        // 如果有冲突但没有粘合剂，阻止
-                        if (currentBinderLevel == 0) {
-                            event.setCancelled(true);
-                            // BUG FIX #7: 改为fine级别
-                            logger.fine(String.format("Blocked enchanting table: %s conflicts with %s (no binder)",
-                                newEnch.getKey().getKey(), existing.getKey().getKey()));
-                            // BUG FIX #9: 通知玩家
-                            event.getEnchanter().sendMessage("§c附魔台无法添加冲突的附魔！请使用铁砧和粘合剂。");
-                            return;
-                        }
-                    }
+            // 检查新附魔是否与现有附魔冲突：合并后的冲突数多于两部分各自的冲突数
+            if (current.getBinderLevel() == 0 && !existing.isEmpty()) {
+                Map<Enchantment, Integer> combined = new HashMap<>(existing);
+                combined.putAll(toAdd);
+                EnchantmentSetAnalyzer.Analysis merged = analyzer.analyze(combined);
+                if (merged.hasConflictsBetween(current, offered)) {
+                    // 如果有冲突但没有粘合剂，阻止
+                    event.setCancelled(true);
+                    // BUG FIX #7: 改为fine级别
+                    logger.fine("Blocked enchanting table: new enchantments conflict with existing ones (no binder), groups: "
+                        + merged.getConflictGroups());
+                    // BUG FIX #9: 通知玩家
+                    event.getEnchanter().sendMessage("§c附魔台无法添加冲突的附魔！请使用铁砧和粘合剂。");
+                    return;
                 }
             }
             
             // 检查新附魔之间是否冲突
-            Enchantment[] newEnchs = toAdd.keySet().toArray(new Enchantment[0]);
-            for (int i = 0; i < newEnchs.length; i++) {
-                for (int j = i + 1; j < newEnchs.length; j++) {
-                    if (conflictsWith(newEnchs[i], newEnchs[j])) {
-                        event.setCancelled(true);
-                        // BUG FIX #7: 改为fine级别
-                        logger.fine(String.format("Blocked enchanting table: %s conflicts with %s",
-                            newEnchs[i].getKey().getKey(), newEnchs[j].getKey().getKey()));
-                        // BUG FIX #9: 通知玩家
-                        event.getEnchanter().sendMessage("§c附魔台无法同时添加冲突的附魔！");
-                        return;
-                    }
-                }
+            if (offered.getConflictCount() > 0) {
+                event.setCancelled(true);
+                // BUG FIX #7: 改为fine级别
+                logger.fine("Blocked enchanting table: conflicting groups " + offered.getConflictGroups());
+                // BUG FIX #9: 通知玩家
+                event.getEnchanter().sendMessage("§c附魔台无法同时添加冲突的附魔！");
+                return;
             }
             
         } catch (Exception e) {
@@ -208,21 +207,11 @@ public final class EnchantmentBinderListener implements Listener {
                 return;
             }
             
-            int conflictCount = 0;
-            for (Enchantment e1 : existing.keySet()) {
-                for (Enchantment e2 : existing.keySet()) {
-                    if (e1 != e2 && conflictsWith(e1, e2)) {
-                        conflictCount++;
-                    }
-                }
-            }
-            conflictCount = conflictCount / 2;
+            EnchantmentSetAnalyzer.Analysis analysis = EnchantmentSetAnalyzer.getInstance().analyze(existing);
+            int conflictCount = analysis.getConflictCount();
             
             if (conflictCount > 0) {
-                int binderLevel = EnchantmentBinderEnchantment.getBinderLevel(item);
-                int allowedConflicts = EnchantmentBinderEnchantment.getAllowedConflicts(binderLevel);
-                
-                if (conflictCount > allowedConflicts) {
+                if (conflictCount > analysis.getAllowedConflicts()) {
                     // 物品有非法的冲突附魔，不允许继续附魔
                     event.setCancelled(true);
                     logger.warning("Blocked enchanting: Item has illegal conflicting enchantments");
@@ -238,29 +227,77 @@ public final class EnchantmentBinderListener implements Listener {
     }
     
     /**
-     * 检查两个附魔是否冲突
-     * 优先使用自定义冲突管理器，回退到原版检查
+     * 用预计算的选项表生成附魔台选项（查表加几次抽样）
+     * 物品不在选项表中或生成出错时保留原版选项
      */
-    private boolean conflictsWith(Enchantment e1, Enchantment e2) {
-        if (e1 == null || e2 == null || e1.equals(e2)) {
-            return false;
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onPrepareOffers(PrepareItemEnchantEvent event) {
+        Player player = event.getEnchanter();
+        pendingOffers.remove(player.getUniqueId());
+        if (!ConfigManager.isPrecomputedOffersEnabled()) {
+            return;
         }
         
         try {
-            // BUG FIX #2, #3: 修复方法调用
-            EnchantmentConflictManager manager = EnchantmentConflictManager.getInstance();
-            if (manager != null && manager.isInitialized()) {
-                // BUG FIX #3: 转换Enchantment到String
-                String id1 = e1.getKey().toString();
-                String id2 = e2.getKey().toString();
-                return manager.areConflicting(id1, id2);
+            ItemStack item = event.getItem();
+            EnchantingOfferTables tables = EnchantingOfferTables.getInstance();
+            if (!tables.isEnchantable(item)) {
+                return; // 交给原版处理
             }
-        } catch (Exception ex) {
-            logger.warning("Failed to use EnchantmentConflictManager, falling back to vanilla: " + ex.getMessage());
+            
+            EnchantmentOffer[] offers = event.getOffers();
+            int power = event.getEnchantmentBonus();
+            EnchantingOfferTables.Offer[] rolled = new EnchantingOfferTables.Offer[EnchantingOfferTables.SLOTS];
+            for (int slot = 0; slot < rolled.length && slot < offers.length; slot++) {
+                // 与原版一样由玩家的附魔种子决定，重新放入物品不会刷新选项
+                SplittableRandom random = new SplittableRandom(offerSeed(player.getEnchantmentSeed(), item, power, slot));
+                rolled[slot] = tables.roll(item, power, slot, random);
+                offers[slot] = rolled[slot] != null
+                    ? new EnchantmentOffer(rolled[slot].getHint(), rolled[slot].getHintLevel(), rolled[slot].getCost())
+                    : null;
+            }
+            pendingOffers.put(player.getUniqueId(), new PendingOffers(item.clone(), rolled));
+            
+        } catch (Exception e) {
+            logger.warning("Error in EnchantmentBinderListener.onPrepareOffers: " + e.getMessage());
+            pendingOffers.remove(player.getUniqueId());
+        }
+    }
+    
+    /**
+     * 关闭附魔台时丢弃未使用的选项
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onInventoryClose(InventoryCloseEvent event) {
+        if (event.getInventory().getType() == InventoryType.ENCHANTING) {
+            pendingOffers.remove(event.getPlayer().getUniqueId());
         }
+    }
+    
+    private static long offerSeed(int enchantmentSeed, ItemStack item, int power, int slot) {
+        long seed = ((long) enchantmentSeed << 32) ^ ((long) item.getType().ordinal() << 8) ^ (power << 2) ^ slot;
+        // SplittableRandom 内部会再混合，这里只需让不同输入得到不同种子
+        return seed * 0x9E3779B97F4A7C15L;
+    }
+    
+    /**
+     * 已显示的预计算选项
+     */
+    private static final class PendingOffers {
+        private final ItemStack item;
+        private final EnchantingOfferTables.Offer[] offers;
         
-        // 回退到原版冲突检查
-        return e1.conflictsWith(e2);
+        private PendingOffers(ItemStack item, EnchantingOfferTables.Offer[] offers) {
+            this.item = item;
+            this.offers = offers;
+        }
+        
+        private EnchantingOfferTables.Offer offerFor(ItemStack current, int button) {
+            if (button < 0 || button >= offers.length || !item.isSimilar(current)) {
+                return null;
+            }
+            return offers[button];
+        }
     }
     
     /**
@@ -1,5 +1,6 @@
 package com.enadd.util;
 
+import com.enadd.core.async.ExecutionLayer;
 import org.bukkit.plugin.java.JavaPlugin;
 import java.io.File;
 import java.io.FileWriter;
@@ -11,6 +12,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -60,7 +62,7 @@ public final class Logger {
 
     private final BlockingQueue<LogEntry> logQueue = new LinkedBlockingQueue<>(10000);
     private final AtomicBoolean running = new AtomicBoolean(false);
-    private Thread logThread;
+    private CompletableFuture<Void> logTask;
 
     // CPU优化: 批量日志写入
     private final List<LogEntry> batchBuffer = Collections.synchronizedList(new ArrayList<>(100));
@@ -273,7 +275,8 @@ public final class Logger {
         }
 
         running.set(true);
-        logThread = new Thread(() -> {
+        // 日志写入是阻塞 I/O，放在执行层的虚拟线程上，不占用平台线程
+        logTask = CompletableFuture.runAsync(() -> {
             long lastFlush = System.currentTimeMillis();
 
             while (running.get() || !logQueue.isEmpty() || !batchBuffer.isEmpty()) {
@@ -302,11 +305,7 @@ public final class Logger {
 
             // 最后刷新
             flushBatch();
-        }, "Logger-Thread");
-
-        logThread.setDaemon(true);
-        logThread.setPriority(Thread.MIN_PRIORITY); // CPU优化: 最低优先级
-        logThread.start();
+        }, ExecutionLayer.getInstance().io("logger"));
     }
 
     // CPU优化: 批量刷新方法
@@ -352,12 +351,14 @@ public final class Logger {
             fileWriter = null;
         }
 
-        // 等待日志线程结束
-        if (logThread != null) {
+        // 等待日志任务结束
+        if (logTask != null) {
             try {
-                logThread.join(5000);
+                logTask.get(5000, TimeUnit.MILLISECONDS);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // 超时或异常都不阻塞关闭
             }
         }
     }
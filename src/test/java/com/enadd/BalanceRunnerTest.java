@@ -0,0 +1,58 @@
+package com.enadd;
+
+import com.enadd.core.generated.CompiledEnchantmentRules;
+import com.enadd.enchantments.conflict.EnchantmentBalanceSimulator;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the vanilla cost curves used by the balance runner
+ */
+public class BalanceRunnerTest {
+
+    private static final Set<String> TREASURE = Set.of("mending", "frost_walker", "soul_speed", "swift_sneak",
+        "binding_curse", "vanishing_curse", "wind_burst");
+
+    @Test
+    void testEveryVanillaEnchantmentHasACurve() {
+        for (String id : CompiledEnchantmentRules.VANILLA_IDS) {
+            EnchantmentBalanceSimulator.Candidate candidate = BalanceRunner.vanillaCandidate(id, 10);
+            assertEquals("minecraft:" + id, candidate.getId());
+            assertEquals(TREASURE.contains(id), candidate.isTreasure(), id);
+        }
+        assertEquals(5, BalanceRunner.vanillaCandidate("sharpness", 10).getMaxLevel());
+        assertEquals(1, BalanceRunner.vanillaCandidate("mending", 2).getMaxLevel());
+        assertThrows(IllegalStateException.class, () -> BalanceRunner.vanillaCandidate("not_vanilla", 1));
+    }
+
+    @Test
+    void testTreasureIsNeverOfferedByTheTable() {
+        List<EnchantmentBalanceSimulator.Candidate> candidates = new ArrayList<>();
+        for (String id : CompiledEnchantmentRules.VANILLA_IDS) {
+            candidates.add(BalanceRunner.vanillaCandidate(id, 10));
+        }
+        EnchantmentBalanceSimulator simulator = new EnchantmentBalanceSimulator(candidates, (a, b) -> false,
+            EnchantmentBalanceSimulator.Settings.builder().seed(3).tableRolls(50_000).lootRolls(0).book(true).build());
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            EnchantmentBalanceSimulator.Report report = simulator.run(pool);
+            for (EnchantmentBalanceSimulator.EnchantmentStats stats : report.getEnchantments()) {
+                String id = stats.getId().substring("minecraft:".length());
+                if (TREASURE.contains(id)) {
+                    assertEquals(0, stats.getTableHits(), id);
+                }
+            }
+            long sharpness = report.getEnchantments().stream()
+                .filter(stats -> stats.getId().equals("minecraft:sharpness")).findFirst().orElseThrow().getTableHits();
+            assertTrue(sharpness > 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.enadd.achievements;
+
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the packed enchantment codes of achievement snapshots
+ */
+public class AchievementSnapshotTest {
+
+    private static int[] sorted(int... packed) {
+        int[] copy = packed.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    @Test
+    void testLevelTakesHighestOfDuplicateCodes() {
+        int sharpness = AchievementSnapshot.codeOf("sharpness");
+        int unbreaking = AchievementSnapshot.codeOf("minecraft:unbreaking");
+        int[] packed = sorted(
+            AchievementSnapshot.pack(sharpness, 2),
+            AchievementSnapshot.pack(sharpness, 5),
+            AchievementSnapshot.pack(sharpness, 5),
+            AchievementSnapshot.pack(unbreaking, 1));
+
+        assertEquals(5, AchievementSnapshot.level(packed, sharpness));
+        assertEquals(1, AchievementSnapshot.level(packed, unbreaking));
+        assertTrue(AchievementSnapshot.contains(packed, sharpness));
+        assertEquals(0, AchievementSnapshot.level(packed, AchievementSnapshot.codeOf("minecraft:smite")));
+        assertEquals(0, AchievementSnapshot.level(new int[0], sharpness));
+    }
+
+    @Test
+    void testLevelIsClampedTo255() {
+        int code = AchievementSnapshot.codeOf("enadd:snapshot_test_overlevel");
+        int packed = AchievementSnapshot.pack(code, 1000);
+        assertEquals(code, AchievementSnapshot.code(packed));
+        assertEquals(255, AchievementSnapshot.level(packed));
+        assertEquals(255, AchievementSnapshot.level(new int[] {packed}, code));
+        // 相邻代码不受影响
+        assertEquals(0, AchievementSnapshot.level(new int[] {packed}, code + 1));
+
+        // 等级 0 或负数按 0 打包，但附魔仍然存在
+        int zero = AchievementSnapshot.pack(code, -3);
+        assertEquals(0, AchievementSnapshot.level(zero));
+        assertEquals(1, AchievementSnapshot.level(new int[] {zero}, code));
+    }
+
+    @Test
+    void testCountDistinctWithAndWithoutFlag() {
+        int fireBlade = AchievementSnapshot.codeOf("enadd:snapshot_test_fire_blade");
+        int decay = AchievementSnapshot.codeOf("enadd:curse_snapshot_test_decay");
+        int efficiency = AchievementSnapshot.codeOf("minecraft:efficiency");
+        int[] packed = sorted(
+            AchievementSnapshot.pack(fireBlade, 1),
+            AchievementSnapshot.pack(fireBlade, 3),
+            AchievementSnapshot.pack(decay, 1),
+            AchievementSnapshot.pack(decay, 1),
+            AchievementSnapshot.pack(efficiency, 4));
+
+        assertEquals(3, AchievementSnapshot.countDistinct(packed, 0));
+        assertEquals(2, AchievementSnapshot.countDistinct(packed, AchievementSnapshot.FLAG_ENADD));
+        assertEquals(1, AchievementSnapshot.countDistinct(packed, AchievementSnapshot.FLAG_FIRE));
+        assertEquals(1, AchievementSnapshot.countDistinct(packed, AchievementSnapshot.FLAG_CURSE));
+        assertEquals(0, AchievementSnapshot.countDistinct(packed, AchievementSnapshot.FLAG_POISON));
+        // count 按件计数，重复条目都计入
+        assertEquals(2, AchievementSnapshot.count(packed, AchievementSnapshot.FLAG_CURSE));
+        assertEquals(0, AchievementSnapshot.countDistinct(new int[0], 0));
+    }
+
+    @Test
+    void testInternMergesFlagsIntoExistingCode() {
+        String name = "enadd:snapshot_test_relic";
+        int code = AchievementSnapshot.intern(name, 0);
+        assertTrue(AchievementSnapshot.hasFlag(code, AchievementSnapshot.FLAG_ENADD));
+        assertFalse(AchievementSnapshot.hasFlag(code, AchievementSnapshot.FLAG_TREASURE));
+
+        assertEquals(code, AchievementSnapshot.intern(name, AchievementSnapshot.FLAG_TREASURE));
+        assertTrue(AchievementSnapshot.hasFlag(code, AchievementSnapshot.FLAG_TREASURE));
+        assertTrue(AchievementSnapshot.hasFlag(code, AchievementSnapshot.FLAG_ENADD));
+
+        // 之后不带标记的查询不会清除已合并的标记
+        assertEquals(code, AchievementSnapshot.codeOf(name));
+        assertEquals(code, AchievementSnapshot.intern(name, 0));
+        assertTrue(AchievementSnapshot.hasFlag(code, AchievementSnapshot.FLAG_TREASURE));
+        assertEquals(name, AchievementSnapshot.nameOf(code));
+        assertEquals("snapshot_test_relic", AchievementSnapshot.keyOf(code));
+    }
+}
@@ -0,0 +1,232 @@
+package com.enadd.achievements;
+
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the journaled achievement store
+ */
+public class AchievementStoreTest {
+
+    private static PlayerAchievementData sample(int trees) {
+        PlayerAchievementData data = new PlayerAchievementData();
+        data.awardAchievement("first_enchant");
+        data.awardAchievement("tree_feller");
+        data.trackSeenEnchantment("sharpness");
+        data.trackUsedElement("fire");
+        data.trackBossKill("WITHER");
+        data.setCounter("trees_cut", trees);
+        data.setCurseStartTime(1_700_000_000_000L);
+        return data;
+    }
+
+    private static void assertSameData(PlayerAchievementData expected, PlayerAchievementData actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getAchievements(), actual.getAchievements());
+        assertEquals(expected.getSeenEnchantments(), actual.getSeenEnchantments());
+        assertEquals(expected.getUsedElements(), actual.getUsedElements());
+        assertEquals(expected.getBossesKilled(), actual.getBossesKilled());
+        assertEquals(expected.getCounters(), actual.getCounters());
+        assertEquals(expected.getCurseStartTime(), actual.getCurseStartTime());
+        assertFalse(actual.isDirty());
+    }
+
+    @Test
+    void testRecordsSurviveCrashAndCompaction() throws IOException {
+        File dir = Files.createTempDirectory("achievements").toFile();
+        UUID alice = new UUID(1, 2);
+        UUID bob = new UUID(3, 4);
+        PlayerAchievementData aliceData = sample(12);
+        PlayerAchievementData bobData = sample(400);
+        bobData.trackSeenEnchantment("frost_walker_plus");
+
+        AchievementStore store = new AchievementStore(dir, 1 << 20);
+        assertTrue(store.open());
+        assertNull(store.load(alice));
+        assertEquals(2, store.flush(Map.of(alice, aliceData, bob, bobData)));
+        // 没有修改时不再写入
+        assertEquals(0, store.flush(Map.of(alice, aliceData, bob, bobData)));
+
+        // 不关闭，模拟崩溃：只能从日志恢复
+        store = new AchievementStore(dir, 1 << 20);
+        assertTrue(store.open());
+        assertEquals(0, store.getGeneration());
+        assertSameData(aliceData, store.load(alice));
+        assertSameData(bobData, store.load(bob));
+
+        aliceData.incrementCounter("trees_cut");
+        assertEquals(1, store.flush(Map.of(alice, aliceData)));
+        assertTrue(store.compact());
+        assertEquals(1, store.getGeneration());
+        store.close();
+
+        store = new AchievementStore(dir, 1 << 20);
+        assertTrue(store.open());
+        assertEquals(2, store.getRecordCount());
+        assertSameData(aliceData, store.load(alice));
+        assertSameData(bobData, store.load(bob));
+        store.close();
+    }
+
+    @Test
+    void testCorruptJournalTailKeepsEarlierEntries() throws IOException {
+        File dir = Files.createTempDirectory("achievements").toFile();
+        UUID alice = new UUID(5, 6);
+        UUID bob = new UUID(7, 8);
+        PlayerAchievementData aliceData = sample(1);
+        PlayerAchievementData bobData = sample(2);
+
+        AchievementStore store = new AchievementStore(dir, 1 << 20);
+        assertTrue(store.open());
+        store.flush(Map.of(alice, aliceData));
+        store.flush(Map.of(bob, bobData));
+
+        // Bob 的记录是日志最后一条，改坏它的最后一个字节
+        File journal = new File(dir, "journal.bin");
+        try (RandomAccessFile file = new RandomAccessFile(journal, "rw")) {
+            file.seek(file.length() - 1);
+            int last = file.read();
+            file.seek(file.length() - 1);
+            file.write(last ^ 0xFF);
+        }
+
+        store = new AchievementStore(dir, 1 << 20);
+        assertTrue(store.open());
+        assertEquals(1, store.getCorruptEntries());
+        assertSameData(aliceData, store.load(alice));
+        assertNull(store.load(bob));
+        assertEquals(store.getJournalBytes(), journal.length());
+
+        // 截断后继续追加，重新打开仍然完整
+        bobData.markDirty();
+        assertEquals(1, store.flush(Map.of(bob, bobData)));
+        store.close();
+        store = new AchievementStore(dir, 1 << 20);
+        assertTrue(store.open());
+        assertEquals(0, store.getCorruptEntries());
+        assertSameData(bobData, store.load(bob));
+        store.close();
+    }
+
+    @Test
+    void testCorruptSnapshotFallsBackToKeptGeneration() throws IOException {
+        File dir = Files.createTempDirectory("achievements").toFile();
+        UUID alice = new UUID(9, 10);
+        UUID bob = new UUID(11, 12);
+        UUID carol = new UUID(13, 14);
+        PlayerAchievementData aliceData = sample(1);
+
+        AchievementStore store = new AchievementStore(dir, 1 << 20);
+        assertTrue(store.open());
+        store.flush(Map.of(alice, aliceData));
+        assertTrue(store.compact());
+
+        // 第二代引入新符号，之后的日志记录引用它但日志里没有新的符号条目
+        PlayerAchievementData bobData = sample(2);
+        bobData.trackSeenEnchantment("soul_harvest");
+        store.flush(Map.of(bob, bobData));
+        assertTrue(store.compact());
+        PlayerAchievementData carolData = sample(3);
+        carolData.trackSeenEnchantment("soul_harvest");
+        store.flush(Map.of(carol, carolData));
+        assertEquals(2, store.getGeneration());
+        assertTrue(new File(dir, "snapshot-1.bin").exists());
+
+        // 不关闭，改坏最新快照
+        File latest = new File(dir, "snapshot-2.bin");
+        try (RandomAccessFile file = new RandomAccessFile(latest, "rw")) {
+            file.seek(20);
+            int value = file.read();
+            file.seek(20);
+            file.write(value ^ 0xFF);
+        }
+
+        store = new AchievementStore(dir, 1 << 20);
+        assertTrue(store.open());
+        assertEquals(1, store.getCorruptEntries());
+        assertEquals(2, store.getGeneration());
+        assertSameData(aliceData, store.load(alice));
+        // 只在损坏快照里的记录丢失，日志中的记录仍能解码出第二代的符号
+        assertNull(store.load(bob));
+        assertSameData(carolData, store.load(carol));
+        store.close();
+    }
+
+    @Test
+    void testJournalLeftBehindByCompactionIsReplayed() throws IOException {
+        File dir = Files.createTempDirectory("achievements").toFile();
+        UUID alice = new UUID(15, 16);
+        PlayerAchievementData aliceData = sample(7);
+
+        AchievementStore store = new AchievementStore(dir, 1 << 20);
+        assertTrue(store.open());
+        store.flush(Map.of(alice, aliceData));
+        File journal = new File(dir, "journal.bin");
+        byte[] before = Files.readAllBytes(journal.toPath());
+        assertTrue(store.compact());
+
+        // 模拟新快照落盘后、日志重置前退出：留下上一代日志
+        Files.write(journal.toPath(), before);
+        store = new AchievementStore(dir, 1 << 20);
+        assertTrue(store.open());
+        assertEquals(1, store.getGeneration());
+        assertEquals(0, store.getCorruptEntries());
+        assertSameData(aliceData, store.load(alice));
+        store.close();
+    }
+
+    @Test
+    void testJournalResetGoesThroughTempFile() throws IOException {
+        File dir = Files.createTempDirectory("achievements").toFile();
+        UUID alice = new UUID(19, 20);
+        UUID bob = new UUID(21, 22);
+        PlayerAchievementData aliceData = sample(3);
+        PlayerAchievementData bobData = sample(9);
+        File temp = new File(dir, "journal.bin.tmp");
+
+        AchievementStore store = new AchievementStore(dir, 1 << 20);
+        assertTrue(store.open());
+        store.flush(Map.of(alice, aliceData));
+        assertTrue(store.compact());
+        assertFalse(temp.exists());
+
+        // 替换后的新日志继续追加，不关闭即模拟崩溃
+        assertEquals(1, store.flush(Map.of(bob, bobData)));
+
+        // 模拟下一次重置写临时文件途中崩溃：journal.bin 不受影响
+        Files.write(temp.toPath(), new byte[] {1, 2, 3});
+        store = new AchievementStore(dir, 1 << 20);
+        assertTrue(store.open());
+        assertEquals(0, store.getCorruptEntries());
+        assertSameData(aliceData, store.load(alice));
+        assertSameData(bobData, store.load(bob));
+        assertTrue(store.compact());
+        assertFalse(temp.exists());
+        store.close();
+    }
+
+    @Test
+    void testCloseWithoutWritesDoesNotCompact() throws IOException {
+        File dir = Files.createTempDirectory("achievements").toFile();
+        AchievementStore store = new AchievementStore(dir, 1 << 20);
+        assertTrue(store.open());
+        store.flush(Map.of(new UUID(17, 18), sample(1)));
+        store.close();
+
+        store = new AchievementStore(dir, 1 << 20);
+        assertTrue(store.open());
+        assertEquals(1, store.getGeneration());
+        store.close();
+        store = new AchievementStore(dir, 1 << 20);
+        assertTrue(store.open());
+        assertEquals(1, store.getGeneration());
+        store.close();
+    }
+}
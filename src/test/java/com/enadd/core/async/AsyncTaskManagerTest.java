@@ -0,0 +1,128 @@
+package com.enadd.core.async;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncTaskManagerTest {
+
+    private AsyncTaskManager manager;
+    private CountDownLatch release;
+
+    @BeforeEach
+    public void setUp() {
+        // 单个排空线程，先用一个阻塞任务占住它，之后提交的任务都留在队列里
+        manager = new AsyncTaskManager(ExecutionLayer.getInstance().cpu("test-async-tasks"), 1);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        manager.shutdown();
+    }
+
+    private void blockDrainer() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        manager.submitAsync(AsyncTaskManager.TaskClass.CRITICAL, () -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (manager.getActiveTaskCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, manager.getActiveTaskCount());
+    }
+
+    @Test
+    public void testCriticalDrainsBeforeNormalBeforeBestEffort() throws Exception {
+        blockDrainer();
+        List<String> order = new CopyOnWriteArrayList<>();
+        manager.submitAsync(AsyncTaskManager.TaskClass.BEST_EFFORT, () -> order.add("best-effort"));
+        manager.submitAsync(AsyncTaskManager.TaskClass.NORMAL, () -> order.add("normal-1"));
+        manager.submitAsync(AsyncTaskManager.TaskClass.CRITICAL, () -> order.add("critical"));
+        manager.submitAsync(AsyncTaskManager.TaskClass.NORMAL, () -> order.add("normal-2"));
+
+        release.countDown();
+        awaitIdle();
+        assertEquals(List.of("critical", "normal-1", "normal-2", "best-effort"), order);
+    }
+
+    @Test
+    public void testBestEffortIsShedUnderPressure() throws Exception {
+        blockDrainer();
+        AtomicInteger ran = new AtomicInteger();
+        // CRITICAL + NORMAL 积压达到水位（NORMAL 容量的 3/4）
+        for (int i = 0; i < AsyncTaskManager.TaskClass.NORMAL.getCapacity() * 3 / 4; i++) {
+            manager.submitAsync(AsyncTaskManager.TaskClass.NORMAL, () -> {});
+        }
+
+        assertEquals(-1L, manager.submitAsync(AsyncTaskManager.TaskClass.BEST_EFFORT, ran::incrementAndGet));
+        assertEquals(-1L, manager.submitCoalesced("metrics", ran::incrementAndGet));
+        AsyncTaskManager.ClassStats stats = manager.getStats().getClassStats(AsyncTaskManager.TaskClass.BEST_EFFORT);
+        assertEquals(2, stats.getShed());
+        assertEquals(0, stats.getQueued());
+
+        release.countDown();
+        awaitIdle();
+        assertEquals(0, ran.get());
+
+        // 被丢弃的合并任务不再占用合并键，同键提交重新排队并执行
+        CountDownLatch done = new CountDownLatch(1);
+        assertTrue(manager.submitCoalesced("metrics", done::countDown) > 0);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, manager.getStats().getClassStats(AsyncTaskManager.TaskClass.BEST_EFFORT).getCoalesced());
+    }
+
+    @Test
+    public void testBestEffortIsShedWhenItsQueueIsFull() throws Exception {
+        blockDrainer();
+        for (int i = 0; i < AsyncTaskManager.TaskClass.BEST_EFFORT.getCapacity(); i++) {
+            assertTrue(manager.submitAsync(AsyncTaskManager.TaskClass.BEST_EFFORT, () -> {}) > 0);
+        }
+        assertEquals(-1L, manager.submitAsync(AsyncTaskManager.TaskClass.BEST_EFFORT, () -> {}));
+        assertEquals(1, manager.getStats().getClassStats(AsyncTaskManager.TaskClass.BEST_EFFORT).getShed());
+    }
+
+    @Test
+    public void testCoalescedSubmissionsKeepOnlyTheLatest() throws Exception {
+        blockDrainer();
+        List<String> ran = new CopyOnWriteArrayList<>();
+        long first = manager.submitCoalesced("export", () -> ran.add("first"));
+        long second = manager.submitCoalesced("export", () -> ran.add("second"));
+        long other = manager.submitCoalesced("other", () -> ran.add("other"));
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+        assertEquals(1, manager.getStats().getClassStats(AsyncTaskManager.TaskClass.BEST_EFFORT).getCoalesced());
+
+        release.countDown();
+        awaitIdle();
+        assertEquals(List.of("second", "other"), ran);
+
+        // 已执行的任务不再合并，同键提交排成新任务
+        CountDownLatch done = new CountDownLatch(1);
+        long third = manager.submitCoalesced("export", done::countDown);
+        assertNotEquals(first, third);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.enadd.core.async;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutionLayerTest {
+
+    @Test
+    public void testBoundedLaneRejectsOverflow() throws Exception {
+        ExecutionLayer.Lane lane = ExecutionLayer.getInstance().cpu("test-bounded", 2);
+        CountDownLatch block = new CountDownLatch(1);
+        int rejected = 0;
+        try {
+            for (int i = 0; i < 10; i++) {
+                try {
+                    lane.execute(() -> awaitQuietly(block));
+                } catch (RejectedExecutionException e) {
+                    rejected++;
+                }
+            }
+        } finally {
+            block.countDown();
+        }
+
+        assertTrue(rejected > 0);
+        assertEquals(rejected, lane.getStats().getRejected());
+        lane.close();
+    }
+
+    @Test
+    public void testSerialExecutorKeepsSubmissionOrder() throws Exception {
+        Executor serial = ExecutionLayer.getInstance().cpu("test-serial").serial();
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(500);
+        for (int i = 0; i < 500; i++) {
+            int value = i;
+            serial.execute(() -> {
+                order.add(value);
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, order.get(i));
+        }
+    }
+
+    @Test
+    public void testClosedLaneRejectsAndIsReplaced() {
+        ExecutionLayer layer = ExecutionLayer.getInstance();
+        ExecutionLayer.Lane lane = layer.cpu("test-closed");
+        lane.close();
+
+        assertThrows(RejectedExecutionException.class, () -> lane.execute(() -> { }));
+        assertFalse(layer.cpu("test-closed").isClosed());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
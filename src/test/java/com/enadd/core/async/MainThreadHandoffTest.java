@@ -0,0 +1,105 @@
+package com.enadd.core.async;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MainThreadHandoffTest {
+
+    @Test
+    public void testPerProducerOrderIsKept() throws Exception {
+        MainThreadHandoff handoff = new MainThreadHandoff();
+        List<List<Integer>> seen = new ArrayList<>();
+        Thread[] producers = new Thread[4];
+        for (int p = 0; p < producers.length; p++) {
+            List<Integer> values = new ArrayList<>();
+            seen.add(values);
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    int value = i;
+                    handoff.submit(() -> values.add(value));
+                }
+            });
+            producers[p].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        while (handoff.getDepth() > 0) {
+            handoff.drain();
+        }
+
+        for (List<Integer> values : seen) {
+            assertEquals(5000, values.size());
+            for (int i = 0; i < values.size(); i++) {
+                assertEquals(i, values.get(i));
+            }
+        }
+        assertEquals(20000, handoff.getStats().getExecuted());
+    }
+
+    @Test
+    public void testBudgetCarriesBacklogToNextTick() {
+        MainThreadHandoff handoff = new MainThreadHandoff();
+        AtomicInteger ran = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            handoff.submit(() -> {
+                ran.incrementAndGet();
+                sleep(MainThreadHandoff.DEFAULT_BUDGET_MS + 1);
+            });
+        }
+
+        handoff.drain();
+        assertEquals(1, ran.get());
+        assertEquals(9, handoff.getDepth());
+        assertEquals(1, handoff.getStats().getBacklogTicks());
+    }
+
+    @Test
+    public void testFailureDoesNotStopDrain() {
+        MainThreadHandoff handoff = new MainThreadHandoff();
+        AtomicInteger ran = new AtomicInteger();
+        handoff.submit(() -> {
+            throw new IllegalStateException("boom");
+        });
+        handoff.submit(ran::incrementAndGet);
+
+        // 记录异常可能耗尽单 tick 预算，排空到队列为空为止
+        while (handoff.getDepth() > 0) {
+            handoff.drain();
+        }
+        assertEquals(1, ran.get());
+        assertEquals(1, handoff.getStats().getFailed());
+    }
+
+    @Test
+    public void testInlineSubmitDoesNotOvertakeQueuedTask() {
+        MainThreadHandoff handoff = new MainThreadHandoff();
+        List<String> order = new ArrayList<>();
+
+        // 后台提交的任务尚未排空，主线程提交的任务排在它后面
+        handoff.submit(() -> order.add("background"), false);
+        handoff.submit(() -> order.add("main"), true);
+        assertTrue(order.isEmpty());
+        assertEquals(2, handoff.getDepth());
+
+        handoff.drain();
+        assertEquals(List.of("background", "main"), order);
+
+        // 没有积压时直接执行
+        handoff.submit(() -> order.add("inline"), true);
+        assertEquals(List.of("background", "main", "inline"), order);
+        assertEquals(0, handoff.getDepth());
+        assertEquals(2, handoff.getStats().getMaxDepth());
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.enadd.core.cache;
+
+import org.junit.jupiter.api.Test;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheTimerWheelTest {
+
+    @Test
+    public void testCancelledTimeoutReleasesPayload() throws Exception {
+        CacheTimerWheel wheel = new CacheTimerWheel(16, 60_000L);
+        try {
+            Object payload = new byte[1 << 20];
+            WeakReference<Object> ref = new WeakReference<>(payload);
+            CacheTimerWheel.Timeout timeout = wheel.schedule(30 * 60_000L, payload::hashCode);
+            payload = null;
+
+            // 定时器仍在等待队列中，取消后不再持有回调捕获的对象
+            timeout.cancel();
+            assertTrue(timeout.isCancelled());
+            for (int i = 0; i < 20 && ref.get() != null; i++) {
+                System.gc();
+                Thread.sleep(10);
+            }
+            assertNull(ref.get());
+        } finally {
+            wheel.shutdown();
+        }
+    }
+
+    @Test
+    public void testDueTimeoutFires() throws Exception {
+        CacheTimerWheel wheel = new CacheTimerWheel(16, 10L);
+        try {
+            CountDownLatch fired = new CountDownLatch(1);
+            wheel.schedule(20L, fired::countDown);
+            CacheTimerWheel.Timeout cancelled = wheel.schedule(20L, () -> fail("cancelled timeout fired"));
+            cancelled.cancel();
+            assertTrue(fired.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+        } finally {
+            wheel.shutdown();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.enadd.core.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheWarmerTest {
+
+    @Test
+    public void testDependencyInheritsPriority() throws Exception {
+        List<String> order = new CopyOnWriteArrayList<>();
+        CacheWarmer warmer = new CacheWarmer("Test", 1);
+
+        warmer.addTask("low", CacheWarmer.Priority.LOW, () -> order.add("low"));
+        warmer.addTask("metadata", CacheWarmer.Priority.NORMAL, () -> order.add("metadata"));
+        warmer.addTask("catalog", CacheWarmer.Priority.CRITICAL, () -> order.add("catalog"), "metadata");
+
+        CacheWarmer.WarmupReport report = warmer.start().get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("metadata", "catalog", "low"), order);
+        assertEquals(3, report.count(CacheWarmer.Status.DONE));
+    }
+
+    @Test
+    public void testFailureSkipsDependents() throws Exception {
+        CacheWarmer warmer = new CacheWarmer("Test", 2);
+        warmer.addTask("broken", CacheWarmer.Priority.HIGH, () -> {
+            throw new IllegalStateException("boom");
+        });
+        warmer.addTask("child", CacheWarmer.Priority.NORMAL, () -> fail("should be skipped"), "broken");
+        warmer.addTask("grandchild", CacheWarmer.Priority.LOW, () -> fail("should be skipped"), "child");
+        warmer.addTask("independent", CacheWarmer.Priority.LOW, () -> { });
+
+        CacheWarmer.WarmupReport report = warmer.start().get(5, TimeUnit.SECONDS);
+
+        assertEquals(CacheWarmer.Status.FAILED, report.get("broken").getStatus());
+        assertEquals(CacheWarmer.Status.SKIPPED, report.get("child").getStatus());
+        assertEquals(CacheWarmer.Status.SKIPPED, report.get("grandchild").getStatus());
+        assertEquals(CacheWarmer.Status.DONE, report.get("independent").getStatus());
+    }
+
+    @Test
+    public void testAwaitPriorityRespectsDeadline() {
+        CacheWarmer warmer = new CacheWarmer("Test", 1);
+        warmer.addTask("slow", CacheWarmer.Priority.CRITICAL, () -> sleep(500));
+        warmer.start();
+
+        long begin = System.nanoTime();
+        assertFalse(warmer.awaitPriority(CacheWarmer.Priority.CRITICAL, 20));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin) < 400);
+        warmer.cancel();
+    }
+
+    @Test
+    public void testUnknownDependencyRejected() {
+        CacheWarmer warmer = new CacheWarmer("Test", 1);
+        assertThrows(IllegalArgumentException.class,
+            () -> warmer.addTask("child", CacheWarmer.Priority.NORMAL, () -> { }, "missing"));
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
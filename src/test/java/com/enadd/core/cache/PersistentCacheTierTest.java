@@ -0,0 +1,107 @@
+package com.enadd.core.cache;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentCacheTierTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testWarmRestartKeepsEntries() {
+        File file = tempDir.resolve("cache/derived.bin").toFile();
+        PersistentCacheTier tier = new PersistentCacheTier();
+
+        assertFalse(tier.open(file, 42L, 1 << 20));
+        tier.put("render:b", new byte[] {10, 5, -1});
+        tier.put("render:a", new byte[100]);
+        tier.put("render:a", new byte[8]);
+        tier.close();
+
+        assertTrue(tier.open(file, 42L, 1 << 20));
+        assertArrayEquals(new byte[] {10, 5, -1}, tier.get("render:b"));
+        assertEquals(8, tier.get("render:a").length);
+
+        assertEquals(1, tier.invalidatePrefix("render:a"));
+        tier.close();
+
+        assertTrue(tier.open(file, 42L, 1 << 20));
+        assertNull(tier.get("render:a"));
+        assertEquals(1, tier.getEntryCount());
+        tier.close();
+    }
+
+    @Test
+    public void testFingerprintMismatchStartsCold() {
+        File file = tempDir.resolve("derived.bin").toFile();
+        PersistentCacheTier tier = new PersistentCacheTier();
+        tier.open(file, 1L, 1 << 20);
+        tier.put("key", new byte[] {1, 2, 3});
+        tier.close();
+
+        assertFalse(tier.open(file, 2L, 1 << 20));
+        assertNull(tier.get("key"));
+        tier.close();
+    }
+
+    @Test
+    public void testOverwritesAreCompactedWithinLimit() {
+        File file = tempDir.resolve("derived.bin").toFile();
+        PersistentCacheTier tier = new PersistentCacheTier();
+        tier.open(file, 1L, 256 * 1024);
+
+        byte[] value = new byte[1000];
+        for (int i = 0; i < 2000; i++) {
+            assertTrue(tier.put("k" + (i % 50), value));
+        }
+        assertEquals(50, tier.getEntryCount());
+        assertTrue(tier.getUsedBytes() <= 256 * 1024);
+        tier.close();
+    }
+
+    @Test
+    public void testCorruptedRecordIsDropped() throws Exception {
+        File file = tempDir.resolve("derived.bin").toFile();
+        PersistentCacheTier tier = new PersistentCacheTier();
+        tier.open(file, 1L, 1 << 20);
+        tier.put("a", new byte[] {1, 2, 3});
+        tier.put("b", new byte[] {4, 5, 6});
+        tier.close();
+
+        // 第二条记录的值被改写：校验和不符，从该记录起截断
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            int second = 32 + 12 + 1 + 3;
+            raw.seek(second + 12 + 1);
+            raw.write(9);
+        }
+        assertTrue(tier.open(file, 1L, 1 << 20));
+        assertArrayEquals(new byte[] {1, 2, 3}, tier.get("a"));
+        assertNull(tier.get("b"));
+        assertEquals(1, tier.getEntryCount());
+        tier.close();
+    }
+
+    @Test
+    public void testOversizedKeyLengthIsRejected() throws Exception {
+        File file = tempDir.resolve("derived.bin").toFile();
+        PersistentCacheTier tier = new PersistentCacheTier();
+        tier.open(file, 1L, 1 << 20);
+        tier.put("a", new byte[] {1, 2, 3});
+        tier.close();
+
+        // 键长度接近 int 上限，不能溢出成负偏移
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(32);
+            raw.writeInt(Integer.MAX_VALUE - 4);
+        }
+        assertTrue(tier.open(file, 1L, 1 << 20));
+        assertEquals(0, tier.getEntryCount());
+        assertTrue(tier.put("c", new byte[] {7}));
+        tier.close();
+    }
+}
@@ -0,0 +1,77 @@
+package com.enadd.core.cache;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SegmentedLruCacheTest {
+
+    @Test
+    public void testEvictsProbationBeforeProtected() {
+        SegmentedLruCache<Integer, String> cache = new SegmentedLruCache<>(4, 2, 0, 0);
+        for (int i = 0; i < 4; i++) {
+            cache.put(i, "v" + i);
+        }
+
+        // 0 和 1 再次命中后晋升到保护段
+        cache.get(0);
+        cache.get(1);
+        cache.put(4, "v4");
+
+        assertNull(cache.peek(2), "试用段中最久未用的条目应被淘汰");
+        assertEquals("v0", cache.peek(0));
+        assertEquals("v1", cache.peek(1));
+        assertEquals(4, cache.size());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void testProtectedOverflowDemotes() {
+        SegmentedLruCache<Integer, String> cache = new SegmentedLruCache<>(4, 1, 0, 0);
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.get(1);
+        cache.get(2);
+
+        assertEquals(1, cache.getProtectedSize());
+        assertEquals(1, cache.getProbationSize());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testWeightBoundEvictsLargeEntries() {
+        SegmentedLruCache<String, String> cache =
+            new SegmentedLruCache<>(100, 50, 0, 0, 100, (key, value) -> value.length());
+        cache.put("a", "x".repeat(40));
+        cache.put("b", "x".repeat(40));
+        cache.put("c", "x".repeat(40));
+
+        // 总权重 120 > 100，淘汰试用段最久未用的 a
+        assertNull(cache.peek("a"));
+        assertEquals(80, cache.getWeightedSize());
+
+        // 超过总上限的单个条目不缓存
+        cache.put("huge", "x".repeat(200));
+        assertNull(cache.peek("huge"));
+        assertEquals(2, cache.size());
+
+        cache.remove("b");
+        assertEquals(40, cache.getWeightedSize());
+    }
+
+    @Test
+    public void testTwoLevelCacheStats() {
+        TwoLevelCache<String, String> cache = new TwoLevelCache<>(2, 8, 60000, 60000);
+        cache.put("a", "1");
+        assertEquals("1", cache.get("a"));
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("missing"));
+
+        TwoLevelCache.CacheStats stats = cache.getStats();
+        assertEquals(1, stats.l1Hits);
+        assertEquals(1, stats.l2Hits);
+        assertEquals(1, stats.misses);
+        assertEquals(1, stats.l2Size);
+        cache.clear();
+        assertNull(cache.get("a"));
+    }
+}
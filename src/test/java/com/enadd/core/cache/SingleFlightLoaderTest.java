@@ -0,0 +1,107 @@
+package com.enadd.core.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightLoaderTest {
+
+    @Test
+    public void testConcurrentMissesShareOneLoad() throws Exception {
+        SingleFlightLoader<String, String> loader = new SingleFlightLoader<>();
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            CompletableFuture<String> first = loader.loadAsync("k", k -> {
+                computations.incrementAndGet();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "value";
+            }, pool, null);
+
+            Future<String> joined = pool.submit(() -> loader.load("k", k -> {
+                computations.incrementAndGet();
+                return "other";
+            }, null));
+            CompletableFuture<String> second = loader.loadAsync("k", k -> "other", pool, null);
+
+            assertSame(first, second);
+            release.countDown();
+            assertEquals("value", first.get(5, TimeUnit.SECONDS));
+            assertEquals("value", joined.get(5, TimeUnit.SECONDS));
+            assertEquals(1, computations.get());
+            assertEquals(0, loader.getInFlightCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLoadWithoutWaitingDoesNotJoinInFlightLoad() throws Exception {
+        SingleFlightLoader<String, String> loader = new SingleFlightLoader<>();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<String> slow = loader.loadAsync("k", k -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "slow";
+            }, pool, null);
+
+            // 后台加载还没完成：不等待，在调用线程上单独计算
+            assertEquals("inline", loader.loadWithoutWaiting("k", k -> "inline", null));
+            assertFalse(slow.isDone());
+            assertEquals(2, loader.getLoads());
+            assertEquals(0, loader.getJoins());
+
+            release.countDown();
+            assertEquals("slow", slow.get(5, TimeUnit.SECONDS));
+            assertEquals("fresh", loader.loadWithoutWaiting("k", k -> "fresh", null));
+            assertEquals(0, loader.getInFlightCount());
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailureIsNotCached() {
+        SingleFlightLoader<String, String> loader = new SingleFlightLoader<>();
+        assertThrows(IllegalStateException.class, () -> loader.load("k", k -> {
+            throw new IllegalStateException("boom");
+        }, null));
+        assertEquals("ok", loader.load("k", k -> "ok", null));
+        assertEquals(1, loader.getFailures());
+    }
+
+    @Test
+    public void testStaleEntryServedWhileRefreshing() throws Exception {
+        CacheManager.Cache<String, Integer> cache =
+            CacheManager.getInstance().getCache("single-flight-test", 16, 60000);
+        cache.clear();
+        cache.setLoaderExecutor(Runnable::run);
+        cache.setRefreshAfter(1);
+
+        AtomicInteger version = new AtomicInteger();
+        assertEquals(1, cache.getOrCompute("k", k -> version.incrementAndGet()));
+        Thread.sleep(5);
+
+        // 软过期后返回旧值，同步执行器上的刷新已写回新值
+        assertEquals(1, cache.getOrCompute("k", k -> version.incrementAndGet()));
+        assertEquals(2, cache.get("k"));
+        assertEquals(2, cache.getOrComputeAsync("k2", k -> 2).get(1, TimeUnit.SECONDS));
+    }
+}
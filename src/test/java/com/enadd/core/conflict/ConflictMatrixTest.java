@@ -0,0 +1,144 @@
+package com.enadd.core.conflict;
+
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the compiled conflict bit matrix
+ */
+public class ConflictMatrixTest {
+
+    private static Map<String, Set<String>> group(String... ids) {
+        Map<String, Set<String>> rules = new HashMap<>();
+        for (String a : ids) {
+            for (String b : ids) {
+                if (!a.equals(b)) {
+                    rules.computeIfAbsent(a, k -> new HashSet<>()).add(b);
+                }
+            }
+        }
+        return rules;
+    }
+
+    @Test
+    void testSymmetricAndNoSelfBit() {
+        Map<String, Set<String>> rules = new HashMap<>();
+        // 只声明单向规则，矩阵应按对称处理
+        rules.put("enadd:a", new HashSet<>(Collections.singletonList("enadd:b")));
+        ConflictMatrix matrix = ConflictMatrix.compile(rules);
+
+        int a = matrix.indexOf("enadd:a");
+        int b = matrix.indexOf("enadd:b");
+        assertTrue(matrix.conflicts(a, b));
+        assertTrue(matrix.conflicts(b, a));
+        assertFalse(matrix.conflicts(a, a));
+        assertFalse(matrix.conflicts(a, -1));
+        assertEquals(-1, matrix.indexOf("enadd:missing"));
+        assertEquals(1, matrix.pairCount());
+    }
+
+    @Test
+    void testCountsAcrossWordBoundary() {
+        // 130 个附魔跨越三个 long，首尾两个附魔分别落在不同字上
+        Map<String, Set<String>> rules = new HashMap<>();
+        for (int i = 0; i < 130; i++) {
+            rules.put(String.format("enadd:e%03d", i), new HashSet<>());
+        }
+        rules.putAll(group("enadd:e000", "enadd:e070", "enadd:e129"));
+        ConflictMatrix matrix = ConflictMatrix.compile(rules);
+        assertEquals(3, matrix.words());
+
+        long[] mask = matrix.newMask();
+        ConflictMatrix.set(mask, matrix.indexOf("enadd:e000"));
+        ConflictMatrix.set(mask, matrix.indexOf("enadd:e129"));
+        ConflictMatrix.set(mask, matrix.indexOf("enadd:e050"));
+        assertTrue(matrix.hasConflicts(mask));
+        assertEquals(1, matrix.countConflicts(mask));
+
+        ConflictMatrix.set(mask, matrix.indexOf("enadd:e070"));
+        assertEquals(3, matrix.countConflicts(mask));
+        assertEquals(2, matrix.countConflicts(matrix.indexOf("enadd:e070"), mask));
+
+        long[] clean = matrix.newMask();
+        ConflictMatrix.set(clean, matrix.indexOf("enadd:e000"));
+        ConflictMatrix.set(clean, matrix.indexOf("enadd:e050"));
+        ConflictMatrix.set(clean, -1);
+        assertFalse(matrix.hasConflicts(clean));
+        assertEquals(0, matrix.countConflicts(clean));
+    }
+
+    @Test
+    void testManagerCountMatchesRules() {
+        EnchantmentConflictManager manager = EnchantmentConflictManager.getInstance();
+        if (!manager.isInitialized()) {
+            manager.initialize();
+        }
+        int total = 0;
+        for (Set<String> conflicts : manager.getConflictRules().values()) {
+            total += conflicts.size();
+        }
+        assertEquals(total / 2, manager.getTotalConflictCount());
+        assertTrue(manager.getConflictIndex("CRITICAL_STRIKE") >= 0);
+        assertEquals(-1, manager.getConflictIndex("  "));
+    }
+
+    @Test
+    void testCompiledTableIsSymmetric() {
+        EnchantmentConflictManager manager = EnchantmentConflictManager.getInstance();
+        if (!manager.isInitialized()) {
+            manager.initialize();
+        }
+        ConflictMatrix matrix = manager.getConflictMatrix();
+        assertTrue(matrix.size() > 0);
+        for (int a = 0; a < matrix.size(); a++) {
+            assertFalse(matrix.conflicts(a, a));
+            for (int b = a + 1; b < matrix.size(); b++) {
+                assertEquals(matrix.conflicts(a, b), matrix.conflicts(b, a), matrix.nameOf(a) + " / " + matrix.nameOf(b));
+            }
+        }
+    }
+
+    @Test
+    void testComponentsAndCliques() {
+        // a-b-c 链（非团），d-e 团，f 与其他附魔无关
+        Map<String, Set<String>> rules = new HashMap<>();
+        rules.putAll(group("enadd:a", "enadd:b"));
+        rules.computeIfAbsent("enadd:b", k -> new HashSet<>()).add("enadd:c");
+        rules.putAll(group("enadd:d", "enadd:e"));
+        rules.put("enadd:f", new HashSet<>());
+        ConflictGraph graph = ConflictGraph.build(ConflictMatrix.compile(rules));
+        ConflictMatrix matrix = graph.getMatrix();
+
+        int a = matrix.indexOf("enadd:a");
+        int c = matrix.indexOf("enadd:c");
+        int d = matrix.indexOf("enadd:d");
+        assertEquals(3, graph.getComponentCount());
+        assertEquals(graph.componentOf(a), graph.componentOf(c));
+        assertFalse(graph.isClique(graph.componentOf(a)));
+        assertTrue(graph.isClique(graph.componentOf(d)));
+        assertEquals(2, graph.cliques(graph.componentOf(a)).size());
+
+        // a 与 c 同分量但没有直接冲突，不应被归为一组
+        assertTrue(graph.groupsOf(new int[] {a, c}).isEmpty());
+
+        int[] forward = {a, matrix.indexOf("enadd:b"), c, d, matrix.indexOf("enadd:e"), -1};
+        int[] backward = {-1, matrix.indexOf("enadd:e"), d, c, matrix.indexOf("enadd:b"), a};
+        assertEquals(names(matrix, forward, graph.groupsOf(forward)), names(matrix, backward, graph.groupsOf(backward)));
+        assertEquals(Arrays.asList(Arrays.asList("enadd:a", "enadd:b", "enadd:c"), Arrays.asList("enadd:d", "enadd:e")),
+            names(matrix, forward, graph.groupsOf(forward)));
+    }
+
+    private static List<List<String>> names(ConflictMatrix matrix, int[] ids, List<int[]> groups) {
+        List<List<String>> result = new ArrayList<>();
+        for (int[] positions : groups) {
+            List<String> group = new ArrayList<>();
+            for (int position : positions) {
+                group.add(matrix.nameOf(ids[position]));
+            }
+            result.add(group);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,147 @@
+package com.enadd.core.conflict;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.enchantments.Enchantment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the signature-keyed SLRU memo of enchantment set analysis
+ */
+public class EnchantmentSetAnalyzerTest {
+
+    // 与 EnchantmentSetAnalyzer.MAX_ENTRIES 一致，保护段为一半
+    private static final int CAPACITY = 2048;
+
+    private EnchantmentSetAnalyzer analyzer;
+
+    @BeforeEach
+    void setUp() {
+        EnchantmentConflictManager manager = EnchantmentConflictManager.getInstance();
+        if (!manager.isInitialized()) {
+            manager.initialize();
+        }
+        analyzer = EnchantmentSetAnalyzer.getInstance();
+        analyzer.invalidateAll();
+    }
+
+    private static Enchantment enchantment(String id) {
+        NamespacedKey key = NamespacedKey.fromString(id);
+        return new Enchantment() {
+            @Override
+            public NamespacedKey getKey() {
+                return key;
+            }
+        };
+    }
+
+    private static Map<Enchantment, Integer> set(Object... idLevels) {
+        Map<Enchantment, Integer> result = new HashMap<>();
+        for (int i = 0; i < idLevels.length; i += 2) {
+            result.put(enchantment((String) idLevels[i]), (Integer) idLevels[i + 1]);
+        }
+        return result;
+    }
+
+    @Test
+    void testRepeatedSignatureHitsCache() {
+        long hits = analyzer.getHitCount();
+        long misses = analyzer.getMissCount();
+
+        EnchantmentSetAnalyzer.Analysis first = analyzer.analyze(set("minecraft:sharpness", 5, "minecraft:unbreaking", 3));
+        assertEquals(misses + 1, analyzer.getMissCount());
+        assertEquals(1, analyzer.getCachedCount());
+
+        // 不同的 Enchantment 实例、不同的插入顺序得到同一个签名
+        EnchantmentSetAnalyzer.Analysis second = analyzer.analyze(set("minecraft:unbreaking", 3, "minecraft:sharpness", 5));
+        assertSame(first, second);
+        assertEquals(hits + 1, analyzer.getHitCount());
+        assertEquals(misses + 1, analyzer.getMissCount());
+
+        // 等级不同是另一个签名
+        analyzer.analyze(set("minecraft:sharpness", 4, "minecraft:unbreaking", 3));
+        assertEquals(misses + 2, analyzer.getMissCount());
+        assertEquals(2, analyzer.getCachedCount());
+    }
+
+    @Test
+    void testHitPromotesAndScanEvictsProbationFirst() {
+        long evictions = analyzer.getEvictionCount();
+        Map<Enchantment, Integer> hot = set("minecraft:efficiency", 5, "minecraft:unbreaking", 3);
+        analyzer.analyze(hot);
+        assertEquals(0, analyzer.getProtectedCount());
+        analyzer.analyze(hot);
+        assertEquals(1, analyzer.getProtectedCount());
+
+        // 一次性扫描大量只出现一次的组合：都留在试用段，先于热点组合被淘汰
+        Map<Enchantment, Integer> firstCold = set("enadd:analyzer_test_scan", 1);
+        analyzer.analyze(firstCold);
+        for (int level = 2; level <= CAPACITY + 100; level++) {
+            analyzer.analyze(set("enadd:analyzer_test_scan", level));
+        }
+        assertEquals(CAPACITY, analyzer.getCachedCount());
+        assertEquals(1, analyzer.getProtectedCount());
+        assertTrue(analyzer.getEvictionCount() > evictions);
+
+        long hits = analyzer.getHitCount();
+        long misses = analyzer.getMissCount();
+        analyzer.analyze(hot);
+        assertEquals(hits + 1, analyzer.getHitCount());
+        analyzer.analyze(firstCold);
+        assertEquals(misses + 1, analyzer.getMissCount());
+    }
+
+    @Test
+    void testProtectedOverflowDemotesToProbation() {
+        // 保护段容量为总容量的一半，超出后最久未用的热点降回试用段而不是直接淘汰
+        int protectedCapacity = CAPACITY / 2;
+        for (int level = 1; level <= protectedCapacity + 10; level++) {
+            Map<Enchantment, Integer> entry = set("enadd:analyzer_test_hot", level);
+            analyzer.analyze(entry);
+            analyzer.analyze(entry);
+        }
+        assertEquals(protectedCapacity, analyzer.getProtectedCount());
+        assertEquals(protectedCapacity + 10, analyzer.getCachedCount());
+
+        long hits = analyzer.getHitCount();
+        analyzer.analyze(set("enadd:analyzer_test_hot", 1));
+        assertEquals(hits + 1, analyzer.getHitCount());
+    }
+
+    @Test
+    void testConflictBetweenExistingAndOffered() {
+        Map<Enchantment, Integer> existing = set("minecraft:sharpness", 5, "minecraft:unbreaking", 3);
+        Map<Enchantment, Integer> offered = set("minecraft:smite", 4);
+        Map<Enchantment, Integer> combined = new HashMap<>(existing);
+        combined.putAll(offered);
+
+        EnchantmentSetAnalyzer.Analysis current = analyzer.analyze(existing);
+        EnchantmentSetAnalyzer.Analysis offer = analyzer.analyze(offered);
+        EnchantmentSetAnalyzer.Analysis merged = analyzer.analyze(combined);
+        assertEquals(0, current.getConflictCount());
+        assertEquals(0, offer.getConflictCount());
+        assertEquals(1, merged.getConflictCount());
+        assertTrue(merged.hasConflictsBetween(current, offer));
+        assertFalse(merged.getConflictGroups().isEmpty());
+    }
+
+    @Test
+    void testConflictsInsideOnePartAreNotNew() {
+        // 已有的冲突（粘合剂允许的）在合并后仍然只算一次，不视为新冲突
+        Map<Enchantment, Integer> existing = set("minecraft:sharpness", 5, "minecraft:smite", 5);
+        Map<Enchantment, Integer> offered = set("minecraft:unbreaking", 3);
+        Map<Enchantment, Integer> combined = new HashMap<>(existing);
+        combined.putAll(offered);
+
+        EnchantmentSetAnalyzer.Analysis current = analyzer.analyze(existing);
+        EnchantmentSetAnalyzer.Analysis offer = analyzer.analyze(offered);
+        EnchantmentSetAnalyzer.Analysis merged = analyzer.analyze(combined);
+        assertEquals(1, current.getConflictCount());
+        assertEquals(1, merged.getConflictCount());
+        assertFalse(merged.hasConflictsBetween(current, offer));
+    }
+}
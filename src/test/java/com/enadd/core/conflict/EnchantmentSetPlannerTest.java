@@ -0,0 +1,165 @@
+package com.enadd.core.conflict;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the branch-and-bound enchantment set planner
+ */
+public class EnchantmentSetPlannerTest {
+
+    private EnchantmentConflictManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = EnchantmentConflictManager.getInstance();
+        if (!manager.isInitialized()) {
+            manager.initialize();
+        }
+    }
+
+    private static Set<String> ids(EnchantmentSetPlanner.Plan plan) {
+        Set<String> result = new HashSet<>();
+        for (EnchantmentSetPlanner.Candidate candidate : plan.getSelected()) {
+            result.add(candidate.getId());
+        }
+        return result;
+    }
+
+    @Test
+    void testNoBinderPicksIndependentSet() {
+        List<EnchantmentSetPlanner.Candidate> candidates = Arrays.asList(
+            new EnchantmentSetPlanner.Candidate("critical_strike", 5),
+            new EnchantmentSetPlanner.Candidate("precision_strike", 4),
+            new EnchantmentSetPlanner.Candidate("execution", 4),
+            new EnchantmentSetPlanner.Candidate("vampirism", 3)
+        );
+
+        EnchantmentSetPlanner.Plan plan = EnchantmentSetPlanner.plan(candidates, 0);
+        assertEquals(8, plan.getTotalValue());
+        assertEquals(new HashSet<>(Arrays.asList("critical_strike", "vampirism")), ids(plan));
+        assertEquals(0, plan.getConflictsUsed());
+        assertTrue(plan.isExact());
+    }
+
+    @Test
+    void testBinderAllowsLimitedConflicts() {
+        List<EnchantmentSetPlanner.Candidate> candidates = Arrays.asList(
+            new EnchantmentSetPlanner.Candidate("critical_strike", 5),
+            new EnchantmentSetPlanner.Candidate("precision_strike", 4),
+            new EnchantmentSetPlanner.Candidate("execution", 4),
+            new EnchantmentSetPlanner.Candidate("vampirism", 3)
+        );
+
+        // 1 级粘合剂允许 2 个冲突；三者互相冲突共 3 对，只能选其中两个
+        EnchantmentSetPlanner.Plan plan = EnchantmentSetPlanner.plan(candidates, 1);
+        assertEquals(12, plan.getTotalValue());
+        assertEquals(1, plan.getConflictsUsed());
+
+        EnchantmentSetPlanner.Plan all = EnchantmentSetPlanner.plan(candidates, 2);
+        assertEquals(16, all.getTotalValue());
+        assertEquals(3, all.getConflictsUsed());
+    }
+
+    @Test
+    void testMatchesBruteForce() {
+        List<String> pool = new ArrayList<>(manager.getConflictRules().keySet());
+        Collections.sort(pool);
+        Random random = new Random(42);
+
+        for (int round = 0; round < 50; round++) {
+            Collections.shuffle(pool, random);
+            int n = 8 + random.nextInt(8);
+            List<EnchantmentSetPlanner.Candidate> candidates = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                candidates.add(new EnchantmentSetPlanner.Candidate(pool.get(i), 1 + random.nextInt(20)));
+            }
+            int binderLevel = random.nextInt(3);
+
+            EnchantmentSetPlanner.Plan plan = EnchantmentSetPlanner.plan(candidates, binderLevel);
+            assertEquals(bruteForce(candidates, EnchantmentSetAnalyzer.allowedConflicts(binderLevel)), plan.getTotalValue(),
+                "round " + round);
+        }
+    }
+
+    private int bruteForce(List<EnchantmentSetPlanner.Candidate> candidates, int budget) {
+        int n = candidates.size();
+        int best = 0;
+        for (int set = 0; set < (1 << n); set++) {
+            int value = 0;
+            int conflicts = 0;
+            for (int i = 0; i < n; i++) {
+                if ((set & (1 << i)) == 0) continue;
+                value += candidates.get(i).getValue();
+                for (int j = i + 1; j < n; j++) {
+                    if ((set & (1 << j)) != 0
+                            && manager.areConflicting(candidates.get(i).getId(), candidates.get(j).getId())) {
+                        conflicts++;
+                    }
+                }
+            }
+            if (conflicts <= budget) {
+                best = Math.max(best, value);
+            }
+        }
+        return best;
+    }
+
+    @Test
+    void testIsolatedCandidatesBypassTruncation() {
+        List<EnchantmentSetPlanner.Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            candidates.add(new EnchantmentSetPlanner.Candidate("isolated_" + i, 10));
+        }
+        candidates.add(new EnchantmentSetPlanner.Candidate("critical_strike", 5));
+        candidates.add(new EnchantmentSetPlanner.Candidate("precision_strike", 4));
+
+        // 互不冲突的候选直接入选，只有 2 个冲突候选进入搜索，不会截断
+        EnchantmentSetPlanner.Plan plan = EnchantmentSetPlanner.plan(candidates, 0);
+        assertTrue(plan.isExact());
+        assertEquals(0, plan.getDroppedCandidates());
+        assertEquals(1005, plan.getTotalValue());
+        assertEquals(101, plan.getSelected().size());
+        assertTrue(ids(plan).contains("critical_strike"));
+        assertFalse(ids(plan).contains("precision_strike"));
+    }
+
+    @Test
+    void testTooManyContestedCandidatesIsReportedApproximate() {
+        List<EnchantmentSetPlanner.Candidate> candidates = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> entry : manager.getConflictRules().entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                candidates.add(new EnchantmentSetPlanner.Candidate(entry.getKey(), 1));
+            }
+        }
+        org.junit.jupiter.api.Assumptions.assumeTrue(candidates.size() > EnchantmentSetPlanner.MAX_CANDIDATES);
+
+        EnchantmentSetPlanner.Plan plan = EnchantmentSetPlanner.plan(candidates, 0);
+        assertFalse(plan.isExact());
+        assertTrue(plan.getDroppedCandidates() > 0);
+    }
+
+    @Test
+    void testThirtyCandidatesIsFast() {
+        List<String> pool = new ArrayList<>(manager.getConflictRules().keySet());
+        Collections.sort(pool);
+        List<EnchantmentSetPlanner.Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < 30 && i < pool.size(); i++) {
+            candidates.add(new EnchantmentSetPlanner.Candidate(pool.get(i), 1 + (i * 7) % 13));
+        }
+
+        // 预热后取多次平均
+        for (int i = 0; i < 200; i++) {
+            EnchantmentSetPlanner.plan(candidates, i % 4);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < 200; i++) {
+            assertTrue(EnchantmentSetPlanner.plan(candidates, i % 4).isExact());
+        }
+        long avgMicros = (System.nanoTime() - start) / 200 / 1000;
+        assertTrue(avgMicros < 5000, "Planning 30 candidates took " + avgMicros + "us on average");
+    }
+}
@@ -0,0 +1,54 @@
+package com.enadd.core.entity;
+
+import com.enadd.core.entity.impl.FrostAuraEntity;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityHandleTableTest {
+
+    @Test
+    public void testAllocateAndLookup() {
+        EntityHandleTable table = new EntityHandleTable();
+        FrostAuraEntity entity = new FrostAuraEntity();
+
+        long handle = table.allocate(entity);
+        assertNotEquals(EntityHandle.NONE, handle);
+        assertSame(entity, table.get(handle));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    public void testStaleHandleAfterSlotReuse() {
+        EntityHandleTable table = new EntityHandleTable();
+        long first = table.allocate(new FrostAuraEntity());
+        assertNotNull(table.release(first));
+
+        FrostAuraEntity reused = new FrostAuraEntity();
+        long second = table.allocate(reused);
+
+        // 同一槽位被复用，但代数不同，旧句柄必须失效
+        assertEquals(EntityHandle.index(first), EntityHandle.index(second));
+        assertNotEquals(EntityHandle.generation(first), EntityHandle.generation(second));
+        assertNull(table.get(first));
+        assertFalse(table.isValid(first));
+        assertNull(table.release(first));
+        assertSame(reused, table.get(second));
+    }
+
+    @Test
+    public void testGrowAndClear() {
+        EntityHandleTable table = new EntityHandleTable(16);
+        long[] handles = new long[100];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = table.allocate(new FrostAuraEntity());
+        }
+        assertEquals(100, table.size());
+        assertEquals(100, table.liveEntities().size());
+
+        table.clear();
+        assertEquals(0, table.size());
+        for (long handle : handles) {
+            assertNull(table.get(handle));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.enadd.core.entity;
+
+import com.enadd.core.entity.factory.EnchantmentEntityFactory;
+import com.enadd.core.entity.impl.FrostAuraEntity;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityLifecycleManagerTest {
+
+    @Test
+    public void testBorrowReturnLoopKeepsCountsFlat() {
+        EntityLifecycleManager manager = EntityLifecycleManager.getInstance();
+        EnchantmentEntityFactory factory = EnchantmentEntityFactory.getInstance();
+        factory.registerFactory("lifecycle_test", FrostAuraEntity::new);
+
+        // 预热：对象池第一次借出时可能新建实体
+        factory.returnEntity(factory.createEntity("lifecycle_test", "frost_aura", 1, ""));
+        int active = manager.getActiveEntityCount();
+        int created = manager.getTotalCreated();
+        int destroyed = manager.getTotalDestroyed();
+        int live = manager.getTotalEntityCount();
+
+        for (int i = 0; i < 1000; i++) {
+            FrostAuraEntity aura = factory.createEntity("lifecycle_test", "frost_aura", 1, "");
+            assertNotNull(aura);
+            assertEquals(active + 1, manager.getActiveEntityCount());
+            factory.returnEntity(aura);
+        }
+
+        assertEquals(active, manager.getActiveEntityCount());
+        assertEquals(created, manager.getTotalCreated());
+        assertEquals(destroyed, manager.getTotalDestroyed());
+        assertEquals(live, manager.getTotalEntityCount());
+    }
+
+    @Test
+    public void testDetachAndDestroyNotifyListeners() {
+        EntityLifecycleManager manager = EntityLifecycleManager.getInstance();
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger ended = new AtomicInteger();
+        EntityStateListener listener = new EntityStateListener() {
+            @Override
+            public void onEntityCreated(ManagedEntity entity) {
+                created.incrementAndGet();
+            }
+
+            @Override
+            public void onEntityDestroyed(ManagedEntity entity) {
+                ended.incrementAndGet();
+            }
+
+            @Override
+            public void onStateChanged(ManagedEntity entity, EntityState oldState, EntityState newState) {
+            }
+
+            @Override
+            public void onError(ManagedEntity entity, Exception error) {
+            }
+        };
+        manager.addListener(listener);
+        try {
+            int active = manager.getActiveEntityCount();
+
+            FrostAuraEntity detached = new FrostAuraEntity();
+            manager.registerEntity(detached);
+            detached.activate();
+            assertTrue(manager.detachEntity(detached));
+            // 句柄已失效，重复摘除不再扣减
+            assertFalse(manager.detachEntity(detached));
+
+            FrostAuraEntity destroyed = new FrostAuraEntity();
+            long handle = manager.registerEntity(destroyed);
+            destroyed.activate();
+            assertTrue(manager.destroyEntity(handle));
+
+            assertEquals(2, created.get());
+            assertEquals(2, ended.get());
+            assertEquals(active, manager.getActiveEntityCount());
+        } finally {
+            manager.removeListener(listener);
+        }
+    }
+}
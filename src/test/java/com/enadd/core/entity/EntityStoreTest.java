@@ -0,0 +1,152 @@
+package com.enadd.core.entity;
+
+import com.enadd.core.entity.factory.EnchantmentEntityFactory;
+import com.enadd.core.entity.impl.ChainLightningEntity;
+import com.enadd.core.entity.impl.FrostAuraEntity;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityStoreTest {
+
+    @Test
+    public void testAddAndUpdateByType() {
+        EntityStore store = new EntityStore();
+        FrostAuraEntity aura = new FrostAuraEntity();
+        aura.activate();
+        store.add(aura);
+        store.add(new ChainLightningEntity());
+
+        // 仅 ACTIVE/RUNNING 的实体会被更新
+        assertEquals(1, store.update(0.1f));
+        assertEquals(1, store.getCount(EntityType.PARTICLE));
+        assertEquals(1, store.getCount(EntityType.PROJECTILE));
+        assertTrue(aura.getProgress() > 0f);
+        store.shutdown();
+    }
+
+    @Test
+    public void testRemoveKeepsColumnsDense() {
+        EntityStore store = new EntityStore();
+        FrostAuraEntity first = new FrostAuraEntity();
+        FrostAuraEntity second = new FrostAuraEntity();
+        first.activate();
+        second.activate();
+        store.add(first);
+        store.add(second);
+        store.update(0f);
+
+        store.remove(first);
+        assertEquals(1, store.update(0.1f));
+        assertEquals(1, store.getTotalCount());
+        store.shutdown();
+    }
+
+    @Test
+    public void testParallelUpdateForThreadSafeType() {
+        EntityStore store = new EntityStore();
+        store.setParallelThreshold(64);
+        for (int i = 0; i < 500; i++) {
+            FrostAuraEntity aura = new FrostAuraEntity();
+            aura.activate();
+            store.add(aura);
+        }
+
+        assertTrue(EntityType.PARTICLE.isThreadSafe());
+        assertEquals(500, store.update(0.1f));
+        store.shutdown();
+        assertEquals(0, store.getTotalCount());
+    }
+
+    @Test
+    public void testSaturatedPoolFallsBackToInlineUpdate() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            assertTrue(EntityStore.hasIdleWorker(pool));
+
+            pool.execute(() -> {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // 唯一的工作线程被占用：不再把分治更新交给它
+            assertFalse(EntityStore.hasIdleWorker(pool));
+
+            release.countDown();
+            assertTrue(pool.awaitQuiescence(5, TimeUnit.SECONDS));
+            assertTrue(EntityStore.hasIdleWorker(pool));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testDeferredDeltaSurvivesReturnToEveryTick() {
+        EntityStore store = new EntityStore();
+        FrostAuraEntity aura = new FrostAuraEntity();
+        aura.activate();
+        store.add(aura);
+        store.setUpdatePeriodShift(aura, EntityStore.MAX_PERIOD_SHIFT);
+        store.update(0f);
+
+        for (int i = 0; i < 3; i++) {
+            store.update(0.1f);
+        }
+
+        // 周期降回每轮后，被跳过轮次累积的 delta 在下一轮一并传入
+        store.setUpdatePeriodShift(aura, 0);
+        store.update(0.1f);
+        assertEquals(0.4f / 2f, aura.getProgress(), 1e-5f);
+        store.shutdown();
+    }
+
+    @Test
+    public void testParallelReleaseIsDeferredToSweep() {
+        EntityLifecycleManager manager = EntityLifecycleManager.getInstance();
+        EnchantmentEntityFactory factory = EnchantmentEntityFactory.getInstance();
+        factory.registerFactory("release_test", FrostAuraEntity::new);
+        EntityStore store = manager.getStore();
+        int threshold = store.getParallelThreshold();
+        store.setParallelThreshold(64);
+        try {
+            List<FrostAuraEntity> auras = new ArrayList<>();
+            for (int i = 0; i < 80; i++) {
+                FrostAuraEntity aura = factory.createEntity("release_test", "frost_aura", 1, "");
+                assertEquals(EntityState.ACTIVE, aura.getState());
+                auras.add(aura);
+            }
+            store.update(0f);
+
+            // 一次推进超过持续时间：工作线程上的 update 只登记释放，不碰对象池和状态
+            store.update(5f);
+            assertEquals(80, manager.getPendingReleaseCount());
+            for (FrostAuraEntity aura : auras) {
+                assertEquals(EntityState.ACTIVE, aura.getState());
+                assertTrue(manager.isValidHandle(aura.getHandle()));
+            }
+
+            // 主线程清扫后摘除句柄并回收到池中
+            assertEquals(80, manager.sweepReleased());
+            assertEquals(0, manager.getPendingReleaseCount());
+            for (FrostAuraEntity aura : auras) {
+                assertEquals(EntityState.INIT, aura.getState());
+                assertFalse(manager.isValidHandle(aura.getHandle()));
+            }
+            assertTrue(factory.getPool("release_test").getAvailableCount() >= 80);
+        } finally {
+            store.setParallelThreshold(threshold);
+        }
+    }
+}
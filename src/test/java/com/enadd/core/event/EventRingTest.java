@@ -0,0 +1,98 @@
+package com.enadd.core.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventRingTest {
+
+    @Test
+    public void testFullRingReportsBackpressure() {
+        EventRing ring = new EventRing(8);
+        List<Long> values = new ArrayList<>();
+        ring.addConsumer("test", (record, sequence, endOfBatch) -> values.add(record.getValue()));
+
+        for (int i = 0; i < 8; i++) {
+            assertTrue(ring.publish("test", null, null, i));
+        }
+        assertFalse(ring.publish("test", null, null, 8));
+        assertEquals(1, ring.getBackpressureCount());
+
+        assertEquals(8, ring.drain(100));
+        assertTrue(ring.publish("test", null, null, 9));
+        assertEquals(1, ring.drain(100));
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 9L), values);
+    }
+
+    @Test
+    public void testConcurrentProducersDeliverInOrderPerProducer() throws Exception {
+        EventRing ring = new EventRing(1024);
+        int producers = 4;
+        int perProducer = 20000;
+        long[] last = new long[producers];
+        AtomicLong outOfOrder = new AtomicLong();
+        AtomicLong received = new AtomicLong();
+        ring.addConsumer("order", (record, sequence, endOfBatch) -> {
+            int producer = Integer.parseInt(record.getKey());
+            if (record.getValue() != last[producer] + 1) {
+                outOfOrder.incrementAndGet();
+            }
+            last[producer] = record.getValue();
+            received.incrementAndGet();
+        });
+        for (int i = 0; i < producers; i++) {
+            last[i] = -1;
+        }
+
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            String key = String.valueOf(p);
+            UUID id = UUID.randomUUID();
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.publish("test", id, key, i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            threads[p].start();
+        }
+
+        boolean alive = true;
+        while (alive || ring.getPending() > 0) {
+            ring.drain(256);
+            alive = false;
+            for (Thread thread : threads) {
+                alive |= thread.isAlive();
+            }
+        }
+        ring.drain(256);
+
+        assertEquals((long) producers * perProducer, received.get());
+        assertEquals(0, outOfOrder.get());
+    }
+
+    @Test
+    public void testSlowestConsumerGatesPublishers() {
+        EventRing ring = new EventRing(4);
+        AtomicLong fast = new AtomicLong();
+        ring.addConsumer("fast", (record, sequence, endOfBatch) -> fast.incrementAndGet());
+        ring.addConsumer("slow", (record, sequence, endOfBatch) -> {
+            throw new IllegalStateException("boom");
+        });
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.publish("test", null, null, i));
+        }
+        ring.drain(2);
+        assertEquals(2, fast.get());
+        assertEquals(2, ring.getPending());
+        assertTrue(ring.publish("test", null, null, 4));
+
+        EventRing.ConsumerStats slow = ring.getStats().getConsumers().get(1);
+        assertEquals(2, slow.getFailed());
+    }
+}
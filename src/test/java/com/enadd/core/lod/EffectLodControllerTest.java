@@ -0,0 +1,81 @@
+package com.enadd.core.lod;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EffectLodControllerTest {
+
+    private EffectLodController controller;
+
+    @BeforeEach
+    public void setUp() {
+        controller = EffectLodController.getInstance();
+        controller.loadSettings(null);
+        controller.setEnabled(false);
+        controller.setEnabled(true);
+    }
+
+    @Test
+    public void testDegradesImmediately() {
+        assertEquals(EffectQuality.FULL, controller.evaluate(20.0, 10));
+        assertEquals(EffectQuality.MINIMAL, controller.evaluate(47.0, 10));
+        assertEquals(EffectQuality.OFF, controller.evaluate(20.0, 300));
+    }
+
+    @Test
+    public void testRecoveryRequiresConsecutiveSamples() {
+        controller.evaluate(41.0, 10);
+        assertEquals(EffectQuality.REDUCED, controller.getCurrentTier());
+
+        controller.evaluate(20.0, 10);
+        controller.evaluate(20.0, 10);
+        assertEquals(EffectQuality.REDUCED, controller.getCurrentTier());
+        assertEquals(EffectQuality.FULL, controller.evaluate(20.0, 10));
+    }
+
+    @Test
+    public void testHysteresisBand() {
+        controller.evaluate(41.0, 10);
+        for (int i = 0; i < 10; i++) {
+            // 介于退出阈值和进入阈值之间时保持当前档位
+            assertEquals(EffectQuality.REDUCED, controller.evaluate(37.0, 10));
+        }
+    }
+
+    @Test
+    public void testRecoversOneTierAtATime() {
+        controller.evaluate(55.0, 10);
+        assertEquals(EffectQuality.OFF, controller.getCurrentTier());
+
+        for (int i = 0; i < 3; i++) {
+            controller.evaluate(10.0, 10);
+        }
+        assertEquals(EffectQuality.MINIMAL, controller.getCurrentTier());
+    }
+
+    @Test
+    public void testScaleParticles() {
+        assertEquals(10, controller.scaleParticles(10));
+        controller.evaluate(41.0, 10);
+        assertEquals(5, controller.scaleParticles(10));
+        assertEquals(1, controller.scaleParticles(1));
+        controller.evaluate(55.0, 10);
+        assertEquals(0, controller.scaleParticles(10));
+        assertFalse(controller.allowSounds());
+    }
+
+    @Test
+    public void testLightningDropsBeforeGlowing() {
+        assertTrue(controller.allowLightning());
+        assertTrue(controller.allowGlowing());
+
+        controller.evaluate(47.0, 10);
+        assertEquals(EffectQuality.MINIMAL, controller.getCurrentTier());
+        assertFalse(controller.allowLightning());
+        assertTrue(controller.allowGlowing());
+
+        controller.evaluate(55.0, 10);
+        assertFalse(controller.allowGlowing());
+    }
+}
@@ -0,0 +1,107 @@
+package com.enadd.core.pool;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MagazineDepotTest {
+
+    @Test
+    public void testLocalHitsAfterRelease() {
+        MagazineDepot<Object> depot = new MagazineDepot<>("test", 0, 64, 4);
+        assertNull(depot.take());
+
+        Object obj = new Object();
+        assertTrue(depot.put(obj));
+        assertSame(obj, depot.take());
+
+        PoolStatistics stats = depot.getStatistics();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0, stats.getDepotTransfers());
+    }
+
+    @Test
+    public void testDepotExchangeWhenMagazinesFull() {
+        MagazineDepot<Object> depot = new MagazineDepot<>("test", 0, 64, 4);
+
+        // 两个本地弹匣共 8 个位置，第 9 个对象触发一次整匣卸载
+        for (int i = 0; i < 9; i++) {
+            assertTrue(depot.put(new Object()));
+        }
+        assertEquals(9, depot.getIdleCount());
+        assertEquals(1, depot.getStatistics().getDepotUnloads());
+
+        for (int i = 0; i < 9; i++) {
+            assertNotNull(depot.take());
+        }
+        assertEquals(0, depot.getIdleCount());
+        assertEquals(1, depot.getStatistics().getDepotLoads());
+    }
+
+    @Test
+    public void testPrefillAndClear() {
+        MagazineDepot<Object> depot = new MagazineDepot<>("test", 4, 10, 4);
+        List<Object> objects = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            objects.add(new Object());
+        }
+
+        depot.prefill(objects);
+        assertEquals(10, depot.getIdleCount());
+        assertNotNull(depot.take());
+
+        depot.clear();
+        assertEquals(0, depot.getIdleCount());
+        assertNull(depot.take());
+    }
+
+    @Test
+    public void testObjectPoolUsesDepot() {
+        ObjectPool<StringBuilder> pool = new ObjectPool<>("builders", StringBuilder::new, 2, 8);
+        assertEquals(2, pool.size());
+
+        StringBuilder sb = pool.acquire();
+        assertNotNull(sb);
+        assertEquals(1, pool.size());
+
+        pool.release(sb);
+        assertEquals(2, pool.size());
+        assertTrue(pool.getStatistics().getHitRate() > 0);
+    }
+
+    @Test
+    public void testCountersFoldedFromOtherThreads() throws Exception {
+        MagazineDepot<Object> depot = new MagazineDepot<>("test", 0, 64, 4);
+
+        // 另一个线程借出 3 个、归还 1 个，没有发生仓库交换；线程退出后计数在调整时汇总，
+        // 它未满的本地弹匣随之丢弃
+        Thread worker = new Thread(() -> {
+            Object a = depot.take();
+            depot.take();
+            depot.take();
+            depot.put(a != null ? a : new Object());
+        });
+        worker.start();
+        worker.join();
+
+        depot.adjust();
+        assertEquals(2, depot.getOutstanding());
+        assertEquals(0, depot.getIdleCount());
+    }
+
+    @Test
+    public void testDeadThreadCachesAreEvicted() throws Exception {
+        MagazineDepot<Object> depot = new MagazineDepot<>("test", 0, 64, 4);
+        for (int i = 0; i < 20; i++) {
+            Thread worker = new Thread(() -> depot.put(new Object()));
+            worker.start();
+            worker.join();
+        }
+
+        // 新线程注册时回收已退出线程的弹匣，满弹匣以外的本地对象随线程一起丢弃
+        depot.put(new Object());
+        assertEquals(1, depot.getIdleCount());
+    }
+}
@@ -0,0 +1,121 @@
+package com.enadd.core.update;
+
+import com.enadd.core.entity.factory.EnchantmentEntityFactory;
+import com.enadd.core.entity.impl.ChainLightningEntity;
+import com.enadd.core.entity.impl.FrostAuraEntity;
+import com.enadd.core.entity.impl.ThunderSparkEntity;
+import com.enadd.core.lod.EffectLodController;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UpdateFrequencyControllerTest {
+
+    // 位于原点、朝 +X 方向看的玩家
+    private static final List<UpdateFrequencyController.Viewer> VIEWERS =
+            List.of(new UpdateFrequencyController.Viewer("world", 0, 0, 0, 1, 0, 0));
+
+    @Test
+    public void testDistanceBuckets() {
+        UpdateFrequencyController controller = UpdateFrequencyController.getInstance();
+
+        FrostAuraEntity near = new FrostAuraEntity();
+        near.setAnchor("world", 8, 0, 0);
+        FrostAuraEntity mid = new FrostAuraEntity();
+        mid.setAnchor("world", 24, 0, 0);
+        FrostAuraEntity far = new FrostAuraEntity();
+        far.setAnchor("world", 200, 0, 0);
+
+        assertEquals(UpdateBucket.EVERY_TICK, controller.classify(near, VIEWERS));
+        assertEquals(UpdateBucket.EVERY_2, controller.classify(mid, VIEWERS));
+        assertEquals(UpdateBucket.EVERY_8, controller.classify(far, VIEWERS));
+    }
+
+    @Test
+    public void testInvisibleEntitiesDropOneBucket() {
+        UpdateFrequencyController controller = UpdateFrequencyController.getInstance();
+
+        FrostAuraEntity behind = new FrostAuraEntity();
+        behind.setAnchor("world", -24, 0, 0);
+
+        assertEquals(UpdateBucket.EVERY_4, controller.classify(behind, VIEWERS));
+    }
+
+    @Test
+    public void testEntityTypeCapsAndMissingAnchor() {
+        UpdateFrequencyController controller = UpdateFrequencyController.getInstance();
+
+        // 投射物最多降到每 2 轮
+        ChainLightningEntity projectile = new ChainLightningEntity();
+        projectile.setAnchor("world", 500, 0, 0);
+        assertEquals(UpdateBucket.EVERY_2, controller.classify(projectile, VIEWERS));
+
+        // 其他世界没有玩家时使用类型允许的最低频率
+        FrostAuraEntity otherWorld = new FrostAuraEntity();
+        otherWorld.setAnchor("world_nether", 0, 0, 0);
+        assertEquals(UpdateBucket.EVERY_8, controller.classify(otherWorld, VIEWERS));
+
+        // 没有锚点的实体保持每轮更新
+        assertEquals(UpdateBucket.EVERY_TICK, controller.classify(new FrostAuraEntity(), VIEWERS));
+    }
+
+    @Test
+    public void testFactoryAnchorsCreatedEntities() {
+        UpdateFrequencyController controller = UpdateFrequencyController.getInstance();
+        EnchantmentEntityFactory factory = EnchantmentEntityFactory.getInstance();
+        boolean pooling = factory.isPoolingEnabled();
+        factory.setPoolingEnabled(false);
+        try {
+            factory.registerFactory("anchor_test", FrostAuraEntity::new);
+
+            // 远离所有玩家的锚点进入较慢的桶
+            FrostAuraEntity far = factory.createEntity("anchor_test", "frost_aura", 1, "", "world", 200, 0, 0);
+            assertNotNull(far);
+            assertTrue(far.hasAnchor());
+            assertEquals(UpdateBucket.EVERY_8, controller.classify(far, VIEWERS));
+
+            // 移动到玩家附近后恢复每轮更新
+            far.setAnchor("world", 8, 0, 0);
+            assertEquals(UpdateBucket.EVERY_TICK, controller.classify(far, VIEWERS));
+
+            FrostAuraEntity unanchored = factory.createEntity("anchor_test", "frost_aura", 1, "");
+            assertFalse(unanchored.hasAnchor());
+
+            factory.returnEntity(far);
+            factory.returnEntity(unanchored);
+        } finally {
+            factory.setPoolingEnabled(pooling);
+        }
+    }
+
+    @Test
+    public void testFactoryBindsSourceOfBuiltInEntities() {
+        UpdateFrequencyController controller = UpdateFrequencyController.getInstance();
+        EnchantmentEntityFactory factory = EnchantmentEntityFactory.getInstance();
+        boolean pooling = factory.isPoolingEnabled();
+        factory.setPoolingEnabled(false);
+        // 回到满质量档位，闪电类实体才会生成
+        EffectLodController.getInstance().setEnabled(false);
+        EffectLodController.getInstance().setEnabled(true);
+        try {
+            // 内置实体类型记录触发来源，远处的雷火花降到最慢的桶
+            ThunderSparkEntity spark = factory.createEntity("thunder_spark", "thunder_strike", 3, "player-1",
+                "world", 200, 0, 0);
+            assertNotNull(spark);
+            assertEquals("thunder_strike", spark.getEnchantmentId());
+            assertEquals(3, spark.getEnchantmentLevel());
+            assertEquals("player-1", spark.getSourcePlayerId());
+            assertEquals(UpdateBucket.EVERY_8, controller.classify(spark, VIEWERS));
+
+            // 未给出附魔 ID 时保留实体类型的默认值
+            FrostAuraEntity aura = factory.createEntity("frost_aura", null, 2, "player-2");
+            assertEquals("frost_aura", aura.getEnchantmentId());
+            assertEquals(2, aura.getEnchantmentLevel());
+
+            factory.returnEntity(spark);
+            factory.returnEntity(aura);
+        } finally {
+            factory.setPoolingEnabled(pooling);
+        }
+    }
+}
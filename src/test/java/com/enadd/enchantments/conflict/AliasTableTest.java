@@ -0,0 +1,67 @@
+package com.enadd.enchantments.conflict;
+
+import org.junit.jupiter.api.Test;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for Vose alias-table sampling
+ */
+public class AliasTableTest {
+
+    @Test
+    void testSampleFrequenciesMatchWeights() {
+        int[] weights = {10, 5, 5, 2, 1, 1, 0, 76};
+        AliasTable table = AliasTable.of(weights);
+        SplittableRandom random = new SplittableRandom(7);
+
+        int draws = 400_000;
+        int[] counts = new int[weights.length];
+        for (int i = 0; i < draws; i++) {
+            counts[table.sample(random)]++;
+        }
+
+        assertEquals(0, counts[6]);
+        for (int i = 0; i < weights.length; i++) {
+            double expected = (double) weights[i] / table.getTotalWeight();
+            assertEquals(expected, (double) counts[i] / draws, 0.005, "index " + i);
+        }
+    }
+
+    @Test
+    void testSampleDistinctWithoutReplacement() {
+        int[] weights = {50, 1, 1, 1, 0, 1, 1, 1, 1, 1};
+        AliasTable table = AliasTable.of(weights);
+        SplittableRandom random = new SplittableRandom(11);
+
+        int firstIsHeavy = 0;
+        for (int round = 0; round < 2000; round++) {
+            int[] picked = table.sampleDistinct(5, random);
+            assertEquals(5, picked.length);
+            Set<Integer> unique = new HashSet<>();
+            for (int index : picked) {
+                assertNotEquals(4, index);
+                assertTrue(unique.add(index));
+            }
+            if (picked[0] == 0) {
+                firstIsHeavy++;
+            }
+        }
+        // 第一次抽样的分布与放回抽样相同：50 / 58
+        assertEquals(50.0 / 58.0, firstIsHeavy / 2000.0, 0.03);
+
+        // 只有 9 个正权重下标，请求再多也只返回 9 个
+        assertEquals(9, table.sampleDistinct(20, random).length);
+        assertEquals(0, table.sampleDistinct(0, random).length);
+    }
+
+    @Test
+    void testRejectsEmptyWeights() {
+        assertThrows(IllegalArgumentException.class, () -> AliasTable.of(new int[0]));
+        assertThrows(IllegalArgumentException.class, () -> AliasTable.of(new int[] {0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> AliasTable.of(new int[] {3, -1}));
+    }
+}
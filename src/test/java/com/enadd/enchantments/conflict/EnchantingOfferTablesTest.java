@@ -0,0 +1,75 @@
+package com.enadd.enchantments.conflict;
+
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the precomputed (cost, modified level) outcome tables against the vanilla random process
+ */
+public class EnchantingOfferTablesTest {
+
+    // 单个结果概率与原版抽样的最大允许偏差
+    private static final double TOLERANCE = 0.0025;
+    private static final int SAMPLES = 1_000_000;
+
+    @Test
+    void testNoiseWeightsSumToScale() {
+        for (int base = 2; base <= 60; base++) {
+            int total = 0;
+            for (int weight : EnchantingOfferTables.noiseWeights(base)) {
+                assertTrue(weight >= 0, "base " + base);
+                total += weight;
+            }
+            assertEquals(EnchantingOfferTables.NOISE_SCALE, total, "base " + base);
+        }
+    }
+
+    @Test
+    void testOutcomesMatchVanilla() {
+        // {附魔能力, 书架数, 槽位}
+        int[][] cases = {{1, 0, 0}, {10, 0, 2}, {10, 15, 0}, {10, 15, 1}, {10, 15, 2}, {15, 8, 1}, {22, 15, 2}};
+        for (int[] c : cases) {
+            Map<Long, Integer> table = EnchantingOfferTables.outcomeWeights(c[0], c[1], c[2]);
+            long total = 0;
+            for (int weight : table.values()) {
+                total += weight;
+            }
+
+            Map<Long, Integer> sampled = sampleVanilla(c[0], c[1], c[2], new Random(31L * c[0] + 7L * c[1] + c[2]));
+            Set<Long> keys = new HashSet<>(table.keySet());
+            keys.addAll(sampled.keySet());
+            for (long key : keys) {
+                double expected = (double) table.getOrDefault(key, 0) / total;
+                double actual = (double) sampled.getOrDefault(key, 0) / SAMPLES;
+                assertEquals(expected, actual, TOLERANCE, String.format("enchantability=%d power=%d slot=%d cost=%d level=%d",
+                    c[0], c[1], c[2], key >> 32, (int) key));
+            }
+        }
+    }
+
+    /**
+     * 原版附魔台：槽位花费 + EnchantmentHelper 的修正等级计算（浮点运算与原版相同）
+     */
+    private static Map<Long, Integer> sampleVanilla(int enchantability, int power, int slot, Random random) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (int i = 0; i < SAMPLES; i++) {
+            int j = random.nextInt(8) + 1 + (power >> 1) + random.nextInt(power + 1);
+            int cost = slot == 0 ? Math.max(j / 3, 1) : slot == 1 ? j * 2 / 3 + 1 : Math.max(j, power * 2);
+            if (cost < slot + 1) {
+                counts.merge(EnchantingOfferTables.NO_OFFER, 1, Integer::sum);
+                continue;
+            }
+            int level = cost + 1 + random.nextInt(enchantability / 4 + 1) + random.nextInt(enchantability / 4 + 1);
+            float f = (random.nextFloat() + random.nextFloat() - 1.0F) * 0.15F;
+            level = Math.max(1, Math.round((float) level + (float) level * f));
+            counts.merge(((long) cost << 32) | level, 1, Integer::sum);
+        }
+        return counts;
+    }
+}
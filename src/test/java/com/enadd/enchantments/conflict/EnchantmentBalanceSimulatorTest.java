@@ -0,0 +1,66 @@
+package com.enadd.enchantments.conflict;
+
+import com.enadd.core.api.IEnchantmentConfig;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the parallel enchantment balance simulation
+ */
+public class EnchantmentBalanceSimulatorTest {
+
+    private static EnchantmentBalanceSimulator.Candidate candidate(String id, int weight) {
+        return EnchantmentBalanceSimulator.Candidate.withConfig(id, weight, IEnchantmentConfig.DEFAULT);
+    }
+
+    private static EnchantmentBalanceSimulator.Report run(EnchantmentBalanceSimulator simulator, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return simulator.run(pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testSameSeedIsIndependentOfThreadCount() {
+        List<EnchantmentBalanceSimulator.Candidate> candidates = Arrays.asList(
+            candidate("enadd:a", 10), candidate("enadd:b", 5), candidate("enadd:c", 2), candidate("enadd:d", 1));
+        EnchantmentBalanceSimulator simulator = new EnchantmentBalanceSimulator(candidates,
+            (x, y) -> (x.equals("enadd:a") && y.equals("enadd:b")) || (x.equals("enadd:b") && y.equals("enadd:a")),
+            EnchantmentBalanceSimulator.Settings.builder().seed(7).tableRolls(100_000).lootRolls(100_000).build());
+        assertEquals(1, simulator.getConflictPairCount());
+
+        EnchantmentBalanceSimulator.Report single = run(simulator, 1);
+        EnchantmentBalanceSimulator.Report parallel = run(simulator, 4);
+        for (EnchantmentBalanceSimulator.EnchantmentStats stats : single.getEnchantments()) {
+            EnchantmentBalanceSimulator.EnchantmentStats other = parallel.get(stats.getId());
+            assertEquals(stats.getTableHits(), other.getTableHits(), stats.getId());
+            assertEquals(stats.getLootHits(), other.getLootHits(), stats.getId());
+            assertEquals(stats.getRejections(), other.getRejections(), stats.getId());
+        }
+    }
+
+    @Test
+    void testRatesFollowWeightsAndConflictsAreRejected() {
+        // 两个互相冲突的附魔：每次只能得到一个，比例为权重比 3 : 1
+        List<EnchantmentBalanceSimulator.Candidate> candidates = Arrays.asList(
+            candidate("enadd:heavy", 3), candidate("enadd:light", 1));
+        EnchantmentBalanceSimulator simulator = new EnchantmentBalanceSimulator(candidates, (x, y) -> !x.equals(y),
+            EnchantmentBalanceSimulator.Settings.builder().seed(11).tableRolls(0).lootRolls(200_000).lootLevels(20, 30).build());
+        EnchantmentBalanceSimulator.Report report = run(simulator, 2);
+
+        EnchantmentBalanceSimulator.EnchantmentStats heavy = report.get("enadd:heavy");
+        EnchantmentBalanceSimulator.EnchantmentStats light = report.get("enadd:light");
+        assertEquals(0.0, report.getLootEmptyRate());
+        assertEquals(report.getLootRolls(), heavy.getLootHits() + light.getLootHits());
+        assertEquals(0.75, heavy.getLootRate(), 0.005);
+        assertTrue(heavy.getLootLow() < heavy.getLootRate() && heavy.getLootRate() < heavy.getLootHigh());
+        assertTrue(light.getBonusDraws() > 0);
+        assertEquals(1.0, light.getRejectionRate());
+    }
+}